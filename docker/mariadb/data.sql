@@ -2,6 +2,7 @@
 -- Insert IDGENERATOR data
 INSERT INTO IDGENERATOR (IDNAME, IDVALUE) VALUES ('ORDER', 1);
 INSERT INTO IDGENERATOR (IDNAME, IDVALUE) VALUES ('BACKORDER', 2);
+INSERT INTO IDGENERATOR (IDNAME, IDVALUE) VALUES ('MAILOUTBOX', 0);
 
 -- Insert CUSTOMER data
 INSERT INTO CUSTOMER (CUSTOMERID, PASSWORD, FIRSTNAME, LASTNAME, ADDR1, ADDR2, ADDRCITY, ADDRSTATE, ADDRZIP, PHONE)
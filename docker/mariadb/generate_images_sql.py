@@ -1,11 +1,15 @@
 #!/usr/bin/env python3
-# ABOUTME: One-time utility to generate SQL for loading product images into INVENTORY.IMGBYTES
-# ABOUTME: Reads images from Spring Boot static resources and outputs UPDATE statements
+# ABOUTME: One-time utility to generate SQL for loading product images into IMAGEBLOB/IMAGEVARIANT
+# ABOUTME: Reads images from Spring Boot static resources and outputs content-addressed INSERT statements
 
+import hashlib
 import os
 import sys
+import time
 from pathlib import Path
 
+CONTENT_TYPES = {'.jpg': 'image/jpeg', '.gif': 'image/gif', '.bmp': 'image/bmp'}
+
 def read_image_as_hex(image_path):
     """Read image file and return MySQL HEX format: X'...'"""
     with open(image_path, 'rb') as f:
@@ -37,13 +41,14 @@ def main():
 
     # Generate SQL statements
     statements = []
-    statements.append("-- Auto-generated SQL for loading product images into INVENTORY.IMGBYTES")
+    statements.append("-- Auto-generated SQL for loading product images into IMAGEBLOB and IMAGEVARIANT")
     statements.append("-- Generated by: docker/mariadb/generate_images_sql.py")
     statements.append("-- DO NOT EDIT THIS FILE MANUALLY - regenerate using the Python script")
     statements.append("")
 
     total_size = 0
     processed_count = 0
+    updated = int(time.time()) * 1000
 
     for image_file in sorted(image_files):
         filename = image_file.name
@@ -51,10 +56,17 @@ def main():
 
         # Convert to MySQL HEX format
         hex_data = read_image_as_hex(image_file)
-
-        # Generate UPDATE statement matching by IMAGE column
-        sql = f"UPDATE INVENTORY SET IMGBYTES = {hex_data} WHERE IMAGE = '{filename}';"
-        statements.append(sql)
+        with open(image_file, 'rb') as f:
+            content_hash = hashlib.sha256(f.read()).hexdigest()
+        content_type = CONTENT_TYPES.get(image_file.suffix.lower(), 'image/jpeg')
+
+        # Store the bytes once under their content hash, then point every
+        # inventory row showing this file at it as its original image
+        statements.append(f"INSERT IGNORE INTO IMAGEBLOB (IMGHASH, IMGBYTES) VALUES ('{content_hash}', {hex_data});")
+        statements.append(
+            "INSERT INTO IMAGEVARIANT (INVENTORYID, VARIANT, CONTENTTYPE, IMGHASH, IMGLENGTH, UPDATED) "
+            f"SELECT INVENTORYID, 'original', '{content_type}', '{content_hash}', {file_size}, {updated} "
+            f"FROM INVENTORY WHERE IMAGE = '{filename}';")
 
         total_size += file_size
         processed_count += 1
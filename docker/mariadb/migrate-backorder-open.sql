@@ -0,0 +1,20 @@
+-- Migrates a database created before BACKORDER.OPENINVENTORYID existed.
+-- Run it once, before starting the new version of the application:
+--   mysql plantsdb < migrate-backorder-open.sql
+-- New databases get the column and its index from schema.sql.
+
+ALTER TABLE BACKORDER ADD COLUMN OPENINVENTORYID VARCHAR(250)
+;
+
+-- Key each item's open (Order Stock) back order by its item. Should an item
+-- already have more than one, only the first is keyed, so the unique index
+-- can be built; the others stay listed for the administrator to order.
+UPDATE BACKORDER B
+	JOIN (SELECT INVENTORYID, MIN(BACKORDERID) AS BACKORDERID FROM BACKORDER
+		WHERE STATUS = 'Order Stock' AND INVENTORYID IS NOT NULL GROUP BY INVENTORYID) O
+	ON B.BACKORDERID = O.BACKORDERID
+	SET B.OPENINVENTORYID = B.INVENTORYID
+;
+
+CREATE UNIQUE INDEX UX_BACKORDER_OPEN ON BACKORDER (OPENINVENTORYID)
+;
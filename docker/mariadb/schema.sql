@@ -5,7 +5,8 @@ CREATE TABLE BACKORDER (
 		STATUS VARCHAR(250),
 		LOWDATE BIGINT NOT NULL,
 		ORDERDATE BIGINT NOT NULL,
-		SUPPLIERORDERID VARCHAR(250)
+		SUPPLIERORDERID VARCHAR(250),
+		OPENINVENTORYID VARCHAR(250)
 	)
 ;
 
@@ -28,7 +29,6 @@ CREATE TABLE INVENTORY (
 		DESCRIPTION VARCHAR(250),
 		PKGINFO VARCHAR(250),
 		IMAGE VARCHAR(250),
-		IMGBYTES BLOB(1048576),
 		PRICE REAL NOT NULL,
 		COST REAL NOT NULL,
 		CATEGORY INTEGER NOT NULL,
@@ -40,6 +40,37 @@ CREATE TABLE INVENTORY (
 	)
 ;
 
+CREATE TABLE IMAGEVARIANT (
+		INVENTORYID VARCHAR(250) NOT NULL,
+		VARIANT VARCHAR(250) NOT NULL,
+		CONTENTTYPE VARCHAR(250),
+		IMGHASH VARCHAR(250),
+		IMGLENGTH BIGINT NOT NULL,
+		UPDATED BIGINT NOT NULL
+	)
+;
+
+CREATE TABLE IMAGEBLOB (
+		IMGHASH VARCHAR(250) NOT NULL,
+		IMGBYTES BLOB(1048576)
+	)
+;
+
+CREATE TABLE MAILOUTBOX (
+		MAILID VARCHAR(250) NOT NULL,
+		ORDERID VARCHAR(250),
+		RECEIVER VARCHAR(250),
+		SUBJECT VARCHAR(250),
+		BODY VARCHAR(4000),
+		STATUS VARCHAR(250),
+		ATTEMPTS INTEGER NOT NULL,
+		CREATED BIGINT NOT NULL,
+		NEXTATTEMPT BIGINT NOT NULL,
+		SENT BIGINT NOT NULL,
+		LASTERROR VARCHAR(1000)
+	)
+;
+
 CREATE TABLE ORDERITEM (
 		INVENTORYID VARCHAR(250) NOT NULL,
 		NAME VARCHAR(250),
@@ -110,6 +141,25 @@ ALTER TABLE ORDERITEM ADD CONSTRAINT PK_ORDERITEM PRIMARY KEY (INVENTORYID, ORDE
 ALTER TABLE INVENTORY ADD CONSTRAINT PK_INVENTORY PRIMARY KEY (INVENTORYID)
 ;
 
+ALTER TABLE IMAGEVARIANT ADD CONSTRAINT PK_IMAGEVARIANT PRIMARY KEY (INVENTORYID, VARIANT)
+;
+
+ALTER TABLE IMAGEBLOB ADD CONSTRAINT PK_IMAGEBLOB PRIMARY KEY (IMGHASH)
+;
+
+ALTER TABLE MAILOUTBOX ADD CONSTRAINT PK_MAILOUTBOX PRIMARY KEY (MAILID)
+;
+
+CREATE INDEX IX_MAILOUTBOX_DUE ON MAILOUTBOX (STATUS, NEXTATTEMPT)
+;
+
+CREATE INDEX IX_INVENTORY_CATEGORY ON INVENTORY (CATEGORY, ISPUBLIC, INVENTORYID)
+;
+
+-- databases created without OPENINVENTORYID are brought up to date by migrate-backorder-open.sql
+CREATE UNIQUE INDEX UX_BACKORDER_OPEN ON BACKORDER (OPENINVENTORYID)
+;
+
 ALTER TABLE CUSTOMER ADD CONSTRAINT PK_CUSTOMER PRIMARY KEY (CUSTOMERID)
 ;
 
@@ -0,0 +1,99 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.ArrayList;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+/**
+ * The shopping cart as it was before it was indexed by inventory id: a list of
+ * Inventory copies that is scanned to find a line and re-summed for the subtotal.
+ * Kept only so ShoppingCartBenchmark has something to compare against.
+ */
+public class ArrayListCart
+{
+	private ArrayList<Inventory> items = new ArrayList<Inventory>();
+
+	public void addItem(Inventory new_item)
+	{
+		boolean added = false;
+		for (Inventory old_item : items)
+		{
+			if (old_item.getID().equals(new_item.getID()))
+			{
+				old_item.setQuantity(old_item.getQuantity() + new_item.getQuantity());
+				added = true;
+				break;
+			}
+		}
+		if (!added)
+			items.add(new_item);
+	}
+
+	public void setItemQuantity(String inventoryID, int quantity)
+	{
+		for (Inventory item : items)
+		{
+			if (item.getID().equals(inventoryID))
+			{
+				item.setQuantity(quantity);
+				break;
+			}
+		}
+	}
+
+	public void removeItem(Inventory item)
+	{
+		for (Inventory i : items)
+		{
+			if (item.equals(i))
+			{
+				items.remove(i);
+				break;
+			}
+		}
+	}
+
+	public void removeZeroQuantityItems()
+	{
+		ArrayList<Inventory> newItems = new ArrayList<Inventory>();
+		for (Inventory i : items)
+		{
+			if (i.getQuantity() > 0)
+			{
+				newItems.add(i);
+			}
+		}
+		items = newItems;
+	}
+
+	public float getSubtotalCost()
+	{
+		float f = 0.0F;
+		for (Inventory item : items)
+		{
+			f += item.getPrice() * (float)item.getQuantity();
+		}
+		return f;
+	}
+
+	public int getSize()
+	{
+		return items.size();
+	}
+}
@@ -0,0 +1,166 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.Query;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.BackOrderMgr;
+import com.ibm.websphere.samples.pbw.ejb.EmbeddedCatalog;
+import com.ibm.websphere.samples.pbw.jpa.BackOrder;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Back orders added to by 16 threads at once, each call in a transaction of
+ * its own, against an in-process H2 database:
+ * <ul>
+ * <li>upsert: BackOrderMgr.createBackOrder, a single UPDATE of the open back
+ * order, or an INSERT ... ON DUPLICATE KEY UPDATE when there is none;</li>
+ * <li>find: what createBackOrder did before, a SELECT of the open back order
+ * and an update of the entity, or an em.find of the item and a persist after
+ * catching NoResultException. When concurrent callers both find none, the
+ * second insert now fails on the unique key and that call is lost, where it
+ * used to open a duplicate.</li>
+ * </ul>
+ * items is how many inventory items the calls are spread over; with 1 every
+ * call waits for the row lock of the same back order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class BackOrderBenchmark
+{
+	private static final int ITEMS_PER_CATEGORY = 64;
+
+	@Param({ "upsert", "find" })
+	String method;
+
+	@Param({ "1", "64" })
+	int items;
+
+	private EmbeddedCatalog db;
+
+	@Setup(Level.Trial)
+	public void open()
+	{
+		Util.setDebug(false);
+		db = new EmbeddedCatalog(ITEMS_PER_CATEGORY);
+	}
+
+	@TearDown(Level.Trial)
+	public void close()
+	{
+		db.close();
+	}
+
+	/**
+	 * A caller with an EntityManager of its own, as each request has.
+	 */
+	@State(Scope.Thread)
+	public static class Caller
+	{
+		EntityManager em;
+		BackOrderMgr backOrders;
+		int next;
+
+		@Setup(Level.Trial)
+		public void open(BackOrderBenchmark bench)
+		{
+			em = bench.db.createEntityManager();
+			backOrders = bench.db.createBackOrderMgr(em);
+			next = (int) Thread.currentThread().getId();
+		}
+
+		@TearDown(Level.Trial)
+		public void close()
+		{
+			em.close();
+		}
+	}
+
+	@Benchmark
+	public void createBackOrder(Caller caller)
+	{
+		String inventoryID = String.format("B0%04d", caller.next++ % items);
+		caller.em.getTransaction().begin();
+		try
+		{
+			if (method.equals("upsert"))
+			{
+				caller.backOrders.createBackOrder(inventoryID, 1, 100);
+			}
+			else
+			{
+				findThenCreate(caller.em, inventoryID, 1, 100);
+			}
+			caller.em.getTransaction().commit();
+		}
+		catch (RuntimeException e)
+		{
+			// a lost call of the find method, which the old code swallowed too
+		}
+		finally
+		{
+			if (caller.em.getTransaction().isActive())
+			{
+				caller.em.getTransaction().rollback();
+			}
+			caller.em.clear();
+		}
+	}
+
+	// the former BackOrderMgr.createBackOrder, less its request logging
+	private static void findThenCreate(EntityManager em, String inventoryID, int amountToOrder, int maximumItems)
+	{
+		try
+		{
+			Query q = em.createNamedQuery("findByInventoryID");
+			q.setParameter("id", inventoryID);
+			BackOrder backOrder = (BackOrder) q.getSingleResult();
+			backOrder.setQuantity(backOrder.getQuantity() + amountToOrder);
+		}
+		catch (NoResultException e)
+		{
+			Util.debug("BackOrderMgr.createBackOrder() - BackOrder doesn't exist.{}", e);
+			Inventory inv = em.find(Inventory.class, inventoryID);
+			em.persist(new BackOrder(inv, maximumItems + amountToOrder));
+		}
+	}
+}
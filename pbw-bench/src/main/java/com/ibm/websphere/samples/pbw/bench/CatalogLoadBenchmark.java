@@ -0,0 +1,204 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.CatalogLoader;
+import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
+import com.ibm.websphere.samples.pbw.ejb.DatabaseImageBlobStore;
+import com.ibm.websphere.samples.pbw.ejb.EmbeddedCatalog;
+import com.ibm.websphere.samples.pbw.ejb.ImageBlobStore;
+import com.ibm.websphere.samples.pbw.ejb.ImageVariants;
+import com.ibm.websphere.samples.pbw.jpa.ImageVariant;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Time to load a generated catalog of rows items, all sharing one image, into
+ * an empty in-process H2 database in one transaction:
+ * <ul>
+ * <li>bulk: CatalogLoader, JDBC batches of chunk rows with the image
+ * rendered once on a pool of threads;</li>
+ * <li>row: what ResetDBBean.populateDB did before, CatalogMgr.addItem (a
+ * persist and flush) and setItemImageBytes (the image rendered again and its
+ * variants persisted) for every item.</li>
+ * </ul>
+ * Every flush of the row method checks all the items added before it, so its
+ * time grows with the square of rows; run it with -p rows=1000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CatalogLoadBenchmark
+{
+	private static final String IMAGE = "item.png";
+
+	@Param({ "bulk", "row" })
+	String method;
+
+	@Param({ "1000", "10000", "100000" })
+	int rows;
+
+	@Param({ "1000" })
+	int chunk;
+
+	private EmbeddedCatalog db;
+	private EntityManager em;
+	private Path images;
+	private byte[] image;
+
+	@Setup(Level.Trial)
+	public void open() throws IOException
+	{
+		Util.setDebug(false);
+		db = new EmbeddedCatalog(0);
+		em = db.createEntityManager();
+		images = Files.createTempDirectory("pbw-images");
+		BufferedImage source = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < 300; x++)
+		{
+			for (int y = 0; y < 300; y++)
+			{
+				source.setRGB(x, y, x * 0x10101 ^ y * 0x100);
+			}
+		}
+		ImageIO.write(source, "png", images.resolve(IMAGE).toFile());
+		image = Files.readAllBytes(images.resolve(IMAGE));
+	}
+
+	@Setup(Level.Invocation)
+	public void empty()
+	{
+		em.getTransaction().begin();
+		em.createNamedQuery("removeAllImageVariant").executeUpdate();
+		em.createNamedQuery("removeAllImageBlob").executeUpdate();
+		em.createNamedQuery("removeAllInventory").executeUpdate();
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void close() throws IOException
+	{
+		em.close();
+		db.close();
+		Files.delete(images.resolve(IMAGE));
+		Files.delete(images);
+	}
+
+	@Benchmark
+	public long load() throws SQLException, IOException
+	{
+		em.getTransaction().begin();
+		long loaded;
+		if (method.equals("bulk"))
+		{
+			CatalogLoader loader = new CatalogLoader(em.unwrap(Connection.class), new DatabaseImageBlobStore(em, null), images,
+					chunk, Runtime.getRuntime().availableProcessors(), Executors.defaultThreadFactory());
+			loaded = loader.load(records()).getRows();
+		}
+		else
+		{
+			loaded = addItems(db.createCatalogMgr(em, true), new DatabaseImageBlobStore(em, null));
+		}
+		em.getTransaction().commit();
+		em.clear();
+		return loaded;
+	}
+
+	// the former ResetDBBean.populateDB loop, less its debug logging
+	private long addItems(CatalogMgr catalog, ImageBlobStore store) throws IOException
+	{
+		long loaded = 0;
+		for (List<String> fields : records())
+		{
+			catalog.addItem(new Inventory(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5),
+					Float.parseFloat(fields.get(6)), Float.parseFloat(fields.get(7)), Integer.parseInt(fields.get(8)),
+					Integer.parseInt(fields.get(9)), fields.get(10), Boolean.parseBoolean(fields.get(11))));
+			// CatalogMgr.setItemImageBytes, whose blob store is only set up in the container
+			for (ImageVariants.Rendition rendition : ImageVariants.generate(fields.get(0), image))
+			{
+				ImageVariant variant = rendition.getVariant();
+				store.put(variant.getImgHash(), rendition.getBytes());
+				em.persist(variant);
+			}
+			loaded++;
+		}
+		return loaded;
+	}
+
+	private Iterable<List<String>> records()
+	{
+		return new Iterable<List<String>>() {
+			public Iterator<List<String>> iterator()
+			{
+				return new Iterator<List<String>>() {
+					private int next;
+
+					public boolean hasNext()
+					{
+						return next < rows;
+					}
+
+					public List<String> next()
+					{
+						String id = String.format("L%06d", next);
+						int category = next++ % EmbeddedCatalog.CATEGORIES;
+						return Arrays.asList(id, "Item " + id + " " + EmbeddedCatalog.WORDS[category], "Heading",
+								"Description", "Package", IMAGE, "9.99", "4.50", "100", String.valueOf(category), "notes", "true");
+					}
+
+					public void remove()
+					{
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+}
@@ -0,0 +1,116 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
+import com.ibm.websphere.samples.pbw.ejb.EmbeddedCatalog;
+import com.ibm.websphere.samples.pbw.ejb.SearchHit;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * CatalogMgr.searchItems, answered by the in-memory search index, next to the
+ * leading-wildcard LIKE query it replaced, for catalogs of 1,000 and 100,000 items.
+ *
+ * Debug logging is switched off so that the numbers are those of the search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogSearchBenchmark
+{
+	private static final int MAX_RESULTS = 20;
+
+	@Param({ "200", "20000" })
+	int itemsPerCategory;
+
+	private EmbeddedCatalog db;
+	private EntityManager em;
+	private CatalogMgr catalog;
+	private String itemID;
+
+	@Setup(Level.Trial)
+	public void open()
+	{
+		Util.setDebug(false);
+		db = new EmbeddedCatalog(itemsPerCategory);
+		em = db.createEntityManager();
+		catalog = db.createCatalogMgr(em, false);
+		itemID = String.format("B2%04d", itemsPerCategory / 2);
+	}
+
+	@TearDown(Level.Trial)
+	public void close()
+	{
+		em.close();
+		db.close();
+	}
+
+	/** A word naming a single item. */
+	@Benchmark
+	public List<SearchHit> searchExact()
+	{
+		return catalog.searchItems(itemID, MAX_RESULTS);
+	}
+
+	/** A partly typed word, matching a tenth of the catalog. */
+	@Benchmark
+	public List<SearchHit> searchPrefix()
+	{
+		return catalog.searchItems("bons", MAX_RESULTS);
+	}
+
+	/** Three words, the last partly typed, all required; together they match a fiftieth of the catalog. */
+	@Benchmark
+	public List<SearchHit> searchWords()
+	{
+		return catalog.searchItems("maple item b2", MAX_RESULTS);
+	}
+
+	/** The query searches used to run. */
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<Inventory> likeName()
+	{
+		return em.createQuery("select i from Inventory i where i.name like :name")
+				.setParameter("name", "%Bons%")
+				.setMaxResults(MAX_RESULTS)
+				.getResultList();
+	}
+}
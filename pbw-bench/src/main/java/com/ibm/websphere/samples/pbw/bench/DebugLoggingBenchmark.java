@@ -0,0 +1,199 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.utils.LogRing;
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Cost of the debug calls on the hot paths while debug is off. The concatenated
+ * form builds its message before Util.debug can check the flag; the template,
+ * supplier and RequestLogger forms should allocate nothing.
+ *
+ * The one exception is an int argument outside the Integer cache (-128 to 127),
+ * which javac boxes before the call and which C2 on JDK 17 does not eliminate;
+ * templateLargeInt shows that cost. Cart quantities, category numbers and list
+ * sizes are normally inside the cache.
+ *
+ * Run with the GC profiler to see the allocation per call:
+ *
+ * <pre>
+ * java -jar pbw-bench/target/benchmarks.jar DebugLoggingBenchmark -prof gc
+ * </pre>
+ *
+ * and compare gc.alloc.rate.norm, which is in bytes per operation.
+ *
+ * The *DebugOn benchmarks turn debug on and measure what a Util.debug call
+ * costs its caller when the line is printed on the calling thread
+ * (output=synchronous) and when it goes through RequestLogger's LogRing with
+ * either policy. Output is discarded, so this is the floor of the synchronous
+ * cost; a real console is slower.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebugLoggingBenchmark
+{
+	// not constants, so the concatenation cannot be folded away
+	String inventoryID = "F0017";
+	int quantity = 12;
+	int largeQuantity = 1234;
+
+	/**
+	 * Debug on, with Util.debug printing or recording in a ring. Set up per
+	 * iteration, so that it runs after the trial-level debugOff.
+	 */
+	@State(Scope.Benchmark)
+	public static class DebugOn
+	{
+		@Param({ "synchronous", "drop", "block" })
+		public String output;
+
+		private PrintStream console;
+		private LogRing previous;
+
+		@Setup(Level.Iteration)
+		public void start()
+		{
+			console = System.out;
+			PrintStream discard = new PrintStream(new OutputStream() {
+				public void write(int b)
+				{
+				}
+
+				public void write(byte[] b, int off, int len)
+				{
+				}
+			});
+			System.setOut(discard);
+			LogRing ring = null;
+			if (!output.equals("synchronous"))
+			{
+				ring = new LogRing(8192, output.equals("block") ? LogRing.Policy.BLOCK : LogRing.Policy.DROP, 256, discard);
+			}
+			previous = RequestLogger.setBackend(ring);
+			Util.setDebug(true);
+		}
+
+		@TearDown(Level.Iteration)
+		public void stop()
+		{
+			Util.setDebug(false);
+			LogRing ring = RequestLogger.setBackend(previous);
+			if (ring != null)
+			{
+				ring.close();
+			}
+			System.setOut(console);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void debugOff()
+	{
+		Util.setDebug(false);
+	}
+
+	@TearDown(Level.Trial)
+	public void debugOn()
+	{
+		Util.setDebug(true);
+	}
+
+	@Benchmark
+	public void concatenated()
+	{
+		Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: " + inventoryID
+				+ " quantity: " + quantity);
+	}
+
+	@Benchmark
+	public void template()
+	{
+		Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: {} quantity: {}",
+				inventoryID, quantity);
+	}
+
+	@Benchmark
+	public void templateLargeInt()
+	{
+		Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: {} quantity: {}",
+				inventoryID, largeQuantity);
+	}
+
+	@Benchmark
+	public void supplier()
+	{
+		final String id = inventoryID;
+		final int qty = largeQuantity;
+		Util.debug(() -> "BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: " + id
+				+ " quantity: " + qty);
+	}
+
+	@Benchmark
+	public void messageDebugOn(DebugOn debugOn)
+	{
+		Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder");
+	}
+
+	@Benchmark
+	public void templateDebugOn(DebugOn debugOn)
+	{
+		Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: {} quantity: {}",
+				inventoryID, quantity);
+	}
+
+	@Benchmark
+	public void ejbInvocation()
+	{
+		RequestLogger.logEJBInvocation("BackOrderMgr", "createBackOrder", inventoryID, quantity, quantity);
+	}
+
+	@Benchmark
+	public void ejbResult()
+	{
+		RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategory", "List[size={}]", quantity);
+	}
+
+	@Benchmark
+	public void databaseOperation()
+	{
+		RequestLogger.logDatabaseOperation("UPDATE", "BackOrder.quantity", inventoryID, quantity);
+	}
+}
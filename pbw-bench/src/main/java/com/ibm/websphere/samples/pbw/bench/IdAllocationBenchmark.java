@@ -0,0 +1,129 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.sessions.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.EmbeddedCatalog;
+import com.ibm.websphere.samples.pbw.jpa.IdSequencing;
+import com.ibm.websphere.samples.pbw.jpa.MailOutbox;
+import com.ibm.websphere.samples.pbw.jpa.Order;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Order ids taken by 64 threads at once, as by concurrent checkouts, against
+ * an in-process H2 database:
+ * <ul>
+ * <li>table-1: a row update of IDGENERATOR for every id;</li>
+ * <li>table-50: the JPA default block, which is what the entities asked for before;</li>
+ * <li>table-1000: the block now leased by default;</li>
+ * <li>time: time-ordered ids made in memory.</li>
+ * </ul>
+ * nextOrderId takes an id alone; queueMail persists and commits a MAILOUTBOX
+ * row, whose id comes from the same kind of sequence, in a transaction of its own.
+ *
+ * The database is in process, so a row update costs far less here than on a
+ * database server, and the table figures flatter the small blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class IdAllocationBenchmark
+{
+	@Param({ "table-1", "table-50", "table-1000", "time" })
+	String allocation;
+
+	private EmbeddedCatalog db;
+	private Session session;
+	private EntityManager em;
+
+	@Setup(Level.Trial)
+	public void open()
+	{
+		Util.setDebug(false);
+		Map<String, Object> settings = new HashMap<String, Object>();
+		if (allocation.startsWith(IdSequencing.GENERATOR_TABLE))
+		{
+			settings.put("pbw." + IdSequencing.GENERATOR, IdSequencing.GENERATOR_TABLE);
+			settings.put("pbw." + IdSequencing.BLOCK_SIZE, allocation.substring(allocation.indexOf('-') + 1));
+		}
+		else
+		{
+			settings.put("pbw." + IdSequencing.GENERATOR, IdSequencing.GENERATOR_TIME);
+			settings.put("pbw." + IdSequencing.NODE, "1");
+		}
+		db = new EmbeddedCatalog(0, settings);
+		em = db.createEntityManager();
+		session = em.unwrap(JpaEntityManager.class).getServerSession();
+	}
+
+	@TearDown(Level.Trial)
+	public void close()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Benchmark
+	public Number nextOrderId()
+	{
+		return session.getNextSequenceNumberValue(Order.class);
+	}
+
+	@Benchmark
+	public String queueMail()
+	{
+		EntityManager mailEm = db.createEntityManager();
+		try
+		{
+			mailEm.getTransaction().begin();
+			MailOutbox mail = new MailOutbox("1", "someone@example.com", "Order", "Thank you");
+			mailEm.persist(mail);
+			mailEm.getTransaction().commit();
+			return mail.getMailID();
+		}
+		finally
+		{
+			mailEm.close();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.ShoppingCartContent;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+/**
+ * The Inventory copy constructor, which the cart and the catalog cache run for
+ * every item they hand out, and ShoppingCartContent.getInventoryID(int), which
+ * every cart page calls once per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark
+{
+	@Param({ "10", "100", "1000" })
+	int lines;
+
+	private Inventory item;
+	private ShoppingCartContent content;
+
+	@Setup(Level.Trial)
+	public void fill()
+	{
+		content = new ShoppingCartContent();
+		for (int i = 0; i < lines; i++)
+		{
+			item = new Inventory(String.format("B%05d", i), "Item " + i, "Heading", "Description",
+					"Package", "item.jpg", 9.99f + i, 4.50f, 1 + i % 3, i % 4, "", true);
+			content.addItem(item);
+		}
+	}
+
+	@Benchmark
+	public Inventory copyInventory()
+	{
+		return new Inventory(item);
+	}
+
+	@Benchmark
+	public String getLastInventoryID()
+	{
+		return content.getInventoryID(lines - 1);
+	}
+
+	/*
+	 * Listing the cart by index, which is how the class is meant to be read.
+	 */
+	@Benchmark
+	public int getEveryInventoryID()
+	{
+		int length = 0;
+		for (int i = 0; i < content.size(); i++)
+		{
+			length += content.getInventoryID(i).length();
+		}
+		return length;
+	}
+}
@@ -0,0 +1,128 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.utils.LogRing;
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Per-call cost of RequestLogger with debug on, as paid by the calling thread,
+ * for the synchronous writer and for the ring buffer with each full-buffer policy.
+ *
+ * Output goes to a stream that discards it, so the synchronous numbers are the
+ * formatting and PrintStream locking only; a real console is slower still.
+ * The number of events the DROP ring discarded is printed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RequestLoggerBenchmark
+{
+	@Param({ "sync", "drop", "block" })
+	String backend;
+
+	private PrintStream console;
+	private LogRing ring;
+
+	@Setup(Level.Iteration)
+	public void install()
+	{
+		console = System.out;
+		PrintStream discard = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b)
+			{
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len)
+			{
+			}
+		});
+		System.setOut(discard);
+		Util.setDebug(true);
+		if (backend.equals("sync"))
+		{
+			ring = null;
+		}
+		else
+		{
+			LogRing.Policy policy = backend.equals("drop") ? LogRing.Policy.DROP : LogRing.Policy.BLOCK;
+			ring = new LogRing(8192, policy, 256, discard);
+		}
+		LogRing previous = RequestLogger.setBackend(ring);
+		if (previous != null)
+		{
+			previous.close();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void uninstall()
+	{
+		RequestLogger.setBackend(null);
+		System.setOut(console);
+		if (ring != null)
+		{
+			ring.close();
+			console.println("  " + backend + ": " + ring.getWrittenCount() + " written, " + ring.getDroppedCount()
+					+ " dropped, " + ring.getBlockedCount() + " blocked");
+		}
+	}
+
+	@Benchmark
+	public void ejbInvocation()
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "getItemInventory", "F0017");
+	}
+
+	@Benchmark
+	public void databaseOperation()
+	{
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getItemsByCategory", 2);
+	}
+
+	@Benchmark
+	public void jpaTiming()
+	{
+		RequestLogger.logJPAOperation("FIND", "Inventory", "F0017", 3);
+	}
+}
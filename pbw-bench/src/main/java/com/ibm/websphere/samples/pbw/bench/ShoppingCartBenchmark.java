@@ -0,0 +1,144 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+/**
+ * Compares the list-backed cart with the indexed ShoppingCartBean for carts of
+ * 10, 100 and 1000 lines. Each benchmark leaves the cart the size it found it.
+ *
+ * The operations touch the last line of the cart, which is the worst case for
+ * the list scan and makes no difference to the index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingCartBenchmark
+{
+	@Param({ "10", "100", "1000" })
+	int lines;
+
+	private ArrayListCart listCart;
+	private ShoppingCartBean indexedCart;
+	private Inventory last;
+	private String lastID;
+
+	@Setup(Level.Iteration)
+	public void fill()
+	{
+		listCart = new ArrayListCart();
+		indexedCart = new ShoppingCartBean();
+		for (int i = 0; i < lines; i++)
+		{
+			Inventory inv = item(i);
+			listCart.addItem(new Inventory(inv));
+			indexedCart.addItem(inv.getID(), inv.getQuantity(), inv.getPrice());
+			last = inv;
+		}
+		lastID = last.getID();
+	}
+
+	@Benchmark
+	public int listAddItem()
+	{
+		Inventory inv = new Inventory(last);
+		inv.setQuantity(1);
+		listCart.addItem(inv);
+		return listCart.getSize();
+	}
+
+	@Benchmark
+	public int indexedAddItem()
+	{
+		indexedCart.addItem(lastID, 1, last.getPrice());
+		return indexedCart.getSize();
+	}
+
+	@Benchmark
+	public int listRemoveAndAdd()
+	{
+		listCart.removeItem(last);
+		listCart.addItem(last);
+		return listCart.getSize();
+	}
+
+	@Benchmark
+	public int indexedRemoveAndAdd()
+	{
+		indexedCart.removeItem(lastID);
+		indexedCart.addItem(lastID, 2, last.getPrice());
+		return indexedCart.getSize();
+	}
+
+	@Benchmark
+	public float listSubtotal()
+	{
+		return listCart.getSubtotalCost();
+	}
+
+	@Benchmark
+	public float indexedSubtotal()
+	{
+		return indexedCart.getSubtotalCost();
+	}
+
+	/*
+	 * What the cart page does on "Recalculate": change a quantity, drop lines
+	 * with no quantity and show the new subtotal.
+	 */
+	@Benchmark
+	public float listRecalculate()
+	{
+		listCart.setItemQuantity(lastID, 3);
+		listCart.removeZeroQuantityItems();
+		return listCart.getSubtotalCost();
+	}
+
+	@Benchmark
+	public float indexedRecalculate()
+	{
+		indexedCart.setItemQuantity(lastID, 3);
+		indexedCart.removeZeroQuantityItems();
+		return indexedCart.getSubtotalCost();
+	}
+
+	private static Inventory item(int i)
+	{
+		return new Inventory(String.format("B%05d", i), "Item " + i, "Heading", "Description",
+				"Package", "item.jpg", 9.99f + i, 4.50f, 2, i % 4, "", true);
+	}
+}
@@ -0,0 +1,145 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.jdbcx.JdbcDataSource;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+/**
+ * The PBW persistence unit running in process against a private in-memory H2
+ * database in MySQL mode, filled with a catalog of generated items, for the
+ * benchmarks to call CatalogMgr without a server.
+ *
+ * Lives in the ejb package so that it can wire the beans' fields the way the
+ * container would.
+ */
+public class EmbeddedCatalog
+{
+	/** Number of categories in the generated catalog. */
+	public static final int CATEGORIES = 5;
+
+	/** Words the generated item names cycle through, for searches to find. */
+	public static final String[] WORDS = { "Rose", "Tulip", "Orchid", "Fern", "Maple", "Aspen", "Bonsai", "Cabbage",
+			"Gourd", "Trowel" };
+
+	private static final AtomicInteger databases = new AtomicInteger();
+
+	private final JdbcConnectionPool pool;
+	private final EntityManagerFactory emf;
+
+	/**
+	 * Create and fill the database.
+	 *
+	 * @param itemsPerCategory Number of items to generate in each category.
+	 */
+	public EmbeddedCatalog(int itemsPerCategory)
+	{
+		this(itemsPerCategory, new HashMap<String, Object>());
+	}
+
+	/**
+	 * Create and fill the database.
+	 *
+	 * @param itemsPerCategory Number of items to generate in each category.
+	 * @param settings Persistence unit properties to add, e.g. the pbw.id.* settings of IdSequencing.
+	 */
+	public EmbeddedCatalog(int itemsPerCategory, Map<String, Object> settings)
+	{
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:bench" + databases.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		// pooled, as the server's data source is, so queries do not pay for a new connection
+		pool = JdbcConnectionPool.create(h2);
+
+		Map<String, Object> properties = new HashMap<String, Object>(settings);
+		properties.put("javax.persistence.transactionType", "RESOURCE_LOCAL");
+		properties.put("javax.persistence.jtaDataSource", null);
+		properties.put("javax.persistence.nonJtaDataSource", pool);
+		// the server leases id blocks on a non-JTA data source from JNDI; here there are no JTA transactions to keep them out of
+		properties.put("eclipselink.jdbc.sequence-connection-pool", "false");
+		properties.put("eclipselink.target-server", "None");
+		properties.put("eclipselink.logging.level", "WARNING");
+		properties.put("eclipselink.logging.level.sql", "WARNING");
+		emf = Persistence.createEntityManagerFactory("PBW", properties);
+
+		EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		for (int category = 0; category < CATEGORIES; category++)
+		{
+			for (int i = 0; i < itemsPerCategory; i++)
+			{
+				String id = String.format("B%d%04d", category, i);
+				em.persist(new Inventory(id, "Item " + id + " " + WORDS[i % WORDS.length], "Heading", "Description", "Package", "item.jpg",
+						9.99f + i, 4.50f, 100, category, "", true));
+			}
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	public EntityManager createEntityManager()
+	{
+		return emf.createEntityManager();
+	}
+
+	/**
+	 * Create a CatalogMgr as the container would.
+	 *
+	 * @param em The EntityManager it is to use.
+	 * @param cached Whether it gets a catalog cache or one that holds nothing.
+	 * Either way it gets a search index loaded from the database.
+	 */
+	public CatalogMgr createCatalogMgr(EntityManager em, boolean cached)
+	{
+		CatalogMgr catalog = new CatalogMgr();
+		catalog.em = em;
+		catalog.cache = cached ? new CatalogCache(CatalogCache.DEFAULT_MAX_CATEGORIES, CatalogCache.DEFAULT_MAX_ITEMS)
+				: new CatalogCache(0, 0);
+		catalog.searchIndex = new CatalogSearchIndex();
+		catalog.searchIndex.em = em;
+		catalog.searchIndex.load();
+		return catalog;
+	}
+
+	/**
+	 * Create a BackOrderMgr as the container would.
+	 *
+	 * @param em The EntityManager it is to use.
+	 */
+	public BackOrderMgr createBackOrderMgr(EntityManager em)
+	{
+		BackOrderMgr backOrders = new BackOrderMgr();
+		backOrders.em = em;
+		backOrders.cache = new CatalogCache();
+		return backOrders;
+	}
+
+	public void close()
+	{
+		emf.close();
+		pool.dispose();
+	}
+}
@@ -0,0 +1,119 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets from 1 microsecond to
+ * about 67 seconds, plus an overflow bucket. Recording is a few atomic adds, so
+ * it can sit on every request and EJB call. Percentiles are reported as the
+ * upper bound of the bucket they fall in, i.e. to within a factor of two.
+ */
+public class LatencyHistogram {
+
+    /** Number of buckets, the last one being unbounded. */
+    public static final int BUCKETS = 28;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one measurement.
+     *
+     * @param nanos The time taken, in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        long seen = max.get();
+        while (nanos > seen && !max.compareAndSet(seen, nanos)) {
+            seen = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** Total of all measurements, in nanoseconds. */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    /** Largest measurement, in nanoseconds. */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /** Number of measurements that fell in bucket i (not cumulative). */
+    public long getBucketCount(int i) {
+        return buckets.get(i);
+    }
+
+    /**
+     * Upper bound of bucket i in nanoseconds, or Long.MAX_VALUE for the last bucket.
+     */
+    public static long getUpperBoundNanos(int i) {
+        return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) * 1000L;
+    }
+
+    /**
+     * Estimate a percentile.
+     *
+     * @param quantile Between 0 and 1, e.g. 0.99.
+     * @return The upper bound of the bucket holding that quantile, in nanoseconds,
+     *         or the maximum if it is in the overflow bucket; 0 when nothing was recorded.
+     */
+    public long getPercentileNanos(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getUpperBoundNanos(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000L;
+        if (micros <= 1) {
+            return 0;
+        }
+        // smallest i with micros <= 2^i
+        return Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1);
+    }
+}
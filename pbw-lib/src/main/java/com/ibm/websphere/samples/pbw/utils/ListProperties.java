@@ -19,10 +19,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Hashtable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
-import java.util.Vector;
 
 
 /**
@@ -39,7 +41,8 @@ public class ListProperties extends Properties {
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
-	private Hashtable<String, Vector<String>> listProps = null;
+	// replaced whole once built, so readers never see a half-loaded map
+	private volatile Map<String, List<String>> listProps = new HashMap<String, List<String>>();
     /* Method load
      * @param inStream
      */
@@ -84,30 +87,33 @@ public class ListProperties extends Properties {
                 line = inputLine.readLine();
             }
             // Load Properties
-            listProps = new Hashtable<String, Vector<String>>();
+            Map<String, List<String>> lists = new HashMap<String, List<String>>();
             // Now parse the Properties to create an array
             String[] props = readTokens(propFile, "\n");
             for (int index = 0; index < props.length; index++) {
                 Util.debug("ListProperties.load() - props[" + index + "] = " + props[index]);
-                // Parse the line to get the key,value pair
-                String[] val = readTokens(props[index], "=");
+                // Parse the line to get the key,value pair; the value may be empty
+                int equals = props[index].indexOf('=');
+                String[] val = equals < 0 ? new String[] { props[index].trim(), "" }
+                        : new String[] { props[index].substring(0, equals).trim(), props[index].substring(equals + 1).trim() };
                 Util.debug("ListProperties.load() - val[0]: " + val[0] + " val[1]: " + val[1]);
                 if (!val[0].equals("")) {
                     if (this.containsKey(val[0])) {
                         // Previous key,value was already created.
                         // Need an array
-                        Vector<String> currList = (Vector<String>) listProps.get(val[0]);
+                        List<String> currList = lists.get(val[0]);
                         if ((currList == null) || currList.isEmpty()) {
-                            currList = new Vector<String>();
+                            currList = new ArrayList<String>();
                             String prevVal = this.getProperty(val[0]);
-                            currList.addElement(prevVal);
+                            currList.add(prevVal);
                         }
-                        currList.addElement(val[1]);
-                        listProps.put(val[0], currList);
+                        currList.add(val[1]);
+                        lists.put(val[0], currList);
                     }
                     this.setProperty(val[0], val[1]);
                 }
             }
+            listProps = lists;
         } catch (Exception e) {
             Util.debug("ListProperties.load(): Exception: " + e);
             e.printStackTrace();
@@ -138,12 +144,9 @@ public class ListProperties extends Properties {
         try {
             String value = this.getProperty(name);
             Util.debug("ListProperties.getProperties: property (" + name + ") -> " + value);
-            if (listProps.containsKey(name)) {
-                Vector<String> list = (Vector<String>) listProps.get(name);
-                values = new String[list.size()];
-                for (int index = 0; index < list.size(); index++) {
-                    values[index] = (String) list.elementAt(index);
-                }
+            List<String> list = listProps.get(name);
+            if (list != null) {
+                values = list.toArray(new String[list.size()]);
             } else {
                 values[0] = value;
             }
@@ -0,0 +1,129 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+/**
+ * One slot of a {@link LogRing}. Call sites fill in the raw arguments of a
+ * RequestLogger or Util.debug call; the text is only built later, by the ring's writer thread.
+ * Slots are reused, so nothing here is allocated per event.
+ */
+final class LogEvent {
+
+    enum Kind { MESSAGE, DEBUG, RESPONSE, CONTROLLER, EJB, EJB_RESULT, DB_OP, JPA_TIMING, TEMPLATE, TIMING }
+
+    private static final String LOG_PREFIX = "[PBW-LOG] ";
+
+    Kind kind;
+    String first;
+    String second;
+    Object value;
+    Object[] params;
+    long number;
+
+    void set(Kind kind, String first, String second, Object value, Object[] params, long number) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+        this.value = value;
+        this.params = params;
+        this.number = number;
+    }
+
+    /** Drop the references so the arguments can be collected. */
+    void clear() {
+        first = null;
+        second = null;
+        value = null;
+        params = null;
+    }
+
+    /**
+     * Append the log line for this event, in the same format RequestLogger has
+     * always written.
+     */
+    void format(StringBuilder out) {
+        switch (kind) {
+        case MESSAGE:
+            out.append(first);
+            break;
+        case DEBUG:
+            // a Util.debug template and its arguments
+            Util.format(out, first, params);
+            break;
+        case RESPONSE:
+            out.append(LOG_PREFIX).append("RESPONSE: ");
+            out.append("Path=").append(first);
+            out.append(", Status=").append(number);
+            break;
+        case CONTROLLER:
+            out.append(LOG_PREFIX).append("CONTROLLER: ");
+            out.append(first).append(".").append(second).append("()");
+            break;
+        case EJB:
+            out.append(LOG_PREFIX).append("EJB: ");
+            out.append(first).append(".").append(second).append("(");
+            appendParams(out);
+            out.append(")");
+            break;
+        case EJB_RESULT:
+            out.append(LOG_PREFIX).append("EJB_RESULT: ");
+            out.append(first).append(".").append(second);
+            if (params != null) {
+                // value is a template for the params
+                out.append(" returned ").append(RequestLogger.sanitizeValue(Util.format((String) value, params)));
+            } else {
+                out.append(" returned ").append(RequestLogger.sanitizeValue(value));
+            }
+            break;
+        case DB_OP:
+            out.append(LOG_PREFIX).append("DB_OP: ");
+            out.append(first).append(" - ").append(second);
+            if (params != null && params.length > 0) {
+                out.append(" with params: [");
+                appendParams(out);
+                out.append("]");
+            }
+            // Note: Actual SQL will be logged by EclipseLink at FINE level
+            out.append(" (SQL details in EclipseLink logs)");
+            break;
+        case JPA_TIMING:
+            out.append(LOG_PREFIX).append("JPA_TIMING: ");
+            out.append(first).append(" ").append(second);
+            if (value != null) {
+                out.append("[").append(RequestLogger.sanitizeValue(value)).append("]");
+            }
+            out.append(" took ").append(number).append("ms");
+            break;
+        case TEMPLATE:
+            out.append(LOG_PREFIX).append("TEMPLATE: ");
+            out.append(second).append(" ").append(first);
+            break;
+        case TIMING:
+            out.append(LOG_PREFIX).append("TIMING: ").append(value);
+            break;
+        }
+    }
+
+    private void appendParams(StringBuilder out) {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0) out.append(", ");
+                out.append(RequestLogger.sanitizeValue(params[i]));
+            }
+        }
+    }
+}
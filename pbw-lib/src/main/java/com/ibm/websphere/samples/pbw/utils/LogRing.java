@@ -0,0 +1,263 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.io.PrintStream;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-size, lock-free buffer between the threads that log and one writer thread.
+ *
+ * A logging thread claims the next sequence number, fills in the preallocated
+ * slot for it and publishes it. The writer thread formats published events in
+ * order, a batch at a time, and writes each batch to the output with a single
+ * print. Call sites therefore pay for a few field writes and two atomic
+ * operations, not for string building or console I/O.
+ *
+ * When the buffer is full the {@link Policy} decides what happens: DROP discards
+ * the new event and counts it, BLOCK makes the logging thread wait for the writer.
+ *
+ * Arguments are formatted on the writer thread some time after the call, so
+ * they should be values that do not change afterwards, such as strings and numbers.
+ *
+ * In a server the writer thread should come from the container's
+ * ManagedThreadFactory, and the ring must be closed when the application
+ * stops, or the thread keeps the application's class loader alive.
+ */
+public class LogRing {
+
+    public enum Policy { DROP, BLOCK }
+
+    private static final long IDLE_WAIT = 1000000L;
+
+    private final LogEvent[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final Policy policy;
+    private final int batchSize;
+    private final PrintStream out;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Create the buffer and start its writer thread as a daemon thread of its own.
+     *
+     * @param capacity Number of slots, rounded up to a power of two.
+     * @param policy What to do when every slot is taken.
+     * @param batchSize Most events written with one print.
+     * @param out Where the lines go.
+     */
+    public LogRing(int capacity, Policy policy, int batchSize, PrintStream out) {
+        this(capacity, policy, batchSize, out, null);
+    }
+
+    /**
+     * Create the buffer and start its writer thread.
+     *
+     * @param capacity Number of slots, rounded up to a power of two.
+     * @param policy What to do when every slot is taken.
+     * @param batchSize Most events written with one print.
+     * @param out Where the lines go.
+     * @param threadFactory Creates the writer thread, or null for a daemon thread of its own.
+     */
+    public LogRing(int capacity, Policy policy, int batchSize, PrintStream out, ThreadFactory threadFactory) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new LogEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LogEvent();
+        }
+        this.mask = size - 1;
+        // published[i] holds sequence+1 of the last event published in slot i
+        this.published = new AtomicLongArray(size);
+        this.policy = policy;
+        this.batchSize = Math.max(1, batchSize);
+        this.out = out;
+        Runnable drain = new Runnable() {
+            public void run() {
+                drain();
+            }
+        };
+        if (threadFactory != null) {
+            this.writer = threadFactory.newThread(drain);
+        } else {
+            this.writer = new Thread(drain, "PBW log writer");
+            writer.setDaemon(true);
+        }
+        writer.start();
+    }
+
+    /**
+     * Record an event.
+     *
+     * @return false if the event was dropped because the buffer was full.
+     */
+    boolean publish(LogEvent.Kind kind, String first, String second, Object value, Object[] params, long number) {
+        long seq = claim();
+        if (seq < 0) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int index = (int) seq & mask;
+        slots[index].set(kind, first, second, value, params, number);
+        published.lazySet(index, seq + 1);
+        return true;
+    }
+
+    /**
+     * Wait until everything published before this call has been written.
+     *
+     * @return false if that did not happen in time.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = claimed.get();
+        long end = System.currentTimeMillis() + timeoutMillis;
+        while (consumed.get() < target) {
+            if (System.currentTimeMillis() > end || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_WAIT / 10);
+        }
+        return true;
+    }
+
+    /**
+     * Write what has been published and stop the writer thread.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /** Number of events discarded because the buffer was full. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Number of events whose thread had to wait for a free slot. */
+    public long getBlockedCount() {
+        return blocked.get();
+    }
+
+    /** Number of events written. */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /** Number of prints the writer thread has made. */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /** Number of events waiting to be written. */
+    public int getDepth() {
+        return (int) Math.max(0, claimed.get() - consumed.get());
+    }
+
+    private long claim() {
+        if (policy == Policy.BLOCK) {
+            long seq = claimed.getAndIncrement();
+            if (seq - consumed.get() >= slots.length) {
+                blocked.incrementAndGet();
+                do {
+                    LockSupport.unpark(writer);
+                    LockSupport.parkNanos(IDLE_WAIT / 100);
+                } while (seq - consumed.get() >= slots.length);
+            }
+            return seq;
+        }
+        while (true) {
+            long seq = claimed.get();
+            if (seq - consumed.get() >= slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    private void drain() {
+        StringBuilder batch = new StringBuilder(8192);
+        String newline = System.getProperty("line.separator");
+        long seq = consumed.get();
+        long reportedDrops = 0;
+        while (running || seq < claimed.get()) {
+            int count = 0;
+            batch.setLength(0);
+            while (count < batchSize) {
+                int index = (int) seq & mask;
+                if (published.get(index) != seq + 1) {
+                    break;
+                }
+                LogEvent event = slots[index];
+                try {
+                    event.format(batch);
+                } catch (RuntimeException e) {
+                    batch.append("[PBW-LOG] unformattable ").append(event.kind).append(" event: ").append(e);
+                }
+                batch.append(newline);
+                event.clear();
+                consumed.lazySet(++seq);
+                count++;
+            }
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                batch.append("[PBW-LOG] ").append(drops - reportedDrops).append(" log events dropped, buffer full")
+                        .append(newline);
+                reportedDrops = drops;
+            }
+            if (batch.length() > 0) {
+                out.print(batch);
+                out.flush();
+                written.addAndGet(count);
+                batches.incrementAndGet();
+            }
+            if (count > 0) {
+                continue;
+            } else if (running) {
+                LockSupport.parkNanos(IDLE_WAIT);
+            } else if (seq < claimed.get()) {
+                // a slot was claimed but not yet published
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * Immutable snapshot of the PBW configuration.
+ *
+ * pbw.properties is read and parsed once, the first time the configuration is
+ * needed, and the result is kept in final fields: plain properties, the
+ * values of repeated keys, and the repeated keys split into their
+ * '|'-separated fields (the seed rows for inventory, customer, order,
+ * backorder and supplier). The categories and shipping methods are kept here
+ * as well. Nothing is parsed or formatted again afterwards, so reading the
+ * configuration is a field read and a map lookup, from any thread.
+ *
+ * @see Util#getConfig()
+ */
+public final class PbwConfig {
+
+    static final String PBW_PROPERTIES = "pbw.properties";
+
+    private final Map<String, String> properties;
+    private final Map<String, List<String>> lists;
+    private final Map<String, List<List<String>>> records;
+    private final List<String> categories;
+    private final List<ShippingMethod> shippingMethods;
+
+    PbwConfig(ListProperties source) {
+        Map<String, String> props = new HashMap<String, String>();
+        Map<String, List<String>> values = new HashMap<String, List<String>>();
+        Map<String, List<List<String>>> rows = new HashMap<String, List<List<String>>>();
+        for (String name : source.stringPropertyNames()) {
+            props.put(name, source.getProperty(name));
+            List<String> list = Collections.unmodifiableList(Arrays.asList(source.getProperties(name)));
+            values.put(name, list);
+            List<List<String>> fields = new ArrayList<List<String>>(list.size());
+            for (String value : list) {
+                fields.add(Collections.unmodifiableList(Arrays.asList(readTokens(value, "|"))));
+            }
+            rows.put(name, Collections.unmodifiableList(fields));
+        }
+        properties = Collections.unmodifiableMap(props);
+        lists = Collections.unmodifiableMap(values);
+        records = Collections.unmodifiableMap(rows);
+
+        categories = Collections.unmodifiableList(Arrays.asList(Util.CATEGORY_STRINGS.clone()));
+        List<ShippingMethod> methods = new ArrayList<ShippingMethod>(Util.SHIPPING_METHOD_STRINGS.length);
+        for (int i = 0; i < Util.SHIPPING_METHOD_STRINGS.length; i++) {
+            methods.add(new ShippingMethod(Util.SHIPPING_METHOD_STRINGS[i], Util.SHIPPING_METHOD_TIMES[i],
+                    Util.SHIPPING_METHOD_PRICES[i]));
+        }
+        shippingMethods = Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * Read and parse pbw.properties from the class path. A file that is
+     * missing or cannot be read gives an empty configuration, so every
+     * setting falls back to its default.
+     *
+     * @return The parsed configuration.
+     */
+    static PbwConfig load() {
+        ListProperties prop = new ListProperties();
+        InputStream in = PbwConfig.class.getClassLoader().getResourceAsStream(PBW_PROPERTIES);
+        if (in == null) {
+            Util.debug("PbwConfig.load(): {} not found", PBW_PROPERTIES);
+        } else {
+            try {
+                Util.debug("PbwConfig.load(): Loading PBW Properties from file: {}", PBW_PROPERTIES);
+                prop.load(in);
+            } catch (Exception e) {
+                Util.debug("PbwConfig.load(): Exception: {}", e);
+            } finally {
+                try {
+                    in.close();
+                } catch (Exception e) {
+                }
+            }
+        }
+        return new PbwConfig(prop);
+    }
+
+    /**
+     * Get a property. When a key is repeated, the last value is returned.
+     *
+     * @param name The property name.
+     * @return The value, or null if the property is not set.
+     */
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Get an int property.
+     *
+     * @param name The property name.
+     * @param defaultValue The value to use when the property is not set or not a number.
+     * @return The value.
+     */
+    public int getInt(String name, int defaultValue) {
+        return parseInt(name, properties.get(name), defaultValue);
+    }
+
+    /**
+     * Parse an int setting that did not come from pbw.properties, the way
+     * {@link #getInt(String, int)} does.
+     *
+     * @param name The setting name, for the debug message.
+     * @param value The value, or null if the setting is not set.
+     * @param defaultValue The value to use when the setting is not set or not a number.
+     * @return The value.
+     */
+    public static int parseInt(String name, String value, int defaultValue) {
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                Util.debug("PbwConfig: ignoring invalid {}={}", name, value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get every value of a repeated property, in file order.
+     *
+     * @param name The property name.
+     * @return The values; empty if the property is not set.
+     */
+    public List<String> getProperties(String name) {
+        List<String> values = lists.get(name);
+        return values != null ? values : Collections.<String>emptyList();
+    }
+
+    /**
+     * Get every value of a repeated property split into its '|'-separated
+     * fields, e.g. the inventory seed rows. Empty fields are skipped, as
+     * {@link Util#readTokens(String, String)} does.
+     *
+     * @param name The property name.
+     * @return The rows, in file order; empty if the property is not set.
+     */
+    public List<List<String>> getRecords(String name) {
+        List<List<String>> rows = records.get(name);
+        return rows != null ? rows : Collections.<List<String>>emptyList();
+    }
+
+    /**
+     * Get the displayable names of the categories, indexed by category number.
+     *
+     * @return The category names.
+     */
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Get the shipping methods, indexed by shipping method number.
+     *
+     * @return The shipping methods.
+     */
+    public List<ShippingMethod> getShippingMethods() {
+        return shippingMethods;
+    }
+
+    static String[] readTokens(String text, String token) {
+        StringTokenizer parser = new StringTokenizer(text, token);
+        int numTokens = parser.countTokens();
+        String[] list = new String[numTokens];
+        for (int i = 0; i < numTokens; i++) {
+            list[i] = parser.nextToken();
+        }
+        return list;
+    }
+}
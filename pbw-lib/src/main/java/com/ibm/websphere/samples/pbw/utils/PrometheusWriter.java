@@ -0,0 +1,188 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.util.Map;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ *
+ * Metric names follow one scheme, shared with the Spring Boot port so the same
+ * dashboards work against both:
+ * <ul>
+ * <li>every name starts with "pbw_";</li>
+ * <li>times are in seconds and end in "_seconds";</li>
+ * <li>counters end in "_total";</li>
+ * <li>labels are lower case: route, method, pool, cache.</li>
+ * </ul>
+ * Latency histograms use the LatencyHistogram buckets, powers of two from 1
+ * microsecond, so the bucket boundaries ("le") are the same everywhere.
+ *
+ * A writer is not thread safe; use one per scrape.
+ */
+public class PrometheusWriter {
+
+    /** Content type of the text exposition format. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] LATENCY_BOUNDS = new String[LatencyHistogram.BUCKETS];
+    private static final String[] SIZE_BOUNDS = new String[SizeHistogram.BUCKETS];
+
+    static {
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            LATENCY_BOUNDS[i] = Double.toString(LatencyHistogram.getUpperBoundNanos(i) / 1e9);
+        }
+        LATENCY_BOUNDS[LatencyHistogram.BUCKETS - 1] = "+Inf";
+        for (int i = 0; i < SizeHistogram.BUCKETS - 1; i++) {
+            SIZE_BOUNDS[i] = Long.toString(SizeHistogram.getUpperBound(i));
+        }
+        SIZE_BOUNDS[SizeHistogram.BUCKETS - 1] = "+Inf";
+    }
+
+    private final StringBuilder out;
+
+    public PrometheusWriter(StringBuilder out) {
+        this.out = out;
+    }
+
+    /**
+     * Write a counter without labels.
+     */
+    public PrometheusWriter counter(String name, String help, double value) {
+        header(name, "counter", help);
+        return sample(name, null, null, value);
+    }
+
+    /**
+     * Write a gauge without labels.
+     */
+    public PrometheusWriter gauge(String name, String help, double value) {
+        header(name, "gauge", help);
+        return sample(name, null, null, value);
+    }
+
+    /**
+     * Write the HELP and TYPE lines that must precede the samples of a metric.
+     *
+     * @param type "counter", "gauge" or "histogram".
+     */
+    public PrometheusWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Write one sample.
+     *
+     * @param label The label name, or null for none.
+     * @param labelValue The label value; escaped as needed.
+     */
+    public PrometheusWriter sample(String name, String label, String labelValue, double value) {
+        out.append(name);
+        if (label != null) {
+            out.append('{');
+            label(label, labelValue);
+            out.append('}');
+        }
+        out.append(' ');
+        number(value);
+        out.append('\n');
+        return this;
+    }
+
+    /**
+     * Write a family of latency histograms, one per label value.
+     *
+     * @param name The metric name, ending in "_seconds".
+     * @param label The label that tells the histograms apart.
+     * @param histograms The histograms by label value.
+     */
+    public PrometheusWriter histograms(String name, String help, String label,
+            Map<String, LatencyHistogram> histograms) {
+        header(name, "histogram", help);
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram.getBucketCount(i);
+            }
+            buckets(name, label, entry.getKey(), LATENCY_BOUNDS, counts, histogram.getSumNanos() / 1e9);
+        }
+        return this;
+    }
+
+    /**
+     * Write a histogram of sizes without labels.
+     */
+    public PrometheusWriter histogram(String name, String help, SizeHistogram histogram) {
+        header(name, "histogram", help);
+        long[] counts = new long[SizeHistogram.BUCKETS];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.getBucketCount(i);
+        }
+        return buckets(name, null, null, SIZE_BOUNDS, counts, histogram.getSum());
+    }
+
+    /*
+     * The count is taken from the buckets rather than the histogram's own counter,
+     * so that a scrape racing with record() still has count equal to the +Inf bucket.
+     */
+    private PrometheusWriter buckets(String name, String label, String labelValue, String[] bounds,
+            long[] counts, double sum) {
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket{");
+            if (label != null) {
+                label(label, labelValue);
+                out.append(',');
+            }
+            out.append("le=\"").append(bounds[i]).append("\"} ").append(cumulative).append('\n');
+        }
+        sample(name + "_sum", label, labelValue, sum);
+        sample(name + "_count", label, labelValue, cumulative);
+        return this;
+    }
+
+    private void label(String label, String value) {
+        out.append(label).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private void number(double value) {
+        if (value == (long) value) {
+            out.append((long) value);
+        } else if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+    }
+}
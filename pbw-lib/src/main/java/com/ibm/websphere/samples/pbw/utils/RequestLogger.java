@@ -21,16 +21,64 @@ package com.ibm.websphere.samples.pbw.utils;
 
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 /**
  * Comprehensive logging utility for Plants by WebSphere application modernization.
  * Logs HTTP requests, EJB invocations, database operations, and template rendering.
+ *
+ * By default calls are recorded in a {@link LogRing} and written by a background
+ * thread, so the caller does not wait for string building or console output.
+ * The log.async.* properties size the buffer and choose what happens when it is
+ * full; log.async=false writes each line synchronously through Util.debug.
+ * Util.debug messages go through the same ring once it is running.
+ * In the server the ring is started by the web module with a managed writer
+ * thread and closed when the module stops; elsewhere the first call starts it.
+ *
+ * Calls with up to four parameters have fixed-arity overloads, and results can be
+ * given as a template and argument, so a call costs no allocation while debug is off.
  */
 public class RequestLogger {
 
     private static final String LOG_PREFIX = "[PBW-LOG] ";
+    private static final int DEFAULT_BUFFER = 8192;
+    private static final int DEFAULT_BATCH = 256;
+
+    private static volatile LogRing backend;
+    private static volatile boolean configured;
+
+    /**
+     * Replace the ring that log calls are recorded in.
+     *
+     * @param ring The new ring, or null to write synchronously.
+     * @return The ring used until now; the caller should close it.
+     */
+    public static synchronized LogRing setBackend(LogRing ring) {
+        LogRing previous = backend;
+        backend = ring;
+        configured = true;
+        return previous;
+    }
+
+    /**
+     * The ring log calls are recorded in, or null when writing synchronously.
+     */
+    public static LogRing getBackend() {
+        if (!configured) {
+            configure();
+        }
+        return backend;
+    }
+
+    /**
+     * The ring log calls are recorded in, without starting one. Util.debug uses
+     * this, as reading the log.async.* properties may itself log.
+     */
+    static LogRing getStartedBackend() {
+        return backend;
+    }
 
     /**
      * Log HTTP request details including path, parameters, and body
@@ -64,7 +112,8 @@ public class RequestLogger {
         }
         logEntry.append("}");
 
-        Util.debug(logEntry.toString());
+        // the request is recycled once it completes, so it is read here
+        emit(LogEvent.Kind.MESSAGE, logEntry.toString(), null, null, null, 0);
     }
 
     /**
@@ -73,12 +122,7 @@ public class RequestLogger {
     public static void logResponse(HttpServletRequest request, int statusCode) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("RESPONSE: ");
-        logEntry.append("Path=").append(request.getRequestURI());
-        logEntry.append(", Status=").append(statusCode);
-
-        Util.debug(logEntry.toString());
+        emit(LogEvent.Kind.RESPONSE, request.getRequestURI(), null, null, null, statusCode);
     }
 
     /**
@@ -87,32 +131,63 @@ public class RequestLogger {
     public static void logController(String controllerName, String methodName) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("CONTROLLER: ");
-        logEntry.append(controllerName).append(".").append(methodName).append("()");
+        emit(LogEvent.Kind.CONTROLLER, controllerName, methodName, null, null, 0);
+    }
 
-        Util.debug(logEntry.toString());
+    /**
+     * Log EJB method invocation without parameters
+     */
+    public static void logEJBInvocation(String ejbName, String methodName) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, null, 0);
     }
 
     /**
-     * Log EJB method invocation with parameters
+     * Log EJB method invocation with one parameter
      */
-    public static void logEJBInvocation(String ejbName, String methodName, Object... params) {
+    public static void logEJBInvocation(String ejbName, String methodName, Object param) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("EJB: ");
-        logEntry.append(ejbName).append(".").append(methodName).append("(");
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, new Object[] { param }, 0);
+    }
 
-        if (params != null && params.length > 0) {
-            for (int i = 0; i < params.length; i++) {
-                if (i > 0) logEntry.append(", ");
-                logEntry.append(sanitizeValue(params[i]));
-            }
-        }
-        logEntry.append(")");
+    /**
+     * Log EJB method invocation with two parameters
+     */
+    public static void logEJBInvocation(String ejbName, String methodName, Object param1, Object param2) {
+        if (!Util.debugOn()) return;
 
-        Util.debug(logEntry.toString());
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, new Object[] { param1, param2 }, 0);
+    }
+
+    /**
+     * Log EJB method invocation with three parameters
+     */
+    public static void logEJBInvocation(String ejbName, String methodName, Object param1, Object param2,
+            Object param3) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, new Object[] { param1, param2, param3 }, 0);
+    }
+
+    /**
+     * Log EJB method invocation with four parameters
+     */
+    public static void logEJBInvocation(String ejbName, String methodName, Object param1, Object param2,
+            Object param3, Object param4) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, new Object[] { param1, param2, param3, param4 }, 0);
+    }
+
+    /**
+     * Log EJB method invocation with parameters
+     */
+    public static void logEJBInvocation(String ejbName, String methodName, Object... params) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.EJB, ejbName, methodName, null, params, 0);
     }
 
     /**
@@ -121,37 +196,53 @@ public class RequestLogger {
     public static void logEJBResult(String ejbName, String methodName, Object result) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("EJB_RESULT: ");
-        logEntry.append(ejbName).append(".").append(methodName);
-        logEntry.append(" returned ").append(sanitizeValue(result));
+        emit(LogEvent.Kind.EJB_RESULT, ejbName, methodName, result, null, 0);
+    }
 
-        Util.debug(logEntry.toString());
+    /**
+     * Log EJB method completion with a result built from a template, in which
+     * "{}" is replaced by the argument
+     */
+    public static void logEJBResult(String ejbName, String methodName, String template, Object arg) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.EJB_RESULT, ejbName, methodName, template, new Object[] { arg }, 0);
     }
 
     /**
-     * Log database operation (JPA query)
+     * Log database operation (JPA query) without parameters
      */
-    public static void logDatabaseOperation(String operation, String query, Object... params) {
+    public static void logDatabaseOperation(String operation, String query) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("DB_OP: ");
-        logEntry.append(operation).append(" - ").append(query);
-
-        if (params != null && params.length > 0) {
-            logEntry.append(" with params: [");
-            for (int i = 0; i < params.length; i++) {
-                if (i > 0) logEntry.append(", ");
-                logEntry.append(sanitizeValue(params[i]));
-            }
-            logEntry.append("]");
-        }
+        emit(LogEvent.Kind.DB_OP, operation, query, null, null, 0);
+    }
 
-        // Note: Actual SQL will be logged by EclipseLink at FINE level
-        logEntry.append(" (SQL details in EclipseLink logs)");
+    /**
+     * Log database operation (JPA query) with one parameter
+     */
+    public static void logDatabaseOperation(String operation, String query, Object param) {
+        if (!Util.debugOn()) return;
 
-        Util.debug(logEntry.toString());
+        emit(LogEvent.Kind.DB_OP, operation, query, null, new Object[] { param }, 0);
+    }
+
+    /**
+     * Log database operation (JPA query) with two parameters
+     */
+    public static void logDatabaseOperation(String operation, String query, Object param1, Object param2) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.DB_OP, operation, query, null, new Object[] { param1, param2 }, 0);
+    }
+
+    /**
+     * Log database operation (JPA query)
+     */
+    public static void logDatabaseOperation(String operation, String query, Object... params) {
+        if (!Util.debugOn()) return;
+
+        emit(LogEvent.Kind.DB_OP, operation, query, null, params, 0);
     }
 
     /**
@@ -160,15 +251,16 @@ public class RequestLogger {
     public static void logJPAOperation(String operation, String entityType, Object id, long durationMs) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("JPA_TIMING: ");
-        logEntry.append(operation).append(" ").append(entityType);
-        if (id != null) {
-            logEntry.append("[").append(sanitizeValue(id)).append("]");
-        }
-        logEntry.append(" took ").append(durationMs).append("ms");
+        emit(LogEvent.Kind.JPA_TIMING, operation, entityType, id, null, durationMs);
+    }
 
-        Util.debug(logEntry.toString());
+    /**
+     * Log the time breakdown of a finished request
+     */
+    public static void logTiming(RequestTiming timing) {
+        if (timing == null || !Util.debugOn()) return;
+
+        emit(LogEvent.Kind.TIMING, null, null, timing, null, 0);
     }
 
     /**
@@ -177,11 +269,7 @@ public class RequestLogger {
     public static void logTemplate(String templatePath, String action) {
         if (!Util.debugOn()) return;
 
-        StringBuilder logEntry = new StringBuilder();
-        logEntry.append(LOG_PREFIX).append("TEMPLATE: ");
-        logEntry.append(action).append(" ").append(templatePath);
-
-        Util.debug(logEntry.toString());
+        emit(LogEvent.Kind.TEMPLATE, templatePath, action, null, null, 0);
     }
 
     /**
@@ -222,9 +310,49 @@ public class RequestLogger {
             logEntry.append("}");
         }
 
+        // the request is recycled once it completes, so it is read here
+        emit(LogEvent.Kind.MESSAGE, logEntry.toString(), null, null, null, 0);
+    }
+
+    private static void emit(LogEvent.Kind kind, String first, String second, Object value, Object[] params,
+            long number) {
+        LogRing ring = getBackend();
+        if (ring != null) {
+            ring.publish(kind, first, second, value, params, number);
+            return;
+        }
+        LogEvent event = new LogEvent();
+        event.set(kind, first, second, value, params, number);
+        StringBuilder logEntry = new StringBuilder();
+        event.format(logEntry);
         Util.debug(logEntry.toString());
     }
 
+    /**
+     * Create the ring configured by the log.async.* properties, for {@link #setBackend(LogRing)}.
+     *
+     * @param threadFactory Creates the writer thread, or null for a daemon thread of its own.
+     * @return The new ring, or null when log.async=false.
+     */
+    public static LogRing createBackend(ThreadFactory threadFactory) {
+        if ("false".equalsIgnoreCase(Util.getProperty("log.async"))) {
+            return null;
+        }
+        LogRing.Policy policy = "block".equalsIgnoreCase(Util.getProperty("log.async.policy"))
+                ? LogRing.Policy.BLOCK : LogRing.Policy.DROP;
+        PbwConfig config = Util.getConfig();
+        return new LogRing(config.getInt("log.async.buffer", DEFAULT_BUFFER), policy,
+                config.getInt("log.async.batch", DEFAULT_BATCH), System.out, threadFactory);
+    }
+
+    private static synchronized void configure() {
+        if (configured) {
+            return;
+        }
+        backend = createBackend(null);
+        configured = true;
+    }
+
     /**
      * Get a summary representation of an object for logging
      */
@@ -249,7 +377,7 @@ public class RequestLogger {
     /**
      * Sanitize sensitive values for logging (avoid logging passwords, etc.)
      */
-    private static String sanitizeValue(Object value) {
+    static String sanitizeValue(Object value) {
         if (value == null) return "null";
 
         String strValue = value.toString();
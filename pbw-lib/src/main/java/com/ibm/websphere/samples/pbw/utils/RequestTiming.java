@@ -0,0 +1,192 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+/**
+ * Where the time of one HTTP request went.
+ *
+ * RequestLoggingFilter opens a RequestTiming for the thread handling a request
+ * and closes it when the response is done. In between, the EJB interceptor,
+ * the EntityManager wrapper and the JSF phase listener bracket their work with
+ * {@link #start(Layer)} and {@link #stop(Layer, long)}. Each layer's time is
+ * counted from its outermost call only, so an EJB calling another EJB is not
+ * counted twice, but layers do nest: the EJB time includes the JPA time of the
+ * calls it makes.
+ *
+ * Outside a request (timers, mail workers) start and stop still measure, they
+ * just have nowhere to add the time to.
+ *
+ * @see com.ibm.websphere.samples.pbw.utils.TimingStats
+ */
+public final class RequestTiming {
+
+    public enum Layer {
+        EJB("ejb"), JPA("jpa"), RENDER("render");
+
+        private final String metric;
+
+        Layer(String metric) {
+            this.metric = metric;
+        }
+
+        /** Name used in the Server-Timing header. */
+        public String getMetric() {
+            return metric;
+        }
+    }
+
+    private static final Layer[] LAYERS = Layer.values();
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<RequestTiming>();
+
+    private final String page;
+    private final long started;
+    private long total = -1;
+    private final long[] nanos = new long[LAYERS.length];
+    private final int[] calls = new int[LAYERS.length];
+    private final int[] depth = new int[LAYERS.length];
+
+    private RequestTiming(String page) {
+        this.page = page;
+        this.started = System.nanoTime();
+    }
+
+    /**
+     * Start timing a request on this thread.
+     *
+     * @param page Name the request is counted under in TimingStats.
+     */
+    public static RequestTiming begin(String page) {
+        RequestTiming timing = new RequestTiming(page);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * The timing of the request this thread is handling, or null.
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Finish timing the request on this thread and add it to its page histogram.
+     *
+     * @return The finished timing, or null if none was begun.
+     */
+    public static RequestTiming end() {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return null;
+        }
+        CURRENT.remove();
+        timing.total = System.nanoTime() - timing.started;
+        TimingStats.page(timing.page).record(timing.total);
+        return timing;
+    }
+
+    /**
+     * Note the start of work in a layer.
+     *
+     * @return The start time, to pass to {@link #stop(Layer, long)}.
+     */
+    public static long start(Layer layer) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.depth[layer.ordinal()]++;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Note the end of work in a layer.
+     *
+     * @param started The value returned by the matching start.
+     * @return The time taken, in nanoseconds.
+     */
+    public static long stop(Layer layer, long started) {
+        long elapsed = System.nanoTime() - started;
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            int i = layer.ordinal();
+            if (timing.depth[i] > 0 && --timing.depth[i] == 0) {
+                timing.nanos[i] += elapsed;
+            }
+            timing.calls[i]++;
+        }
+        return elapsed;
+    }
+
+    public String getPage() {
+        return page;
+    }
+
+    /** Time spent in a layer so far, in nanoseconds. */
+    public long getNanos(Layer layer) {
+        return nanos[layer.ordinal()];
+    }
+
+    /** Number of calls made in a layer so far, nested ones included. */
+    public int getCalls(Layer layer) {
+        return calls[layer.ordinal()];
+    }
+
+    /** Time from begin to end, or to now while the request is running, in nanoseconds. */
+    public long getTotalNanos() {
+        return total >= 0 ? total : System.nanoTime() - started;
+    }
+
+    /**
+     * The breakdown as a Server-Timing header value, e.g.
+     * "ejb;dur=3.1, jpa;dur=2.05, render;dur=8.4, total;dur=12.9".
+     * Layers that were not used are left out.
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(80);
+        for (Layer layer : LAYERS) {
+            if (calls[layer.ordinal()] > 0) {
+                header.append(layer.getMetric()).append(";dur=").append(millis(getNanos(layer))).append(", ");
+            }
+        }
+        header.append("total;dur=").append(millis(getTotalNanos()));
+        return header.toString();
+    }
+
+    /**
+     * The breakdown for the log, e.g.
+     * "/shopping.jsf 12.9ms: ejb 3.1ms (4 calls), jpa 2.05ms (2 calls), render 8.4ms (1 calls)".
+     */
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder(120);
+        line.append(page).append(' ').append(millis(getTotalNanos())).append("ms");
+        char separator = ':';
+        for (Layer layer : LAYERS) {
+            int i = layer.ordinal();
+            if (calls[i] > 0) {
+                line.append(separator).append(' ').append(layer.getMetric()).append(' ')
+                        .append(millis(nanos[i])).append("ms (").append(calls[i]).append(" calls)");
+                separator = ',';
+            }
+        }
+        return line.toString();
+    }
+
+    /** Nanoseconds as milliseconds with two decimals. */
+    static double millis(long nanos) {
+        return Math.round(nanos / 10000.0) / 100.0;
+    }
+}
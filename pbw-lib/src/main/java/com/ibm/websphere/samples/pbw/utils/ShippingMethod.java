@@ -0,0 +1,64 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * A shipping method offered at checkout. Instances are immutable; the
+ * description shown to customers is formatted once, when the method is created.
+ */
+public final class ShippingMethod {
+
+    private final String name;
+    private final String time;
+    private final float price;
+    private final String description;
+
+    public ShippingMethod(String name, String time, float price) {
+        this.name = name;
+        this.time = time;
+        this.price = price;
+        this.description = name + " " + time + " " + NumberFormat.getCurrencyInstance(Locale.US).format(price);
+    }
+
+    /** Name of the method, e.g. "Standard Ground". */
+    public String getName() {
+        return name;
+    }
+
+    /** Delivery time, e.g. "( 3 to 6 business days )". */
+    public String getTime() {
+        return time;
+    }
+
+    /** Price charged for the method. */
+    public float getPrice() {
+        return price;
+    }
+
+    /** Name, delivery time and price, as listed on the order page. */
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
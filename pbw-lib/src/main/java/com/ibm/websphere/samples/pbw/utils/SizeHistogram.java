@@ -0,0 +1,77 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of small counts, such as the number of items in a cart,
+ * with power-of-two buckets from 1 to 1024 plus an overflow bucket.
+ *
+ * @see com.ibm.websphere.samples.pbw.utils.LatencyHistogram
+ */
+public class SizeHistogram {
+
+    /** Number of buckets, the last one being unbounded. */
+    public static final int BUCKETS = 12;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Record one size.
+     */
+    public void record(long size) {
+        if (size < 0) {
+            size = 0;
+        }
+        buckets.incrementAndGet(bucketOf(size));
+        count.increment();
+        sum.add(size);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** Total of all sizes recorded. */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /** Number of sizes that fell in bucket i (not cumulative). */
+    public long getBucketCount(int i) {
+        return buckets.get(i);
+    }
+
+    /**
+     * Upper bound of bucket i, or Long.MAX_VALUE for the last bucket.
+     */
+    public static long getUpperBound(int i) {
+        return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+    }
+
+    static int bucketOf(long size) {
+        if (size <= 1) {
+            return 0;
+        }
+        // smallest i with size <= 2^i
+        return Math.min(64 - Long.numberOfLeadingZeros(size - 1), BUCKETS - 1);
+    }
+}
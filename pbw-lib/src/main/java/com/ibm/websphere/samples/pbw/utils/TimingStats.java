@@ -0,0 +1,88 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms kept for the life of the application, one per page and
+ * one per EJB method. The number of names is capped, so a client requesting
+ * many distinct URLs cannot make the maps grow without bound; once full, new
+ * names are counted under {@link #OTHER}.
+ *
+ * @see com.ibm.websphere.samples.pbw.utils.RequestTiming
+ */
+public class TimingStats {
+
+    public static final String OTHER = "other";
+    static final int MAX_NAMES = 500;
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> pages = new ConcurrentHashMap<String, LatencyHistogram>();
+    private static final ConcurrentHashMap<String, LatencyHistogram> ejbMethods = new ConcurrentHashMap<String, LatencyHistogram>();
+
+    /**
+     * Get the histogram of request times for a page.
+     *
+     * @param page The servlet path of the page, e.g. "/shopping.jsf".
+     */
+    public static LatencyHistogram page(String page) {
+        return get(pages, page);
+    }
+
+    /**
+     * Get the histogram of call times for an EJB method.
+     *
+     * @param method The bean and method name, e.g. "CatalogMgr.getItemsByCategory".
+     */
+    public static LatencyHistogram ejbMethod(String method) {
+        return get(ejbMethods, method);
+    }
+
+    /** The page histograms, sorted by page. */
+    public static Map<String, LatencyHistogram> getPages() {
+        return Collections.unmodifiableMap(new TreeMap<String, LatencyHistogram>(pages));
+    }
+
+    /** The EJB method histograms, sorted by method. */
+    public static Map<String, LatencyHistogram> getEJBMethods() {
+        return Collections.unmodifiableMap(new TreeMap<String, LatencyHistogram>(ejbMethods));
+    }
+
+    /** Forget everything recorded so far. */
+    public static void reset() {
+        pages.clear();
+        ejbMethods.clear();
+    }
+
+    private static LatencyHistogram get(ConcurrentHashMap<String, LatencyHistogram> map, String name) {
+        LatencyHistogram histogram = map.get(name);
+        if (histogram == null) {
+            if (map.size() >= MAX_NAMES) {
+                name = OTHER;
+            }
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = map.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+}
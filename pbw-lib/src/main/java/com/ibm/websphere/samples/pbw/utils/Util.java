@@ -17,8 +17,8 @@
 package com.ibm.websphere.samples.pbw.utils;
 
 import java.io.FileNotFoundException;
-import java.text.NumberFormat;
-import java.util.StringTokenizer;
+import java.util.List;
+import java.util.function.Supplier;
 
 import javax.faces.application.Application;
 import javax.faces.application.ProjectStage;
@@ -89,10 +89,10 @@ public class Util {
     public static final String STATUS_ADDEDSTOCK = "Added Stock";
     public static final String DEFAULT_SUPPLIERID = "Supplier";
     private static InitialContext initCtx = null;
-    private static final String[] CATEGORY_STRINGS = { "Flowers", "Fruits & Vegetables", "Trees", "Accessories" };
-    private static final String[] SHIPPING_METHOD_STRINGS = { "Standard Ground", "Second Day Air", "Next Day Air" };
-    private static final String[] SHIPPING_METHOD_TIMES = { "( 3 to 6 business days )", "( 2 to 3 business days )", "( 1 to 2 business days )" };
-    private static final float[] SHIPPING_METHOD_PRICES = { 4.99f, 8.99f, 12.99f };
+    static final String[] CATEGORY_STRINGS = { "Flowers", "Fruits & Vegetables", "Trees", "Accessories" };
+    static final String[] SHIPPING_METHOD_STRINGS = { "Standard Ground", "Second Day Air", "Next Day Air" };
+    static final String[] SHIPPING_METHOD_TIMES = { "( 3 to 6 business days )", "( 2 to 3 business days )", "( 1 to 2 business days )" };
+    static final float[] SHIPPING_METHOD_PRICES = { 4.99f, 8.99f, 12.99f };
     public static final String ZERO_14 = "00000000000000";
     /**
      * Return the cached Initial Context.
@@ -176,51 +176,44 @@ public class Util {
      * @return The shipping method strings, including prices and times, in an array.
      */
     static public String[] getFullShippingMethodStrings() {
-        String[] shippingMethods = new String[SHIPPING_METHOD_STRINGS.length];
-        for (int i = 0; i < shippingMethods.length; i++) {
-            shippingMethods[i] = SHIPPING_METHOD_STRINGS[i] + " " + SHIPPING_METHOD_TIMES[i] + " " + NumberFormat.getCurrencyInstance(java.util.Locale.US).format(new Float(SHIPPING_METHOD_PRICES[i]));
-        }
-        return shippingMethods;
+        return ConfigHolder.FULL_SHIPPING_METHOD_STRINGS.clone();
     }
-    private static final String PBW_PROPERTIES = "pbw.properties";
-    private static ListProperties PBW_Properties = null;
     /**
-     * Method readProperties.
+     * Holds the configuration. The class is initialized, and pbw.properties
+     * parsed, on first use; class initialization publishes it to every thread.
      */
-    public static void readProperties() throws FileNotFoundException {
-        if (PBW_Properties == null) {
-            // Try to read the  properties file.
-            ListProperties prop = new ListProperties();
-            try {
-                String PBW_Properties_File = PBW_PROPERTIES;
-                debug("Util.readProperties(): Loading PBW Properties from file: " + PBW_Properties_File);
-                prop.load(Util.class.getClassLoader().getResourceAsStream(PBW_Properties_File));
-            } catch (Exception e) {
-                debug("Util.readProperties(): Exception: " + e);
-                // Reset properties to retry loading next time.
-                PBW_Properties = null;
-                e.printStackTrace();
-                throw new FileNotFoundException();
+    private static class ConfigHolder {
+        static final PbwConfig CONFIG = PbwConfig.load();
+        static final String[] FULL_SHIPPING_METHOD_STRINGS = describe(CONFIG.getShippingMethods());
+
+        private static String[] describe(List<ShippingMethod> methods) {
+            String[] descriptions = new String[methods.size()];
+            for (int i = 0; i < descriptions.length; i++) {
+                descriptions[i] = methods.get(i).getDescription();
             }
-            PBW_Properties = prop;
+            return descriptions;
         }
     }
+    /**
+     * Get the configuration read from pbw.properties.
+     * @return The parsed, immutable configuration.
+     */
+    public static PbwConfig getConfig() {
+        return ConfigHolder.CONFIG;
+    }
+    /**
+     * Method readProperties. Parses pbw.properties if that has not been done yet.
+     */
+    public static void readProperties() throws FileNotFoundException {
+        getConfig();
+    }
     /**
      * Method getProperty.
      * @param name
      * @return value
      */
     public static String getProperty(String name) {
-        String value = "";
-        try {
-            if (PBW_Properties == null) {
-                readProperties();
-            }
-            value = PBW_Properties.getProperty(name);
-        } catch (Exception e) {
-            debug("Util.getProperty(): Exception: " + e);
-        }
-        return (value);
+        return getConfig().getProperty(name);
     }
     /**
      * Method readTokens.
@@ -229,37 +222,23 @@ public class Util {
      * @return list
      */
     public static String[] readTokens(String text, String token) {
-        StringTokenizer parser = new StringTokenizer(text, token);
-        int numTokens = parser.countTokens();
-        String[] list = new String[numTokens];
-        for (int i = 0; i < numTokens; i++) {
-            list[i] = parser.nextToken();
-        }
-        return list;
+        return PbwConfig.readTokens(text, token);
     }
     /**
      * Method getProperties.
      * @param name
-     * @return values
+     * @return values, or a single null if the property is not set
      */
     public static String[] getProperties(String name) {
-        String[] values = { "" };
-        try {
-            if (PBW_Properties == null) {
-                readProperties();
-            }
-            values = PBW_Properties.getProperties(name);
-            debug("Util.getProperties: property (" + name + ") -> " + values.toString());
-            //for (Enumeration e = PBW_Properties.propertyNames() ; e.hasMoreElements() ;) {
-            //    debug((String)e.nextElement());
-            //}
-        } catch (Exception e) {
-            debug("Util.getProperties(): Exception: " + e);
+        List<String> values = getConfig().getProperties(name);
+        if (values.isEmpty()) {
+            return new String[] { null };
         }
-        return (values);
+        return values.toArray(new String[values.size()]);
     }
     // Enable debug by default in this modernization version
     static private boolean debug = true;
+    static private volatile boolean stageChecked = false;
     /** Set debug setting to on or off.
      * @param val True or false.
      */
@@ -272,25 +251,109 @@ public class Util {
     }
     /**
      * Output RAS message.
+     *
+     * Once RequestLogger's {@link LogRing} is running, messages are recorded in
+     * it like RequestLogger's own, with the same log.async.* drop/block policy,
+     * and templates are only formatted on its writer thread. Until then, or with
+     * log.async=false, they are printed on the calling thread.
      * @param msg Message to be output.
      */
     static final public void debug(String msg) {
-        // Check if we're in JSF context and can auto-enable debug in Development mode
-        FacesContext context = FacesContext.getCurrentInstance();
-        if (context != null) {
-        	Application app = context.getApplication();
-        	if (app != null) {
-        		ProjectStage stage = app.getProjectStage();
-        		if (stage == ProjectStage.Development || stage == ProjectStage.UnitTest) {
-        			setDebug(true);
-        		}
-        	}
+        if (debugEnabled()) {
+        	write(msg, null);
+        }
+    }
+    /**
+     * Output RAS message built from a template. Each "{}" in the template is
+     * replaced by the next argument, and nothing is built while debug is off,
+     * so callers pass the values instead of concatenating them.
+     * @param template Message text with a "{}" for each argument.
+     * @param arg Argument.
+     */
+    static final public void debug(String template, Object arg) {
+        if (debugEnabled()) {
+        	write(template, new Object[] { arg });
+        }
+    }
+    /** Output RAS message built from a template with two arguments. */
+    static final public void debug(String template, Object arg1, Object arg2) {
+        if (debugEnabled()) {
+        	write(template, new Object[] { arg1, arg2 });
+        }
+    }
+    /** Output RAS message built from a template with three arguments. */
+    static final public void debug(String template, Object arg1, Object arg2, Object arg3) {
+        if (debugEnabled()) {
+        	write(template, new Object[] { arg1, arg2, arg3 });
+        }
+    }
+    /** Output RAS message built from a template with four arguments. */
+    static final public void debug(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (debugEnabled()) {
+        	write(template, new Object[] { arg1, arg2, arg3, arg4 });
+        }
+    }
+    /**
+     * Output RAS message produced by the supplier, which is only called when
+     * debug is on.
+     * @param msg Supplies the message.
+     */
+    static final public void debug(Supplier<String> msg) {
+        if (debugEnabled()) {
+        	// called here, as the supplier may read state that changes after the call
+        	write(msg.get(), null);
+        }
+    }
+    private static void write(String text, Object[] args) {
+        LogRing ring = RequestLogger.getStartedBackend();
+        if (ring != null) {
+            ring.publish(args != null ? LogEvent.Kind.DEBUG : LogEvent.Kind.MESSAGE, text, null, null, args, 0);
+        } else {
+            System.out.println(args != null ? format(text, args) : text);
+        }
+    }
+    /**
+     * Replace each "{}" in the template with the next argument.
+     * @param template Message text with a "{}" for each argument.
+     * @param args Arguments.
+     * @return the message
+     */
+    public static String format(String template, Object... args) {
+        StringBuilder out = new StringBuilder(template.length() + 16 * args.length);
+        format(out, template, args);
+        return out.toString();
+    }
+    static void format(StringBuilder out, String template, Object[] args) {
+        int start = 0;
+        for (int i = 0; i < args.length; i++) {
+            int at = template.indexOf("{}", start);
+            if (at < 0) {
+                break;
+            }
+            out.append(template, start, at).append(args[i]);
+            start = at + 2;
+        }
+        out.append(template, start, template.length());
+    }
+    private static boolean debugEnabled() {
+        if (!debug && !stageChecked) {
+            // Check if we're in JSF context and can auto-enable debug in Development mode.
+            // The stage never changes, so this is only done until a JSF context is seen.
+            FacesContext context = FacesContext.getCurrentInstance();
+            if (context != null) {
+            	Application app = context.getApplication();
+            	if (app != null) {
+            		ProjectStage stage = app.getProjectStage();
+            		if (stage == ProjectStage.Development || stage == ProjectStage.UnitTest) {
+            			setDebug(true);
+            		}
+            		stageChecked = true;
+            	}
+            }
         }
 
         // Always output debug messages if debug is enabled, regardless of JSF context
-        if (debug) {
-        	System.out.println(msg);
-        }
+        return debug;
     }
 
     /**
@@ -312,4 +375,41 @@ public class Util {
 		}
 		return true;
 	}
+
+    /**
+     * Escape text for use in HTML content or a quoted attribute value, e.g.
+     * a request parameter echoed back into a form.
+     *
+     * @param text The text, or null.
+     * @return The escaped text; empty for null.
+     */
+    public static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '<':
+                escaped.append("&lt;");
+                break;
+            case '>':
+                escaped.append("&gt;");
+                break;
+            case '&':
+                escaped.append("&amp;");
+                break;
+            case '"':
+                escaped.append("&quot;");
+                break;
+            case '\'':
+                escaped.append("&#39;");
+                break;
+            default:
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
 }
@@ -0,0 +1,216 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LogRingTest {
+
+    private LogRing ring;
+
+    @AfterEach
+    public void tearDown() {
+        if (ring != null) {
+            ring.close();
+        }
+        RequestLogger.setBackend(null);
+    }
+
+    @Test
+    public void requestLoggerWritesTheSameLinesThroughTheRing() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ring = new LogRing(16, LogRing.Policy.BLOCK, 4, new PrintStream(bytes, true));
+        RequestLogger.setBackend(ring);
+
+        RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategory", 1);
+        RequestLogger.logDatabaseOperation("FIND", "Inventory", "F0001");
+        RequestLogger.logJPAOperation("FIND", "Inventory", "F0001", 3);
+        RequestLogger.logEJBResult("CustomerMgr", "verifyUserAndPassword", "password=secret");
+        RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategory", "Vector[size={}]", 3);
+        RequestLogger.logEJBResult("CatalogMgr", "getItemInventory", "null", "F0001");
+        assertTrue(ring.flush(10000));
+
+        String[] lines = bytes.toString().split(System.getProperty("line.separator"));
+        assertEquals(6, lines.length);
+        assertEquals("[PBW-LOG] EJB: CatalogMgr.getItemsByCategory(1)", lines[0]);
+        assertEquals("[PBW-LOG] DB_OP: FIND - Inventory with params: [F0001] (SQL details in EclipseLink logs)",
+                lines[1]);
+        assertEquals("[PBW-LOG] JPA_TIMING: FIND Inventory[F0001] took 3ms", lines[2]);
+        assertEquals("[PBW-LOG] EJB_RESULT: CustomerMgr.verifyUserAndPassword returned ***MASKED***", lines[3]);
+        assertEquals("[PBW-LOG] EJB_RESULT: CatalogMgr.getItemsByCategory returned Vector[size=3]", lines[4]);
+        assertEquals("[PBW-LOG] EJB_RESULT: CatalogMgr.getItemInventory returned null", lines[5]);
+    }
+
+    @Test
+    public void utilDebugGoesThroughTheSameRing() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ring = new LogRing(16, LogRing.Policy.BLOCK, 4, new PrintStream(bytes, true));
+        RequestLogger.setBackend(ring);
+        Util.setDebug(true);
+
+        Util.debug("plain {} message");
+        Util.debug("BackOrderMgr: {} of {}", 5, "F0001");
+        RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategory", 1);
+        final StringBuilder state = new StringBuilder("before");
+        Util.debug(() -> "supplier saw " + state);
+        state.replace(0, state.length(), "after");
+        assertTrue(ring.flush(10000));
+
+        String[] lines = bytes.toString().split(System.getProperty("line.separator"));
+        assertEquals(4, lines.length);
+        assertEquals("plain {} message", lines[0]);
+        assertEquals("BackOrderMgr: 5 of F0001", lines[1]);
+        assertEquals("[PBW-LOG] EJB: CatalogMgr.getItemsByCategory(1)", lines[2]);
+        assertEquals("supplier saw before", lines[3]);
+        assertEquals(4, ring.getWrittenCount());
+    }
+
+    @Test
+    public void blockPolicyLosesNothingUnderContention() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ring = new LogRing(64, LogRing.Policy.BLOCK, 16, new PrintStream(bytes, true));
+        final int threads = 4;
+        final int events = 5000;
+        Thread[] loggers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final String name = "T" + t;
+            loggers[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < events; i++) {
+                        ring.publish(LogEvent.Kind.CONTROLLER, name, Integer.toString(i), null, null, 0);
+                    }
+                }
+            });
+            loggers[t].start();
+        }
+        for (Thread logger : loggers) {
+            logger.join();
+        }
+        assertTrue(ring.flush(10000));
+
+        Set<String> lines = new HashSet<String>();
+        for (String line : bytes.toString().split(System.getProperty("line.separator"))) {
+            lines.add(line);
+        }
+        assertEquals(threads * events, lines.size());
+        assertTrue(lines.contains("[PBW-LOG] CONTROLLER: T3." + (events - 1) + "()"));
+        assertEquals(threads * events, ring.getWrittenCount());
+        assertEquals(0, ring.getDroppedCount());
+        assertTrue(ring.getBatchCount() < threads * events, "lines are written in batches");
+    }
+
+    @Test
+    public void dropPolicyDiscardsWhenTheWriterFallsBehind() throws Exception {
+        StalledStream stalled = new StalledStream();
+        ring = new LogRing(8, LogRing.Policy.DROP, 8, new PrintStream(stalled, true));
+
+        assertTrue(ring.publish(LogEvent.Kind.MESSAGE, "first", null, null, null, 0));
+        assertTrue(stalled.writing.await(10, TimeUnit.SECONDS));
+        // the writer has taken the first event and is stuck writing it
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.publish(LogEvent.Kind.MESSAGE, "line " + i, null, null, null, 0));
+        }
+        assertFalse(ring.publish(LogEvent.Kind.MESSAGE, "lost", null, null, null, 0));
+        assertFalse(ring.publish(LogEvent.Kind.MESSAGE, "lost", null, null, null, 0));
+        assertEquals(2, ring.getDroppedCount());
+        assertEquals(8, ring.getDepth());
+
+        stalled.release.countDown();
+        assertTrue(ring.flush(10000));
+        String text = stalled.bytes.toString(StandardCharsets.UTF_8.name());
+        assertTrue(text.contains("line 7"), text);
+        assertFalse(text.contains("lost"), text);
+        assertTrue(text.contains("[PBW-LOG] 2 log events dropped, buffer full"), text);
+        assertEquals(9, ring.getWrittenCount());
+    }
+
+    @Test
+    public void templatesTakeTheirArgumentsInOrder() {
+        assertEquals("Updating status(Received Stock) of backOrderID(7)",
+                Util.format("Updating status({}) of backOrderID({})", "Received Stock", 7));
+        assertEquals("extra arguments are ignored", Util.format("extra arguments are ignored", 1));
+        assertEquals("missing {} stays", Util.format("missing {} stays"));
+    }
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        ring = new LogRing(1000, LogRing.Policy.DROP, 1, new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(1024, ring.getCapacity());
+    }
+
+    @Test
+    public void writerThreadComesFromTheFactoryAndStopsOnClose() {
+        final Thread[] created = new Thread[1];
+        ThreadFactory factory = new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                created[0] = new Thread(r, "managed");
+                return created[0];
+            }
+        };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ring = new LogRing(16, LogRing.Policy.BLOCK, 4, new PrintStream(bytes, true), factory);
+        RequestLogger.setBackend(ring);
+        RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategory", 1);
+
+        assertTrue(created[0].isAlive());
+        ring.close();
+        assertFalse(created[0].isAlive());
+        assertEquals("[PBW-LOG] EJB: CatalogMgr.getItemsByCategory(1)" + System.getProperty("line.separator"),
+                bytes.toString());
+    }
+
+    /** Blocks the first write until released. */
+    private static class StalledStream extends OutputStream {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            synchronized (bytes) {
+                bytes.write(b, off, len);
+            }
+        }
+    }
+}
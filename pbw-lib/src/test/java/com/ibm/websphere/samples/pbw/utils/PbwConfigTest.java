@@ -0,0 +1,107 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PbwConfigTest {
+
+    private static PbwConfig parse(String text) throws Exception {
+        ListProperties prop = new ListProperties();
+        prop.load(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1)));
+        return new PbwConfig(prop);
+    }
+
+    @Test
+    public void repeatedKeysAreSplitIntoRecordsOnce() throws Exception {
+        PbwConfig config = parse("# seed\n"
+                + "supplier=S1|Acme||Springfield\n"
+                + "supplier=S2|Bloom|1 Main St|Shelbyville\n"
+                + "catalog.page.size=25\n");
+
+        List<List<String>> suppliers = config.getRecords("supplier");
+        assertEquals(2, suppliers.size());
+        assertEquals(Arrays.asList("S1", "Acme", "Springfield"), suppliers.get(0));
+        assertEquals(Arrays.asList("S2", "Bloom", "1 Main St", "Shelbyville"), suppliers.get(1));
+        assertSame(suppliers, config.getRecords("supplier"));
+        assertEquals("S2|Bloom|1 Main St|Shelbyville", config.getProperty("supplier"));
+
+        assertEquals(25, config.getInt("catalog.page.size", 20));
+        assertEquals(20, config.getInt("missing", 20));
+        assertEquals(7, PbwConfig.parseInt("id.node", " 7 ", 0));
+        assertEquals(0, PbwConfig.parseInt("id.node", "seven", 0));
+        assertNull(config.getProperty("missing"));
+        assertTrue(config.getProperties("missing").isEmpty());
+        assertTrue(config.getRecords("missing").isEmpty());
+    }
+
+    @Test
+    public void emptyValuesDoNotStopTheLoad() throws Exception {
+        PbwConfig config = parse("image.store.directory=\n"
+                + "mail.outbox.url=http://localhost/send?to=all\n"
+                + "timing.header=true\n");
+
+        assertEquals("", config.getProperty("image.store.directory"));
+        assertEquals("http://localhost/send?to=all", config.getProperty("mail.outbox.url"));
+        assertEquals("true", config.getProperty("timing.header"));
+    }
+
+    @Test
+    public void snapshotCannotBeModified() throws Exception {
+        PbwConfig config = parse("supplier=S1|Acme\nsupplier=S2|Bloom\n");
+
+        assertThrows(UnsupportedOperationException.class, () -> config.getRecords("supplier").clear());
+        assertThrows(UnsupportedOperationException.class, () -> config.getRecords("supplier").get(0).set(0, "X"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getProperties("supplier").add("S3"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getCategories().set(0, "Weeds"));
+        assertThrows(UnsupportedOperationException.class, () -> config.getShippingMethods().remove(0));
+    }
+
+    @Test
+    public void shippingMethodsAreDescribedOnce() {
+        ShippingMethod ground = Util.getConfig().getShippingMethods().get(0);
+        assertEquals("Standard Ground", ground.getName());
+        assertEquals(4.99f, ground.getPrice());
+        assertEquals("Standard Ground ( 3 to 6 business days ) $4.99", ground.getDescription());
+
+        String[] descriptions = Util.getFullShippingMethodStrings();
+        assertEquals(Util.getShippingMethodStrings().length, descriptions.length);
+        assertEquals(ground.getDescription(), descriptions[0]);
+        descriptions[0] = null;
+        assertEquals(ground.getDescription(), Util.getFullShippingMethodStrings()[0]);
+    }
+
+    @Test
+    public void utilReadsThePackagedProperties() {
+        assertSame(Util.getConfig(), Util.getConfig());
+        assertEquals("20", Util.getProperty("catalog.page.size"));
+        assertArrayEquals(new String[] { null }, Util.getProperties("missing"));
+        assertEquals(Util.getConfig().getRecords("idgenerator").size(), Util.getProperties("idgenerator").length);
+    }
+}
@@ -0,0 +1,97 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+public class PrometheusWriterTest {
+
+    @Test
+    public void latencyHistogramsAreCumulativeAndInSeconds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500L);
+        histogram.record(3000000L);
+        StringBuilder text = new StringBuilder();
+
+        new PrometheusWriter(text).histograms("pbw_http_request_duration_seconds", "Time to handle a page request.",
+                "route", Collections.singletonMap("/promo.jsf", histogram));
+
+        String[] lines = text.toString().split("\n");
+        assertEquals("# HELP pbw_http_request_duration_seconds Time to handle a page request.", lines[0]);
+        assertEquals("# TYPE pbw_http_request_duration_seconds histogram", lines[1]);
+        assertEquals("pbw_http_request_duration_seconds_bucket{route=\"/promo.jsf\",le=\"1.0E-6\"} 1", lines[2]);
+        // 3ms falls in the 4.096ms bucket
+        assertEquals("pbw_http_request_duration_seconds_bucket{route=\"/promo.jsf\",le=\"0.002048\"} 1", lines[13]);
+        assertEquals("pbw_http_request_duration_seconds_bucket{route=\"/promo.jsf\",le=\"0.004096\"} 2", lines[14]);
+        assertEquals("pbw_http_request_duration_seconds_bucket{route=\"/promo.jsf\",le=\"+Inf\"} 2",
+                lines[1 + LatencyHistogram.BUCKETS]);
+        assertEquals("pbw_http_request_duration_seconds_sum{route=\"/promo.jsf\"} 0.0030005",
+                lines[2 + LatencyHistogram.BUCKETS]);
+        assertEquals("pbw_http_request_duration_seconds_count{route=\"/promo.jsf\"} 2",
+                lines[3 + LatencyHistogram.BUCKETS]);
+        assertEquals(4 + LatencyHistogram.BUCKETS, lines.length);
+    }
+
+    @Test
+    public void sizeHistogramUsesPowersOfTwo() {
+        SizeHistogram histogram = new SizeHistogram();
+        histogram.record(1);
+        histogram.record(3);
+        histogram.record(5000);
+        StringBuilder text = new StringBuilder();
+
+        new PrometheusWriter(text).histogram("pbw_cart_items", "Distinct items in the cart at checkout.", histogram);
+
+        String out = text.toString();
+        assertTrue(out.contains("pbw_cart_items_bucket{le=\"1\"} 1\n"), out);
+        assertTrue(out.contains("pbw_cart_items_bucket{le=\"2\"} 1\n"), out);
+        assertTrue(out.contains("pbw_cart_items_bucket{le=\"4\"} 2\n"), out);
+        assertTrue(out.contains("pbw_cart_items_bucket{le=\"1024\"} 2\n"), out);
+        assertTrue(out.contains("pbw_cart_items_bucket{le=\"+Inf\"} 3\n"), out);
+        assertTrue(out.contains("pbw_cart_items_sum 5004\n"), out);
+        assertTrue(out.contains("pbw_cart_items_count 3\n"), out);
+    }
+
+    @Test
+    public void labelValuesAreEscaped() {
+        StringBuilder text = new StringBuilder();
+
+        new PrometheusWriter(text).sample("pbw_cache_entries", "cache", "a\"b\\c\nd", 2.5);
+
+        assertEquals("pbw_cache_entries{cache=\"a\\\"b\\\\c\\nd\"} 2.5\n", text.toString());
+    }
+
+    @Test
+    public void countersAndGaugesHaveTheirType() {
+        StringBuilder text = new StringBuilder();
+
+        new PrometheusWriter(text).counter("pbw_sessions_started_total", "HTTP sessions created.", 7)
+                .gauge("pbw_sessions_active", "HTTP sessions currently open.", 3);
+
+        assertEquals("# HELP pbw_sessions_started_total HTTP sessions created.\n"
+                + "# TYPE pbw_sessions_started_total counter\n"
+                + "pbw_sessions_started_total 7\n"
+                + "# HELP pbw_sessions_active HTTP sessions currently open.\n"
+                + "# TYPE pbw_sessions_active gauge\n"
+                + "pbw_sessions_active 3\n", text.toString());
+    }
+}
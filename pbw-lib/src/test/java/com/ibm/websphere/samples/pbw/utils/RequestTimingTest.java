@@ -0,0 +1,114 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class RequestTimingTest {
+
+    @AfterEach
+    public void tearDown() {
+        RequestTiming.end();
+        TimingStats.reset();
+    }
+
+    @Test
+    public void nestedCallsInALayerAreCountedOnce() throws Exception {
+        RequestTiming timing = RequestTiming.begin("/shopping.jsf");
+        long outer = RequestTiming.start(RequestTiming.Layer.EJB);
+        long inner = RequestTiming.start(RequestTiming.Layer.EJB);
+        Thread.sleep(2);
+        long innerElapsed = RequestTiming.stop(RequestTiming.Layer.EJB, inner);
+        long outerElapsed = RequestTiming.stop(RequestTiming.Layer.EJB, outer);
+
+        assertTrue(innerElapsed <= outerElapsed);
+        assertEquals(outerElapsed, timing.getNanos(RequestTiming.Layer.EJB));
+        assertEquals(2, timing.getCalls(RequestTiming.Layer.EJB));
+        assertEquals(0, timing.getCalls(RequestTiming.Layer.JPA));
+    }
+
+    @Test
+    public void endRecordsThePageAndClearsTheThread() {
+        RequestTiming.begin("/promo.jsf");
+        RequestTiming timing = RequestTiming.end();
+
+        assertNull(RequestTiming.current());
+        assertNull(RequestTiming.end());
+        assertEquals(1, TimingStats.getPages().get("/promo.jsf").getCount());
+        assertEquals(timing.getTotalNanos(), TimingStats.getPages().get("/promo.jsf").getSumNanos());
+    }
+
+    @Test
+    public void serverTimingListsTheLayersUsed() {
+        RequestTiming timing = RequestTiming.begin("/cart.jsf");
+        RequestTiming.stop(RequestTiming.Layer.JPA, RequestTiming.start(RequestTiming.Layer.JPA));
+        RequestTiming.end();
+
+        String header = timing.toServerTiming();
+        assertTrue(header.matches("jpa;dur=[0-9.]+, total;dur=[0-9.]+"), header);
+        assertTrue(timing.toString().startsWith("/cart.jsf "), timing.toString());
+        assertTrue(timing.toString().contains("jpa "), timing.toString());
+    }
+
+    @Test
+    public void layersOutsideARequestStillMeasure() {
+        long started = RequestTiming.start(RequestTiming.Layer.EJB);
+        assertTrue(RequestTiming.stop(RequestTiming.Layer.EJB, started) >= 0);
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    public void histogramBucketsArePowersOfTwoMicroseconds() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(0, LatencyHistogram.bucketOf(1000));
+        assertEquals(1, LatencyHistogram.bucketOf(2000));
+        assertEquals(2, LatencyHistogram.bucketOf(3000));
+        assertEquals(10, LatencyHistogram.bucketOf(1024000));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBoundNanos(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void histogramPercentilesReportBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(500000L);
+        }
+        histogram.record(40000000L);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(40000000L, histogram.getMaxNanos());
+        assertEquals(LatencyHistogram.getUpperBoundNanos(LatencyHistogram.bucketOf(500000L)),
+                histogram.getPercentileNanos(0.5));
+        // the top bucket's bound is capped at the largest value seen
+        assertEquals(40000000L, histogram.getPercentileNanos(1.0));
+    }
+
+    @Test
+    public void tooManyNamesShareOneHistogram() {
+        for (int i = 0; i < TimingStats.MAX_NAMES; i++) {
+            TimingStats.page("/page" + i);
+        }
+        assertEquals(TimingStats.page(TimingStats.OTHER), TimingStats.page("/onemore"));
+        assertEquals(TimingStats.page("/page1"), TimingStats.page("/page1"));
+    }
+}
@@ -14,16 +14,13 @@
 // (C) COPYRIGHT International Business Machines Corp., 2003,2011
 // All Rights Reserved * Licensed Materials - Property of IBM
 //
-package com.ibm.websphere.samples.pbw.war;
-
-import com.ibm.websphere.samples.pbw.jpa.BackOrder;
-import com.ibm.websphere.samples.pbw.jpa.Inventory;
-import com.ibm.websphere.samples.pbw.utils.Util;
-
-
+package com.ibm.websphere.samples.pbw.ejb;
 
 /**
- * A class to hold a back order item's data.
+ * A class to hold a back order item's data, together with the name and
+ * stock level of the inventory item it is for. It is built by the
+ * backOrderItemsAfter query, so listing back orders does not look up each
+ * inventory item on its own.
  */
 public class BackOrderItem implements java.io.Serializable
 {
@@ -39,7 +36,7 @@ public class BackOrderItem implements java.io.Serializable
 	private long lowDate;					// from BackOrder
 	private long orderDate;					// from BackOrder
 	private String supplierOrderID;			// from BackOrder
-	private Inventory inventory;			// from BackOrder
+	private String inventoryID;				// from BackOrder
 
 	/**
 	 * @see java.lang.Object#Object()
@@ -53,37 +50,25 @@ public class BackOrderItem implements java.io.Serializable
 	 * @param backOrderID
 	 * @param inventoryID
 	 * @param name
+	 * @param inventoryQuantity
 	 * @param quantity
 	 * @param status
+	 * @param lowDate
+	 * @param orderDate
+	 * @param supplierOrderID
 	 */
-	public BackOrderItem(String backOrderID, Inventory inventoryID, String name, int quantity, String status)
+	public BackOrderItem(String backOrderID, String inventoryID, String name, int inventoryQuantity,
+			int quantity, String status, long lowDate, long orderDate, String supplierOrderID)
 	{
 		this.backOrderID = backOrderID;
-		this.inventory = inventoryID;
+		this.inventoryID = inventoryID;
 		this.name = name;
+		this.inventoryQuantity = inventoryQuantity;
 		this.quantity = quantity;
 		this.status = status;
-	}
-	/**
-	 * Method BackOrderItem.
-	 * @param backOrder
-	 */
-	public BackOrderItem(BackOrder backOrder)
-	{
-		try
-		{
-			this.backOrderID = backOrder.getBackOrderID();
-			this.inventory = backOrder.getInventory();
-			this.quantity = backOrder.getQuantity();
-			this.status = backOrder.getStatus();
-			this.lowDate = backOrder.getLowDate();
-			this.orderDate = backOrder.getOrderDate();
-			this.supplierOrderID = backOrder.getSupplierOrderID();
-		}
-		catch (Exception e)
-		{
-			Util.debug("BackOrderItem - Exception: " + e);
-		}
+		this.lowDate = lowDate;
+		this.orderDate = orderDate;
+		this.supplierOrderID = supplierOrderID;
 	}
 	/**
 	 * Method getBackOrderID.
@@ -129,9 +114,9 @@ public class BackOrderItem implements java.io.Serializable
 	 * Method getInventoryID.
 	 * @return String
 	 */
-	public Inventory getInventory()
+	public String getInventoryID()
 	{
-		return inventory;
+		return inventoryID;
 	}
 	/**
 	 * Method getName.
@@ -15,18 +15,29 @@
 // All Rights Reserved * Licensed Materials - Property of IBM
 //
 package com.ibm.websphere.samples.pbw.ejb;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.FinderException;
+import javax.ejb.EJB;
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
-import javax.persistence.NoResultException;
+import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 
+import org.eclipse.persistence.jpa.JpaEntityManager;
+
 import com.ibm.websphere.samples.pbw.jpa.BackOrder;
-import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.utils.Util;
 import com.ibm.websphere.samples.pbw.utils.RequestLogger;
 
@@ -39,8 +50,22 @@ import com.ibm.websphere.samples.pbw.utils.RequestLogger;
 @RolesAllowed ("SampAdmin")
 public class BackOrderMgr
 {
+	// the most ids put in one IN list
+	private static final int MAX_IDS_PER_STATEMENT = 1000;
+	private static final Collection<String> ORDERABLE = Collections.singletonList(Util.STATUS_ORDERSTOCK);
+	private static final Collection<String> RECEIVABLE = Arrays.asList(Util.STATUS_ORDEREDSTOCK, Util.STATUS_RECEIVEDSTOCK);
+
 	@PersistenceContext(unitName="PBW")
-	private EntityManager em;
+	EntityManager em;
+
+	@EJB
+	CatalogCache cache;
+
+	@PostConstruct
+	void timeEntityManager()
+	{
+		em = TimedEntityManager.wrap(em);
+	}
 
 	public BackOrderMgr() {
 		super();
@@ -48,6 +73,11 @@ public class BackOrderMgr
 
 	/**
 	 * Method createBackOrder.
+	 * Add to the open back order of an inventory item, the one that has not
+	 * been sent to the supplier yet, or open one for enough stock to reach
+	 * the maximum threshold and satisfy the back order. The open back order
+	 * is keyed on its inventory item by a unique constraint, so concurrent
+	 * calls for the same item cannot create two of them.
 	 * @param inventoryID
 	 * @param amountToOrder
 	 * @param maximumItems
@@ -55,47 +85,42 @@ public class BackOrderMgr
 	public void createBackOrder(String inventoryID, int amountToOrder, int maximumItems)
 	{
 		RequestLogger.logEJBInvocation("BackOrderMgr", "createBackOrder", inventoryID, amountToOrder, maximumItems);
-		try
+		// The usual case, an open back order to add to, is a single UPDATE.
+		RequestLogger.logDatabaseOperation("NAMED_UPDATE", "addToOpenBackOrder", inventoryID, amountToOrder);
+		Query q = em.createNamedQuery("addToOpenBackOrder");
+		q.setParameter("amount", amountToOrder);
+		q.setParameter("id", inventoryID);
+		if (q.executeUpdate() == 0)
 		{
-			Util.debug("BackOrderMgr.createBackOrder() - Entered");
-			BackOrder backOrder = null;
-			try
+			// None yet. Another caller may be opening one at the same moment,
+			// in which case the upsert adds to theirs instead of inserting.
+			Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: {}", inventoryID);
+			RequestLogger.logDatabaseOperation("NAMED_NATIVE_QUERY", "upsertOpenBackOrder", inventoryID, maximumItems + amountToOrder);
+			String backOrderID = nextBackOrderID();
+			if (em.find(BackOrder.class, backOrderID) != null)
 			{
-				// See if there is already an existing backorder and increase the order quantity
-				// but only if it has not been sent to the supplier.
-				RequestLogger.logDatabaseOperation("NAMED_QUERY", "findByInventoryID", inventoryID);
-				Query q = em.createNamedQuery("findByInventoryID");
-				q.setParameter("id", inventoryID);
-				backOrder = (BackOrder) q.getSingleResult();
-				if (!(backOrder.getStatus().equals(Util.STATUS_ORDERSTOCK)))
-				{
-					Util.debug("BackOrderMgr.createBackOrder() - Backorders found but have already been ordered from the supplier");
-					throw new FinderException();
-				}
-				// Increase the BackOrder quantity for an existing Back Order.
-				RequestLogger.logDatabaseOperation("UPDATE", "BackOrder.quantity", backOrder.getBackOrderID(), backOrder.getQuantity() + amountToOrder);
-				backOrder.setQuantity(backOrder.getQuantity() + amountToOrder);
+				// the upsert would leave that row alone and open nothing
+				throw new EJBException("BackOrder id " + backOrderID + " is already taken; the BACKORDER row of IDGENERATOR is behind the table");
 			}
-			catch (NoResultException e)
+			q = em.createNamedQuery("upsertOpenBackOrder");
+			q.setParameter(1, backOrderID);
+			q.setParameter(2, maximumItems + amountToOrder);
+			q.setParameter(3, Util.STATUS_ORDERSTOCK);
+			q.setParameter(4, System.currentTimeMillis());
+			q.setParameter(5, inventoryID);
+			q.setParameter(6, amountToOrder);
+			if (q.executeUpdate() == 0)
 			{
-				Util.debug("BackOrderMgr.createBackOrder() - BackOrder doesn't exist." + e);
-				Util.debug("BackOrderMgr.createBackOrder() - Creating BackOrder for InventoryID: " + inventoryID);
-				// Order enough stock from the supplier to reach the maximum threshold and to
-				// satisfy the back order.
-				amountToOrder = maximumItems + amountToOrder;
-				RequestLogger.logDatabaseOperation("FIND", "Inventory", inventoryID);
-				Inventory inv = em.find(Inventory.class, inventoryID);
-				BackOrder b = new BackOrder(inv, amountToOrder);
-				RequestLogger.logDatabaseOperation("PERSIST", "BackOrder", inventoryID, amountToOrder);
-				em.persist(b);
+				Util.debug("BackOrderMgr.createBackOrder() - No inventory item {}", inventoryID);
 			}
-			RequestLogger.logEJBResult("BackOrderMgr", "createBackOrder", "void");
-		}
-		catch (Exception e)
-		{
-			Util.debug("BackOrderMgr.createBackOrder() - Exception: " + e);
-			RequestLogger.logEJBResult("BackOrderMgr", "createBackOrder", "EXCEPTION: " + e.getMessage());
 		}
+		RequestLogger.logEJBResult("BackOrderMgr", "createBackOrder", "void");
+	}
+
+	// the upsert inserts without the EntityManager, so it takes its id from the BackOrder sequence itself
+	private String nextBackOrderID()
+	{
+		return em.unwrap(JpaEntityManager.class).getActiveSession().getNextSequenceNumberValue(BackOrder.class).toString();
 	}
 
 	/**
@@ -109,10 +134,41 @@ public class BackOrderMgr
 		RequestLogger.logDatabaseOperation("NAMED_QUERY", "findAllBackOrders");
 		Query q = em.createNamedQuery("findAllBackOrders");
 		Collection<BackOrder> result = q.getResultList();
-		RequestLogger.logEJBResult("BackOrderMgr", "findBackOrders", "Collection[size=" + result.size() + "]");
+		RequestLogger.logEJBResult("BackOrderMgr", "findBackOrders", "Collection[size={}]", result.size());
 		return result;
 	}
 
+	/**
+	 * Get a page of back orders with the given statuses, together with the
+	 * name and stock level of their inventory items. Each page is a single
+	 * query joining BACKORDER to INVENTORY, keyed on the back order id.
+	 *
+	 * @param statuses The back order statuses wanted.
+	 * @param after The last back order id of the previous page, or null for the first page.
+	 * @param pageSize The most items wanted.
+	 * @return The back orders with ids after the given one, in id order.
+	 */
+	@SuppressWarnings("unchecked")
+	public BackOrderPage findBackOrderItems(Collection<String> statuses, String after, int pageSize)
+	{
+		RequestLogger.logEJBInvocation("BackOrderMgr", "findBackOrderItems", statuses, after, pageSize);
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "backOrderItemsAfter", statuses, after);
+		Query q = em.createNamedQuery("backOrderItemsAfter");
+		q.setParameter("statuses", statuses);
+		q.setParameter("after", after != null ? after : "");
+		// one more than wanted tells whether there is a next page
+		q.setMaxResults(pageSize + 1);
+		List<BackOrderItem> items = new ArrayList<BackOrderItem>(q.getResultList());
+		boolean next = items.size() > pageSize;
+		if (next)
+		{
+			items.remove(pageSize);
+		}
+		BackOrderPage page = new BackOrderPage(items, after != null && after.length() > 0, next);
+		RequestLogger.logEJBResult("BackOrderMgr", "findBackOrderItems", page);
+		return page;
+	}
+
 	/**
 	 * Method deleteBackOrder.
 	 * @param backOrderID
@@ -137,10 +193,10 @@ public class BackOrderMgr
 	{
 		int rc = 0;
 		BackOrder backOrder;
-		Util.debug("BackOrderMgr.receiveConfirmation() - Finding Back Order for backOrderID=" + backOrderID);
+		Util.debug("BackOrderMgr.receiveConfirmation() - Finding Back Order for backOrderID={}", backOrderID);
 		backOrder = em.find(BackOrder.class, backOrderID);
 		backOrder.setStatus(Util.STATUS_RECEIVEDSTOCK);
-		Util.debug("BackOrderMgr.receiveConfirmation() - Updating status(" + Util.STATUS_RECEIVEDSTOCK + ") of backOrderID(" + backOrderID + ")");
+		Util.debug("BackOrderMgr.receiveConfirmation() - Updating status({}) of backOrderID({})", Util.STATUS_RECEIVEDSTOCK, backOrderID);
 		return (rc);
 	}
 	*/
@@ -158,6 +214,171 @@ public class BackOrderMgr
 	}
 	*/
 
+	/**
+	 * Order stock from the supplier for many back orders in one transaction.
+	 * Back orders still in the Order Stock status get their quantity, the
+	 * Ordered Stock status and today's order date. This takes one locking
+	 * select and one UPDATE per distinct quantity, however many back orders
+	 * there are.
+	 *
+	 * @param quantities The quantity to order, by back order id.
+	 * @return What happened to each back order, by back order id.
+	 */
+	public Map<String, BackOrderOutcome> orderStock(Map<String, Integer> quantities)
+	{
+		RequestLogger.logEJBInvocation("BackOrderMgr", "orderStock", quantities.size());
+		Map<String, Object[]> found = lockBackOrders(quantities.keySet());
+		Map<String, BackOrderOutcome> outcomes = new LinkedHashMap<String, BackOrderOutcome>();
+		Map<String, Integer> ordered = new LinkedHashMap<String, Integer>();
+		for (Map.Entry<String, Integer> entry : quantities.entrySet())
+		{
+			BackOrderOutcome outcome = outcome(found.get(entry.getKey()), ORDERABLE);
+			if (outcome == BackOrderOutcome.CHANGED)
+			{
+				ordered.put(entry.getKey(), entry.getValue());
+			}
+			outcomes.put(entry.getKey(), outcome);
+		}
+		long orderDate = System.currentTimeMillis();
+		for (Map.Entry<Integer, List<String>> group : byValue(ordered).entrySet())
+		{
+			for (List<String> ids : chunks(group.getValue()))
+			{
+				RequestLogger.logDatabaseOperation("NAMED_UPDATE", "orderBackOrders", group.getKey(), ids.size());
+				Query q = em.createNamedQuery("orderBackOrders");
+				q.setParameter("status", Util.STATUS_ORDEREDSTOCK);
+				q.setParameter("quantity", group.getKey());
+				q.setParameter("orderDate", orderDate);
+				q.setParameter("ids", ids);
+				q.executeUpdate();
+			}
+		}
+		RequestLogger.logEJBResult("BackOrderMgr", "orderStock", "Map[size={}]", outcomes.size());
+		return outcomes;
+	}
+
+	/**
+	 * Add the stock received from the supplier for many back orders in one
+	 * transaction. Back orders in the Ordered Stock or Received Stock status
+	 * set the quantity of their inventory item to the quantity ordered, as
+	 * updateStock did, and move to the Added Stock status. This takes one
+	 * locking select, one inventory UPDATE per distinct quantity and one
+	 * back order UPDATE, however many back orders there are.
+	 *
+	 * @param backOrderIDs The back orders whose stock has arrived.
+	 * @return What happened to each back order, by back order id.
+	 */
+	public Map<String, BackOrderOutcome> receiveStock(Collection<String> backOrderIDs)
+	{
+		RequestLogger.logEJBInvocation("BackOrderMgr", "receiveStock", backOrderIDs.size());
+		Map<String, Object[]> found = lockBackOrders(backOrderIDs);
+		Map<String, BackOrderOutcome> outcomes = new LinkedHashMap<String, BackOrderOutcome>();
+		List<String> received = new ArrayList<String>();
+		// when an item has more than one of the back orders, the last one sets its quantity
+		Map<String, Integer> stock = new LinkedHashMap<String, Integer>();
+		Map<String, Integer> categories = new HashMap<String, Integer>();
+		for (String backOrderID : backOrderIDs)
+		{
+			if (outcomes.containsKey(backOrderID))
+			{
+				continue;
+			}
+			Object[] row = found.get(backOrderID);
+			BackOrderOutcome outcome = outcome(row, RECEIVABLE);
+			if (outcome == BackOrderOutcome.CHANGED)
+			{
+				received.add(backOrderID);
+				stock.put((String) row[3], ((Number) row[2]).intValue());
+				categories.put((String) row[3], ((Number) row[4]).intValue());
+			}
+			outcomes.put(backOrderID, outcome);
+		}
+		for (Map.Entry<Integer, List<String>> group : byValue(stock).entrySet())
+		{
+			for (List<String> ids : chunks(group.getValue()))
+			{
+				RequestLogger.logDatabaseOperation("NAMED_UPDATE", "setInventoryQuantities", group.getKey(), ids.size());
+				Query q = em.createNamedQuery("setInventoryQuantities");
+				q.setParameter("quantity", group.getKey());
+				q.setParameter("ids", ids);
+				q.executeUpdate();
+			}
+		}
+		for (List<String> ids : chunks(received))
+		{
+			RequestLogger.logDatabaseOperation("NAMED_UPDATE", "closeBackOrders", Util.STATUS_ADDEDSTOCK, ids.size());
+			Query q = em.createNamedQuery("closeBackOrders");
+			q.setParameter("status", Util.STATUS_ADDEDSTOCK);
+			q.setParameter("ids", ids);
+			q.executeUpdate();
+		}
+		for (Map.Entry<String, Integer> item : categories.entrySet())
+		{
+			cache.invalidate(item.getKey(), item.getValue());
+		}
+		RequestLogger.logEJBResult("BackOrderMgr", "receiveStock", "Map[size={}]", outcomes.size());
+		return outcomes;
+	}
+
+	/**
+	 * Read and lock the given back orders, with the id and category of
+	 * their inventory items. The rows stay locked until the transaction
+	 * ends, so the UPDATEs that follow act on what was read.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object[]> lockBackOrders(Collection<String> backOrderIDs)
+	{
+		Map<String, Object[]> rows = new HashMap<String, Object[]>();
+		for (List<String> ids : chunks(new ArrayList<String>(new LinkedHashSet<String>(backOrderIDs))))
+		{
+			RequestLogger.logDatabaseOperation("NAMED_QUERY", "lockBackOrders", ids.size());
+			Query q = em.createNamedQuery("lockBackOrders");
+			q.setParameter("ids", ids);
+			q.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+			for (Object[] row : (List<Object[]>) q.getResultList())
+			{
+				rows.put((String) row[0], row);
+			}
+		}
+		return rows;
+	}
+
+	private static BackOrderOutcome outcome(Object[] row, Collection<String> allowed)
+	{
+		if (row == null)
+		{
+			return BackOrderOutcome.NOT_FOUND;
+		}
+		return allowed.contains(row[1]) ? BackOrderOutcome.CHANGED : BackOrderOutcome.WRONG_STATUS;
+	}
+
+	// the keys of the map, grouped by their value, so each group can share a statement
+	private static Map<Integer, List<String>> byValue(Map<String, Integer> values)
+	{
+		Map<Integer, List<String>> groups = new LinkedHashMap<Integer, List<String>>();
+		for (Map.Entry<String, Integer> entry : values.entrySet())
+		{
+			List<String> keys = groups.get(entry.getValue());
+			if (keys == null)
+			{
+				keys = new ArrayList<String>();
+				groups.put(entry.getValue(), keys);
+			}
+			keys.add(entry.getKey());
+		}
+		return groups;
+	}
+
+	private static List<List<String>> chunks(List<String> ids)
+	{
+		List<List<String>> chunks = new ArrayList<List<String>>();
+		for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT)
+		{
+			chunks.add(ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_STATEMENT)));
+		}
+		return chunks;
+	}
+
 	/**
 	 * Method updateStock.
 	 * @param backOrderID
@@ -173,7 +394,7 @@ public class BackOrderMgr
 	 * /
 	public void abortorderStock(String backOrderID)
 	{
-		Util.debug("backOrderStockBean.abortorderStock() - Aborting orderStock transation for backorderID: " + backOrderID);
+		Util.debug("backOrderStockBean.abortorderStock() - Aborting orderStock transation for backorderID: {}", backOrderID);
 		// Reset the back order status since the order failed.
 		this.setBackOrderStatus(backOrderID, Util.STATUS_ORDERSTOCK);
 	}
@@ -0,0 +1,70 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.List;
+
+/**
+ * This class is one page of the back order administration listing, in back
+ * order id order. The id of its last item is the key to ask BackOrderMgr for
+ * the page after it.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.BackOrderMgr#findBackOrderItems(java.util.Collection, String, int)
+ */
+public class BackOrderPage implements java.io.Serializable
+{
+	private static final long serialVersionUID = 1L;
+	private List<BackOrderItem> items;
+	private boolean previous;
+	private boolean next;
+
+	public BackOrderPage(List<BackOrderItem> items, boolean previous, boolean next)
+	{
+		this.items = items;
+		this.previous = previous;
+		this.next = next;
+	}
+
+	//the items of the page, in back order id order
+	public List<BackOrderItem> getItems()
+	{
+		return items;
+	}
+
+	//whether this is not the first page
+	public boolean hasPrevious()
+	{
+		return previous;
+	}
+
+	//whether there are items after this page
+	public boolean hasNext()
+	{
+		return next;
+	}
+
+	//key for the page after this one, or null when the page is empty
+	public String getLastBackOrderID()
+	{
+		return items.isEmpty() ? null : items.get(items.size() - 1).getBackOrderID();
+	}
+
+	public String toString()
+	{
+		return "BackOrderPage[size=" + items.size() + ", previous=" + previous + ", next=" + next + "]";
+	}
+}
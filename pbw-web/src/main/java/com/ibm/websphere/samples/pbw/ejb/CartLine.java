@@ -0,0 +1,72 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+/**
+ * One line of a shopping cart: an inventory id, the quantity wanted and the
+ * unit price the item was added at.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean
+ */
+public class CartLine implements java.io.Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final String inventoryID;
+	private final float price;
+	private final long priceCents;
+	private int quantity;
+
+	CartLine(String inventoryID, int quantity, float price)
+	{
+		this.inventoryID = inventoryID;
+		this.quantity = quantity;
+		this.price = price;
+		this.priceCents = Math.round(price * 100.0d);
+	}
+
+	public String getInventoryID()
+	{
+		return inventoryID;
+	}
+
+	public int getQuantity()
+	{
+		return quantity;
+	}
+
+	void setQuantity(int quantity)
+	{
+		this.quantity = quantity;
+	}
+
+	/**
+	 * @return The unit price of the item when it was added to the cart.
+	 */
+	public float getPrice()
+	{
+		return price;
+	}
+
+	/**
+	 * @return Price times quantity, in cents.
+	 */
+	long getSubtotalCents()
+	{
+		return priceCents * quantity;
+	}
+}
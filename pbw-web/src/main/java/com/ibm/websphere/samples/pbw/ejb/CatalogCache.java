@@ -0,0 +1,383 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.interceptor.ExcludeDefaultInterceptors;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Bounded, per-node read-through cache of catalog data used by CatalogMgr.
+ *
+ * Category listings, single Inventory rows and image descriptions are kept in
+ * small LRU maps. Entries never carry image bytes, and callers always receive their own copies,
+ * so nothing handed out by the cache can be used to modify a cached entry.
+ *
+ * Writers call {@link #invalidate(String, int)}. The entry is dropped at once and,
+ * when a transaction is active, dropped again after it completes. Readers take a
+ * {@link #generation()} before going to the database and hand it back when they
+ * populate the cache, so a load that raced with an invalidation is not kept.
+ *
+ * The cache is called many times per request and only touches memory, so it is
+ * left out of the EJB timings.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.CatalogMgr
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@ExcludeDefaultInterceptors
+public class CatalogCache
+{
+	static final int DEFAULT_MAX_CATEGORIES = 16;
+	static final int DEFAULT_MAX_ITEMS = 1000;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Lru<Integer, List<Inventory>> categories;
+	private final Lru<String, Inventory> items;
+	private final Lru<String, Map<String, ImageInfo>> images;
+
+	@Resource
+	TransactionSynchronizationRegistry txRegistry;
+
+	public CatalogCache()
+	{
+		this(Util.getConfig().getInt("cache.catalog.categories", DEFAULT_MAX_CATEGORIES),
+			 Util.getConfig().getInt("cache.catalog.items", DEFAULT_MAX_ITEMS));
+	}
+
+	CatalogCache(int maxCategories, int maxItems)
+	{
+		categories = new Lru<Integer, List<Inventory>>(maxCategories);
+		items = new Lru<String, Inventory>(maxItems);
+		images = new Lru<String, Map<String, ImageInfo>>(maxItems);
+	}
+
+	/**
+	 * Get the cached listing for a category.
+	 *
+	 * @param category The category wanted.
+	 * @return Copies of the cached items, or null when the category is not cached.
+	 */
+	public List<Inventory> getCategory(int category)
+	{
+		List<Inventory> cached;
+		synchronized (categories)
+		{
+			cached = categories.get(category);
+		}
+		if (cached == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		List<Inventory> result = new ArrayList<Inventory>(cached.size());
+		for (Inventory inv : cached)
+		{
+			result.add(copy(inv));
+		}
+		return result;
+	}
+
+	/**
+	 * Get the invalidation generation to pass to the put methods.
+	 *
+	 * @return The current generation.
+	 */
+	public long generation()
+	{
+		return generation.get();
+	}
+
+	/**
+	 * Cache the listing for a category.
+	 *
+	 * @param category The category loaded.
+	 * @param loaded The items read from the database; they are copied, not retained.
+	 * @param since The generation taken before the items were read.
+	 */
+	public void putCategory(int category, List<Inventory> loaded, long since)
+	{
+		List<Inventory> snapshot = new ArrayList<Inventory>(loaded.size());
+		for (Inventory inv : loaded)
+		{
+			snapshot.add(copy(inv));
+		}
+		synchronized (categories)
+		{
+			if (generation.get() == since)
+			{
+				categories.put(category, snapshot);
+			}
+		}
+	}
+
+	/**
+	 * Get a cached Inventory row.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @return A copy of the cached row, or null when it is not cached.
+	 */
+	public Inventory getItem(String inventoryID)
+	{
+		Inventory cached;
+		synchronized (items)
+		{
+			cached = items.get(inventoryID);
+		}
+		if (cached == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return copy(cached);
+	}
+
+	/**
+	 * Cache an Inventory row.
+	 *
+	 * @param inv The row read from the database; it is copied, not retained.
+	 * @param since The generation taken before the row was read.
+	 */
+	public void putItem(Inventory inv, long since)
+	{
+		Inventory snapshot = copy(inv);
+		synchronized (items)
+		{
+			if (generation.get() == since)
+			{
+				items.put(snapshot.getInventoryId(), snapshot);
+			}
+		}
+	}
+
+	/**
+	 * Get the cached description of an item's image.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @param request The size/format that was asked for.
+	 * @return The cached ImageInfo, or null when it is not cached.
+	 */
+	public ImageInfo getImageInfo(String inventoryID, String request)
+	{
+		ImageInfo cached = null;
+		synchronized (images)
+		{
+			Map<String, ImageInfo> variants = images.get(inventoryID);
+			if (variants != null)
+			{
+				cached = variants.get(request);
+			}
+		}
+		if (cached == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return cached;
+	}
+
+	/**
+	 * Cache the description of an item's image.
+	 *
+	 * @param inventoryID The id of the inventory item.
+	 * @param request The size/format that was asked for.
+	 * @param info The immutable description of the variant that answers it.
+	 * @param since The generation taken before the image was read.
+	 */
+	public void putImageInfo(String inventoryID, String request, ImageInfo info, long since)
+	{
+		synchronized (images)
+		{
+			if (generation.get() == since)
+			{
+				Map<String, ImageInfo> variants = images.get(inventoryID);
+				if (variants == null)
+				{
+					variants = new HashMap<String, ImageInfo>();
+					images.put(inventoryID, variants);
+				}
+				variants.put(request, info);
+			}
+		}
+	}
+
+	/**
+	 * Drop an item, its image description and the listing of its category.
+	 *
+	 * @param inventoryID The id of the changed inventory item.
+	 * @param category The category the item belongs to.
+	 */
+	public void invalidate(final String inventoryID, final int category)
+	{
+		evict(inventoryID, category);
+		if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE)
+		{
+			txRegistry.registerInterposedSynchronization(new Synchronization() {
+				public void beforeCompletion()
+				{
+				}
+
+				public void afterCompletion(int status)
+				{
+					evict(inventoryID, category);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Drop everything, e.g. after the database has been repopulated.
+	 */
+	public void clear()
+	{
+		generation.incrementAndGet();
+		synchronized (categories)
+		{
+			categories.clear();
+		}
+		synchronized (items)
+		{
+			items.clear();
+		}
+		synchronized (images)
+		{
+			images.clear();
+		}
+	}
+
+	/**
+	 * Number of lookups answered from the cache.
+	 */
+	public long getHitCount()
+	{
+		return hits.get();
+	}
+
+	/**
+	 * Number of lookups that had to go to the database.
+	 */
+	public long getMissCount()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * Number of entries dropped because the cache was full.
+	 */
+	public long getEvictionCount()
+	{
+		return evictions.get();
+	}
+
+	/**
+	 * Number of category listings, items and image descriptions currently cached.
+	 */
+	public int getSize()
+	{
+		int size;
+		synchronized (categories)
+		{
+			size = categories.size();
+		}
+		synchronized (items)
+		{
+			size += items.size();
+		}
+		synchronized (images)
+		{
+			size += images.size();
+		}
+		return size;
+	}
+
+	private void evict(String inventoryID, int category)
+	{
+		generation.incrementAndGet();
+		synchronized (items)
+		{
+			items.remove(inventoryID);
+		}
+		synchronized (images)
+		{
+			images.remove(inventoryID);
+		}
+		synchronized (categories)
+		{
+			categories.remove(category);
+		}
+	}
+
+	/**
+	 * Copy an Inventory without its image, keeping the stock thresholds that the
+	 * Inventory copy constructor resets.
+	 */
+	private static Inventory copy(Inventory inv)
+	{
+		Inventory copy = new Inventory(inv);
+		copy.setMinThreshold(inv.getMinThreshold());
+		copy.setMaxThreshold(inv.getMaxThreshold());
+		return copy;
+	}
+
+	/**
+	 * Access-ordered map that drops its least recently used entry once full.
+	 */
+	private class Lru<K, V> extends LinkedHashMap<K, V>
+	{
+		private static final long serialVersionUID = 1L;
+		private final int maxEntries;
+
+		Lru(int maxEntries)
+		{
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+		{
+			if (size() > maxEntries)
+			{
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,450 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.ibm.websphere.samples.pbw.jpa.ImageVariant;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Loads inventory items in bulk, as the seed data of a new or reset database.
+ * Records are taken one at a time, so a seed file of any size is streamed
+ * rather than read into memory. Rows go to the database as JDBC batches of
+ * chunkSize rows on the caller's connection, inside the caller's transaction.
+ * Each distinct image is read and rendered once, on a pool of threads, while
+ * the rows of its chunk are being inserted; its variants are then described
+ * for every item that uses it. The pool threads come from the given factory,
+ * the container's ManagedThreadFactory when loading in the server.
+ *
+ * A record has the fields of an inventory entry in pbw.properties: id, name,
+ * heading, description, package, image, price, cost, quantity, category,
+ * notes and public. A record with too few fields, or with a price, cost,
+ * quantity or category that is not a number, is skipped.
+ */
+public class CatalogLoader
+{
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private static final int FIELDS = 12;
+	private static final String RECORD_PREFIX = "inventory=";
+	private static final String INSERT_INVENTORY = "INSERT INTO INVENTORY (INVENTORYID, NAME, HEADING, DESCRIPTION, PKGINFO, IMAGE, "
+			+ "PRICE, COST, QUANTITY, CATEGORY, NOTES, ISPUBLIC, MINTHRESHOLD, MAXTHRESHOLD) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_IMAGEVARIANT = "INSERT INTO IMAGEVARIANT (INVENTORYID, VARIANT, CONTENTTYPE, IMGHASH, IMGLENGTH, UPDATED) "
+			+ "VALUES (?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * What a load did and how fast.
+	 */
+	public static class Result
+	{
+		private final long rows;
+		private final long skipped;
+		private final int images;
+		private final int missingImages;
+		private final long millis;
+
+		Result(long rows, long skipped, int images, int missingImages, long millis)
+		{
+			this.rows = rows;
+			this.skipped = skipped;
+			this.images = images;
+			this.missingImages = missingImages;
+			this.millis = millis;
+		}
+
+		//the inventory items inserted
+		public long getRows()
+		{
+			return rows;
+		}
+
+		//the records left out because they did not have every field or a field was not a number
+		public long getSkipped()
+		{
+			return skipped;
+		}
+
+		//the distinct images read and rendered
+		public int getImages()
+		{
+			return images;
+		}
+
+		//the distinct images that could not be read; their items have no image
+		public int getMissingImages()
+		{
+			return missingImages;
+		}
+
+		public long getMillis()
+		{
+			return millis;
+		}
+
+		public long getRowsPerSecond()
+		{
+			return millis > 0 ? rows * 1000 / millis : rows;
+		}
+
+		public String toString()
+		{
+			return "CatalogLoader.Result[rows=" + rows + ", skipped=" + skipped + ", images=" + images + ", missingImages="
+					+ missingImages + ", millis=" + millis + ", rowsPerSecond=" + getRowsPerSecond() + "]";
+		}
+	}
+
+	private final Connection connection;
+	private final ImageBlobStore store;
+	private final Path imageDirectory;
+	private final ClassLoader imageLoader;
+	private final int chunkSize;
+	private final int imageThreads;
+	private final ThreadFactory threadFactory;
+
+	/**
+	 * @param connection The connection of the transaction to load in.
+	 * @param store Where the image renditions go.
+	 * @param imageDirectory The directory of the images the records name, or
+	 *            null for resources/images on the class path.
+	 * @param chunkSize The rows sent to the database in each batch.
+	 * @param imageThreads The threads reading and rendering images.
+	 * @param threadFactory Creates the threads reading and rendering images.
+	 */
+	public CatalogLoader(Connection connection, ImageBlobStore store, Path imageDirectory, int chunkSize, int imageThreads,
+			ThreadFactory threadFactory)
+	{
+		this.connection = connection;
+		this.store = store;
+		this.imageDirectory = imageDirectory;
+		// the pool threads do not have the caller's context class loader
+		this.imageLoader = Thread.currentThread().getContextClassLoader();
+		this.chunkSize = Math.max(1, chunkSize);
+		this.imageThreads = Math.max(1, imageThreads);
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Load the records of a seed file, one per line. Blank lines and lines
+	 * starting with # are ignored, and a line may start with "inventory=" as
+	 * in pbw.properties.
+	 *
+	 * @param seed The seed file.
+	 * @return What was loaded.
+	 */
+	public Result load(final BufferedReader seed) throws SQLException, IOException
+	{
+		try
+		{
+			return load(new Iterator<List<String>>() {
+				private String line;
+
+				public boolean hasNext()
+				{
+					try
+					{
+						while (line == null)
+						{
+							line = seed.readLine();
+							if (line == null)
+							{
+								return false;
+							}
+							line = line.trim();
+							if (line.length() == 0 || line.startsWith("#"))
+							{
+								line = null;
+							}
+						}
+						return true;
+					}
+					catch (IOException e)
+					{
+						throw new UncheckedIOException(e);
+					}
+				}
+
+				public List<String> next()
+				{
+					if (!hasNext())
+					{
+						throw new NoSuchElementException();
+					}
+					String record = line.startsWith(RECORD_PREFIX) ? line.substring(RECORD_PREFIX.length()) : line;
+					line = null;
+					return Arrays.asList(Util.readTokens(record, "|"));
+				}
+
+				public void remove()
+				{
+					throw new UnsupportedOperationException();
+				}
+			});
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Load records already split into fields, e.g. the inventory entries of pbw.properties.
+	 *
+	 * @param records The records.
+	 * @return What was loaded.
+	 */
+	public Result load(Iterable<List<String>> records) throws SQLException, IOException
+	{
+		return load(records.iterator());
+	}
+
+	private Result load(Iterator<List<String>> records) throws SQLException, IOException
+	{
+		long start = System.nanoTime();
+		long rows = 0;
+		long skipped = 0;
+		ImageRenderer images = new ImageRenderer();
+		PreparedStatement items = connection.prepareStatement(INSERT_INVENTORY);
+		PreparedStatement variants = connection.prepareStatement(INSERT_IMAGEVARIANT);
+		try
+		{
+			List<Inventory> chunk = new ArrayList<Inventory>(chunkSize);
+			while (records.hasNext())
+			{
+				List<String> fields = records.next();
+				if (fields.size() < FIELDS)
+				{
+					Util.debug("CatalogLoader: skipping record with {} fields: {}", fields.size(), fields);
+					skipped++;
+					continue;
+				}
+				Inventory item;
+				try
+				{
+					item = new Inventory(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5),
+							Float.parseFloat(fields.get(6)), Float.parseFloat(fields.get(7)), Integer.parseInt(fields.get(8)),
+							Integer.parseInt(fields.get(9)), fields.get(10), Boolean.parseBoolean(fields.get(11)));
+				}
+				catch (NumberFormatException e)
+				{
+					Util.debug("CatalogLoader: skipping record with an invalid number ({}): {}", e.getMessage(), fields);
+					skipped++;
+					continue;
+				}
+				addBatch(items, item);
+				// rendering starts now and overlaps the insert of the chunk
+				images.submit(item.getImage());
+				chunk.add(item);
+				if (chunk.size() == chunkSize)
+				{
+					rows += insert(items, variants, chunk, images);
+				}
+			}
+			rows += insert(items, variants, chunk, images);
+		}
+		finally
+		{
+			images.shutdown();
+			items.close();
+			variants.close();
+		}
+		Result result = new Result(rows, skipped, images.getRendered(), images.getMissing(), (System.nanoTime() - start) / 1000000);
+		Util.debug("CatalogLoader: {}", result);
+		return result;
+	}
+
+	private static void addBatch(PreparedStatement items, Inventory item) throws SQLException
+	{
+		items.setString(1, item.getInventoryId());
+		items.setString(2, item.getName());
+		items.setString(3, item.getHeading());
+		items.setString(4, item.getDescription());
+		items.setString(5, item.getPkginfo());
+		items.setString(6, item.getImage());
+		items.setFloat(7, item.getPrice());
+		items.setFloat(8, item.getCost());
+		items.setInt(9, item.getQuantity());
+		items.setInt(10, item.getCategory());
+		items.setString(11, item.getNotes());
+		items.setInt(12, item.isPublic() ? 1 : 0);
+		items.setInt(13, item.getMinThreshold());
+		items.setInt(14, item.getMaxThreshold());
+		items.addBatch();
+	}
+
+	// send the rows of a chunk, then describe the images of its items
+	private int insert(PreparedStatement items, PreparedStatement variants, List<Inventory> chunk, ImageRenderer images)
+			throws SQLException, IOException
+	{
+		if (chunk.isEmpty())
+		{
+			return 0;
+		}
+		items.executeBatch();
+		for (Inventory item : chunk)
+		{
+			for (ImageVariant variant : images.variants(item.getImage()))
+			{
+				variants.setString(1, item.getInventoryId());
+				variants.setString(2, variant.getVariant());
+				variants.setString(3, variant.getContentType());
+				variants.setString(4, variant.getImgHash());
+				variants.setLong(5, variant.getImgLength());
+				variants.setLong(6, variant.getUpdated());
+				variants.addBatch();
+			}
+		}
+		variants.executeBatch();
+		int rows = chunk.size();
+		chunk.clear();
+		return rows;
+	}
+
+	/**
+	 * Reads and renders each distinct image once on a pool of threads. The
+	 * renditions are put in the blob store by the loading thread, the first
+	 * time an item needs them; after that only their descriptions are kept.
+	 */
+	private class ImageRenderer
+	{
+		private final ExecutorService pool = Executors.newFixedThreadPool(imageThreads, threadFactory);
+		private final Map<String, Future<List<ImageVariants.Rendition>>> pending = new HashMap<String, Future<List<ImageVariants.Rendition>>>();
+		private final Map<String, List<ImageVariant>> described = new HashMap<String, List<ImageVariant>>();
+		private final Set<String> stored = new HashSet<String>();
+		private int missing;
+
+		void submit(final String image)
+		{
+			if (image == null || image.length() == 0 || described.containsKey(image) || pending.containsKey(image))
+			{
+				return;
+			}
+			pending.put(image, pool.submit(new Callable<List<ImageVariants.Rendition>>() {
+				public List<ImageVariants.Rendition> call() throws IOException
+				{
+					return ImageVariants.generate(image, read(image));
+				}
+			}));
+		}
+
+		List<ImageVariant> variants(String image) throws IOException
+		{
+			List<ImageVariant> variants = described.get(image);
+			if (variants != null)
+			{
+				return variants;
+			}
+			variants = new ArrayList<ImageVariant>();
+			Future<List<ImageVariants.Rendition>> rendering = pending.remove(image);
+			if (rendering != null)
+			{
+				try
+				{
+					for (ImageVariants.Rendition rendition : rendering.get())
+					{
+						ImageVariant variant = rendition.getVariant();
+						if (stored.add(variant.getImgHash()))
+						{
+							store.put(variant.getImgHash(), rendition.getBytes());
+						}
+						variants.add(variant);
+					}
+				}
+				catch (ExecutionException e)
+				{
+					Util.debug("CatalogLoader: cannot read image {}: {}", image, e.getCause());
+					missing++;
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while rendering " + image, e);
+				}
+			}
+			described.put(image, variants);
+			return variants;
+		}
+
+		int getRendered()
+		{
+			return described.size() - missing;
+		}
+
+		int getMissing()
+		{
+			return missing;
+		}
+
+		void shutdown()
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	private byte[] read(String image) throws IOException
+	{
+		if (imageDirectory != null)
+		{
+			return Files.readAllBytes(imageDirectory.resolve(image));
+		}
+		InputStream in = imageLoader.getResourceAsStream("resources/images/" + image);
+		if (in == null)
+		{
+			throw new FileNotFoundException("resources/images/" + image);
+		}
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+			{
+				bytes.write(buffer, 0, n);
+			}
+			return bytes.toByteArray();
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
@@ -17,23 +17,51 @@
 package com.ibm.websphere.samples.pbw.ejb;
 
 
-import java.util.Vector;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.sql.DataSource;
 
+import com.ibm.websphere.samples.pbw.jpa.ImageVariant;
 import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.Util;
 
 
 /**
  * The CatalogMgr provides transactional access to the catalog of items
  * the store is willing to sell to customers.
  *
+ * Reads go through the CatalogCache; every write invalidates the affected item
+ * and its category listing. Searches are answered by the CatalogSearchIndex,
+ * which is told about every item added or deleted.
+ *
  * @see com.ibm.websphere.samples.pbw.jpa.Inventory
+ * @see com.ibm.websphere.samples.pbw.ejb.CatalogCache
  */
 @Stateless
 @SuppressWarnings("unchecked")
@@ -42,14 +70,30 @@ public class CatalogMgr
 	@PersistenceContext(unitName="PBW")
 	EntityManager em;
 
+	@Resource(lookup="jdbc/PlantsByWebSphereMySQLDataSource")
+	DataSource dataSource;
+
+	@EJB
+	CatalogCache cache;
+
+	@EJB
+	CatalogSearchIndex searchIndex;
+
+	private ImageBlobStore store;
+
+	// Images of databases created before the blob store still sit in INVENTORY.IMGBYTES
+	private static final String SELECT_LEGACY_IMGBYTES = "SELECT IMGBYTES FROM INVENTORY WHERE INVENTORYID = ?";
+	private static final String LEGACY_VARIANT = "legacy";
+	private static volatile Boolean legacyColumn;
+
 	/**
 	 * Get all inventory items.
 	 *
-	 * @return Vector of Inventorys.
+	 * @return List of Inventorys.
 	 * /
-	public Vector<Inventory> getItems()
+	public List<Inventory> getItems()
 	{
-		Vector<Inventory> items = new Vector<Inventory>();
+		List<Inventory> items = new ArrayList<Inventory>();
 		int count = Util.getCategoryStrings().length;
 		for (int i = 0; i < count; i++)
 		{
@@ -63,34 +107,99 @@ public class CatalogMgr
 	 * Get all inventory items for the given category.
 	 *
 	 * @param category of items desired.
-	 * @return Vector of Inventory.
+	 * @return List of Inventory.
 	 */
-	public Vector<Inventory> getItemsByCategory(int category)
+	public List<Inventory> getItemsByCategory(int category)
 	{
 		RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategory", category);
-		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getItemsByCategory", category);
-		Query q = em.createNamedQuery("getItemsByCategory");
+		List<Inventory> items = cache.getCategory(category);
+		if (items == null)
+		{
+			long generation = cache.generation();
+			RequestLogger.logDatabaseOperation("NAMED_QUERY", "getItemsByCategory", category);
+			Query q = em.createNamedQuery("getItemsByCategory");
+			q.setParameter("category", category);
+			items = q.getResultList();
+			cache.putCategory(category, items, generation);
+		}
+		RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategory", "List[size={}]", items.size());
+		return items;
+	}
+
+	/**
+	 * Get a page of the public inventory items of a category. Pages are keyed
+	 * on the inventory id, so no page costs more than its own rows however
+	 * far into the category it is.
+	 *
+	 * @param category of items desired.
+	 * @param after The last inventory id of the previous page, or null for the first page.
+	 * @param pageSize The most items wanted.
+	 * @return The items with ids after the given one, in id order.
+	 */
+	public CatalogPage getItemsByCategoryAfter(int category, String after, int pageSize)
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategoryAfter", category, after, pageSize);
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getPublicItemsByCategoryAfter", category, after);
+		Query q = em.createNamedQuery("getPublicItemsByCategoryAfter");
+		q.setParameter("category", category);
+		q.setParameter("after", after != null ? after : "");
+		// one more than wanted tells whether there is a next page
+		q.setMaxResults(pageSize + 1);
+		List<Inventory> items = new ArrayList<Inventory>(q.getResultList());
+		boolean next = items.size() > pageSize;
+		if (next)
+		{
+			items.remove(pageSize);
+		}
+		CatalogPage page = new CatalogPage(items, after != null && after.length() > 0, next);
+		RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategoryAfter", page);
+		return page;
+	}
+
+	/**
+	 * Get the page of the public inventory items of a category that comes
+	 * before the given item.
+	 *
+	 * @param category of items desired.
+	 * @param before The first inventory id of the next page.
+	 * @param pageSize The most items wanted.
+	 * @return The items with ids before the given one, in id order.
+	 */
+	public CatalogPage getItemsByCategoryBefore(int category, String before, int pageSize)
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "getItemsByCategoryBefore", category, before, pageSize);
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getPublicItemsByCategoryBefore", category, before);
+		Query q = em.createNamedQuery("getPublicItemsByCategoryBefore");
 		q.setParameter("category", category);
-		//The return type must be Vector because the PBW client ActiveX sample requires Vector
-		Vector<Inventory> result = new Vector<Inventory>(q.getResultList());
-		RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategory", "Vector[size=" + result.size() + "]");
-		return result;
+		q.setParameter("before", before);
+		q.setMaxResults(pageSize + 1);
+		List<Inventory> items = new ArrayList<Inventory>(q.getResultList());
+		boolean previous = items.size() > pageSize;
+		if (previous)
+		{
+			items.remove(pageSize);
+		}
+		Collections.reverse(items);
+		CatalogPage page = new CatalogPage(items, previous, true);
+		RequestLogger.logEJBResult("CatalogMgr", "getItemsByCategoryBefore", page);
+		return page;
 	}
 
 	/**
-	 * Get inventory items that contain a given String within their names.
+	 * Search the public inventory items by the words of their name, heading
+	 * and description. The last word of the query may be partly typed.
 	 *
-	 * @param name String to search names for.
-	 * @return A Vector of Inventorys that match.
-	 * /
-	public Vector<Inventory> getItemsLikeName(String name)
+	 * @param query Words to search for.
+	 * @param maxResults The most results wanted.
+	 * @return The best matching items, best first.
+	 */
+	public List<SearchHit> searchItems(String query, int maxResults)
 	{
-		Query q = em.createNamedQuery("getItemsLikeName");
-		q.setParameter("name", '%' + name + '%');
-		//The return type must be Vector because the PBW client ActiveX sample requires Vector
-		return new Vector<Inventory>(q.getResultList());
+		RequestLogger.logEJBInvocation("CatalogMgr", "searchItems", query, maxResults);
+		List<SearchHit> hits = searchIndex.search(query, maxResults);
+		RequestLogger.logEJBResult("CatalogMgr", "searchItems", "List[size={}]", hits.size());
+		return hits;
 	}
-	*/
 
 	/**
 	 * Get the StoreItem for the given ID.
@@ -113,10 +222,18 @@ public class CatalogMgr
 	public Inventory getItemInventory(String inventoryID)
 	{
 		RequestLogger.logEJBInvocation("CatalogMgr", "getItemInventory", inventoryID);
-		RequestLogger.logDatabaseOperation("FIND", "Inventory", inventoryID);
-		Inventory si = null;
-		si = em.find(Inventory.class, inventoryID);
-		RequestLogger.logEJBResult("CatalogMgr", "getItemInventory", si != null ? "Inventory[" + inventoryID + "]" : "null");
+		Inventory si = cache.getItem(inventoryID);
+		if (si == null)
+		{
+			long generation = cache.generation();
+			RequestLogger.logDatabaseOperation("FIND", "Inventory", inventoryID);
+			si = em.find(Inventory.class, inventoryID);
+			if (si != null)
+			{
+				cache.putItem(si, generation);
+			}
+		}
+		RequestLogger.logEJBResult("CatalogMgr", "getItemInventory", si != null ? "Inventory[{}]" : "null", inventoryID);
 		return si;
 	}
 
@@ -133,6 +250,8 @@ public class CatalogMgr
 		RequestLogger.logDatabaseOperation("PERSIST", "Inventory", item != null ? item.getInventoryId() : "null");
 		em.persist(item);
 		em.flush();
+		cache.invalidate(item.getInventoryId(), item.getCategory());
+		searchIndex.update(item);
 		RequestLogger.logEJBResult("CatalogMgr", "addItem", retval);
 		return retval;
 	}
@@ -154,14 +273,27 @@ public class CatalogMgr
 	 *
 	 * @param inventoryID The ID of the inventory item to delete.
 	 * @return True, if item deleted.
-	 * /
+	 */
 	public boolean deleteItem(String inventoryID)
 	{
-		boolean retval = true;
-		em.remove(em.find(Inventory.class, inventoryID));
+		RequestLogger.logEJBInvocation("CatalogMgr", "deleteItem", inventoryID);
+		boolean retval = false;
+		Inventory inv = getInv(inventoryID);
+		if (inv != null)
+		{
+			RequestLogger.logDatabaseOperation("REMOVE", "Inventory", inventoryID);
+			Query q = em.createNamedQuery("removeImageVariants");
+			q.setParameter("id", inventoryID);
+			q.executeUpdate();
+			em.remove(inv);
+			em.flush();
+			cache.invalidate(inventoryID, inv.getCategory());
+			searchIndex.delete(inventoryID);
+			retval = true;
+		}
+		RequestLogger.logEJBResult("CatalogMgr", "deleteItem", retval);
 		return retval;
 	}
-	*/
 
 	/**
 	 * Get the image for the inventory item.
@@ -172,28 +304,164 @@ public class CatalogMgr
 	{
 		RequestLogger.logEJBInvocation("CatalogMgr", "getItemImageBytes", inventoryID);
 		byte[] retval = null;
-		Inventory inv = getInv(inventoryID);
-		if (inv != null)
+		ImageInfo info = getItemImageInfo(inventoryID);
+		if (info != null)
 		{
-			retval = inv.getImgbytes();
+			ByteArrayOutputStream out = new ByteArrayOutputStream((int) info.getLength());
+			try
+			{
+				if (writeImage(inventoryID, info, 0, info.getLength(), out) >= 0)
+				{
+					retval = out.toByteArray();
+				}
+			}
+			catch (IOException e)
+			{
+				throw new EJBException("Unable to read image for " + inventoryID, e);
+			}
 		}
-		RequestLogger.logEJBResult("CatalogMgr", "getItemImageBytes", retval != null ? "byte[" + retval.length + "]" : "null");
+		RequestLogger.logEJBResult("CatalogMgr", "getItemImageBytes", retval != null ? "byte[{}]" : "null", retval != null ? retval.length : 0);
 		return retval;
 	}
 
 	/**
-	 * Set the image for the inventory item.
+	 * Describe the original image for the inventory item.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @return ImageInfo, or null when the item has no image.
+	 */
+	public ImageInfo getItemImageInfo(String inventoryID)
+	{
+		return getItemImageInfo(inventoryID, ImageVariants.SIZE_FULL, ImageVariants.FORMAT_JPEG);
+	}
+
+	/**
+	 * Describe the best stored rendition of the image for the inventory item.
+	 * A missing format falls back to JPEG of the same size, and a missing size
+	 * falls back to the original. Descriptions are served from the CatalogCache
+	 * until the image changes.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @param size One of the ImageVariants sizes.
+	 * @param format One of the ImageVariants formats.
+	 * @return ImageInfo, or null when the item has no image.
+	 */
+	public ImageInfo getItemImageInfo(String inventoryID, String size, String format)
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "getItemImageInfo", inventoryID, size, format);
+		String request = ImageVariants.name(size, format);
+		ImageInfo info = cache.getImageInfo(inventoryID, request);
+		if (info == null)
+		{
+			long generation = cache.generation();
+			boolean full = ImageVariants.SIZE_FULL.equals(size);
+			boolean jpeg = ImageVariants.FORMAT_JPEG.equals(format);
+			if (!full || !jpeg)
+			{
+				info = findVariantInfo(inventoryID, request);
+			}
+			if (info == null && !full && !jpeg)
+			{
+				info = findVariantInfo(inventoryID, ImageVariants.name(size, ImageVariants.FORMAT_JPEG));
+			}
+			if (info == null)
+			{
+				info = findVariantInfo(inventoryID, ImageVariants.ORIGINAL);
+			}
+			if (info == null)
+			{
+				info = findLegacyInfo(inventoryID);
+			}
+			if (info != null)
+			{
+				cache.putImageInfo(inventoryID, request, info, generation);
+			}
+		}
+		RequestLogger.logEJBResult("CatalogMgr", "getItemImageInfo", info);
+		return info;
+	}
+
+	/**
+	 * Copy part of a rendition of the image for the inventory item straight
+	 * from the blob store to the given stream. Runs outside a transaction so
+	 * that a slow client does not hold one open.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @param info The rendition returned by getItemImageInfo.
+	 * @param offset First byte to copy.
+	 * @param length Number of bytes to copy.
+	 * @param out Stream to copy to.
+	 * @return The number of bytes copied, or -1 when the image is gone.
+	 */
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public long writeItemImage(String inventoryID, ImageInfo info, long offset, long length, OutputStream out) throws IOException
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "writeItemImage", inventoryID, info.getVariant(), offset, length);
+		long copied = writeImage(inventoryID, info, offset, length, out);
+		RequestLogger.logEJBResult("CatalogMgr", "writeItemImage", copied);
+		return copied;
+	}
+
+	/**
+	 * Check that the bytes of a rendition are still stored, so that a response
+	 * can be refused before any of it is sent.
+	 *
+	 * @param inventoryID The id of the inventory item wanted.
+	 * @param info The rendition returned by getItemImageInfo.
+	 * @return true when writeItemImage can copy the rendition.
+	 */
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public boolean hasItemImage(String inventoryID, ImageInfo info)
+	{
+		RequestLogger.logEJBInvocation("CatalogMgr", "hasItemImage", inventoryID, info.getVariant());
+		boolean retval;
+		try
+		{
+			// a legacy image was found in INVENTORY.IMGBYTES when it was described
+			retval = LEGACY_VARIANT.equals(info.getVariant()) || store.contains(info.getHash());
+		}
+		catch (IOException e)
+		{
+			throw new EJBException("Unable to read image for " + inventoryID, e);
+		}
+		RequestLogger.logEJBResult("CatalogMgr", "hasItemImage", retval);
+		return retval;
+	}
+
+	/**
+	 * Set the image for the inventory item. The image and its generated
+	 * renditions are put in the ImageBlobStore and described by ImageVariant rows.
 	 * @param inventoryID The id of the inventory item wanted.
 	 * @param imgbytes Buffer containing the image.
 	 */
 	public void setItemImageBytes(String inventoryID, byte[] imgbytes)
 	{
-		RequestLogger.logEJBInvocation("CatalogMgr", "setItemImageBytes", inventoryID, imgbytes != null ? "byte[" + imgbytes.length + "]" : "null");
+		RequestLogger.logEJBInvocation("CatalogMgr", "setItemImageBytes", inventoryID, imgbytes != null ? imgbytes.length : null);
 		Inventory inv = getInvUpdate(inventoryID);
 		if (inv != null)
 		{
-			RequestLogger.logDatabaseOperation("UPDATE", "Inventory.imgbytes", inventoryID);
-			inv.setImgbytes(imgbytes);
+			RequestLogger.logDatabaseOperation("DELETE", "ImageVariant", inventoryID);
+			Query q = em.createNamedQuery("removeImageVariants");
+			q.setParameter("id", inventoryID);
+			q.executeUpdate();
+			if (imgbytes != null && imgbytes.length > 0)
+			{
+				for (ImageVariants.Rendition rendition : ImageVariants.generate(inventoryID, imgbytes))
+				{
+					ImageVariant variant = rendition.getVariant();
+					try
+					{
+						store.put(variant.getImgHash(), rendition.getBytes());
+					}
+					catch (IOException e)
+					{
+						throw new EJBException("Unable to store image for " + inventoryID, e);
+					}
+					RequestLogger.logDatabaseOperation("PERSIST", "ImageVariant", inventoryID, variant.getVariant());
+					em.persist(variant);
+				}
+			}
+			cache.invalidate(inventoryID, inv.getCategory());
 		}
 		RequestLogger.logEJBResult("CatalogMgr", "setItemImageBytes", "void");
 	}
@@ -212,10 +480,186 @@ public class CatalogMgr
 		{
 			RequestLogger.logDatabaseOperation("UPDATE", "Inventory.quantity", inventoryID, quantity);
 			inv.setQuantity(quantity);
+			cache.invalidate(inventoryID, inv.getCategory());
 		}
 		RequestLogger.logEJBResult("CatalogMgr", "setItemQuantity", "void");
 	}
 
+	/**
+	 * Time the EntityManager and pick the blob store configured by image.store in pbw.properties.
+	 */
+	@PostConstruct
+	void initImageBlobStore()
+	{
+		em = TimedEntityManager.wrap(em);
+		store = createImageBlobStore(em, dataSource);
+	}
+
+	/**
+	 * The blob store configured by image.store in pbw.properties: the IMAGEBLOB
+	 * table for "database", otherwise files under {@link #getImageStoreDirectory()},
+	 * filled from the IMAGEBLOB table as images seeded there are first read.
+	 */
+	static ImageBlobStore createImageBlobStore(EntityManager em, DataSource dataSource)
+	{
+		DatabaseImageBlobStore database = new DatabaseImageBlobStore(em, dataSource);
+		if ("database".equals(Util.getProperty("image.store")))
+		{
+			return database;
+		}
+		return new FileSystemImageBlobStore(getImageStoreDirectory(), database);
+	}
+
+	/**
+	 * image.store.directory, or pbw-images in the Liberty server's output
+	 * directory when it is not set (in the temporary directory outside Liberty).
+	 */
+	static Path getImageStoreDirectory()
+	{
+		String directory = Util.getProperty("image.store.directory");
+		if (directory != null && directory.trim().length() > 0)
+		{
+			return Paths.get(directory.trim());
+		}
+		String output = System.getProperty("server.output.dir");
+		return Paths.get(output != null ? output : System.getProperty("java.io.tmpdir"), "pbw-images");
+	}
+
+	private ImageInfo findVariantInfo(String inventoryID, String variant)
+	{
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getImageVariantInfo", inventoryID, variant);
+		Query q = em.createNamedQuery("getImageVariantInfo");
+		q.setParameter("id", inventoryID);
+		q.setParameter("variant", variant);
+		List<Object[]> rows = q.getResultList();
+		if (rows.isEmpty())
+		{
+			return null;
+		}
+		Object[] row = rows.get(0);
+		return new ImageInfo(variant, (String) row[0], (String) row[1], (Long) row[2], (Long) row[3]);
+	}
+
+	/**
+	 * Describe an image still held in the INVENTORY.IMGBYTES column of a
+	 * database created before images moved to the blob store.
+	 */
+	private ImageInfo findLegacyInfo(String inventoryID)
+	{
+		try (Connection conn = dataSource.getConnection())
+		{
+			if (!hasLegacyColumn(conn))
+			{
+				return null;
+			}
+			RequestLogger.logDatabaseOperation("SELECT", "INVENTORY.IMGBYTES", inventoryID);
+			try (PreparedStatement ps = conn.prepareStatement(SELECT_LEGACY_IMGBYTES))
+			{
+				ps.setString(1, inventoryID);
+				try (ResultSet rs = ps.executeQuery())
+				{
+					InputStream in = rs.next() ? rs.getBinaryStream(1) : null;
+					if (in == null)
+					{
+						return null;
+					}
+					MessageDigest md = ImageVariants.sha256();
+					long length;
+					try (DigestInputStream din = new DigestInputStream(in, md))
+					{
+						length = copy(din, 0, Long.MAX_VALUE, null);
+					}
+					// the column has no update time; the ETag alone validates it
+					return new ImageInfo(LEGACY_VARIANT, "image/jpeg", ImageVariants.hash(md.digest()), length, 0);
+				}
+			}
+		}
+		catch (SQLException | IOException e)
+		{
+			throw new EJBException("Unable to read image for " + inventoryID, e);
+		}
+	}
+
+	private static boolean hasLegacyColumn(Connection conn) throws SQLException
+	{
+		Boolean present = legacyColumn;
+		if (present == null)
+		{
+			try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, "INVENTORY", "IMGBYTES"))
+			{
+				present = rs.next();
+			}
+			legacyColumn = present;
+		}
+		return present;
+	}
+
+	private long writeImage(String inventoryID, ImageInfo info, long offset, long length, OutputStream out) throws IOException
+	{
+		if (!LEGACY_VARIANT.equals(info.getVariant()))
+		{
+			RequestLogger.logDatabaseOperation("READ", "ImageBlobStore", info.getHash());
+			InputStream in = store.open(info.getHash());
+			if (in == null)
+			{
+				return -1;
+			}
+			try
+			{
+				return copy(in, offset, length, out);
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		RequestLogger.logDatabaseOperation("SELECT", "INVENTORY.IMGBYTES", inventoryID);
+		try (Connection conn = dataSource.getConnection();
+			 PreparedStatement ps = conn.prepareStatement(SELECT_LEGACY_IMGBYTES))
+		{
+			ps.setString(1, inventoryID);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				InputStream in = rs.next() ? rs.getBinaryStream(1) : null;
+				return in == null ? -1 : copy(in, offset, length, out);
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new IOException("Unable to read image for " + inventoryID, e);
+		}
+	}
+
+	private static long copy(InputStream in, long offset, long length, OutputStream out) throws IOException
+	{
+		long skipped = 0;
+		while (skipped < offset)
+		{
+			long n = in.skip(offset - skipped);
+			if (n <= 0)
+			{
+				return 0;
+			}
+			skipped += n;
+		}
+		byte[] buffer = new byte[8192];
+		long copied = 0;
+		while (copied < length)
+		{
+			int n = in.read(buffer, 0, (int) Math.min(buffer.length, length - copied));
+			if (n < 0)
+			{
+				break;
+			}
+			if (out != null)
+			{
+				out.write(buffer, 0, n);
+			}
+			copied += n;
+		}
+		return copied;
+	}
+
 	/**
 	 * Get a remote Inventory object.
 	 *
@@ -237,8 +681,11 @@ public class CatalogMgr
 	{
 		Inventory inv = null;
 		inv = em.find(Inventory.class, inventoryID);
-		em.lock(inv, LockModeType.PESSIMISTIC_WRITE);
-		em.refresh(inv);
+		if (inv != null)
+		{
+			em.lock(inv, LockModeType.PESSIMISTIC_WRITE);
+			em.refresh(inv);
+		}
 		return inv;
 	}
 
@@ -0,0 +1,78 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.List;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+/**
+ * This class is one page of a category listing, in inventory id order. The
+ * ids of its first and last items are the keys to ask CatalogMgr for the
+ * pages before and after it.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.CatalogMgr#getItemsByCategoryAfter(int, String, int)
+ */
+public class CatalogPage implements java.io.Serializable
+{
+	private static final long serialVersionUID = 1L;
+	private List<Inventory> items;
+	private boolean previous;
+	private boolean next;
+
+	public CatalogPage(List<Inventory> items, boolean previous, boolean next)
+	{
+		this.items = items;
+		this.previous = previous;
+		this.next = next;
+	}
+
+	//the items of the page, in inventory id order
+	public List<Inventory> getItems()
+	{
+		return items;
+	}
+
+	//whether there are items before this page
+	public boolean hasPrevious()
+	{
+		return previous;
+	}
+
+	//whether there are items after this page
+	public boolean hasNext()
+	{
+		return next;
+	}
+
+	//key for the page before this one, or null when the page is empty
+	public String getFirstInventoryId()
+	{
+		return items.isEmpty() ? null : items.get(0).getInventoryId();
+	}
+
+	//key for the page after this one, or null when the page is empty
+	public String getLastInventoryId()
+	{
+		return items.isEmpty() ? null : items.get(items.size() - 1).getInventoryId();
+	}
+
+	public String toString()
+	{
+		return "CatalogPage[size=" + items.size() + ", previous=" + previous + ", next=" + next + "]";
+	}
+}
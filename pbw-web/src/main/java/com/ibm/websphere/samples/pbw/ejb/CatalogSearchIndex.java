@@ -0,0 +1,610 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.interceptor.ExcludeDefaultInterceptors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Per-node, in-memory inverted index over the name, heading and description
+ * of the public catalog items, used by CatalogMgr to search the catalog
+ * without scanning INVENTORY.
+ *
+ * Words are lower-cased runs of letters and digits. Every word of a query
+ * must match a word of the item, either exactly or as its prefix, so that
+ * "bon" finds Bonsai. An exact match scores twice a prefix match, and a word
+ * in the name counts for more than one in the heading, which counts for more
+ * than one in the description. Results are best first, ties by name.
+ *
+ * Items are numbered, and each word keeps the numbers of the items holding it,
+ * so a search only adds up small integers for the items its words point at.
+ * The arrays it adds them up in belong to the calling thread and are reused.
+ *
+ * The index is loaded when the application starts, or on the first search if
+ * the database was not reachable then. CatalogMgr reports each item it adds
+ * or deletes; when a transaction is active the change is applied once it
+ * commits, so searches never see an item that was rolled back.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.CatalogMgr#searchItems(String, int)
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@ExcludeDefaultInterceptors
+public class CatalogSearchIndex
+{
+	static final int NAME_WEIGHT = 4;
+	static final int HEADING_WEIGHT = 2;
+	static final int DESCRIPTION_WEIGHT = 1;
+	// words of a query beyond this many are ignored
+	static final int MAX_QUERY_WORDS = 16;
+
+	@PersistenceContext(unitName="PBW")
+	EntityManager em;
+
+	@Resource
+	TransactionSynchronizationRegistry txRegistry;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final TreeMap<String, Postings> postings = new TreeMap<String, Postings>();
+	private final Map<String, Integer> numbers = new HashMap<String, Integer>();
+	private Document[] documents = new Document[64];
+	private int[] freeNumbers = new int[16];
+	private int freeCount;
+	private int nextNumber;
+	private volatile boolean loaded;
+
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		protected Scratch initialValue()
+		{
+			return new Scratch();
+		}
+	};
+
+	/**
+	 * Load the index when the application starts. A database that is not
+	 * up yet only delays the load until the first search.
+	 */
+	@PostConstruct
+	void start()
+	{
+		try
+		{
+			load();
+		}
+		catch (RuntimeException e)
+		{
+			Util.debug("CatalogSearchIndex: catalog not loaded at startup, will retry on first search: {}", e);
+		}
+	}
+
+	/**
+	 * Replace the contents of the index with the public items in the database.
+	 */
+	public void load()
+	{
+		RequestLogger.logDatabaseOperation("NAMED_QUERY", "getSearchableItems");
+		Query q = em.createNamedQuery("getSearchableItems");
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = q.getResultList();
+		lock.writeLock().lock();
+		try
+		{
+			reset();
+			for (Object[] row : rows)
+			{
+				put(new Document((String) row[0], (String) row[1], (String) row[2], (String) row[3],
+						((Number) row[4]).intValue(), ((Number) row[5]).floatValue(), (String) row[6]));
+			}
+			loaded = true;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+		Util.debug("CatalogSearchIndex: indexed {} items", rows.size());
+	}
+
+	/**
+	 * Search the catalog.
+	 *
+	 * @param query Words to look for; the last may be partly typed.
+	 * @param maxResults The most results wanted.
+	 * @return The best matches, best first; empty when the query has no words.
+	 */
+	public List<SearchHit> search(String query, int maxResults)
+	{
+		if (!loaded)
+		{
+			load();
+		}
+		Set<String> words = tokenize(query);
+		if (words.isEmpty() || maxResults <= 0)
+		{
+			return Collections.emptyList();
+		}
+		lock.readLock().lock();
+		try
+		{
+			Scratch s = scratch.get();
+			s.ensureCapacity(nextNumber);
+			try
+			{
+				int matched = 0;
+				for (String word : words)
+				{
+					if (matched == MAX_QUERY_WORDS || !match(word, matched, s))
+					{
+						break;
+					}
+					matched++;
+				}
+				return best(s, matched, words.size(), maxResults);
+			}
+			finally
+			{
+				s.clear();
+			}
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Index an added or changed item, or drop it if it is no longer public.
+	 *
+	 * @param item The item as written to the database.
+	 */
+	public void update(Inventory item)
+	{
+		final String inventoryID = item.getInventoryId();
+		final Document document = item.isPublic() ? new Document(inventoryID, item.getName(), item.getHeading(),
+				item.getDescription(), item.getCategory(), item.getPrice(), item.getImage()) : null;
+		afterCommit(new Runnable() {
+			public void run()
+			{
+				lock.writeLock().lock();
+				try
+				{
+					remove(inventoryID);
+					if (document != null)
+					{
+						put(document);
+					}
+				}
+				finally
+				{
+					lock.writeLock().unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Drop a deleted item.
+	 *
+	 * @param inventoryID The id of the deleted item.
+	 */
+	public void delete(final String inventoryID)
+	{
+		afterCommit(new Runnable() {
+			public void run()
+			{
+				lock.writeLock().lock();
+				try
+				{
+					remove(inventoryID);
+				}
+				finally
+				{
+					lock.writeLock().unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Drop everything, e.g. after the database has been emptied.
+	 */
+	public void clear()
+	{
+		lock.writeLock().lock();
+		try
+		{
+			reset();
+			loaded = true;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Number of items in the index.
+	 */
+	public int getSize()
+	{
+		lock.readLock().lock();
+		try
+		{
+			return numbers.size();
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Split text into distinct lower-case words of letters and digits.
+	 */
+	static Set<String> tokenize(String text)
+	{
+		Set<String> words = new LinkedHashSet<String>();
+		if (text == null)
+		{
+			return words;
+		}
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++)
+		{
+			boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+			if (wordChar && start < 0)
+			{
+				start = i;
+			}
+			else if (!wordChar && start >= 0)
+			{
+				words.add(lower.substring(start, i));
+				start = -1;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Score the items that matched every earlier query word and hold a word
+	 * starting with this one. An item holding several such words scores the best.
+	 *
+	 * @return Whether any item is still in the running.
+	 */
+	private boolean match(String word, int earlier, Scratch s)
+	{
+		s.live = 0;
+		for (Map.Entry<String, Postings> entry : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet())
+		{
+			int factor = entry.getKey().length() == word.length() ? 2 : 1;
+			Postings p = entry.getValue();
+			for (int i = 0; i < p.size; i++)
+			{
+				int n = p.numbers[i];
+				int score = p.weights[i] * factor;
+				if (s.matched[n] == earlier)
+				{
+					if (earlier == 0)
+					{
+						s.addCandidate(n);
+					}
+					s.matched[n] = (byte) (earlier + 1);
+					s.wordScores[n] = (byte) score;
+					s.scores[n] += score;
+					s.live++;
+				}
+				else if (s.matched[n] == earlier + 1 && score > s.wordScores[n])
+				{
+					s.scores[n] += score - s.wordScores[n];
+					s.wordScores[n] = (byte) score;
+				}
+			}
+		}
+		return s.live > 0;
+	}
+
+	private List<SearchHit> best(final Scratch s, int matched, int words, int maxResults)
+	{
+		if (matched < Math.min(words, MAX_QUERY_WORDS))
+		{
+			return Collections.emptyList();
+		}
+		Comparator<Integer> worstFirst = new Comparator<Integer>() {
+			public int compare(Integer a, Integer b)
+			{
+				if (s.scores[a] != s.scores[b])
+				{
+					return s.scores[a] < s.scores[b] ? -1 : 1;
+				}
+				int byName = documents[b].name.compareTo(documents[a].name);
+				return byName != 0 ? byName : documents[b].inventoryId.compareTo(documents[a].inventoryId);
+			}
+		};
+		PriorityQueue<Integer> top = new PriorityQueue<Integer>(maxResults + 1, worstFirst);
+		for (int i = 0; i < s.candidateCount; i++)
+		{
+			int n = s.candidates[i];
+			if (s.matched[n] != matched)
+			{
+				continue;
+			}
+			if (top.size() < maxResults)
+			{
+				top.add(n);
+			}
+			else if (worstFirst.compare(n, top.peek()) > 0)
+			{
+				top.poll();
+				top.add(n);
+			}
+		}
+		List<SearchHit> hits = new ArrayList<SearchHit>(top.size());
+		while (!top.isEmpty())
+		{
+			int n = top.poll();
+			hits.add(documents[n].hit(s.scores[n]));
+		}
+		Collections.reverse(hits);
+		return hits;
+	}
+
+	private void put(Document document)
+	{
+		int n;
+		if (freeCount > 0)
+		{
+			n = freeNumbers[--freeCount];
+		}
+		else
+		{
+			n = nextNumber++;
+			if (n == documents.length)
+			{
+				documents = Arrays.copyOf(documents, n * 2);
+			}
+		}
+		documents[n] = document;
+		numbers.put(document.inventoryId, n);
+		for (Map.Entry<String, Integer> entry : document.words.entrySet())
+		{
+			Postings p = postings.get(entry.getKey());
+			if (p == null)
+			{
+				p = new Postings();
+				postings.put(entry.getKey(), p);
+			}
+			p.add(n, entry.getValue());
+		}
+	}
+
+	private void remove(String inventoryID)
+	{
+		Integer n = numbers.remove(inventoryID);
+		if (n == null)
+		{
+			return;
+		}
+		for (String word : documents[n].words.keySet())
+		{
+			Postings p = postings.get(word);
+			if (p != null && p.remove(n) && p.size == 0)
+			{
+				postings.remove(word);
+			}
+		}
+		documents[n] = null;
+		if (freeCount == freeNumbers.length)
+		{
+			freeNumbers = Arrays.copyOf(freeNumbers, freeCount * 2);
+		}
+		freeNumbers[freeCount++] = n;
+	}
+
+	private void reset()
+	{
+		postings.clear();
+		numbers.clear();
+		documents = new Document[64];
+		freeCount = 0;
+		nextNumber = 0;
+	}
+
+	private void afterCommit(final Runnable change)
+	{
+		if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE)
+		{
+			txRegistry.registerInterposedSynchronization(new Synchronization() {
+				public void beforeCompletion()
+				{
+				}
+
+				public void afterCompletion(int status)
+				{
+					if (status == Status.STATUS_COMMITTED)
+					{
+						change.run();
+					}
+				}
+			});
+		}
+		else
+		{
+			change.run();
+		}
+	}
+
+	/**
+	 * An indexed item: what its search results show, and the weight of each of its words.
+	 */
+	private static class Document
+	{
+		final String inventoryId;
+		final String name;
+		final String heading;
+		final int category;
+		final float price;
+		final String image;
+		final Map<String, Integer> words = new HashMap<String, Integer>();
+
+		Document(String inventoryId, String name, String heading, String description, int category, float price, String image)
+		{
+			this.inventoryId = inventoryId;
+			this.name = name != null ? name : "";
+			this.heading = heading;
+			this.category = category;
+			this.price = price;
+			this.image = image;
+			addWords(description, DESCRIPTION_WEIGHT);
+			addWords(heading, HEADING_WEIGHT);
+			addWords(name, NAME_WEIGHT);
+		}
+
+		private void addWords(String text, int weight)
+		{
+			for (String word : tokenize(text))
+			{
+				Integer current = words.get(word);
+				if (current == null || current < weight)
+				{
+					words.put(word, weight);
+				}
+			}
+		}
+
+		SearchHit hit(int score)
+		{
+			return new SearchHit(inventoryId, name, heading, category, price, image, score);
+		}
+	}
+
+	/**
+	 * The numbers of the items holding one word, unordered, each with the
+	 * weight of the best field holding it.
+	 */
+	private static class Postings
+	{
+		int[] numbers = new int[2];
+		int[] weights = new int[2];
+		int size;
+
+		void add(int number, int weight)
+		{
+			if (size == numbers.length)
+			{
+				numbers = Arrays.copyOf(numbers, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			numbers[size] = number;
+			weights[size] = weight;
+			size++;
+		}
+
+		boolean remove(int number)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				if (numbers[i] == number)
+				{
+					size--;
+					numbers[i] = numbers[size];
+					weights[i] = weights[size];
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Per-thread working space of a search, indexed by item number. Only the
+	 * candidates, the items matching the first query word, are ever written,
+	 * so only they are cleared afterwards.
+	 */
+	private static class Scratch
+	{
+		int[] scores = new int[0];
+		byte[] matched = new byte[0];
+		byte[] wordScores = new byte[0];
+		int[] candidates = new int[64];
+		int candidateCount;
+		// items that matched every query word so far
+		int live;
+
+		void ensureCapacity(int items)
+		{
+			if (scores.length < items)
+			{
+				int capacity = Math.max(items, scores.length * 2);
+				scores = new int[capacity];
+				matched = new byte[capacity];
+				wordScores = new byte[capacity];
+			}
+		}
+
+		void addCandidate(int number)
+		{
+			if (candidateCount == candidates.length)
+			{
+				candidates = Arrays.copyOf(candidates, candidateCount * 2);
+			}
+			candidates[candidateCount++] = number;
+		}
+
+		void clear()
+		{
+			for (int i = 0; i < candidateCount; i++)
+			{
+				int n = candidates[i];
+				scores[n] = 0;
+				matched[n] = 0;
+				wordScores[n] = 0;
+			}
+			candidateCount = 0;
+		}
+	}
+}
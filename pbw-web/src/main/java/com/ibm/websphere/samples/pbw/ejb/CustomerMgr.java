@@ -16,6 +16,7 @@
 //
 package com.ibm.websphere.samples.pbw.ejb;
 
+import javax.annotation.PostConstruct;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
@@ -36,7 +37,13 @@ public class CustomerMgr
 {
 	@PersistenceContext(unitName="PBW")
 	EntityManager em;
-	
+
+	@PostConstruct
+	void timeEntityManager()
+	{
+		em = TimedEntityManager.wrap(em);
+	}
+
 	/**
 	 * Create a new user.
 	 *
@@ -63,7 +70,7 @@ public class CustomerMgr
 		RequestLogger.logDatabaseOperation("PERSIST", "Customer", customerID);
 		em.persist(c);
 		em.flush();
-		RequestLogger.logEJBResult("CustomerMgr", "createCustomer", "Customer[" + customerID + "]");
+		RequestLogger.logEJBResult("CustomerMgr", "createCustomer", "Customer[{}]", customerID);
 		return c;
 	}
 	
@@ -78,7 +85,7 @@ public class CustomerMgr
 		RequestLogger.logEJBInvocation("CustomerMgr", "getCustomer", customerID);
 		RequestLogger.logDatabaseOperation("FIND", "Customer", customerID);
 		Customer c = em.find(Customer.class, customerID);
-		RequestLogger.logEJBResult("CustomerMgr", "getCustomer", c != null ? "Customer[" + customerID + "]" : "null");
+		RequestLogger.logEJBResult("CustomerMgr", "getCustomer", c != null ? "Customer[{}]" : "null", customerID);
 		return c;
 
 	}
@@ -117,7 +124,7 @@ public class CustomerMgr
 		c.setPhone(phone);
 
 		RequestLogger.logDatabaseOperation("UPDATE", "Customer", customerID);
-		RequestLogger.logEJBResult("CustomerMgr", "updateUser", "Customer[" + customerID + "]");
+		RequestLogger.logEJBResult("CustomerMgr", "updateUser", "Customer[{}]", customerID);
 		return c;
 	}
 	
@@ -144,13 +151,13 @@ public class CustomerMgr
 			if ( ! customer.verifyPassword(password) )    // Is password correct?
 			{
 				results = "\nPassword does not match for : " + customerID;
-				Util.debug("Password given does not match for userid=" + customerID);
+				Util.debug("Password given does not match for userid={}", customerID);
 			}
 		}
 		else     // Customer was not found.
 		{
 			results = "\nCould not find account for : " + customerID;
-			Util.debug("customer " + customerID + " NOT found");
+			Util.debug("customer {} NOT found", customerID);
 		}
 
 		RequestLogger.logEJBResult("CustomerMgr", "verifyUserAndPassword", results == null ? "SUCCESS" : "FAILURE");
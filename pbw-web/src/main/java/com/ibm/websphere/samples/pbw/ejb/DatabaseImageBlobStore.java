@@ -0,0 +1,130 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+
+/**
+ * ImageBlobStore keeping blobs in the IMAGEBLOB table. Writes go through the
+ * EntityManager so they commit with the caller's transaction, and leave an
+ * existing row alone, so concurrent puts of the same image do not collide;
+ * reads stream the column over JDBC without materialising an entity.
+ */
+public class DatabaseImageBlobStore implements ImageBlobStore
+{
+	private static final String SELECT_BLOB = "SELECT IMGBYTES FROM IMAGEBLOB WHERE IMGHASH = ?";
+	private static final String COUNT_BLOB = "SELECT COUNT(*) FROM IMAGEBLOB WHERE IMGHASH = ?";
+
+	private final EntityManager em;
+	private final DataSource dataSource;
+
+	public DatabaseImageBlobStore(EntityManager em, DataSource dataSource)
+	{
+		this.em = em;
+		this.dataSource = dataSource;
+	}
+
+	public void put(String hash, byte[] bytes)
+	{
+		Query q = em.createNamedQuery("insertImageBlob");
+		q.setParameter(1, hash);
+		q.setParameter(2, bytes);
+		q.executeUpdate();
+	}
+
+	public InputStream open(String hash) throws IOException
+	{
+		Connection conn = null;
+		try
+		{
+			conn = dataSource.getConnection();
+			PreparedStatement ps = conn.prepareStatement(SELECT_BLOB);
+			ps.setString(1, hash);
+			ResultSet rs = ps.executeQuery();
+			InputStream in = rs.next() ? rs.getBinaryStream(1) : null;
+			if (in == null)
+			{
+				return null;
+			}
+			final Connection owned = conn;
+			conn = null;
+			return new FilterInputStream(in) {
+				public void close() throws IOException
+				{
+					try
+					{
+						super.close();
+					}
+					finally
+					{
+						closeQuietly(owned);
+					}
+				}
+			};
+		}
+		catch (SQLException e)
+		{
+			throw new IOException("Unable to read image blob " + hash, e);
+		}
+		finally
+		{
+			closeQuietly(conn);
+		}
+	}
+
+	public boolean contains(String hash) throws IOException
+	{
+		try (Connection conn = dataSource.getConnection();
+			 PreparedStatement ps = conn.prepareStatement(COUNT_BLOB))
+		{
+			ps.setString(1, hash);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				return rs.next() && rs.getInt(1) > 0;
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new IOException("Unable to look up image blob " + hash, e);
+		}
+	}
+
+	private static void closeQuietly(Connection conn)
+	{
+		if (conn != null)
+		{
+			try
+			{
+				conn.close();
+			}
+			catch (SQLException e)
+			{
+				// nothing left to release
+			}
+		}
+	}
+}
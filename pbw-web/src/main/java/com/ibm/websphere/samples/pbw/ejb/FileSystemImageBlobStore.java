@@ -0,0 +1,135 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * ImageBlobStore keeping each blob as a file in a local directory, sharded
+ * by the first two bytes of the hash (ab/cd/abcd...). Files are written to a
+ * temporary name and moved into place, so readers never see partial blobs.
+ *
+ * A blob missing from the directory is looked up in the fallback store, if
+ * there is one, and copied into the directory when found. That way a database
+ * seeded with IMAGEBLOB rows, such as the docker image's, fills the directory
+ * as its images are first requested.
+ */
+public class FileSystemImageBlobStore implements ImageBlobStore
+{
+	private final Path root;
+	private final ImageBlobStore fallback;
+
+	public FileSystemImageBlobStore(Path root)
+	{
+		this(root, null);
+	}
+
+	/**
+	 * @param root The directory holding the blobs.
+	 * @param fallback Where to look for blobs missing from the directory, or null.
+	 */
+	public FileSystemImageBlobStore(Path root, ImageBlobStore fallback)
+	{
+		this.root = root;
+		this.fallback = fallback;
+	}
+
+	public void put(String hash, byte[] bytes) throws IOException
+	{
+		Path target = path(hash);
+		if (Files.exists(target))
+		{
+			return;
+		}
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+		try
+		{
+			Files.write(temp, bytes);
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (FileAlreadyExistsException e)
+		{
+			// stored concurrently with the same content
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	public InputStream open(String hash) throws IOException
+	{
+		try
+		{
+			return Files.newInputStream(path(hash));
+		}
+		catch (NoSuchFileException e)
+		{
+			byte[] bytes = fill(hash);
+			return bytes != null ? new ByteArrayInputStream(bytes) : null;
+		}
+	}
+
+	public boolean contains(String hash) throws IOException
+	{
+		return Files.exists(path(hash)) || fill(hash) != null;
+	}
+
+	// copy a blob missing from the directory from the fallback store
+	private byte[] fill(String hash) throws IOException
+	{
+		InputStream in = fallback != null ? fallback.open(hash) : null;
+		if (in == null)
+		{
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try
+		{
+			byte[] buffer = new byte[8192];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+			{
+				out.write(buffer, 0, n);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		byte[] bytes = out.toByteArray();
+		put(hash, bytes);
+		return bytes;
+	}
+
+	private Path path(String hash)
+	{
+		if (hash.length() < 4)
+		{
+			throw new IllegalArgumentException("Not a content hash: " + hash);
+		}
+		return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+	}
+}
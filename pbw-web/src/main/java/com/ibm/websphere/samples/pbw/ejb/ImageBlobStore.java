@@ -0,0 +1,55 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content-addressed storage for catalog image bytes.
+ * Blobs are keyed by the hex SHA-256 of their content, so storing the same
+ * image twice is a no-op and a stored blob never changes.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.FileSystemImageBlobStore
+ * @see com.ibm.websphere.samples.pbw.ejb.DatabaseImageBlobStore
+ */
+public interface ImageBlobStore
+{
+	/**
+	 * Store a blob unless one with the same hash already exists.
+	 *
+	 * @param hash Hex SHA-256 of the bytes.
+	 * @param bytes The content.
+	 */
+	void put(String hash, byte[] bytes) throws IOException;
+
+	/**
+	 * Open a stored blob.
+	 *
+	 * @param hash Hex SHA-256 of the content wanted.
+	 * @return Stream over the content, or null when no such blob is stored.
+	 */
+	InputStream open(String hash) throws IOException;
+
+	/**
+	 * Check that a blob is stored, without reading it.
+	 *
+	 * @param hash Hex SHA-256 of the content wanted.
+	 * @return true when {@link #open(String)} would find the blob.
+	 */
+	boolean contains(String hash) throws IOException;
+}
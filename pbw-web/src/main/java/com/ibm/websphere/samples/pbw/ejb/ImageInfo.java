@@ -0,0 +1,82 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+/**
+ * This class describes one stored rendition of an inventory item's
+ * image without carrying its bytes. It is what ImageServlet needs to
+ * pick the rendition and answer conditional and range requests.
+ */
+public class ImageInfo implements java.io.Serializable
+{
+	private static final long serialVersionUID = 1L;
+	private String variant;
+	private String contentType;
+	private String hash;
+	private long length;
+	private long lastModified;
+
+	public ImageInfo(String variant, String contentType, String hash, long length, long lastModified)
+	{
+		this.variant = variant;
+		this.contentType = contentType;
+		this.hash = hash;
+		this.length = length;
+		this.lastModified = lastModified;
+	}
+
+	//variant name, e.g. "thumb.jpeg", or "original"
+	public String getVariant()
+	{
+		return variant;
+	}
+
+	//MIME type of the variant
+	public String getContentType()
+	{
+		return contentType;
+	}
+
+	//hex SHA-256 of the content, its key in the ImageBlobStore
+	public String getHash()
+	{
+		return hash;
+	}
+
+	//quoted entity tag derived from the content hash
+	public String getETag()
+	{
+		return '"' + hash + '"';
+	}
+
+	//image size in bytes
+	public long getLength()
+	{
+		return length;
+	}
+
+	//milliseconds since the epoch, truncated to whole seconds, or 0 when not known
+	public long getLastModified()
+	{
+		return lastModified;
+	}
+
+	public String toString()
+	{
+		return "ImageInfo[variant=" + variant + ", hash=" + hash + ", length=" + length + "]";
+	}
+}
@@ -0,0 +1,302 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.ibm.websphere.samples.pbw.jpa.ImageVariant;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Generates the renditions of a catalog image.
+ *
+ * The "original" rendition is the image exactly as stored by setItemImageBytes.
+ * Sizes match the boxes the pages display them in: "thumb" for the shopping
+ * grid and "medium" for the product page; "full" is served from the original.
+ * Every size is written as JPEG; WebP renditions are added when an ImageIO
+ * WebP writer is installed.
+ */
+public class ImageVariants
+{
+	public static final String SIZE_THUMB = "thumb";
+	public static final String SIZE_MEDIUM = "medium";
+	public static final String SIZE_FULL = "full";
+	public static final String FORMAT_JPEG = "jpeg";
+	public static final String FORMAT_WEBP = "webp";
+	public static final String ORIGINAL = "original";
+
+	/**
+	 * A rendition's description together with its bytes, ready to be stored.
+	 */
+	public static class Rendition
+	{
+		private final ImageVariant variant;
+		private final byte[] bytes;
+
+		Rendition(ImageVariant variant, byte[] bytes)
+		{
+			this.variant = variant;
+			this.bytes = bytes;
+		}
+
+		public ImageVariant getVariant()
+		{
+			return variant;
+		}
+
+		public byte[] getBytes()
+		{
+			return bytes;
+		}
+	}
+
+	private static final String[] SIZES = { SIZE_THUMB, SIZE_MEDIUM };
+	private static final int[][] BOXES = { { 80, 95 }, { 220, 250 } };
+	private static final float QUALITY = 0.85f;
+
+	private ImageVariants() { }
+
+	/**
+	 * Name of the variant for a size and format, e.g. "thumb.webp".
+	 */
+	public static String name(String size, String format)
+	{
+		return size + "." + format;
+	}
+
+	/**
+	 * Check whether a size parameter names a known size.
+	 */
+	public static boolean isSize(String size)
+	{
+		return SIZE_FULL.equals(size) || SIZE_THUMB.equals(size) || SIZE_MEDIUM.equals(size);
+	}
+
+	/**
+	 * Check whether a format parameter names a known format.
+	 */
+	public static boolean isFormat(String format)
+	{
+		return FORMAT_JPEG.equals(format) || FORMAT_WEBP.equals(format);
+	}
+
+	/**
+	 * Render every variant of an image.
+	 *
+	 * @param inventoryID The id of the inventory item the image belongs to.
+	 * @param original The full-size image as uploaded.
+	 * @return The original followed by the derived renditions; only the
+	 *         original when the image cannot be decoded.
+	 */
+	public static List<Rendition> generate(String inventoryID, byte[] original)
+	{
+		List<Rendition> variants = new ArrayList<Rendition>();
+		add(variants, inventoryID, ORIGINAL, contentType(original), original);
+		BufferedImage source;
+		try
+		{
+			source = ImageIO.read(new ByteArrayInputStream(original));
+		}
+		catch (IOException e)
+		{
+			source = null;
+		}
+		if (source == null)
+		{
+			Util.debug("ImageVariants.generate() - cannot decode image of {}, serving the original only", inventoryID);
+			return variants;
+		}
+		boolean webp = ImageIO.getImageWritersByFormatName(FORMAT_WEBP).hasNext();
+		for (int i = 0; i < SIZES.length; i++)
+		{
+			BufferedImage scaled = scale(source, BOXES[i][0], BOXES[i][1]);
+			try
+			{
+				add(variants, inventoryID, name(SIZES[i], FORMAT_JPEG), "image/jpeg", encode(scaled, FORMAT_JPEG));
+				if (webp)
+				{
+					add(variants, inventoryID, name(SIZES[i], FORMAT_WEBP), "image/webp", encode(scaled, FORMAT_WEBP));
+				}
+			}
+			catch (IOException e)
+			{
+				Util.debug("ImageVariants.generate() - cannot encode {} image of {}: {}", SIZES[i], inventoryID, e);
+			}
+		}
+		if (webp)
+		{
+			try
+			{
+				add(variants, inventoryID, name(SIZE_FULL, FORMAT_WEBP), "image/webp", encode(opaque(source), FORMAT_WEBP));
+			}
+			catch (IOException e)
+			{
+				Util.debug("ImageVariants.generate() - cannot encode full WebP image of {}: {}", inventoryID, e);
+			}
+		}
+		return variants;
+	}
+
+	/**
+	 * Hex SHA-256 used for ETags and content addressing.
+	 */
+	public static String hash(byte[] digest)
+	{
+		StringBuilder hex = new StringBuilder(digest.length * 2);
+		for (int i = 0; i < digest.length; i++)
+		{
+			hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * New SHA-256 digest.
+	 */
+	public static MessageDigest sha256()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void add(List<Rendition> variants, String inventoryID, String variant, String contentType, byte[] bytes)
+	{
+		String hash = hash(sha256().digest(bytes));
+		variants.add(new Rendition(new ImageVariant(inventoryID, variant, contentType, hash, bytes.length), bytes));
+	}
+
+	/**
+	 * Recognise the common web image formats by their magic numbers.
+	 */
+	private static String contentType(byte[] bytes)
+	{
+		if (bytes.length >= 4 && bytes[0] == (byte) 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G')
+		{
+			return "image/png";
+		}
+		if (bytes.length >= 3 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F')
+		{
+			return "image/gif";
+		}
+		if (bytes.length >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+				&& bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P')
+		{
+			return "image/webp";
+		}
+		return "image/jpeg";
+	}
+
+	/**
+	 * Scale to fit inside the box, halving first so large reductions stay smooth.
+	 */
+	private static BufferedImage scale(BufferedImage source, int maxWidth, int maxHeight)
+	{
+		BufferedImage current = opaque(source);
+		double ratio = Math.min(1.0, Math.min((double) maxWidth / current.getWidth(), (double) maxHeight / current.getHeight()));
+		int width = Math.max(1, (int) Math.round(current.getWidth() * ratio));
+		int height = Math.max(1, (int) Math.round(current.getHeight() * ratio));
+		while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height)
+		{
+			current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+		}
+		if (current.getWidth() != width || current.getHeight() != height)
+		{
+			current = draw(current, width, height);
+		}
+		return current;
+	}
+
+	private static BufferedImage opaque(BufferedImage source)
+	{
+		if (source.getType() == BufferedImage.TYPE_INT_RGB)
+		{
+			return source;
+		}
+		return draw(source, source.getWidth(), source.getHeight());
+	}
+
+	private static BufferedImage draw(BufferedImage source, int width, int height)
+	{
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = target.createGraphics();
+		try
+		{
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+		}
+		finally
+		{
+			g.dispose();
+		}
+		return target;
+	}
+
+	private static byte[] encode(BufferedImage image, String format) throws IOException
+	{
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext())
+		{
+			throw new IOException("No ImageIO writer for " + format);
+		}
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes))
+		{
+			writer.setOutput(out);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (param.canWriteCompressed())
+			{
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				if (param.getCompressionType() == null && param.getCompressionTypes() != null)
+				{
+					param.setCompressionType(param.getCompressionTypes()[0]);
+				}
+				param.setCompressionQuality(QUALITY);
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+		}
+		finally
+		{
+			writer.dispose();
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,472 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import com.ibm.websphere.samples.pbw.jpa.MailOutbox;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Sends the mail queued in the MAILOUTBOX table with a fixed pool of worker threads.
+ *
+ * {@link #poll(EntityManager, long)} is called periodically inside a transaction.
+ * It records the outcome of the sends that finished since the last poll, then
+ * claims as many due messages as the workers have room for. A message is claimed
+ * by a conditional UPDATE that only succeeds while the row is as it was read, so
+ * when several servers poll the same outbox each message goes to one of them.
+ * The claimed messages are handed to the workers once the transaction commits;
+ * if it rolls back they stay due and nothing is sent. The workers only talk to
+ * the mail server; all database work is done by poll.
+ *
+ * Claimed messages are handed over in batches. A worker sends a whole batch over
+ * one connection borrowed from a {@link MailTransportPool}, so connections are
+ * reused across batches rather than opened for every message.
+ *
+ * A claimed message is marked Sending until a lease runs out. If the server stops
+ * before the outcome is recorded, the message is sent again when the lease
+ * expires, so delivery is at least once. A failed send is retried after a delay
+ * that doubles with each attempt, and the message is marked Failed after
+ * maxAttempts.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.MailOutboxBean
+ */
+public class MailDispatcher
+{
+	static final long LEASE = 5 * 60 * 1000L;
+	static final long MAX_BACKOFF = 60 * 60 * 1000L;
+	static final long CONNECTION_IDLE = 60 * 1000L;
+
+	private final Session session;
+	private final TransactionSynchronizationRegistry txRegistry;
+	private final MailTransportPool transports;
+	private final ThreadPoolExecutor workers;
+	private final int capacity;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final long backoff;
+
+	private final ConcurrentLinkedQueue<Outcome> outcomes = new ConcurrentLinkedQueue<Outcome>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong sent = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong sendNanos = new AtomicLong();
+	private final AtomicLong retried = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private volatile long backlog;
+
+	/**
+	 * @param session The mail session to send with.
+	 * @param workers Number of worker threads.
+	 * @param capacity Most messages handed to the workers and not yet finished.
+	 * @param batchSize Most messages a worker sends over one connection in one go.
+	 * @param maxAttempts Sends to try before a message is marked Failed.
+	 * @param backoff Delay before the first retry, in milliseconds.
+	 * @param threadFactory Creates the worker threads.
+	 * @param txRegistry The container's transactions, to hand claimed messages over
+	 *            after commit; null to hand them over at once.
+	 */
+	public MailDispatcher(Session session, int workers, int capacity, int batchSize, int maxAttempts, long backoff,
+			ThreadFactory threadFactory, TransactionSynchronizationRegistry txRegistry)
+	{
+		this.session = session;
+		this.txRegistry = txRegistry;
+		this.transports = new MailTransportPool(session, workers, CONNECTION_IDLE);
+		this.capacity = capacity;
+		this.batchSize = Math.max(1, batchSize);
+		this.maxAttempts = maxAttempts;
+		this.backoff = backoff;
+		this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(capacity), threadFactory);
+	}
+
+	/**
+	 * Record finished sends and hand due messages to the workers.
+	 *
+	 * @param em Entity manager joined to the caller's transaction.
+	 * @param now The current time.
+	 * @return The number of messages claimed for the workers.
+	 */
+	public int poll(EntityManager em, long now)
+	{
+		record(em, now);
+
+		final List<List<Pending>> claimed = new ArrayList<List<Pending>>();
+		int count = 0;
+		int room = capacity - inFlight.get();
+		if (room > 0)
+		{
+			List<MailOutbox> due = em.createNamedQuery("findDueMail", MailOutbox.class)
+					.setParameter("now", now).setMaxResults(room).getResultList();
+			Query claim = em.createNamedQuery("claimMail");
+			List<Pending> batch = new ArrayList<Pending>(batchSize);
+			for (MailOutbox mail : due)
+			{
+				// no row when another server claimed or recorded the message since it was read
+				int updated = claim.setParameter("lease", now + LEASE).setParameter("id", mail.getMailID())
+						.setParameter("status", mail.getStatus()).setParameter("seen", mail.getNextAttempt()).executeUpdate();
+				if (updated == 0)
+				{
+					continue;
+				}
+				batch.add(new Pending(mail));
+				count++;
+				if (batch.size() == batchSize)
+				{
+					claimed.add(batch);
+					batch = new ArrayList<Pending>(batchSize);
+				}
+			}
+			if (!batch.isEmpty())
+			{
+				claimed.add(batch);
+			}
+		}
+		backlog = ((Number) em.createNamedQuery("countUnsentMail").getSingleResult()).longValue();
+		if (count > 0)
+		{
+			handOverAfterCommit(claimed, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Stop the workers, letting the sends in progress finish, and close the
+	 * pooled connections.
+	 */
+	public void shutdown()
+	{
+		workers.shutdown();
+		try
+		{
+			workers.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		transports.close();
+	}
+
+	/**
+	 * Number of messages waiting for a free worker.
+	 */
+	public int getQueueDepth()
+	{
+		return workers.getQueue().size();
+	}
+
+	/**
+	 * Number of messages handed to the workers whose send has not finished.
+	 */
+	public int getInFlight()
+	{
+		return inFlight.get();
+	}
+
+	/**
+	 * Number of workers sending right now.
+	 */
+	public int getActiveWorkers()
+	{
+		return workers.getActiveCount();
+	}
+
+	/**
+	 * Number of unsent messages in the outbox at the last poll.
+	 */
+	public long getBacklog()
+	{
+		return backlog;
+	}
+
+	public long getSentCount()
+	{
+		return sent.get();
+	}
+
+	public long getRetryCount()
+	{
+		return retried.get();
+	}
+
+	public long getFailedCount()
+	{
+		return failed.get();
+	}
+
+	/**
+	 * Number of batches the workers have finished.
+	 */
+	public long getBatchCount()
+	{
+		return batches.get();
+	}
+
+	/**
+	 * Messages sent per second of worker time spent sending.
+	 */
+	public double getThroughput()
+	{
+		long nanos = sendNanos.get();
+		return nanos == 0 ? 0 : sent.get() * 1e9 / nanos;
+	}
+
+	/**
+	 * Number of connections opened to the mail server.
+	 */
+	public long getConnectionsOpened()
+	{
+		return transports.getOpenedCount();
+	}
+
+	/**
+	 * Number of batches sent over a connection left open by an earlier batch.
+	 */
+	public long getConnectionsReused()
+	{
+		return transports.getReusedCount();
+	}
+
+	/**
+	 * Wait until every message handed to the workers has been sent or has failed.
+	 *
+	 * @return false if they did not finish in time.
+	 */
+	boolean awaitIdle(long timeoutMillis) throws InterruptedException
+	{
+		long end = System.currentTimeMillis() + timeoutMillis;
+		while (inFlight.get() > 0)
+		{
+			if (System.currentTimeMillis() > end)
+				return false;
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	/**
+	 * Delay before the given retry.
+	 */
+	long backoff(int attempts)
+	{
+		long delay = backoff << Math.min(attempts - 1, 20);
+		return Math.min(delay, MAX_BACKOFF);
+	}
+
+	private void record(EntityManager em, long now)
+	{
+		List<String> delivered = new ArrayList<String>();
+		Map<String, String> errors = new HashMap<String, String>();
+		for (Outcome outcome = outcomes.poll(); outcome != null; outcome = outcomes.poll())
+		{
+			if (outcome.error == null)
+				delivered.add(outcome.mailID);
+			else
+				errors.put(outcome.mailID, outcome.error);
+		}
+
+		if (!delivered.isEmpty())
+		{
+			em.createNamedQuery("markMailSent").setParameter("now", now).setParameter("ids", delivered)
+					.executeUpdate();
+		}
+		if (!errors.isEmpty())
+		{
+			List<MailOutbox> failures = em.createNamedQuery("findMailByIDs", MailOutbox.class)
+					.setParameter("ids", new ArrayList<String>(errors.keySet())).getResultList();
+			for (MailOutbox mail : failures)
+			{
+				int attempts = mail.getAttempts() + 1;
+				String error = errors.get(mail.getMailID());
+				mail.setAttempts(attempts);
+				mail.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+				if (attempts >= maxAttempts)
+				{
+					Util.debug("MailDispatcher: giving up on mail {} after {} attempts", mail.getMailID(), attempts);
+					mail.setStatus(MailOutbox.STATUS_FAILED);
+					failed.incrementAndGet();
+				}
+				else
+				{
+					mail.setStatus(MailOutbox.STATUS_PENDING);
+					mail.setNextAttempt(now + backoff(attempts));
+					retried.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Count the claimed messages as in flight now, so the next poll leaves room
+	 * for them, and give them to the workers when the claim has committed.
+	 */
+	private void handOverAfterCommit(final List<List<Pending>> claimed, final int count)
+	{
+		inFlight.addAndGet(count);
+		if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE)
+		{
+			txRegistry.registerInterposedSynchronization(new Synchronization() {
+				public void beforeCompletion()
+				{
+				}
+
+				public void afterCompletion(int status)
+				{
+					if (status == Status.STATUS_COMMITTED)
+					{
+						submitAll(claimed);
+					}
+					else
+					{
+						// the claim was undone, so the messages are still due
+						inFlight.addAndGet(-count);
+					}
+				}
+			});
+		}
+		else
+		{
+			submitAll(claimed);
+		}
+	}
+
+	private void submitAll(List<List<Pending>> claimed)
+	{
+		for (List<Pending> batch : claimed)
+		{
+			submit(batch);
+		}
+	}
+
+	private void submit(final List<Pending> batch)
+	{
+		try
+		{
+			workers.execute(new Runnable() {
+				public void run()
+				{
+					deliver(batch);
+				}
+			});
+		}
+		catch (RejectedExecutionException e)
+		{
+			// Left as Sending; they are picked up again when the lease runs out.
+			inFlight.addAndGet(-batch.size());
+			Util.debug("MailDispatcher: could not queue {} mails: {}", batch.size(), e);
+		}
+	}
+
+	/**
+	 * Send a batch over one pooled connection. Runs on a worker thread.
+	 */
+	private void deliver(List<Pending> batch)
+	{
+		long start = System.nanoTime();
+		Transport transport = null;
+		try
+		{
+			for (Pending mail : batch)
+			{
+				if (Util.debugOn())
+				{
+					Util.debug("Mail message will not be sent while debug mode is turned on.");
+					outcomes.add(new Outcome(mail.mailID, null));
+					continue;
+				}
+				try
+				{
+					if (transport == null)
+					{
+						transport = transports.borrow();
+					}
+					MimeMessage msg = MailerBean.createMimeMessage(session, mail.message);
+					msg.saveChanges();
+					transport.sendMessage(msg, msg.getAllRecipients());
+					sent.incrementAndGet();
+					outcomes.add(new Outcome(mail.mailID, null));
+				}
+				catch (Exception e)
+				{
+					Util.debug("MailDispatcher: sending mail {} failed: {}", mail.mailID, e);
+					outcomes.add(new Outcome(mail.mailID, String.valueOf(e)));
+					// a refused message leaves the connection usable, a broken connection does not
+					if (transport != null && !transport.isConnected())
+					{
+						transports.discard(transport);
+						transport = null;
+					}
+				}
+			}
+		}
+		finally
+		{
+			if (transport != null)
+			{
+				transports.release(transport);
+			}
+			sendNanos.addAndGet(System.nanoTime() - start);
+			batches.incrementAndGet();
+			inFlight.addAndGet(-batch.size());
+		}
+	}
+
+	private static class Pending
+	{
+		final String mailID;
+		final EMailMessage message;
+
+		Pending(MailOutbox mail)
+		{
+			this.mailID = mail.getMailID();
+			this.message = new EMailMessage(mail.getSubject(), mail.getBody(), mail.getReceiver());
+		}
+	}
+
+	private static class Outcome
+	{
+		final String mailID;
+		final String error;
+
+		Outcome(String mailID, String error)
+		{
+			this.mailID = mailID;
+			this.error = error;
+		}
+	}
+}
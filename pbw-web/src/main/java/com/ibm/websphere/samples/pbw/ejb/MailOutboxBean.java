@@ -0,0 +1,163 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.mail.Session;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import com.ibm.websphere.samples.pbw.utils.PbwConfig;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Drains the mail outbox in the background. Every few seconds a timer
+ * records the sends that have finished and hands the messages that are due
+ * to a {@link MailDispatcher}, whose worker pool, queue and batch size are set
+ * by the mail.outbox.* properties.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.MailerBean#queueMail
+ */
+@Singleton
+@Startup
+public class MailOutboxBean
+{
+	static final int DEFAULT_WORKERS = 2;
+	static final int DEFAULT_QUEUE = 20;
+	static final int DEFAULT_BATCH = 10;
+	static final int DEFAULT_MAX_ATTEMPTS = 6;
+	static final int DEFAULT_BACKOFF = 30;
+
+	@PersistenceContext(unitName="PBW")
+	EntityManager em;
+
+	@Resource(name="mail/mail-service")
+	Session mailSession;
+
+	@Resource(lookup="java:comp/DefaultManagedThreadFactory")
+	ManagedThreadFactory threadFactory;
+
+	@Resource
+	TransactionSynchronizationRegistry txRegistry;
+
+	private MailDispatcher dispatcher;
+
+	@PostConstruct
+	public void start()
+	{
+		em = TimedEntityManager.wrap(em);
+		PbwConfig config = Util.getConfig();
+		dispatcher = new MailDispatcher(mailSession,
+				config.getInt("mail.outbox.workers", DEFAULT_WORKERS),
+				config.getInt("mail.outbox.queue", DEFAULT_QUEUE),
+				config.getInt("mail.outbox.batch", DEFAULT_BATCH),
+				config.getInt("mail.outbox.maxattempts", DEFAULT_MAX_ATTEMPTS),
+				config.getInt("mail.outbox.backoff", DEFAULT_BACKOFF) * 1000L,
+				threadFactory, txRegistry);
+	}
+
+	@PreDestroy
+	public void stop()
+	{
+		dispatcher.shutdown();
+	}
+
+	@Schedule(hour="*", minute="*", second="*/5", persistent=false)
+	public void poll()
+	{
+		int claimed = dispatcher.poll(em, System.currentTimeMillis());
+		if (claimed > 0)
+		{
+			Util.debug("MailOutboxBean.poll() - handed {} messages to the mail workers", claimed);
+		}
+	}
+
+	@Lock(LockType.READ)
+	public int getQueueDepth()
+	{
+		return dispatcher.getQueueDepth();
+	}
+
+	@Lock(LockType.READ)
+	public int getInFlight()
+	{
+		return dispatcher.getInFlight();
+	}
+
+	@Lock(LockType.READ)
+	public int getActiveWorkers()
+	{
+		return dispatcher.getActiveWorkers();
+	}
+
+	@Lock(LockType.READ)
+	public long getBacklog()
+	{
+		return dispatcher.getBacklog();
+	}
+
+	@Lock(LockType.READ)
+	public long getSentCount()
+	{
+		return dispatcher.getSentCount();
+	}
+
+	@Lock(LockType.READ)
+	public long getRetryCount()
+	{
+		return dispatcher.getRetryCount();
+	}
+
+	@Lock(LockType.READ)
+	public long getFailedCount()
+	{
+		return dispatcher.getFailedCount();
+	}
+
+	@Lock(LockType.READ)
+	public long getBatchCount()
+	{
+		return dispatcher.getBatchCount();
+	}
+
+	@Lock(LockType.READ)
+	public double getThroughput()
+	{
+		return dispatcher.getThroughput();
+	}
+
+	@Lock(LockType.READ)
+	public long getConnectionsOpened()
+	{
+		return dispatcher.getConnectionsOpened();
+	}
+
+	@Lock(LockType.READ)
+	public long getConnectionsReused()
+	{
+		return dispatcher.getConnectionsReused();
+	}
+}
@@ -0,0 +1,171 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * A small pool of connected mail Transports.
+ *
+ * Transport.send opens a connection, says hello, sends one message and closes the
+ * connection again. The mail workers instead borrow a connected Transport,
+ * send a whole batch over it and give it back, so while mail keeps coming the
+ * connection handshake is paid once per connection instead of once per message.
+ *
+ * A connection that has been idle for longer than maxIdle, or that the server
+ * has dropped, is closed when it is next borrowed and a new one is opened.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.MailDispatcher
+ */
+public class MailTransportPool
+{
+	private final Session session;
+	private final int maxIdleConnections;
+	private final long maxIdle;
+	private final LinkedBlockingDeque<Idle> idle = new LinkedBlockingDeque<Idle>();
+
+	private final AtomicLong opened = new AtomicLong();
+	private final AtomicLong reused = new AtomicLong();
+	private final AtomicLong closed = new AtomicLong();
+
+	/**
+	 * @param session The mail session that creates the Transports.
+	 * @param maxIdleConnections Most connections kept open between batches.
+	 * @param maxIdle How long a connection may sit unused before it is closed, in milliseconds.
+	 */
+	public MailTransportPool(Session session, int maxIdleConnections, long maxIdle)
+	{
+		this.session = session;
+		this.maxIdleConnections = maxIdleConnections;
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Get a connected Transport, reusing an idle one when there is one.
+	 *
+	 * @return A connected Transport to hand back with {@link #release(Transport)}
+	 *         or {@link #discard(Transport)}.
+	 */
+	public Transport borrow() throws MessagingException
+	{
+		long now = System.currentTimeMillis();
+		// most recently used first, so the oldest connections are the ones that time out
+		for (Idle entry = idle.pollFirst(); entry != null; entry = idle.pollFirst())
+		{
+			if (now - entry.since <= maxIdle && entry.transport.isConnected())
+			{
+				reused.incrementAndGet();
+				return entry.transport;
+			}
+			discard(entry.transport);
+		}
+		Transport transport = session.getTransport();
+		transport.connect();
+		opened.incrementAndGet();
+		return transport;
+	}
+
+	/**
+	 * Give back a Transport that is still fit for use.
+	 */
+	public void release(Transport transport)
+	{
+		if (!transport.isConnected() || idle.size() >= maxIdleConnections
+				|| !idle.offerFirst(new Idle(transport, System.currentTimeMillis())))
+		{
+			discard(transport);
+		}
+	}
+
+	/**
+	 * Close a Transport that should not be used again.
+	 */
+	public void discard(Transport transport)
+	{
+		closed.incrementAndGet();
+		try
+		{
+			transport.close();
+		}
+		catch (MessagingException e)
+		{
+			Util.debug("MailTransportPool: error closing mail connection: {}", e);
+		}
+	}
+
+	/**
+	 * Close the idle connections.
+	 */
+	public void close()
+	{
+		for (Idle entry = idle.pollFirst(); entry != null; entry = idle.pollFirst())
+		{
+			discard(entry.transport);
+		}
+	}
+
+	/**
+	 * Number of connections opened to the mail server.
+	 */
+	public long getOpenedCount()
+	{
+		return opened.get();
+	}
+
+	/**
+	 * Number of times an already open connection was borrowed.
+	 */
+	public long getReusedCount()
+	{
+		return reused.get();
+	}
+
+	/**
+	 * Number of connections closed.
+	 */
+	public long getClosedCount()
+	{
+		return closed.get();
+	}
+
+	/**
+	 * Number of open connections waiting to be borrowed.
+	 */
+	public int getIdleCount()
+	{
+		return idle.size();
+	}
+
+	private static class Idle
+	{
+		final Transport transport;
+		final long since;
+
+		Idle(Transport transport, long since)
+		{
+			this.transport = transport;
+			this.since = since;
+		}
+	}
+}
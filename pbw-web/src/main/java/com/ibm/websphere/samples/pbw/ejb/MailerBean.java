@@ -18,9 +18,11 @@ package com.ibm.websphere.samples.pbw.ejb;
 
 import java.util.Date;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.ejb.Stateless;
 import javax.mail.Message;
+import javax.mail.MessagingException;
 import javax.mail.Multipart;
 import javax.mail.Session;
 import javax.mail.Transport;
@@ -32,6 +34,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import com.ibm.websphere.samples.pbw.jpa.Customer;
+import com.ibm.websphere.samples.pbw.jpa.MailOutbox;
 import com.ibm.websphere.samples.pbw.jpa.Order;
 import com.ibm.websphere.samples.pbw.utils.Util;
 
@@ -50,7 +53,13 @@ public class MailerBean
 
 	@PersistenceContext(unitName="PBW")
 	EntityManager em;
-	
+
+	@PostConstruct
+	void timeEntityManager()
+	{
+		em = TimedEntityManager.wrap(em);
+	}
+
 	/**
 	 * Create the email message.
 	 *
@@ -59,9 +68,20 @@ public class MailerBean
 	 */
 	private String createMessage(String orderKey) 
 	{
-		Util.debug("creating email message for order:"+orderKey);
+		return createMessage(em.find(Order.class, orderKey));
+	}
+	
+	/**
+	 * Create the email message.
+	 *
+	 * @param order The order.
+	 * @return The email message.
+	 */
+	private String createMessage(Order order) 
+	{
+		String orderKey = order.getOrderID();
+		Util.debug("creating email message for order:{}", orderKey);
 		StringBuffer msg = new StringBuffer();
-		Order order = em.find(Order.class, orderKey);
 		msg.append("Thank you for your order " + orderKey + ".\n");
 		msg.append("Your Plants By WebSphere order will be shipped to:\n");
 		msg.append("     " + order.getShipName() + "\n");
@@ -102,25 +122,10 @@ public class MailerBean
 			EMailMessage eMessage = new EMailMessage(createSubjectLine(orderKey),
 					createMessage(orderKey),
 					customerInfo.getCustomerID());
-			Util.debug("Sending message" +
-					"\nTo: " + eMessage.getEmailReceiver() +
-					"\nSubject: " + eMessage.getSubject() +
-					"\nContents: " + eMessage.getHtmlContents());
-			
-			MimeMessage msg = new MimeMessage(mailSession);
-			msg.setFrom();
-			
-			msg.setRecipients(Message.RecipientType.TO,
-					InternetAddress.parse(eMessage.getEmailReceiver(), false));
+			Util.debug("Sending message\nTo: {}\nSubject: {}\nContents: {}",
+					eMessage.getEmailReceiver(), eMessage.getSubject(), eMessage.getHtmlContents());
 			
-			msg.setSubject(eMessage.getSubject());
-			MimeBodyPart mbp = new MimeBodyPart();
-			mbp.setText(eMessage.getHtmlContents(), "us-ascii");
-			msg.setHeader("X-Mailer", "JavaMailer");
-			Multipart mp = new MimeMultipart();
-			mp.addBodyPart(mbp);
-			msg.setContent(mp);
-			msg.setSentDate(new Date());
+			MimeMessage msg = createMimeMessage(mailSession, eMessage);
 			
 			if (!Util.debugOn()) {
 				Transport.send(msg);
@@ -133,10 +138,54 @@ public class MailerBean
 		catch (Exception e) 
 		{
 			Util.debug("Error sending mail. Have mail resources been configured correctly?");
-			Util.debug("createAndSendMail exception : " + e);
+			Util.debug("createAndSendMail exception : {}", e);
 			e.printStackTrace();
 			throw new MailerAppException("Failure while sending mail");
 		}
 	}
 	
+	/**
+	 * Queue the order confirmation mail. The message is written to the mail
+	 * outbox in the caller's transaction, so it is sent if and only if the
+	 * order is committed, and the caller does not wait for the mail server.
+	 *
+	 * @param order The order just created.
+	 * @see com.ibm.websphere.samples.pbw.ejb.MailOutboxBean
+	 */
+	public void queueMail(Order order)
+	{
+		String orderKey = order.getOrderID();
+		MailOutbox mail = new MailOutbox(orderKey, order.getCustomer().getCustomerID(),
+				createSubjectLine(orderKey), createMessage(order));
+		Util.debug("Queueing message\nTo: {}\nSubject: {}", mail.getReceiver(), mail.getSubject());
+		em.persist(mail);
+	}
+	
+	/**
+	 * Build the MIME message for an email.
+	 *
+	 * @param session The mail session to create the message in.
+	 * @param eMessage The email.
+	 * @return The message, ready to send.
+	 * @throws MessagingException
+	 */
+	static MimeMessage createMimeMessage(Session session, EMailMessage eMessage) throws MessagingException
+	{
+		MimeMessage msg = new MimeMessage(session);
+		msg.setFrom();
+		
+		msg.setRecipients(Message.RecipientType.TO,
+				InternetAddress.parse(eMessage.getEmailReceiver(), false));
+		
+		msg.setSubject(eMessage.getSubject());
+		MimeBodyPart mbp = new MimeBodyPart();
+		mbp.setText(eMessage.getHtmlContents(), "us-ascii");
+		msg.setHeader("X-Mailer", "JavaMailer");
+		Multipart mp = new MimeMultipart();
+		mp.addBodyPart(mbp);
+		msg.setContent(mp);
+		msg.setSentDate(new Date());
+		return msg;
+	}
+	
 }
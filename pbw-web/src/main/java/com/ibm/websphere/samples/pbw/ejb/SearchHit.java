@@ -0,0 +1,88 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+/**
+ * This class is one result of a catalog search. It carries what a result
+ * list shows, not the whole Inventory row, and its relevance to the query.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.CatalogSearchIndex
+ */
+public class SearchHit implements java.io.Serializable
+{
+	private static final long serialVersionUID = 1L;
+	private String inventoryId;
+	private String name;
+	private String heading;
+	private int category;
+	private float price;
+	private String image;
+	private int score;
+
+	public SearchHit(String inventoryId, String name, String heading, int category, float price, String image, int score)
+	{
+		this.inventoryId = inventoryId;
+		this.name = name;
+		this.heading = heading;
+		this.category = category;
+		this.price = price;
+		this.image = image;
+		this.score = score;
+	}
+
+	public String getInventoryId()
+	{
+		return inventoryId;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getHeading()
+	{
+		return heading;
+	}
+
+	public int getCategory()
+	{
+		return category;
+	}
+
+	public float getPrice()
+	{
+		return price;
+	}
+
+	//image file name, as in Inventory
+	public String getImage()
+	{
+		return image;
+	}
+
+	//relevance to the query; higher is better
+	public int getScore()
+	{
+		return score;
+	}
+
+	public String toString()
+	{
+		return "SearchHit[inventoryId=" + inventoryId + ", score=" + score + "]";
+	}
+}
@@ -17,7 +17,18 @@
 package com.ibm.websphere.samples.pbw.ejb;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.PostConstruct;
+import javax.ejb.EJB;
+import javax.ejb.EJBException;
+import javax.ejb.PostActivate;
+import javax.ejb.PrePassivate;
 import javax.ejb.Stateful;
 import javax.ejb.StatefulTimeout;
 import javax.enterprise.context.SessionScoped;
@@ -27,12 +38,14 @@ import javax.inject.Named;
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
 import com.ibm.websphere.samples.pbw.jpa.BackOrder;
 import com.ibm.websphere.samples.pbw.jpa.Customer;
 import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.jpa.Order;
 import com.ibm.websphere.samples.pbw.jpa.OrderItem;
+import com.ibm.websphere.samples.pbw.utils.SizeHistogram;
 import com.ibm.websphere.samples.pbw.utils.Util;
 
 /**
@@ -49,46 +62,93 @@ public class ShoppingCartBean
 
 	@PersistenceContext(unitName="PBW")
 	EntityManager em;
+
+	@PostConstruct
+	@PostActivate
+	void timeEntityManager()
+	{
+		em = TimedEntityManager.wrap(em);
+	}
+
+	@PrePassivate
+	void untimeEntityManager()
+	{
+		em = TimedEntityManager.unwrap(em);
+	}
+
+	@EJB
+	CatalogCache catalogCache;
+
+	@EJB
+	MailerBean mailer;
+
+	/** Number of distinct items in each cart checked out, for the metrics endpoint. */
+	private static final SizeHistogram checkoutSizes = new SizeHistogram();
 	
-	private ArrayList<Inventory> items = new ArrayList<Inventory>();
+	/*
+	 * The cart keeps only what it cannot look up again: the quantity of each item,
+	 * in the order the items were added, and the price each item was added at.
+	 * Names, descriptions and images are resolved from the catalog when the cart
+	 * is displayed, so the session stays small and cheap to passivate or replicate.
+	 *
+	 * Lines are indexed by inventory id, and the subtotal and the set of lines
+	 * with no quantity are kept up to date as lines change, so adding, updating,
+	 * removing and totalling do not depend on the size of the cart.
+	 */
+	private LinkedHashMap<String, CartLine> items = new LinkedHashMap<String, CartLine>();
+	private HashSet<String> zeroQuantityItems = new HashSet<String>();
+	private long subtotalCents;
 	
 	/** 
 	 * Add an item to the cart.
 	 *
-	 * @param new_item Item to add to the cart.
+	 * @param inventoryID Id of the item to add to the cart.
+	 * @param quantity Number of the item to add.
+	 * @param price Unit price of the item when it was added.
 	 */
-	public void addItem(Inventory new_item)
+	public void addItem(String inventoryID, int quantity, float price)
 	{
-		boolean added = false;
 		// If the same item is already in the cart, just increase the quantity.
-		for (Inventory old_item : items)
+		CartLine line = items.get(inventoryID);
+		if (line != null)
 		{
-			if (old_item.getID().equals(new_item.getID()))
-			{
-				old_item.setQuantity(old_item.getQuantity() + new_item.getQuantity());
-				added = true;
-				break;
-			}
+			update(line, line.getQuantity() + quantity);
+		}
+		else
+		{
+			line = new CartLine(inventoryID, 0, price);
+			items.put(inventoryID, line);
+			update(line, quantity);
+		}
+	}
+	
+	/**
+	 * Change the quantity of an item already in the cart.
+	 *
+	 * @param inventoryID Id of the item to change.
+	 * @param quantity The new quantity.
+	 */
+	public void setItemQuantity(String inventoryID, int quantity)
+	{
+		CartLine line = items.get(inventoryID);
+		if (line != null)
+		{
+			update(line, quantity);
 		}
-		// Add this item to shopping cart, if it is a brand new item.
-		if (!added)
-			items.add(new_item);
 	}
 	
 	/** 
 	 * Remove an item from the cart.
 	 *
-	 * @param item Item to remove from cart.
+	 * @param inventoryID Id of the item to remove from cart.
 	 */
-	public void removeItem(Inventory item)
+	public void removeItem(String inventoryID)
 	{
-		for (Inventory i : items)
+		CartLine line = items.remove(inventoryID);
+		if (line != null)
 		{
-			if (item.equals(i))
-			{
-				items.remove(i);
-				break;
-			}
+			subtotalCents -= line.getSubtotalCents();
+			zeroQuantityItems.remove(inventoryID);
 		}
 	}
 	
@@ -96,85 +156,59 @@ public class ShoppingCartBean
 	 * Remove all items from the cart.
 	 */
 	public void removeAllItems() {
-		items = new ArrayList<Inventory>();
+		items.clear();
+		zeroQuantityItems.clear();
+		subtotalCents = 0;
 	}
 	
 	/**
 	 * Remove zero quantity items.
 	 */
 	public void removeZeroQuantityItems() {
-		ArrayList<Inventory> newItems = new ArrayList<Inventory>();
-		
-		for (Inventory i : items) {
-			if (i.getQuantity() > 0) {
-				newItems.add(i);
-			}
+		if (zeroQuantityItems.isEmpty()) {
+			return;
 		}
-		
-		items = newItems;
+		for (String inventoryID : zeroQuantityItems) {
+			CartLine line = items.remove(inventoryID);
+			subtotalCents -= line.getSubtotalCents();
+		}
+		zeroQuantityItems.clear();
 	}
 	
 	/** 
 	 * Get the items in the shopping cart.
 	 *
-	 * @return A Collection of ShoppingCartItems.
+	 * @return A read-only Collection of CartLines, in the order the items were added.
 	 */
-	public ArrayList<Inventory>getItems()
+	public Collection<CartLine> getItems()
 	{
-		return items;
+		return Collections.unmodifiableCollection(items.values());
 	}
 	
-	/** 
-	 * Set the items in the shopping cart.
+	/**
+	 * Get one item in the shopping cart.
 	 *
-	 * @param items A Vector of ShoppingCartItem's.
+	 * @param inventoryID Id of the item wanted.
+	 * @return The CartLine, or null if the item is not in the cart.
 	 */
-	public void setItems(Collection<Inventory> items)
+	public CartLine getItem(String inventoryID)
 	{
-		this.items = new ArrayList<Inventory>(items);
+		return items.get(inventoryID);
 	}
 	
 	/**
-	 * Get the contents of the shopping cart.
+	 * Get the quantity of each item in the shopping cart.
 	 *
-	 * @return The contents of the shopping cart.
-	 * /
-	public ShoppingCartContents getCartContents()
+	 * @return A new Map of inventory id to quantity, in the order the items were added.
+	 */
+	public Map<String, Integer> getQuantities()
 	{
-		ShoppingCartContents cartContents = new ShoppingCartContents();
-		// Fill it with data.
-		for (int i = 0; i < items.size(); i++)
-		{
-			cartContents.addItem((ShoppingCartItem) items.get(i));
+		Map<String, Integer> quantities = new LinkedHashMap<String, Integer>(items.size() * 2);
+		for (CartLine line : items.values()) {
+			quantities.put(line.getInventoryID(), line.getQuantity());
 		}
-		return cartContents;
+		return quantities;
 	}
-	*/
-	
-	/**
-	 * Create a shopping cart.
-	 *
-	 * @param cartContents Contents to populate cart with.
-	 * /
-	public void setCartContents(ShoppingCartContents cartContents)
-	{
-		items = new ArrayList<ShoppingCartItem>();
-		int qty;
-		String inventoryID;
-		ShoppingCartItem si;
-		Inventory inv;
-		for (int i = 0; i < cartContents.size(); i++)
-		{
-			inventoryID = cartContents.getInventoryID(i);
-			qty = cartContents.getQuantity(inventoryID);
-			inv = em.find(Inventory.class, inventoryID);
-			// clone so we can use Qty as qty to purchase, not inventory in stock
-			si = new ShoppingCartItem(inv);
-			si.setQuantity(qty);
-			addItem(si);
-		}
-	}
-	*/
 	
 	/** 
 	 * Get the cost of all items in the shopping cart.
@@ -182,12 +216,21 @@ public class ShoppingCartBean
 	 * @return The total cost of all items in the shopping cart.
 	 */
 	public float getSubtotalCost() {
-		float f = 0.0F;
-		
-		for (Inventory item : items) {
-			f += item.getPrice() * (float)item.getQuantity();
+		return subtotalCents / 100.0F;
+	}
+	
+	/*
+	 * Set the quantity of a line, keeping the subtotal and the zero quantity set in step.
+	 */
+	private void update(CartLine line, int quantity) {
+		subtotalCents -= line.getSubtotalCents();
+		line.setQuantity(quantity);
+		subtotalCents += line.getSubtotalCents();
+		if (quantity > 0) {
+			zeroQuantityItems.remove(line.getInventoryID());
+		} else {
+			zeroQuantityItems.add(line.getInventoryID());
 		}
-		return f;
 	}
 	
 	/** 
@@ -195,48 +238,67 @@ public class ShoppingCartBean
 	 * Check the inventory level of a store item.
 	 * Order additional inventory when necessary.
 	 *
-	 * @param si - Store item
+	 * @param inventoryID - Id of the store item
+	 * @param quantity - Number of the item ordered
+	 */
+	public void checkInventory(String inventoryID, int quantity)
+	{
+		reserveInventory(Collections.singletonMap(inventoryID, quantity));
+	}
+	
+	/**
+	 * Method reserveInventory.
+	 * Take the quantities ordered out of stock for every line of an order and
+	 * back order the items that drop below their minimum threshold.
+	 *
+	 * The inventory rows are read and locked with one query, in key order so
+	 * that concurrent checkouts cannot deadlock, and the open back orders for
+	 * the items running low with one more. Everything is then written by a
+	 * single flush, which sends the INVENTORY updates and the BACKORDER inserts
+	 * and updates as JDBC batches, so the number of round trips does not grow
+	 * with the number of lines.
+	 *
+	 * @param items - Map of inventory id to quantity ordered
 	 */
-	public void checkInventory(Inventory si)
+	public void reserveInventory(Map<String, Integer> items)
 	{
-		Util.debug("ShoppingCart.checkInventory() - checking Inventory quantity of item: " + si.getID());
-		Inventory inv = getInventoryItem(si.getID());
+		Util.debug("ShoppingCart.reserveInventory() - checking Inventory quantity of {} items", items.size());
+		if (items.isEmpty())
+			return;
+		TypedQuery<Inventory> q = em.createNamedQuery("getItemsByIds", Inventory.class);
+		q.setParameter("ids", new ArrayList<String>(items.keySet()));
+		q.setLockMode(LockModeType.PESSIMISTIC_WRITE);
 		
-		/**
-		 * Decrease the quantity of this inventory item.
-		 * @param quantity The number to decrease the inventory by.
-		 * @return The number of inventory items removed.
-		 */
-		int quantity=si.getQuantity();
-		int minimumItems = inv.getMinThreshold();
-			
-		int amountToOrder = 0;
-		Util.debug("ShoppingCartBean:checkInventory() - Decreasing inventory item " +inv.getInventoryId());
-		int quantityNotFilled = 0;
-		if (inv.getQuantity() < 1)
+		Map<Inventory, Integer> toBackOrder = new LinkedHashMap<Inventory, Integer>();
+		for (Inventory inv : q.getResultList())
 		{
-			quantityNotFilled = quantity;
-		}
-		else if (inv.getQuantity() < quantity)
-		{
-			quantityNotFilled = quantity - inv.getQuantity();
-		}
+			int quantity = items.get(inv.getInventoryId()).intValue();
+			int minimumItems = inv.getMinThreshold();
+			Util.debug("ShoppingCartBean:reserveInventory() - Decreasing inventory item {}", inv.getInventoryId());
+			int quantityNotFilled = 0;
+			if (inv.getQuantity() < 1)
+			{
+				quantityNotFilled = quantity;
+			}
+			else if (inv.getQuantity() < quantity)
+			{
+				quantityNotFilled = quantity - inv.getQuantity();
+			}
 			
-		// When quantity becomes < 0, this will be to determine the
-		// quantity of unfilled orders due to insufficient stock.
-		inv.setQuantity(inv.getQuantity() - quantity);
+			// When quantity becomes < 0, this will be to determine the
+			// quantity of unfilled orders due to insufficient stock.
+			inv.setQuantity(inv.getQuantity() - quantity);
+			catalogCache.invalidate(inv.getInventoryId(), inv.getCategory());
 			
-		//  Check to see if more inventory needs to be ordered from the supplier
-		//  based on a set minimum Threshold
-		if (inv.getQuantity() < minimumItems)
-		{
-			// Calculate the amount of stock to order from the supplier
-			// to get the inventory up to the maximum.
-			amountToOrder = quantityNotFilled;
-			backOrder(inv, amountToOrder);
+			//  Check to see if more inventory needs to be ordered from the supplier
+			//  based on a set minimum Threshold
+			if (inv.getQuantity() < minimumItems)
+			{
+				toBackOrder.put(inv, quantityNotFilled);
+			}
 		}
-			
-		
+		backOrder(toBackOrder);
+		em.flush();
 	}
 	
 	/**
@@ -263,7 +325,7 @@ public class ShoppingCartBean
 	 * @param ccExpireYear credit card expiration year
 	 * @param cardHolder credit card holder name
 	 * @param shippingMethod int of shipping method used
-	 * @param items vector of StoreItems ordered
+	 * @param items Map of inventory id to quantity ordered
 	 * @return OrderInfo
 	 */
 	public Order createOrder(
@@ -288,72 +350,103 @@ public class ShoppingCartBean
 			String ccExpireYear,
 			String cardHolder,
 			int shippingMethod,
-			Collection <Inventory>items)
+			Map<String, Integer> items)
 	{
 		Order order = null;
 		Util.debug("ShoppingCartBean.createOrder:  Creating Order");
-		Collection<OrderItem> orderitems = new ArrayList<OrderItem>();
-		for (Inventory si : items) {
-			Inventory inv = em.find(Inventory.class, si.getID());
+		Map<String, Inventory> inventory = getInventoryItems(items.keySet());
+		Collection<OrderItem> orderitems = new ArrayList<OrderItem>(items.size());
+		for (Map.Entry<String, Integer> si : items.entrySet()) {
+			Inventory inv = inventory.get(si.getKey());
+			if (inv == null) {
+				throw new EJBException("ShoppingCartBean.createOrder: no inventory item " + si.getKey());
+			}
 			OrderItem oi = new OrderItem(inv);
-			oi.setQuantity(si.getQuantity());
+			oi.setQuantity(si.getValue().intValue());
 			orderitems.add(oi); 
 		}
 		Customer c = em.find(Customer.class, customerID);
 		order = new Order(c, billName, billAddr1, billAddr2, billCity, billState, billZip, billPhone,
 				shipName, shipAddr1, shipAddr2, shipCity, shipState, shipZip, shipPhone, creditCard,
 				ccNum, ccExpireMonth, ccExpireYear, cardHolder, shippingMethod, orderitems);		
+		// The order id is assigned on persist, so the items can take their keys
+		// from it straight away and everything is written by a single flush, with
+		// the ORDERITEM inserts sent as one JDBC batch.
 		em.persist(order);
-		em.flush();  
-		//store the order items
 		for (OrderItem o : orderitems) {
-			o.setOrder(order);
 			o.updatePK();
 			em.persist(o);
 		}
+		// The confirmation mail is queued in this transaction and sent in the background.
+		mailer.queueMail(order);
 		em.flush();
+		checkoutSizes.record(items.size());
 		
 		return order;
 	}
+
+	/**
+	 * Get the distribution of cart sizes at checkout.
+	 *
+	 * @return The histogram of distinct items per order.
+	 */
+	public static SizeHistogram getCheckoutSizes()
+	{
+		return checkoutSizes;
+	}
 	
 	public int getSize() {
 		return getItems().size();
 	}
 	
 	/*
-	 * Get the inventory item.
+	 * Get several inventory items with one query.
 	 *
-	 * @param id of inventory item.
-	 * @return an inventory bean.
+	 * @param inventoryIDs ids of the inventory items.
+	 * @return the inventory beans found, by id.
 	 */
-	private Inventory getInventoryItem(String inventoryID)
+	private Map<String, Inventory> getInventoryItems(Collection<String> inventoryIDs)
 	{
-		Inventory inv = null;
-		inv = em.find(Inventory.class, inventoryID);
-		return inv;
+		Map<String, Inventory> found = new HashMap<String, Inventory>(inventoryIDs.size() * 2);
+		if (inventoryIDs.isEmpty())
+			return found;
+		TypedQuery<Inventory> q = em.createNamedQuery("getItemsByIds", Inventory.class);
+		q.setParameter("ids", new ArrayList<String>(inventoryIDs));
+		for (Inventory inv : q.getResultList())
+			found.put(inv.getInventoryId(), inv);
+		return found;
 	}
 	
 	/*
-	 * Create a BackOrder of this inventory item.
-	 * @param quantity The number of the inventory item to be backordered
+	 * Create or add to the open BackOrders of several inventory items.
+	 * @param amounts The number of each inventory item to be backordered
 	 */
-	private void backOrder(Inventory inv, int amountToOrder)
+	private void backOrder(Map<Inventory, Integer> amounts)
 	{
-		BackOrder b=em.find(BackOrder.class, inv.getInventoryId());
-		if (b == null) {
-			//create a new backorder if none exists
-			BackOrder newBO=new BackOrder(inv, amountToOrder);
-			em.persist(newBO);
-			em.flush();
-			inv.setBackOrder(newBO);
-		} else {
-			//update the backorder with the new quantity			
-			int quantity=b.getQuantity();
-			quantity+=amountToOrder;			
-			em.lock(b, LockModeType.WRITE);
-			em.refresh(b);
-			b.setQuantity(quantity);
-			em.flush();
+		if (amounts.isEmpty())
+			return;
+		List<String> ids = new ArrayList<String>(amounts.size());
+		for (Inventory inv : amounts.keySet())
+			ids.add(inv.getInventoryId());
+		TypedQuery<BackOrder> q = em.createNamedQuery("findOpenBackOrdersByInventoryIDs", BackOrder.class);
+		q.setParameter("ids", ids);
+		q.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+		Map<String, BackOrder> open = new HashMap<String, BackOrder>(ids.size() * 2);
+		for (BackOrder b : q.getResultList())
+			open.put(b.getInventory().getInventoryId(), b);
+		
+		for (Map.Entry<Inventory, Integer> amount : amounts.entrySet())
+		{
+			Inventory inv = amount.getKey();
+			BackOrder b = open.get(inv.getInventoryId());
+			if (b == null) {
+				//create a new backorder if none exists
+				b = new BackOrder(inv, amount.getValue().intValue());
+				em.persist(b);
+			} else {
+				//update the backorder with the new quantity
+				b.setQuantity(b.getQuantity() + amount.getValue().intValue());
+			}
 			inv.setBackOrder(b);
 		}
 	}
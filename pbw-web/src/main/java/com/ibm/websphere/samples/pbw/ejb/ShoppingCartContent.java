@@ -16,13 +16,17 @@
 //
 package com.ibm.websphere.samples.pbw.ejb;
 
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.ibm.websphere.samples.pbw.jpa.Inventory;
 
 /**
- * A class to hold a shopping cart's contents.
+ * A class to hold a shopping cart's contents. Items keep the order they
+ * were added in, and are looked up by ID or by index in constant time.
+ * A cart belongs to one session, so nothing here is synchronized.
  */
 public class ShoppingCartContent implements java.io.Serializable
 {
@@ -30,29 +34,38 @@ public class ShoppingCartContent implements java.io.Serializable
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
-private Hashtable<String, Integer> table = null;
+private Map<String, Integer> table = null;
+   // the keys of table, in the order they were added
+   private List<String> ids = null;
 
    public ShoppingCartContent()
    {
-      table = new Hashtable<String, Integer>();
+      table = new HashMap<String, Integer>();
+      ids = new ArrayList<String>();
    }
 
    /** Add the item to the shopping cart. */
    public void addItem(Inventory si)
    {
-      table.put(si.getID(), new Integer(si.getQuantity()));
+      if (table.put(si.getID(), si.getQuantity()) == null)
+      {
+         ids.add(si.getID());
+      }
    }
 
    /** Update the item in the shopping cart. */
    public void updateItem(Inventory si)
    {
-      table.put(si.getID(), new Integer(si.getQuantity()));
+      addItem(si);
    }
 
    /** Remove the item from the shopping cart. */
    public void removeItem(Inventory si)
    {
-      table.remove(si.getID());
+      if (table.remove(si.getID()) != null)
+      {
+         ids.remove(si.getID());
+      }
    }
 
    /** 
@@ -73,19 +86,9 @@ private Hashtable<String, Integer> table = null;
     */
    public String getInventoryID(int index)
    {
-      String retval = null;
-      String inventoryID;
-      int cnt = 0;
-      for (Enumeration <String>myEnum = table.keys(); myEnum.hasMoreElements(); cnt++)
-      {
-         inventoryID = (String) myEnum.nextElement();
-         if (index == cnt)
-         {
-            retval = inventoryID;
-            break;
-         }
-      }
-      return retval;
+      if (index < 0 || index >= ids.size())
+         return null;
+      return ids.get(index);
    }
 
    /** 
@@ -96,7 +99,7 @@ private Hashtable<String, Integer> table = null;
     */
    public int getQuantity(String inventoryID)
    {
-      Integer quantity = (Integer) table.get(inventoryID);
+      Integer quantity = table.get(inventoryID);
 
       if (quantity == null)
          return 0;
@@ -18,6 +18,7 @@ package com.ibm.websphere.samples.pbw.ejb;
 import java.util.Collection;
 import java.util.Iterator;
 
+import javax.annotation.PostConstruct;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -36,6 +37,12 @@ public class SuppliersBean
 	@PersistenceContext(unitName="PBW")
 	EntityManager em;
 
+	@PostConstruct
+	void timeEntityManager()
+	{
+		em = TimedEntityManager.wrap(em);
+	}
+
 	/**
 	 * @param supplierID
 	 * @param name
@@ -53,12 +60,12 @@ public class SuppliersBean
 			supplier = em.find(Supplier.class, supplierID);
 			if (supplier == null) {
 				Util.debug("SuppliersBean.createSupplier() - supplier doesn't exist.");
-				Util.debug("SuppliersBean.createSupplier() - Creating Supplier for SupplierID: " + supplierID);
+				Util.debug("SuppliersBean.createSupplier() - Creating Supplier for SupplierID: {}", supplierID);
 				supplier = new Supplier(supplierID, name, street, city, state, zip, phone, url);
 				em.persist(supplier);
 			}
 		} catch (Exception e) {
-			Util.debug("SuppliersBean.createSupplier() - Exception: " + e);
+			Util.debug("SuppliersBean.createSupplier() - Exception: {}", e);
 		}
 	}
 
@@ -77,7 +84,7 @@ public class SuppliersBean
 				}
 			}
 		} catch (Exception e) {
-			Util.debug("AdminServlet.getSupplierInfo() - Exception:" + e);
+			Util.debug("AdminServlet.getSupplierInfo() - Exception:{}", e);
 		}
 		return null;
 	}
@@ -110,10 +117,10 @@ public class SuppliersBean
 				supplier.setUrl(url);
 			} else {
 				Util.debug("SuppliersBean.updateSupplier() - supplier doesn't exist.");
-				Util.debug("SuppliersBean.updateSupplier() - Couldn't update Supplier for SupplierID: " + supplierID);
+				Util.debug("SuppliersBean.updateSupplier() - Couldn't update Supplier for SupplierID: {}", supplierID);
 			}
 		} catch (Exception e) {
-			Util.debug("SuppliersBean.createSupplier() - Exception: " + e);
+			Util.debug("SuppliersBean.createSupplier() - Exception: {}", e);
 		}
 		return (supplier);
 	}
@@ -0,0 +1,144 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
+
+/**
+ * Wraps an EntityManager so that the time spent in the database counts towards
+ * the JPA layer of the current {@link RequestTiming} and is reported through
+ * RequestLogger.logJPAOperation.
+ *
+ * Queries created through the wrapper are wrapped too, so getResultList,
+ * getSingleResult and executeUpdate are timed where the work actually happens.
+ * Everything else is passed straight to the EntityManager.
+ */
+final class TimedEntityManager implements InvocationHandler
+{
+	private final Object target;
+	private final String label;
+
+	private TimedEntityManager(Object target, String label)
+	{
+		this.target = target;
+		this.label = label;
+	}
+
+	/**
+	 * Wrap an EntityManager; wrapping twice has no further effect.
+	 */
+	static EntityManager wrap(EntityManager em)
+	{
+		if (em == null || isWrapped(em))
+			return em;
+		return (EntityManager) Proxy.newProxyInstance(TimedEntityManager.class.getClassLoader(),
+				new Class<?>[] { EntityManager.class }, new TimedEntityManager(em, null));
+	}
+
+	/**
+	 * Get the EntityManager underneath a wrapper, e.g. before a stateful bean is passivated.
+	 */
+	static EntityManager unwrap(EntityManager em)
+	{
+		if (em != null && isWrapped(em))
+			return (EntityManager) ((TimedEntityManager) Proxy.getInvocationHandler(em)).target;
+		return em;
+	}
+
+	private static boolean isWrapped(Object o)
+	{
+		return Proxy.isProxyClass(o.getClass()) && Proxy.getInvocationHandler(o) instanceof TimedEntityManager;
+	}
+
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		String name = method.getName();
+		if (label == null)
+		{
+			if (name.equals("find") || name.equals("persist") || name.equals("merge") || name.equals("remove")
+					|| name.equals("refresh") || name.equals("flush") || name.equals("lock"))
+			{
+				return timed(method, args, name.toUpperCase(), entityType(args), name.equals("find") ? args[1] : null);
+			}
+			Object result = call(method, args);
+			if (result instanceof Query && name.startsWith("create") && !name.equals("createStoredProcedureQuery")
+					&& !name.equals("createNamedStoredProcedureQuery"))
+			{
+				String query = name.equals("createNamedQuery") ? (String) args[0]
+						: name.equals("createNativeQuery") ? "SQL" : "JPQL";
+				return Proxy.newProxyInstance(TimedEntityManager.class.getClassLoader(),
+						new Class<?>[] { method.getReturnType() }, new TimedEntityManager(result, query));
+			}
+			return result;
+		}
+
+		if (name.equals("getResultList") || name.equals("getSingleResult"))
+		{
+			return timed(method, args, "QUERY", label, null);
+		}
+		if (name.equals("executeUpdate"))
+		{
+			return timed(method, args, "UPDATE", label, null);
+		}
+		Object result = call(method, args);
+		// keep the chained setters returning the wrapper
+		return result == target ? proxy : result;
+	}
+
+	private Object timed(Method method, Object[] args, String operation, String entityType, Object id)
+			throws Throwable
+	{
+		long started = RequestTiming.start(RequestTiming.Layer.JPA);
+		try
+		{
+			return call(method, args);
+		}
+		finally
+		{
+			long elapsed = RequestTiming.stop(RequestTiming.Layer.JPA, started);
+			RequestLogger.logJPAOperation(operation, entityType, id, elapsed / 1000000L);
+		}
+	}
+
+	private Object call(Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	private static String entityType(Object[] args)
+	{
+		if (args == null || args.length == 0 || args[0] == null)
+			return "";
+		return args[0] instanceof Class ? ((Class<?>) args[0]).getSimpleName() : args[0].getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,64 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.InvocationContext;
+
+import com.ibm.websphere.samples.pbw.utils.LatencyHistogram;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
+import com.ibm.websphere.samples.pbw.utils.TimingStats;
+
+/**
+ * Times every business method call on the application's EJBs. The time counts
+ * towards the EJB layer of the current request and goes into the histogram of
+ * the method in TimingStats. Bound to all beans as a default interceptor in
+ * WEB-INF/ejb-jar.xml.
+ */
+public class TimingInterceptor
+{
+	private static final ConcurrentHashMap<Method, LatencyHistogram> histograms = new ConcurrentHashMap<Method, LatencyHistogram>();
+
+	@AroundInvoke
+	public Object time(InvocationContext ctx) throws Exception
+	{
+		long started = RequestTiming.start(RequestTiming.Layer.EJB);
+		try
+		{
+			return ctx.proceed();
+		}
+		finally
+		{
+			long elapsed = RequestTiming.stop(RequestTiming.Layer.EJB, started);
+			histogram(ctx.getMethod()).record(elapsed);
+		}
+	}
+
+	private static LatencyHistogram histogram(Method method)
+	{
+		LatencyHistogram histogram = histograms.get(method);
+		if (histogram == null)
+		{
+			histogram = TimingStats.ejbMethod(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+			histograms.put(method, histogram);
+		}
+		return histogram;
+	}
+}
@@ -21,11 +21,13 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedNativeQuery;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.UniqueConstraint;
 
 import com.ibm.websphere.samples.pbw.utils.Util;
 
@@ -34,18 +36,48 @@ import com.ibm.websphere.samples.pbw.utils.Util;
  * Bean mapping for BACKORDER table.
  */
 @Entity(name="BackOrder")
-@Table(name="BACKORDER")
+@Table(name="BACKORDER", uniqueConstraints=@UniqueConstraint(columnNames="OPENINVENTORYID"))
 @NamedQueries({
 	@NamedQuery(
 		name="findAllBackOrders",
 		query="select b from BackOrder b"),
 	@NamedQuery(
 		name="findByInventoryID",
-		query="select b from BackOrder b where ((b.inventory.inventoryId = :id) and (b.status = 'Order Stock'))"	),
+		query="select b from BackOrder b where b.openInventoryID = :id"),
+	@NamedQuery(
+		name="findOpenBackOrdersByInventoryIDs",
+		query="select b from BackOrder b where b.openInventoryID in :ids"),
+	@NamedQuery(
+		name="backOrderItemsAfter",
+		query="select new com.ibm.websphere.samples.pbw.ejb.BackOrderItem(b.backOrderID, i.inventoryId, i.name, i.quantity, "
+			+ "b.quantity, b.status, b.lowDate, b.orderDate, b.supplierOrderID) "
+			+ "from BackOrder b join b.inventory i where b.status in :statuses and b.backOrderID > :after ORDER BY b.backOrderID"),
+	@NamedQuery(
+		name="lockBackOrders",
+		query="select b.backOrderID, b.status, b.quantity, i.inventoryId, i.category from BackOrder b join b.inventory i where b.backOrderID in :ids"),
+	@NamedQuery(
+		name="orderBackOrders",
+		query="update BackOrder b set b.status = :status, b.quantity = :quantity, b.orderDate = :orderDate, b.openInventoryID = null "
+			+ "where b.backOrderID in :ids"),
+	@NamedQuery(
+		name="closeBackOrders",
+		query="update BackOrder b set b.status = :status, b.openInventoryID = null where b.backOrderID in :ids"),
+	@NamedQuery(
+		name="addToOpenBackOrder",
+		query="update BackOrder b set b.quantity = b.quantity + :amount where b.openInventoryID = :id"),
 	@NamedQuery(
 			name="removeAllBackOrder",
 			query="delete from BackOrder")
 })
+// Inserts the open back order of an item that exists, or adds to the open back order
+// already there. One statement, so concurrent callers cannot both insert. ON DUPLICATE
+// KEY also fires on a BACKORDERID collision, so only the item's open back order is added to.
+@NamedNativeQuery(
+	name="upsertOpenBackOrder",
+	query="INSERT INTO BACKORDER (BACKORDERID, INVENTORYID, OPENINVENTORYID, QUANTITY, STATUS, LOWDATE, ORDERDATE) "
+		+ "SELECT ?1, INVENTORYID, INVENTORYID, ?2, ?3, ?4, 0 FROM INVENTORY WHERE INVENTORYID = ?5 "
+		+ "ON DUPLICATE KEY UPDATE BACKORDER.QUANTITY = CASE WHEN BACKORDER.OPENINVENTORYID = ?5 "
+		+ "THEN BACKORDER.QUANTITY + ?6 ELSE BACKORDER.QUANTITY END")
 public class BackOrder
 {
 	@Id
@@ -58,6 +90,9 @@ public class BackOrder
 	private long lowDate;
 	private long orderDate;
 	private String supplierOrderID;			// missing table
+	// the inventory id while the back order is open (Order Stock), otherwise null;
+	// its unique constraint allows one open back order per item
+	private String openInventoryID;
 
 	// relationships
 	@OneToOne
@@ -76,19 +111,19 @@ public class BackOrder
 //			IdGeneratorHome idGeneratorHome = (IdGeneratorHome) Util.getEJBLocalHome("java:comp/env/ejb/IdGenerator", com.ibm.websphere.samples.pbw.ejb.IdGeneratorHome.class);
 //			IdGenerator idGenerator = idGeneratorHome.findByPrimaryKeyUpdate("BACKORDER");
 //			int orderInt = idGenerator.nextId();
-//			Util.debug("BackOrder.ejbCreate() - Setting backOrderID in BackOrder EJB to " + orderInt);
+//			Util.debug("BackOrder.ejbCreate() - Setting backOrderID in BackOrder EJB to {}", orderInt);
 //			this.setBackOrderID(new Integer(orderInt).toString());
-			Util.debug("BackOrder.ejbCreate() - Setting inventoryID in BackOrder EJB to " + inventory.getInventoryId());
+			Util.debug("BackOrder.ejbCreate() - Setting inventoryID in BackOrder EJB to {}", inventory.getInventoryId());
 			this.setInventory(inventory);
-			Util.debug("BackOrder.ejbCreate() - Setting Quantity in BackOrder EJB to " + quantity);
+			Util.debug("BackOrder.ejbCreate() - Setting Quantity in BackOrder EJB to {}", quantity);
 			this.setQuantity(quantity);
-			Util.debug("BackOrder.ejbCreate() - Setting STATUS_ORDERSTOCK in BackOrder EJB to " + Util.STATUS_ORDERSTOCK);
+			Util.debug("BackOrder.ejbCreate() - Setting STATUS_ORDERSTOCK in BackOrder EJB to {}", Util.STATUS_ORDERSTOCK);
 			this.setStatus(Util.STATUS_ORDERSTOCK);
 			this.setLowDate(System.currentTimeMillis());
 		}
 		catch (Exception e)
 		{
-			Util.debug("BackOrder.ejbCreate() - Exception: " + e);
+			Util.debug("BackOrder.ejbCreate() - Exception: {}", e);
 		}
 	}
 
@@ -130,6 +165,7 @@ public class BackOrder
 	}
 	public void setStatus(String status) {
 		this.status = status;
+		updateOpenInventoryID();
 	}
 	public String getSupplierOrderID() {
 		return supplierOrderID;
@@ -143,6 +179,13 @@ public class BackOrder
 	}
 	public void setInventory(Inventory inventory) {
 		this.inventory = inventory;
+		updateOpenInventoryID();
+	}
+	public String getOpenInventoryID() {
+		return openInventoryID;
+	}
+	private void updateOpenInventoryID() {
+		openInventoryID = Util.STATUS_ORDERSTOCK.equals(status) && inventory != null ? inventory.getInventoryId() : null;
 	}
 
 }
@@ -0,0 +1,127 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.jpa;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.sequencing.Sequence;
+import org.eclipse.persistence.sequencing.TableSequence;
+import org.eclipse.persistence.sessions.DatasourceLogin;
+import org.eclipse.persistence.sessions.Session;
+
+import com.ibm.websphere.samples.pbw.utils.PbwConfig;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+/**
+ * Chooses how the ids of Order, BackOrder and MailOutbox, the entities whose
+ * ids come from the IDGENERATOR table, are allocated.
+ *
+ * <ul>
+ * <li>id.generator=table (the default): each node leases a block of
+ * id.block.size ids from the entity's IDGENERATOR row at a time. The row is
+ * updated on the sequence connection, in a transaction of its own that commits
+ * before any id of the block is used, so checkouts never wait on it and a
+ * restart only skips the rest of a block, never reuses one.</li>
+ * <li>id.generator=time: ids are made in memory by a
+ * {@link TimeOrderedSequence} for node id.node, and IDGENERATOR is not used.
+ * Without id.node the node number is taken from the host name, which is only
+ * safe when the host names of the cluster hash to different numbers.</li>
+ * </ul>
+ *
+ * The settings are read from pbw.properties. A persistence unit property of
+ * the same name prefixed with "pbw." takes precedence, for tests and benchmarks.
+ */
+public class IdSequencing implements SessionCustomizer
+{
+	public static final String GENERATOR = "id.generator";
+	public static final String BLOCK_SIZE = "id.block.size";
+	public static final String NODE = "id.node";
+
+	public static final String GENERATOR_TABLE = "table";
+	public static final String GENERATOR_TIME = "time";
+	public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+	static final String TABLE = "IDGENERATOR";
+
+	public void customize(Session session) throws Exception
+	{
+		String generator = getSetting(session, GENERATOR);
+		boolean time = GENERATOR_TIME.equalsIgnoreCase(generator);
+		if (!time && generator != null && !GENERATOR_TABLE.equalsIgnoreCase(generator))
+		{
+			Util.debug("IdSequencing: ignoring invalid {}={}", GENERATOR, generator);
+		}
+		int blockSize = getInt(session, BLOCK_SIZE, DEFAULT_BLOCK_SIZE);
+		int node = time ? getNode(session) : 0;
+
+		DatasourceLogin login = session.getLogin();
+		List<Sequence> sequences = new ArrayList<Sequence>();
+		for (Object sequence : login.getSequences().values())
+		{
+			if (sequence instanceof TableSequence && TABLE.equalsIgnoreCase(((TableSequence) sequence).getTableName()))
+			{
+				sequences.add((Sequence) sequence);
+			}
+		}
+		for (Sequence sequence : sequences)
+		{
+			if (time)
+			{
+				login.addSequence(new TimeOrderedSequence(sequence.getName(), node));
+			}
+			else
+			{
+				sequence.setPreallocationSize(blockSize);
+			}
+		}
+		Util.debug("IdSequencing: {} ids for {} sequences, block size {}, node {}",
+				time ? GENERATOR_TIME : GENERATOR_TABLE, sequences.size(), blockSize, node);
+	}
+
+	private static int getNode(Session session)
+	{
+		if (getSetting(session, NODE) != null)
+		{
+			return getInt(session, NODE, 0);
+		}
+		try
+		{
+			return InetAddress.getLocalHost().getHostName().hashCode() & TimeOrderedSequence.MAX_NODE;
+		}
+		catch (Exception e)
+		{
+			Util.debug("IdSequencing: no host name, using node 0: {}", e);
+			return 0;
+		}
+	}
+
+	private static String getSetting(Session session, String name)
+	{
+		Object value = session.getProperty("pbw." + name);
+		return value != null ? value.toString() : Util.getProperty(name);
+	}
+
+	private static int getInt(Session session, String name, int defaultValue)
+	{
+		Object value = session.getProperty("pbw." + name);
+		return value != null ? PbwConfig.parseInt(name, value.toString(), defaultValue)
+				: Util.getConfig().getInt(name, defaultValue);
+	}
+}
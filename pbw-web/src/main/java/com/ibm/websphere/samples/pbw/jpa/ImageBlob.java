@@ -0,0 +1,66 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.jpa;
+
+import javax.persistence.Basic;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Bean mapping for the IMAGEBLOB table.
+ * Image bytes addressed by their SHA-256 content hash, used by the database
+ * ImageBlobStore. Rows are immutable; identical images share one row.
+ */
+@Entity(name="ImageBlob")
+@Table(name="IMAGEBLOB")
+@NamedQueries({
+	@NamedQuery(name="removeAllImageBlob",
+		query="delete from ImageBlob")
+})
+// stores a blob unless a row with its hash exists, without failing when another transaction stores it at the same time
+@NamedNativeQuery(
+	name="insertImageBlob",
+	query="INSERT INTO IMAGEBLOB (IMGHASH, IMGBYTES) VALUES (?1, ?2) ON DUPLICATE KEY UPDATE IMGHASH = IMGHASH")
+public class ImageBlob
+{
+	@Id
+	private String imgHash;
+	@Lob
+	@Basic(fetch=FetchType.LAZY)
+	private byte[] imgbytes;
+
+	public ImageBlob() { }
+
+	public ImageBlob(String imgHash, byte[] imgbytes)
+	{
+		this.imgHash = imgHash;
+		this.imgbytes = imgbytes;
+	}
+
+	public String getImgHash() {
+		return imgHash;
+	}
+	public byte[] getImgbytes() {
+		return imgbytes;
+	}
+}
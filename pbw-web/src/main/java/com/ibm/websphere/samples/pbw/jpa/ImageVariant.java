@@ -0,0 +1,117 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.jpa;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Bean mapping for the IMAGEVARIANT table.
+ * Each row describes one rendition of an inventory item's image: the
+ * original as stored by setItemImageBytes, or a pre-generated size/format.
+ * The bytes themselves live in the ImageBlobStore under the content hash.
+ */
+@Entity(name="ImageVariant")
+@Table(name="IMAGEVARIANT")
+@NamedQueries({
+	@NamedQuery(name="getImageVariantInfo",
+		query="select v.contentType, v.imgHash, v.imgLength, v.updated from ImageVariant v where v.id.inventoryID = :id and v.id.variant = :variant"),
+	@NamedQuery(name="removeImageVariants",
+		query="delete from ImageVariant v where v.id.inventoryID = :id"),
+	@NamedQuery(name="removeAllImageVariant",
+		query="delete from ImageVariant")
+})
+public class ImageVariant
+{
+	/**
+	 * Composite Key class for Entity Bean: ImageVariant
+	 */
+	@Embeddable
+	public static class PK implements java.io.Serializable {
+		static final long serialVersionUID = 1L;
+		@Column(name="INVENTORYID")
+		public String inventoryID;
+		@Column(name="VARIANT")
+		public String variant;
+
+		public PK() { }
+
+		public PK(String inventoryID, String variant) {
+			this.inventoryID = inventoryID;
+			this.variant = variant;
+		}
+		/**
+		 * Returns true if both keys are equal.
+		 */
+		public boolean equals(java.lang.Object otherKey) {
+			if (otherKey instanceof PK) {
+				PK o = (PK) otherKey;
+				return this.inventoryID.equals(o.inventoryID) && this.variant.equals(o.variant);
+			}
+			return false;
+		}
+		/**
+		 * Returns the hash code for the key.
+		 */
+		public int hashCode() {
+			return inventoryID.hashCode() * 31 + variant.hashCode();
+		}
+	}
+
+	@EmbeddedId
+	private ImageVariant.PK id;
+	private String contentType;
+	private String imgHash;
+	private long imgLength;
+	private long updated;
+
+	public ImageVariant() { }
+
+	public ImageVariant(String inventoryID, String variant, String contentType, String imgHash, long imgLength)
+	{
+		this.id = new ImageVariant.PK(inventoryID, variant);
+		this.contentType = contentType;
+		this.imgHash = imgHash;
+		this.imgLength = imgLength;
+		long now = System.currentTimeMillis();
+		this.updated = now - now % 1000;
+	}
+
+	public String getInventoryID() {
+		return id.inventoryID;
+	}
+	public String getVariant() {
+		return id.variant;
+	}
+	public String getContentType() {
+		return contentType;
+	}
+	public String getImgHash() {
+		return imgHash;
+	}
+	public long getImgLength() {
+		return imgLength;
+	}
+	public long getUpdated() {
+		return updated;
+	}
+}
@@ -33,6 +33,8 @@ import com.ibm.websphere.samples.pbw.utils.Util;
 /**
  * Inventory is the bean mapping for the INVENTORY table.
  * It provides information about products the store has for sale.
+ * Images are not part of the entity; they are described by ImageVariant rows
+ * and their bytes live in the ImageBlobStore.
  *
  * @see Inventory
  */
@@ -41,8 +43,16 @@ import com.ibm.websphere.samples.pbw.utils.Util;
 @NamedQueries({
 	@NamedQuery(name="getItemsByCategory",
 		query="select i from Inventory i where i.category = :category ORDER BY i.inventoryId"),
-	@NamedQuery(name="getItemsLikeName",
-		query="select i from Inventory i where i.name like :name"),
+	@NamedQuery(name="getPublicItemsByCategoryAfter",
+		query="select i from Inventory i where i.category = :category and i.isPublic = true and i.inventoryId > :after ORDER BY i.inventoryId"),
+	@NamedQuery(name="getPublicItemsByCategoryBefore",
+		query="select i from Inventory i where i.category = :category and i.isPublic = true and i.inventoryId < :before ORDER BY i.inventoryId DESC"),
+	@NamedQuery(name="getItemsByIds",
+		query="select i from Inventory i where i.inventoryId in :ids ORDER BY i.inventoryId"),
+	@NamedQuery(name="getSearchableItems",
+		query="select i.inventoryId, i.name, i.heading, i.description, i.category, i.price, i.image from Inventory i where i.isPublic = true"),
+	@NamedQuery(name="setInventoryQuantities",
+		query="update Inventory i set i.quantity = :quantity where i.inventoryId in :ids"),
 	@NamedQuery(name="removeAllInventory",
 			query="delete from Inventory")
 })
@@ -58,7 +68,6 @@ public class Inventory implements Cloneable, java.io.Serializable
 	private String description;
 	private String pkginfo;
 	private String image;
-	private byte[] imgbytes;
 	private float price;
 	private float cost;
 	private int quantity;
@@ -105,7 +114,7 @@ public class Inventory implements Cloneable, java.io.Serializable
 			boolean isPublic)
 	{
 		this.setInventoryId(key);
-		Util.debug("creating new Inventory, inventoryId=" + this.getInventoryId());
+		Util.debug("creating new Inventory, inventoryId={}", this.getInventoryId());
 		this.setName(name);
 		this.setHeading(heading);
 		this.setDescription(desc);
@@ -299,14 +308,6 @@ public class Inventory implements Cloneable, java.io.Serializable
 		setIsPublic(isPublic);
 	}
 
-	public byte[] getImgbytes() {
-		return imgbytes;
-	}
-
-	public void setImgbytes(byte[] imgbytes) {
-		this.imgbytes = imgbytes;
-	}
-
 	public BackOrder getBackOrder() {
 		return backOrder;
 	}
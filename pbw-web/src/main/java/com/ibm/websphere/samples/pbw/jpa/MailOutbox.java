@@ -0,0 +1,152 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.jpa;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+
+/**
+ * Bean mapping for the MAILOUTBOX table.
+ * A row is a mail message waiting to be sent. It is written in the same
+ * transaction as the work it reports on and sent later by a background worker.
+ *
+ * @see com.ibm.websphere.samples.pbw.ejb.MailDispatcher
+ */
+@Entity(name="MailOutbox")
+@Table(name="MAILOUTBOX")
+@NamedQueries({
+	@NamedQuery(
+		name="findDueMail",
+		query="select m from MailOutbox m where ((m.status = 'Pending') or (m.status = 'Sending')) and (m.nextAttempt <= :now) ORDER BY m.nextAttempt"),
+	@NamedQuery(
+		name="claimMail",
+		query="update MailOutbox m set m.status = 'Sending', m.nextAttempt = :lease where m.mailID = :id and m.status = :status and m.nextAttempt = :seen"),
+	@NamedQuery(
+		name="findMailByIDs",
+		query="select m from MailOutbox m where m.mailID in :ids"),
+	@NamedQuery(
+		name="markMailSent",
+		query="update MailOutbox m set m.status = 'Sent', m.sent = :now where m.mailID in :ids"),
+	@NamedQuery(
+		name="countUnsentMail",
+		query="select count(m) from MailOutbox m where (m.status = 'Pending') or (m.status = 'Sending')"),
+	@NamedQuery(
+		name="removeAllMailOutbox",
+		query="delete from MailOutbox")
+})
+public class MailOutbox
+{
+	public static final String STATUS_PENDING = "Pending";
+	public static final String STATUS_SENDING = "Sending";
+	public static final String STATUS_SENT = "Sent";
+	public static final String STATUS_FAILED = "Failed";
+
+	@Id
+	@GeneratedValue(strategy=GenerationType.TABLE, generator="MailOutboxSeq")
+	@TableGenerator(name="MailOutboxSeq", table="IDGENERATOR", pkColumnName="IDNAME",
+			pkColumnValue="MAILOUTBOX", valueColumnName="IDVALUE")
+	private String mailID;
+	private String orderID;
+	private String receiver;
+	private String subject;
+	@Column(length=4000)
+	private String body;
+	private String status;
+	private int attempts;
+	private long created;
+	private long nextAttempt;
+	private long sent;
+	@Column(length=1000)
+	private String lastError;
+
+	public MailOutbox() {}
+
+	/**
+	 * Create a message that is due to be sent now.
+	 *
+	 * @param orderID - order the message is about
+	 * @param receiver - email address of the recipient
+	 * @param subject - subject line
+	 * @param body - text of the message
+	 */
+	public MailOutbox(String orderID, String receiver, String subject, String body)
+	{
+		this.orderID = orderID;
+		this.receiver = receiver;
+		this.subject = subject;
+		this.body = body;
+		this.status = STATUS_PENDING;
+		this.created = System.currentTimeMillis();
+		this.nextAttempt = this.created;
+	}
+
+	public String getMailID() {
+		return mailID;
+	}
+	public String getOrderID() {
+		return orderID;
+	}
+	public String getReceiver() {
+		return receiver;
+	}
+	public String getSubject() {
+		return subject;
+	}
+	public String getBody() {
+		return body;
+	}
+	public String getStatus() {
+		return status;
+	}
+	public void setStatus(String status) {
+		this.status = status;
+	}
+	public int getAttempts() {
+		return attempts;
+	}
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+	public long getCreated() {
+		return created;
+	}
+	public long getNextAttempt() {
+		return nextAttempt;
+	}
+	public void setNextAttempt(long nextAttempt) {
+		this.nextAttempt = nextAttempt;
+	}
+	public long getSent() {
+		return sent;
+	}
+	public void setSent(long sent) {
+		this.sent = sent;
+	}
+	public String getLastError() {
+		return lastError;
+	}
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+}
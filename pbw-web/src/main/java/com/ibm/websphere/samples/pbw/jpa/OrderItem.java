@@ -58,8 +58,8 @@ public class OrderItem
 		public PK() {  Util.debug("OrderItem.PK()"); }
 
 		public PK(String inventoryID,	String argOrder) {
-			Util.debug("OrderItem.PK() inventoryID=" + inventoryID + "=");
-			Util.debug("OrderItem.PK() orderID=" + argOrder + "=");
+			Util.debug("OrderItem.PK() inventoryID={}=", inventoryID);
+			Util.debug("OrderItem.PK() orderID={}=", argOrder);
 			this.inventoryID = inventoryID;
 			this.order_orderID = argOrder;
 		}
@@ -79,8 +79,8 @@ public class OrderItem
 		 * Returns the hash code for the key.
 		 */
 		public int hashCode() {
-			Util.debug("OrderItem.PK.hashCode() inventoryID=" + inventoryID + "=");
-			Util.debug("OrderItem.PK.hashCode() orderID=" + order_orderID + "=");
+			Util.debug("OrderItem.PK.hashCode() inventoryID={}=", inventoryID);
+			Util.debug("OrderItem.PK.hashCode() orderID={}=", order_orderID);
 
 			return (inventoryID.hashCode() + order_orderID.hashCode());
 		}
@@ -96,6 +96,8 @@ public class OrderItem
 	private int category;
 	private int quantity;
 	private String sellDate;
+	// written through the primary key; mapping it twice would insert the column twice
+	@Column(name="INVENTORYID", insertable = false, updatable = false)
 	private String inventoryId;
 
 	@ManyToOne
@@ -149,7 +151,7 @@ public class OrderItem
 	}
 	public OrderItem() {}
 	public OrderItem(Inventory inv) {
-		Util.debug("OrderItem(inv) - id = "+inv.getInventoryId());
+		Util.debug("OrderItem(inv) - id = {}", inv.getInventoryId());
 		setInventoryId(inv.getInventoryId());
 		inventory = inv;
 		name = inv.getName();
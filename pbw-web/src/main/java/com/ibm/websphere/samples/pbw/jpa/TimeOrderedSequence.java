@@ -0,0 +1,155 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.jpa;
+
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.persistence.internal.databaseaccess.Accessor;
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.sequencing.Sequence;
+
+/**
+ * Sequence that makes 63-bit, time-ordered ids without going to the database.
+ *
+ * An id is the milliseconds since {@link #EPOCH} (41 bits, good until 2094),
+ * followed by the node number (10 bits) and a counter within the millisecond
+ * (12 bits). Ids from one node always increase: when the counter of a
+ * millisecond is used up, or the clock steps back, the node carries on from
+ * its last id rather than waiting for the clock. So that a restarted node never
+ * hands out an id again, it must come back after the clock has passed the last
+ * id it made, which is at most milliseconds ahead of the clock unless more than
+ * 4096 ids a millisecond are being taken.
+ *
+ * Each node in a cluster needs its own node number.
+ *
+ * @see IdSequencing
+ */
+public class TimeOrderedSequence extends Sequence
+{
+	private static final long serialVersionUID = 1L;
+
+	/** Start of the id clock, 2025-01-01T00:00:00Z. */
+	public static final long EPOCH = 1735689600000L;
+
+	public static final int NODE_BITS = 10;
+	public static final int COUNTER_BITS = 12;
+	public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+	private static final int TIME_SHIFT = NODE_BITS + COUNTER_BITS;
+	private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+	// shared with the clones the session makes of its sequences
+	private final AtomicLong last;
+	private final long node;
+
+	public TimeOrderedSequence(String name, int node)
+	{
+		super(name, 1);
+		if (node < 0 || node > MAX_NODE)
+			throw new IllegalArgumentException("node must be 0 to " + MAX_NODE + ": " + node);
+		this.node = ((long) node) << COUNTER_BITS;
+		this.last = new AtomicLong();
+	}
+
+	/**
+	 * Get the next id.
+	 *
+	 * @return An id greater than any this sequence has returned before.
+	 */
+	public long next()
+	{
+		while (true)
+		{
+			long previous = last.get();
+			long id = ((System.currentTimeMillis() - EPOCH) << TIME_SHIFT) | node;
+			if (id <= previous)
+			{
+				// same millisecond, or the clock went back: count on from the last id,
+				// into the next millisecond once its counter is used up
+				id = (previous & COUNTER_MASK) == COUNTER_MASK
+						? (((previous >>> TIME_SHIFT) + 1) << TIME_SHIFT) | node
+						: previous + 1;
+			}
+			if (last.compareAndSet(previous, id))
+				return id;
+		}
+	}
+
+	/**
+	 * Get the time at which an id was made.
+	 *
+	 * @param id An id from this sequence.
+	 * @return Milliseconds since 1970-01-01T00:00:00Z.
+	 */
+	public static long getTime(long id)
+	{
+		return (id >>> TIME_SHIFT) + EPOCH;
+	}
+
+	/**
+	 * Get the node that made an id.
+	 *
+	 * @param id An id from this sequence.
+	 * @return The node number.
+	 */
+	public static int getNode(long id)
+	{
+		return (int) ((id >>> COUNTER_BITS) & MAX_NODE);
+	}
+
+	@Override
+	public boolean shouldAcquireValueAfterInsert()
+	{
+		return false;
+	}
+
+	@Override
+	public boolean shouldUsePreallocation()
+	{
+		return false;
+	}
+
+	@Override
+	public boolean shouldUseTransaction()
+	{
+		return false;
+	}
+
+	@Override
+	public Object getGeneratedValue(Accessor accessor, AbstractSession writeSession, String seqName)
+	{
+		return next();
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Vector getGeneratedVector(Accessor accessor, AbstractSession writeSession, String seqName, int size)
+	{
+		return null;
+	}
+
+	@Override
+	public void onConnect()
+	{
+	}
+
+	@Override
+	public void onDisconnect()
+	{
+	}
+}
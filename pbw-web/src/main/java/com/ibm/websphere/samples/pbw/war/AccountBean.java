@@ -17,7 +17,7 @@
 package com.ibm.websphere.samples.pbw.war;
 
 import java.io.Serializable;
-import java.util.Collection;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.ejb.EJB;
@@ -26,12 +26,9 @@ import javax.faces.application.Application;
 import javax.faces.context.FacesContext;
 
 import com.ibm.websphere.samples.pbw.ejb.CustomerMgr;
-import com.ibm.websphere.samples.pbw.ejb.MailerAppException;
-import com.ibm.websphere.samples.pbw.ejb.MailerBean;
 import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
 //import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
 import com.ibm.websphere.samples.pbw.jpa.Customer;
-import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.utils.Util;
 
 //import javax.inject.Inject;
@@ -58,8 +55,6 @@ public class AccountBean implements Serializable {
 
 	@EJB
 	private CustomerMgr login;
-	@EJB
-	private MailerBean mailer;
 	@Inject
 	private ShoppingCartBean shoppingCart;
 
@@ -136,6 +131,7 @@ public class AccountBean implements Serializable {
 		app.createValueBinding("#{shopping}").getValue(context);
 
 		// persist the order
+		Map<String, Integer> items = shoppingCart.getQuantities();
 		OrderInfo oi = new OrderInfo(shoppingCart.createOrder(
 				customer.getCustomerID(), orderInfo.getBillName(),
 				orderInfo.getBillAddr1(), orderInfo.getBillAddr2(),
@@ -147,32 +143,17 @@ public class AccountBean implements Serializable {
 				orderInfo.getShipPhone(), orderInfo.getCardName(),
 				orderInfo.getCardNum(), orderInfo.getCardExpMonth(),
 				orderInfo.getCardExpYear(), orderInfo.getCardholderName(),
-				orderInfo.getShippingMethod(), shoppingCart.getItems()));
+				orderInfo.getShippingMethod(), items));
 
 		lastOrderNum = oi.getID();
 
-		Util.debug("Account.performCompleteCheckout: order id =" + orderInfo);
+		Util.debug("Account.performCompleteCheckout: order id ={}", orderInfo);
 
 		// Check the available inventory and backorder if necessary.
 		if (shoppingCart != null) {
-			Inventory si;
-			Collection<Inventory> items = shoppingCart.getItems();
-			for (Object o : items) {
-				si = (Inventory) o;
-				shoppingCart.checkInventory(si);
-				Util.debug("ShoppingCart.checkInventory() - checking Inventory quantity of item: "
-						+ si.getID());
-			}
-		}
-		try {
-			mailer.createAndSendMail(customer, oi.getID());
-		} catch (MailerAppException e) {
-			System.out.println("MailerAppException:" + e);
-			e.printStackTrace();
-		} catch (Exception e) {
-			System.out.println("Exception during create and send mail :" + e);
-			e.printStackTrace();
+			shoppingCart.reserveInventory(items);
 		}
+		// The confirmation mail was queued with the order and is sent by MailOutboxBean.
 
 		orderInfo = null;
 
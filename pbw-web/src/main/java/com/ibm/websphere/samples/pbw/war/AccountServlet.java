@@ -17,6 +17,7 @@
 package com.ibm.websphere.samples.pbw.war;
 
 import java.io.IOException;
+import java.util.Vector;
 
 import javax.ejb.EJB;
 import javax.servlet.ServletConfig;
@@ -31,8 +32,10 @@ import javax.servlet.http.HttpSession;
 import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
 import com.ibm.websphere.samples.pbw.ejb.CustomerMgr;
 import com.ibm.websphere.samples.pbw.jpa.Customer;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.utils.Util;
 import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
 
 /**
  * Servlet to handle customer account actions, such as login and register.
@@ -98,7 +101,7 @@ public class AccountServlet extends HttpServlet
       String action = null;
 
       action = req.getParameter(Util.ATTR_ACTION);
-      Util.debug("action=" + action);
+      Util.debug("action={}", action);
 
       if (action.equals(ACTION_LOGIN))
       {
@@ -117,7 +120,7 @@ public class AccountServlet extends HttpServlet
             {
             	//user id was invalid, and may contain XSS attack
             	results = "\nEmail address was invalid.";
-				Util.debug("User id or email address was invalid. id=" + userid);
+				Util.debug("User id or email address was invalid. id={}", userid);
             }
 
             // If results have an error msg, return it, otherwise continue.
@@ -146,7 +149,7 @@ public class AccountServlet extends HttpServlet
                // Store customer userid in HttpSession.
                Customer customer = login.getCustomer(userid);
                session.setAttribute(Util.ATTR_CUSTOMER, customer);
-               Util.debug("updating=" + updating + "=");
+               Util.debug("updating={}=", updating);
 
                // Was customer trying to edit account information.
                if (updating.equals("true"))
@@ -160,7 +163,7 @@ public class AccountServlet extends HttpServlet
                {
                   // See if user was in the middle of checking out.
                   Boolean checkingOut = (Boolean) session.getAttribute(Util.ATTR_CHECKOUT);
-                  Util.debug("checkingOut=" + checkingOut + "=");
+                  Util.debug("checkingOut={}=", checkingOut);
                   if ((checkingOut != null) && (checkingOut.booleanValue()))
                   {
                      Util.debug("must be checking out");
@@ -182,7 +185,7 @@ public class AccountServlet extends HttpServlet
                      {
                         url = Util.PAGE_SHOPPING;
                         req.setAttribute(Util.ATTR_INVITEMS,
-                                         catalog.getItemsByCategory(Integer.parseInt(category)));
+                                         getInvItems(Integer.parseInt(category)));
                      }
 
                      requestDispatch( getServletConfig().getServletContext(),
@@ -296,7 +299,7 @@ public class AccountServlet extends HttpServlet
                      {
                         url = Util.PAGE_SHOPPING;
                         req.setAttribute(Util.ATTR_INVITEMS,
-                                         catalog.getItemsByCategory(Integer.parseInt(category)));
+                                         getInvItems(Integer.parseInt(category)));
                      }
                   }
                }
@@ -374,7 +377,7 @@ public class AccountServlet extends HttpServlet
                {
                   url = Util.PAGE_SHOPPING;
                   req.setAttribute(Util.ATTR_INVITEMS,
-                                   catalog.getItemsByCategory(Integer.parseInt(category)));
+                                   getInvItems(Integer.parseInt(category)));
                }
             }
 
@@ -396,6 +399,14 @@ public class AccountServlet extends HttpServlet
       }
    }
 
+   /**
+    * Get the items of a category for the invitems request attribute, which
+    * pages written against the original API read as a Vector.
+    */
+   private Vector<Inventory> getInvItems(int category) {
+      return new Vector<Inventory>(catalog.getItemsByCategory(category));
+   }
+
    /**
     * Request dispatch.
     */
@@ -408,6 +419,12 @@ public class AccountServlet extends HttpServlet
            RequestLogger.logTemplate(page, "include");
            RequestLogger.logTemplateData(req);
            resp.setContentType("text/html");
-           ctx.getRequestDispatcher(page).include(req, resp);
+           RequestLoggingFilter.addServerTiming(resp);
+           long started = RequestTiming.start(RequestTiming.Layer.RENDER);
+           try {
+              ctx.getRequestDispatcher(page).include(req, resp);
+           } finally {
+              RequestTiming.stop(RequestTiming.Layer.RENDER, started);
+           }
    }
 }
\ No newline at end of file
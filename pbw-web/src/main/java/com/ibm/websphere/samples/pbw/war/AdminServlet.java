@@ -16,9 +16,10 @@
 //
 package com.ibm.websphere.samples.pbw.war;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.ejb.EJB;
 import javax.servlet.ServletConfig;
@@ -30,16 +31,18 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import com.ibm.websphere.samples.pbw.ejb.BackOrderItem;
 import com.ibm.websphere.samples.pbw.ejb.BackOrderMgr;
+import com.ibm.websphere.samples.pbw.ejb.BackOrderOutcome;
+import com.ibm.websphere.samples.pbw.ejb.BackOrderPage;
 import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
 import com.ibm.websphere.samples.pbw.ejb.CustomerMgr;
 import com.ibm.websphere.samples.pbw.ejb.ResetDBBean;
 import com.ibm.websphere.samples.pbw.ejb.SuppliersBean;
-import com.ibm.websphere.samples.pbw.jpa.BackOrder;
-import com.ibm.websphere.samples.pbw.jpa.Inventory;
 import com.ibm.websphere.samples.pbw.jpa.Supplier;
 import com.ibm.websphere.samples.pbw.utils.Util;
 import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
 /**
  * Servlet to handle Administration actions
  */
@@ -49,6 +52,10 @@ public class AdminServlet extends HttpServlet {
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	private static final int DEFAULT_BACKORDER_PAGE_SIZE = 50;
+	// the statuses listed by backorderadmin.jsp; completed back orders are left out
+	private static final Collection<String> LISTED_BACKORDER_STATUSES = Arrays.asList(
+			Util.STATUS_ORDERSTOCK, Util.STATUS_ORDEREDSTOCK, Util.STATUS_RECEIVEDSTOCK);
 	@EJB
 	private SuppliersBean suppliers = null;
 	@EJB
@@ -102,7 +109,7 @@ public class AdminServlet extends HttpServlet {
 		RequestLogger.logController("AdminServlet", "performTask");
 		String admintype = null;
 		admintype = req.getParameter(Util.ATTR_ADMINTYPE);
-		Util.debug("inside AdminServlet:performTask. admintype="+admintype);
+		Util.debug("inside AdminServlet:performTask. admintype={}", admintype);
 		if ((admintype == null) || (admintype.equals(""))) {
 			// Invalid Admin
 			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_ADMINHOME);
@@ -132,7 +139,7 @@ public class AdminServlet extends HttpServlet {
 		try {
 			supplier = suppliers.updateSupplier(supplierID, name, street, city, state, zip, phone, location_url);
 		} catch (Exception e) {
-			Util.debug("AdminServlet.updateSupplierInfo() - Exception: " + e);
+			Util.debug("AdminServlet.updateSupplierInfo() - Exception: {}", e);
 		}
 		return (supplier);
 	}
@@ -149,18 +156,18 @@ public class AdminServlet extends HttpServlet {
 		action = req.getParameter(Util.ATTR_ACTION);
 		if ((action == null) || (action.equals("")))
 			action = Util.ACTION_GETSUPPLIER;
-		Util.debug("AdminServlet.performSupplierConfig() - action=" + action);
+		Util.debug("AdminServlet.performSupplierConfig() - action={}", action);
 		HttpSession session = req.getSession(true);
 		if (action.equals(Util.ACTION_GETSUPPLIER)) {
 			// Get supplier info
 			try {
 				supplier = suppliers.getSupplier();
 			} catch (Exception e) {
-				Util.debug("AdminServlet.performSupplierConfig() Exception: " + e);
+				Util.debug("AdminServlet.performSupplierConfig() Exception: {}", e);
 			}
 		} else if (action.equals(Util.ACTION_UPDATESUPPLIER)) {
 			String supplierID = req.getParameter("supplierid");
-			Util.debug("AdminServlet.performSupplierConfig() - supplierid = " + supplierID);
+			Util.debug("AdminServlet.performSupplierConfig() - supplierid = {}", supplierID);
 			if ((supplierID != null) && (!supplierID.equals(""))) {
 				String name = req.getParameter("name");
 				String street = req.getParameter("street");
@@ -203,34 +210,48 @@ public class AdminServlet extends HttpServlet {
 		action = req.getParameter(Util.ATTR_ACTION);
 		if ((action == null) || (action.equals("")))
 			action = Util.ACTION_GETBACKORDERS;
-		Util.debug("AdminServlet.performBackOrder() - action=" + action);
-		HttpSession session = req.getSession(true);
+		Util.debug("AdminServlet.performBackOrder() - action={}", action);
 		if (action.equals(Util.ACTION_GETBACKORDERS)) {
-			getBackOrders(session);
+			getBackOrders(req);
 			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_BACKADMIN);
 		} 
-		else if (action.equals(Util.ACTION_UPDATESTOCK)) {
-			Util.debug("AdminServlet.performBackOrder() - AdminServlet(performTask):  Update Stock Action");
+		else if (action.equals(Util.ACTION_ORDERSTOCK)) {
+			Util.debug("AdminServlet.performBackOrder() - AdminServlet(performTask):  Order Stock Action");
 			String[] backOrderIDs = (String[]) req.getParameterValues("selectedObjectIds");
 			if (backOrderIDs != null) {
+				// The quantity to order may have been changed on the page.
+				Map<String, Integer> quantities = new LinkedHashMap<String, Integer>();
 				for (int i = 0; i < backOrderIDs.length; i++) {
 					String backOrderID = backOrderIDs[i];
-					Util.debug("AdminServlet.performBackOrder() - Selected BackOrder backOrderID: " + backOrderID);
+					Util.debug("AdminServlet.performBackOrder() - Selected BackOrder backOrderID: {}", backOrderID);
 					try {
-						String inventoryID = backOrderStock.getBackOrderInventoryID(backOrderID);
-						Util.debug("AdminServlet.performBackOrder() - backOrderID = " + inventoryID);
-						int quantity = backOrderStock.getBackOrderQuantity(backOrderID);
-						catalog.setItemQuantity(inventoryID, quantity);
-						// Update the BackOrder status
-						Util.debug("AdminServlet.performBackOrder() - quantity: " + quantity);
-						backOrderStock.updateStock(backOrderID, quantity);
+						quantities.put(backOrderID, Integer.valueOf(req.getParameter("itemqty" + backOrderID).trim()));
 					} catch (Exception e) {
-						Util.debug("AdminServlet.performBackOrder() - Exception: " + e);
-						e.printStackTrace();
+						Util.debug("AdminServlet.performBackOrder() - Exception: {}", e);
 					}
 				}
+				try {
+					reportOutcomes(req, "ordered", backOrderStock.orderStock(quantities));
+				} catch (Exception e) {
+					Util.debug("AdminServlet.performBackOrder() - Exception: {}", e);
+					e.printStackTrace();
+				}
+			}
+			getBackOrders(req);
+			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_BACKADMIN);
+		}
+		else if (action.equals(Util.ACTION_UPDATESTOCK)) {
+			Util.debug("AdminServlet.performBackOrder() - AdminServlet(performTask):  Update Stock Action");
+			String[] backOrderIDs = (String[]) req.getParameterValues("selectedObjectIds");
+			if (backOrderIDs != null) {
+				try {
+					reportOutcomes(req, "added to the stock", backOrderStock.receiveStock(Arrays.asList(backOrderIDs)));
+				} catch (Exception e) {
+					Util.debug("AdminServlet.performBackOrder() - Exception: {}", e);
+					e.printStackTrace();
+				}
 			}
-			getBackOrders(session);
+			getBackOrders(req);
 			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_BACKADMIN);
 		} else if (action.equals(Util.ACTION_CANCEL)) {
 			Util.debug("AdminServlet.performBackOrder() - AdminServlet(performTask):  Cancel Action");
@@ -238,88 +259,103 @@ public class AdminServlet extends HttpServlet {
 			if (backOrderIDs != null) {
 				for (int i = 0; i < backOrderIDs.length; i++) {
 					String backOrderID = backOrderIDs[i];
-					Util.debug("AdminServlet.performBackOrder() - Selected BackOrder backOrderID: " + backOrderID);
+					Util.debug("AdminServlet.performBackOrder() - Selected BackOrder backOrderID: {}", backOrderID);
 					try {
 						backOrderStock.deleteBackOrder(backOrderID);
 					} catch (Exception e) {
-						Util.debug("AdminServlet.performBackOrder() - Exception: " + e);
+						Util.debug("AdminServlet.performBackOrder() - Exception: {}", e);
 						e.printStackTrace();
 					}
 				}
 			}
-			getBackOrders(session);
+			getBackOrders(req);
 			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_BACKADMIN);
 		} else if (action.equals(Util.ACTION_UPDATEQUANTITY)) {
 			Util.debug("AdminServlet.performBackOrder() -  Update Quantity Action");
 			try {
 				String backOrderID = req.getParameter("backOrderID");
 				if (backOrderID != null) {
-					Util.debug("AdminServlet.performBackOrder() - backOrderID = " + backOrderID);
+					Util.debug("AdminServlet.performBackOrder() - backOrderID = {}", backOrderID);
 					String paramquantity = req.getParameter("itemqty");
 					if (paramquantity != null) {
 						int quantity = new Integer(paramquantity).intValue();
-						Util.debug("AdminServlet.performBackOrder() - quantity: " + quantity);
+						Util.debug("AdminServlet.performBackOrder() - quantity: {}", quantity);
 						backOrderStock.setBackOrderQuantity(backOrderID, quantity);
 					}
 				}
 			} catch (Exception e) {
-				Util.debug("AdminServlet.performBackOrder() - Exception: " + e);
+				Util.debug("AdminServlet.performBackOrder() - Exception: {}", e);
 				e.printStackTrace();
 			}
-			getBackOrders(session);
+			getBackOrders(req);
 			requestDispatch(getServletConfig().getServletContext(), req, resp, Util.PAGE_BACKADMIN);
 		} else {
 			// Unknown Backup Admin Action so go back to the Administration home page
 			sendRedirect(resp, "/PlantsByWebSphere/" + Util.PAGE_ADMINHOME);
 		}
 	}
+	/**
+	 * Method reportOutcomes.
+	 * Tells backorderadmin.jsp how many back orders changed and which were left alone.
+	 * @param req
+	 * @param done
+	 * @param outcomes
+	 */
+	private void reportOutcomes(HttpServletRequest req, String done, Map<String, BackOrderOutcome> outcomes) {
+		int changed = 0;
+		int missing = 0;
+		StringBuilder skipped = new StringBuilder();
+		for (Map.Entry<String, BackOrderOutcome> outcome : outcomes.entrySet()) {
+			Util.debug("AdminServlet.reportOutcomes() - backOrderID = {} {}", outcome.getKey(), outcome.getValue());
+			if (outcome.getValue() == BackOrderOutcome.CHANGED) {
+				changed++;
+			} else if (outcome.getValue() == BackOrderOutcome.NOT_FOUND) {
+				// not echoed, since the ids come from the request
+				missing++;
+			} else {
+				skipped.append(skipped.length() == 0 ? "" : ", ").append(outcome.getKey());
+			}
+		}
+		String results = changed + " back order(s) " + done + ".";
+		if (skipped.length() > 0) {
+			results += " Left alone because of their status: " + skipped + ".";
+		}
+		if (missing > 0) {
+			results += " " + missing + " no longer exist.";
+		}
+		req.setAttribute(Util.ATTR_RESULTS, results);
+	}
+
 	/**
 	 * Method getBackOrders.
-	 * @param session
+	 * Puts one page of back orders in the request for backorderadmin.jsp.
+	 * The page starts after the back order id in the "after" parameter.
+	 * @param req
 	 */
-	public void getBackOrders(HttpSession session) {
+	public void getBackOrders(HttpServletRequest req) {
 		try {
 			// Get the list of back order items.
 			Util.debug("AdminServlet.getBackOrders() - Looking for BackOrders");
-			Collection<BackOrder> backOrders = backOrderStock.findBackOrders();
-			ArrayList<BackOrderItem> backOrderItems = new ArrayList<BackOrderItem>();
-			for (BackOrder bo : backOrders) {
-				BackOrderItem boi = new BackOrderItem(bo);
-				backOrderItems.add(boi);
-			}
+			String after = req.getParameter("after");
+			int pageSize = Util.getConfig().getInt("admin.backorder.page.size", DEFAULT_BACKORDER_PAGE_SIZE);
+			BackOrderPage page = backOrderStock.findBackOrderItems(LISTED_BACKORDER_STATUSES, after, pageSize);
 			Util.debug("AdminServlet.getBackOrders() - BackOrders found!");
-			Iterator<BackOrderItem> i = backOrderItems.iterator();
-			while (i.hasNext()) {
-				BackOrderItem backOrderItem = (BackOrderItem) i.next();
-				String backOrderID = backOrderItem.getBackOrderID();
-				String inventoryID = backOrderItem.getInventory().getInventoryId();
-				// Get the inventory quantity and name for the back order item information.
-				Inventory item = catalog.getItemInventory(inventoryID);
-				int quantity = item.getQuantity();
-				backOrderItem.setInventoryQuantity(quantity);
-				String name = item.getName();
-				backOrderItem.setName(name);
-				// Don't include backorders that have been completed.
-				if (!(backOrderItem.getStatus().equals(Util.STATUS_ADDEDSTOCK))) {
-					String invID = backOrderItem.getInventory().getInventoryId();
-					String supplierOrderID = backOrderItem.getSupplierOrderID();
-					String status = backOrderItem.getStatus();
-					String lowDate = new Long(backOrderItem.getLowDate()).toString();
-					String orderDate = new Long(backOrderItem.getOrderDate()).toString();
-					Util.debug("AdminServlet.getBackOrders() - backOrderID = " + backOrderID);
-					Util.debug("AdminServlet.getBackOrders() -    supplierOrderID = " + supplierOrderID);
-					Util.debug("AdminServlet.getBackOrders() -    invID = " + invID);
-					Util.debug("AdminServlet.getBackOrders() -    name = " + name);
-					Util.debug("AdminServlet.getBackOrders() -    quantity = " + quantity);
-					Util.debug("AdminServlet.getBackOrders() -    status = " + status);
-					Util.debug("AdminServlet.getBackOrders() -    lowDate = " + lowDate);
-					Util.debug("AdminServlet.getBackOrders() -    orderDate = " + orderDate);
-				}
+			for (BackOrderItem backOrderItem : page.getItems()) {
+				Util.debug("AdminServlet.getBackOrders() - backOrderID = {}", backOrderItem.getBackOrderID());
+				Util.debug("AdminServlet.getBackOrders() -    supplierOrderID = {}", backOrderItem.getSupplierOrderID());
+				Util.debug("AdminServlet.getBackOrders() -    invID = {}", backOrderItem.getInventoryID());
+				Util.debug("AdminServlet.getBackOrders() -    name = {}", backOrderItem.getName());
+				Util.debug("AdminServlet.getBackOrders() -    quantity = {}", backOrderItem.getInventoryQuantity());
+				Util.debug("AdminServlet.getBackOrders() -    status = {}", backOrderItem.getStatus());
+				Util.debug("AdminServlet.getBackOrders() -    lowDate = {}", backOrderItem.getLowDate());
+				Util.debug("AdminServlet.getBackOrders() -    orderDate = {}", backOrderItem.getOrderDate());
 			}
-			session.setAttribute("backorderitems", backOrderItems);
+			// The list is only needed to render this response, so it is not kept in the session.
+			req.setAttribute("backorderitems", page.getItems());
+			req.setAttribute("backorderpage", page);
 		} catch (Exception e) {
 			e.printStackTrace();
-			Util.debug("AdminServlet.getBackOrders() - RemoteException: " + e);
+			Util.debug("AdminServlet.getBackOrders() - RemoteException: {}", e);
 		}
 	}
 
@@ -350,6 +386,12 @@ public class AdminServlet extends HttpServlet {
 		RequestLogger.logTemplate(page, "forward");
 		RequestLogger.logTemplateData(req);
 		resp.setContentType("text/html");
-		ctx.getRequestDispatcher(page).forward(req, resp);
+		RequestLoggingFilter.addServerTiming(resp);
+		long started = RequestTiming.start(RequestTiming.Layer.RENDER);
+		try {
+			ctx.getRequestDispatcher(page).forward(req, resp);
+		} finally {
+			RequestTiming.stop(RequestTiming.Layer.RENDER, started);
+		}
 	}
 }
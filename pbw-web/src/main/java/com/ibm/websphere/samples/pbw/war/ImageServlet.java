@@ -27,10 +27,18 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
+import com.ibm.websphere.samples.pbw.ejb.ImageInfo;
+import com.ibm.websphere.samples.pbw.ejb.ImageVariants;
 import com.ibm.websphere.samples.pbw.utils.Util;
 
 /**
  * Servlet to handle image actions.
+ *
+ * Images are streamed from the database without loading the Inventory entity.
+ * The optional size (thumb, medium, full) and format (jpeg, webp) parameters
+ * select a pre-generated rendition, falling back to the original.
+ * Responses carry a content-hash ETag, Last-Modified (when known) and Cache-Control, and the
+ * servlet answers conditional requests with 304 and single byte ranges with 206.
  */
 @WebServlet("/servlet/ImageServlet")
 public class ImageServlet extends HttpServlet
@@ -39,9 +47,12 @@ public class ImageServlet extends HttpServlet
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	private static final int DEFAULT_MAX_AGE = 86400;
 	
 	@EJB
-	private CatalogMgr catalog;
+	CatalogMgr catalog;
+
+	private String cacheControl;
 
    /**
     * Servlet initialization.
@@ -49,6 +60,8 @@ public class ImageServlet extends HttpServlet
    public void init(ServletConfig config) throws ServletException
    {
       super.init(config);      
+      int maxAge = Util.getConfig().getInt("image.cache.maxage", DEFAULT_MAX_AGE);
+      cacheControl = "public, max-age=" + maxAge;
    }
 
    /**
@@ -87,18 +100,186 @@ public class ImageServlet extends HttpServlet
       String action = null;
 
       action = req.getParameter("action");
-      Util.debug("action=" + action);
+      Util.debug("action={}", action);
 
       if (action.equals("getimage"))
       {
          String inventoryID = req.getParameter("inventoryID");
 
-         byte[] buf = catalog.getItemImageBytes(inventoryID);
-		if (buf != null)
-		{
-		   resp.setContentType("image/jpeg");
-		   resp.getOutputStream().write(buf);
-		}
+         String size = req.getParameter("size");
+         if (!ImageVariants.isSize(size))
+         {
+            size = ImageVariants.SIZE_FULL;
+         }
+         String format = req.getParameter("format");
+         if (!ImageVariants.isFormat(format))
+         {
+            format = ImageVariants.FORMAT_JPEG;
+         }
+
+         ImageInfo info = catalog.getItemImageInfo(inventoryID, size, format);
+         if (info == null || info.getLength() == 0 || !catalog.hasItemImage(inventoryID, info))
+         {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+         }
+
+         resp.setHeader("ETag", info.getETag());
+         if (info.getLastModified() > 0)
+         {
+            resp.setDateHeader("Last-Modified", info.getLastModified());
+         }
+         resp.setHeader("Cache-Control", cacheControl);
+         resp.setHeader("Accept-Ranges", "bytes");
+
+         if (notModified(req, info))
+         {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+         }
+
+         long length = info.getLength();
+         long start = 0;
+         long end = length - 1;
+         String range = req.getHeader("Range");
+         if (range != null && ifRangeMatches(req, info))
+         {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null)
+            {
+               resp.setHeader("Content-Range", "bytes */" + length);
+               resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+               return;
+            }
+            if (bounds.length == 2)
+            {
+               start = bounds[0];
+               end = bounds[1];
+               resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+               resp.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+         }
+
+         resp.setContentType(info.getContentType());
+         resp.setContentLengthLong(end - start + 1);
+         if (!"HEAD".equals(req.getMethod()))
+         {
+            long copied = catalog.writeItemImage(inventoryID, info, start, end - start + 1, resp.getOutputStream());
+            if (copied < 0 && !resp.isCommitted())
+            {
+               // removed since it was checked; nothing has been sent yet
+               resp.reset();
+               resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+         }
+      }
+   }
+
+   /**
+    * Check If-None-Match, falling back to If-Modified-Since when it is absent.
+    */
+   private boolean notModified(HttpServletRequest req, ImageInfo info)
+   {
+      String ifNoneMatch = req.getHeader("If-None-Match");
+      if (ifNoneMatch != null)
+      {
+         for (String tag : ifNoneMatch.split(","))
+         {
+            tag = tag.trim();
+            if (tag.startsWith("W/"))
+            {
+               tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(info.getETag()))
+            {
+               return true;
+            }
+         }
+         return false;
+      }
+      long ifModifiedSince = -1;
+      try
+      {
+         ifModifiedSince = req.getDateHeader("If-Modified-Since");
+      }
+      catch (IllegalArgumentException e)
+      {
+         // unparseable date, ignore it
+      }
+      return ifModifiedSince != -1 && info.getLastModified() > 0 && info.getLastModified() <= ifModifiedSince;
+   }
+
+   /**
+    * A Range is only honoured if If-Range is absent or names the current image.
+    */
+   private boolean ifRangeMatches(HttpServletRequest req, ImageInfo info)
+   {
+      String ifRange = req.getHeader("If-Range");
+      if (ifRange == null)
+      {
+         return true;
+      }
+      if (ifRange.startsWith("\""))
+      {
+         return ifRange.equals(info.getETag());
+      }
+      try
+      {
+         return info.getLastModified() > 0 && info.getLastModified() <= req.getDateHeader("If-Range");
+      }
+      catch (IllegalArgumentException e)
+      {
+         return false;
+      }
+   }
+
+   /**
+    * Parse a single "bytes=" range.
+    *
+    * @return {first, last} for a satisfiable range, an empty array when the
+    *         header should be ignored and the whole image sent, or null when
+    *         the range cannot be satisfied.
+    */
+   private static long[] parseRange(String range, long length)
+   {
+      if (!range.startsWith("bytes=") || range.indexOf(',') >= 0)
+      {
+         return new long[0];
+      }
+      String spec = range.substring("bytes=".length()).trim();
+      int dash = spec.indexOf('-');
+      if (dash < 0)
+      {
+         return new long[0];
+      }
+      try
+      {
+         long first;
+         long last;
+         if (dash == 0)
+         {
+            long suffix = Long.parseLong(spec.substring(1));
+            if (suffix <= 0)
+            {
+               return null;
+            }
+            first = Math.max(0, length - suffix);
+            last = length - 1;
+         }
+         else
+         {
+            first = Long.parseLong(spec.substring(0, dash));
+            last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            if (first > last)
+            {
+               return first >= length ? null : new long[0];
+            }
+         }
+         return new long[] { first, last };
+      }
+      catch (NumberFormatException e)
+      {
+         return new long[0];
       }
    }
 }
\ No newline at end of file
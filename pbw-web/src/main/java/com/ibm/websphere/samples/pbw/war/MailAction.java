@@ -58,7 +58,7 @@ public class MailAction implements java.io.Serializable
        }
        // The MailerAppException will be ignored since mail may not be configured.
        catch (MailerAppException e) {
-    	   Util.debug("Mailer threw exception, mail may not be configured. Exception:"+e);    	   
+    	   Util.debug("Mailer threw exception, mail may not be configured. Exception:{}", e);    	   
        }
     }
 
@@ -0,0 +1,170 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.war;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.ejb.EJB;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.ibm.websphere.samples.pbw.ejb.CatalogCache;
+import com.ibm.websphere.samples.pbw.ejb.MailOutboxBean;
+import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
+import com.ibm.websphere.samples.pbw.utils.LogRing;
+import com.ibm.websphere.samples.pbw.utils.PrometheusWriter;
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.TimingStats;
+
+/**
+ * Metrics endpoint for Prometheus to scrape.
+ *
+ * Everything reported is already being counted as the application runs; a
+ * scrape only reads the counters, so it is cheap enough to leave on under load.
+ * Connection pool figures come from the Liberty ConnectionPoolStats MBeans,
+ * which exist when the monitor-1.0 feature is enabled, and are left out otherwise.
+ *
+ * The endpoint is restricted to the SampAdmin role in web.xml, like the admin
+ * pages, so the scraper has to authenticate with basic auth.
+ *
+ * @see com.ibm.websphere.samples.pbw.utils.PrometheusWriter
+ */
+@WebServlet("/servlet/metrics")
+public class MetricsServlet extends HttpServlet {
+	private static final long serialVersionUID = 1L;
+
+	private static final String POOL_STATS = "WebSphere:type=ConnectionPoolStats,*";
+
+	@EJB
+	private CatalogCache catalogCache;
+	@EJB
+	private MailOutboxBean mailOutbox;
+
+	/**
+	 * Process incoming HTTP GET requests
+	 *
+	 * @param req Object that encapsulates the request to the servlet
+	 * @param resp Object that encapsulates the response from the servlet
+	 */
+	public void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		StringBuilder text = new StringBuilder(16384);
+		PrometheusWriter metrics = new PrometheusWriter(text);
+
+		metrics.histograms("pbw_http_request_duration_seconds", "Time to handle a page request.", "route",
+				TimingStats.getPages());
+		metrics.histograms("pbw_ejb_call_duration_seconds", "Time spent in an EJB business method.", "method",
+				TimingStats.getEJBMethods());
+		writePools(metrics);
+
+		metrics.gauge("pbw_sessions_active", "HTTP sessions currently open.", SessionCounter.getActiveCount());
+		metrics.counter("pbw_sessions_started_total", "HTTP sessions created.", SessionCounter.getCreatedCount());
+		metrics.histogram("pbw_cart_items", "Distinct items in the cart at checkout.",
+				ShoppingCartBean.getCheckoutSizes());
+
+		metrics.header("pbw_cache_hits_total", "counter", "Lookups answered from the cache.")
+				.sample("pbw_cache_hits_total", "cache", "catalog", catalogCache.getHitCount());
+		metrics.header("pbw_cache_misses_total", "counter", "Lookups that went to the database.")
+				.sample("pbw_cache_misses_total", "cache", "catalog", catalogCache.getMissCount());
+		metrics.header("pbw_cache_evictions_total", "counter", "Entries dropped because the cache was full.")
+				.sample("pbw_cache_evictions_total", "cache", "catalog", catalogCache.getEvictionCount());
+		metrics.header("pbw_cache_entries", "gauge", "Entries currently cached.")
+				.sample("pbw_cache_entries", "cache", "catalog", catalogCache.getSize());
+
+		writeMail(metrics);
+
+		LogRing log = RequestLogger.getBackend();
+		if (log != null) {
+			metrics.counter("pbw_log_dropped_total", "Request log events dropped because the buffer was full.",
+					log.getDroppedCount());
+		}
+
+		resp.setContentType(PrometheusWriter.CONTENT_TYPE);
+		resp.setHeader("Cache-Control", "no-store");
+		resp.getWriter().write(text.toString());
+	}
+
+	/*
+	 * The backlog is counted in the database at each outbox poll; the rest is read from the mail workers.
+	 */
+	private void writeMail(PrometheusWriter metrics) {
+		metrics.gauge("pbw_mail_backlog", "Unsent messages in the mail outbox at the last poll.", mailOutbox.getBacklog());
+		metrics.gauge("pbw_mail_queue_depth", "Messages waiting for a free mail worker.", mailOutbox.getQueueDepth());
+		metrics.gauge("pbw_mail_in_flight", "Messages handed to the mail workers and not yet finished.",
+				mailOutbox.getInFlight());
+		metrics.gauge("pbw_mail_workers_active", "Mail workers sending right now.", mailOutbox.getActiveWorkers());
+		metrics.counter("pbw_mail_sent_total", "Messages accepted by the mail server.", mailOutbox.getSentCount());
+		metrics.counter("pbw_mail_retries_total", "Failed sends scheduled to be tried again.", mailOutbox.getRetryCount());
+		metrics.counter("pbw_mail_failed_total", "Messages given up on after the last attempt.",
+				mailOutbox.getFailedCount());
+		metrics.counter("pbw_mail_batches_total", "Batches the mail workers have finished.", mailOutbox.getBatchCount());
+		metrics.gauge("pbw_mail_throughput", "Messages sent per second of worker time spent sending.",
+				mailOutbox.getThroughput());
+		metrics.counter("pbw_mail_connections_opened_total", "Connections opened to the mail server.",
+				mailOutbox.getConnectionsOpened());
+		metrics.counter("pbw_mail_connections_reused_total", "Batches sent over a connection left open by an earlier batch.",
+				mailOutbox.getConnectionsReused());
+	}
+
+	/*
+	 * Connections in use are the managed connections not in the free pool.
+	 */
+	private void writePools(PrometheusWriter metrics) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		Set<ObjectName> pools;
+		try {
+			pools = server.queryNames(new ObjectName(POOL_STATS), null);
+		} catch (JMException e) {
+			return;
+		}
+		if (pools.isEmpty()) {
+			return;
+		}
+		Map<String, long[]> counts = new TreeMap<String, long[]>();
+		for (ObjectName pool : pools) {
+			try {
+				long managed = ((Number) server.getAttribute(pool, "ManagedConnectionCount")).longValue();
+				long free = ((Number) server.getAttribute(pool, "FreeConnectionCount")).longValue();
+				String name = pool.getKeyProperty("name");
+				if (name.startsWith("\"")) {
+					name = ObjectName.unquote(name);
+				}
+				counts.put(name, new long[] { managed - free, free, managed });
+			} catch (JMException e) {
+				// the pool went away between the query and the read
+			}
+		}
+		String[] names = { "pbw_jdbc_connections_active", "pbw_jdbc_connections_idle", "pbw_jdbc_connections_open" };
+		String[] help = { "Pooled connections in use.", "Pooled connections free for use.",
+				"Connections held by the pool." };
+		for (int i = 0; i < names.length; i++) {
+			metrics.header(names[i], "gauge", help[i]);
+			for (Map.Entry<String, long[]> pool : counts.entrySet()) {
+				metrics.sample(names[i], "pool", pool.getKey(), pool.getValue()[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.war;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.ibm.websphere.samples.pbw.utils.LogRing;
+import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+
+/**
+ * Starts the request log's writer thread from the container's thread factory
+ * when the application starts, and stops it when the application stops, so a
+ * redeploy does not leave the thread and the old class loader behind.
+ */
+@WebListener
+public class RequestLogLifecycle implements ServletContextListener {
+
+	@Resource(lookup="java:comp/DefaultManagedThreadFactory")
+	ManagedThreadFactory threadFactory;
+
+	public void contextInitialized(ServletContextEvent event) {
+		// replaces the ring started by any log call made before the web module was ready
+		close(RequestLogger.setBackend(RequestLogger.createBackend(threadFactory)));
+	}
+
+	public void contextDestroyed(ServletContextEvent event) {
+		// later calls, e.g. from EJBs still stopping, are written synchronously
+		close(RequestLogger.setBackend(null));
+	}
+
+	private static void close(LogRing ring) {
+		if (ring != null) {
+			ring.close();
+		}
+	}
+}
@@ -32,17 +32,25 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 
 import com.ibm.websphere.samples.pbw.utils.RequestLogger;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
+import com.ibm.websphere.samples.pbw.utils.Util;
 
 /**
  * Servlet Filter for logging HTTP requests and responses.
  * Captures all HTTP traffic for application modernization analysis.
+ *
+ * Each logged request is also timed with a RequestTiming. The breakdown is logged
+ * when the request completes and, with timing.header=true in pbw.properties, sent
+ * to the browser in a Server-Timing header.
  */
 @WebFilter(filterName = "RequestLoggingFilter", urlPatterns = {"/*"})
 public class RequestLoggingFilter implements Filter {
 
+    private static volatile boolean serverTiming;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-        // Filter initialization
+        serverTiming = Boolean.parseBoolean(Util.getProperty("timing.header"));
     }
 
     @Override
@@ -63,10 +71,14 @@ public class RequestLoggingFilter implements Filter {
                 StatusCapturingResponseWrapper responseWrapper =
                     new StatusCapturingResponseWrapper(httpResponse);
 
+                RequestTiming.begin(httpRequest.getServletPath());
                 try {
                     // Continue with the request
                     chain.doFilter(request, responseWrapper);
                 } finally {
+                    // Headers can only be added while the response is uncommitted
+                    addServerTiming(httpResponse);
+                    RequestLogger.logTiming(RequestTiming.end());
                     // Log response details
                     RequestLogger.logResponse(httpRequest, responseWrapper.getStatus());
                 }
@@ -85,6 +97,18 @@ public class RequestLoggingFilter implements Filter {
         // Filter cleanup
     }
 
+    /**
+     * Set the Server-Timing header to the current request's breakdown so far, if
+     * enabled and the response has not been committed yet. Called again just before
+     * a page renders, since rendering usually commits the response.
+     */
+    static void addServerTiming(HttpServletResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (serverTiming && timing != null && !response.isCommitted()) {
+            response.setHeader("Server-Timing", timing.toServerTiming());
+        }
+    }
+
     /**
      * Determine if we should log this request based on the URI
      */
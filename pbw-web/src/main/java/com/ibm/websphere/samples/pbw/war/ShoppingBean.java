@@ -20,10 +20,9 @@ import java.io.Serializable;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Vector;
 import java.util.logging.Logger;
 
 import javax.ejb.EJB;
@@ -31,10 +30,13 @@ import javax.enterprise.context.SessionScoped;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 
+import com.ibm.websphere.samples.pbw.ejb.CartLine;
 import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
+import com.ibm.websphere.samples.pbw.ejb.CatalogPage;
 import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
 //import com.ibm.websphere.samples.pbw.ejb.ShoppingCartBean;
 import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -52,6 +54,7 @@ public class ShoppingBean implements Serializable {
 	private static final String ACTION_CART = "cart";
 	private static final String ACTION_PRODUCT = "product";
 	private static final String ACTION_SHOPPING = "shopping";
+	private static final int DEFAULT_PAGE_SIZE = 20;
 
 	private static final Logger logger = Logger.getLogger(ShoppingBean.class.getName());
 
@@ -64,16 +67,25 @@ public class ShoppingBean implements Serializable {
 		logger.info("[ShoppingBean] PostConstruct - bean initialized and ready for use");
 	}
 
-	// keep an independent list of items so we can add pricing methods
-	private ArrayList<ShoppingItem> cartItems;
+	// keep an independent list of items so we can add pricing methods; it is
+	// rebuilt from the cart and the catalog, so it is not kept in the session
+	private transient ArrayList<ShoppingItem> cartItems;
 
 	@EJB
 	private CatalogMgr catalog;
 
 	private ProductBean product;
-	private LinkedList<ProductBean> products;
+	private List<ProductBean> products;
 	private float shippingCost;
 
+	// the category page being shown; its first and last ids key the pages around it
+	private int category;
+	private int pageNumber;
+	private boolean previousPage;
+	private boolean nextPage;
+	private String firstID;
+	private String lastID;
+
 	@Inject
 	private ShoppingCartBean shoppingCart;
 
@@ -81,11 +93,9 @@ public class ShoppingBean implements Serializable {
 		logger.info("[ShoppingBean] performAddToCart() - Adding item: " + this.product.getInventory().getName() +
 				   " (quantity: " + this.product.getQuantity() + ")");
 
-		Inventory item = new Inventory(this.product.getInventory());
-
-		item.setQuantity (this.product.getQuantity());
+		Inventory item = this.product.getInventory();
 
-		shoppingCart.addItem(item);
+		shoppingCart.addItem(item.getID(), this.product.getQuantity(), item.getPrice());
 
 		String outcome = performCart();
 		logger.info("[ShoppingBean] performAddToCart() -> returning: '" + outcome + "' (resolves to: " + outcome + ".xhtml)");
@@ -94,7 +104,7 @@ public class ShoppingBean implements Serializable {
 
 	public String performCart () {
 		logger.info("[ShoppingBean] performCart() - displaying shopping cart");
-		cartItems = wrapInventoryItems(shoppingCart.getItems());
+		cartItems = resolveCartItems();
 
 		return ShoppingBean.ACTION_CART;
 	}
@@ -121,9 +131,14 @@ public class ShoppingBean implements Serializable {
 	public String performRecalculate () {
 		logger.info("[ShoppingBean] performRecalculate() - recalculating cart totals");
 		
-		shoppingCart.removeZeroQuantityItems();
+		// copy the quantities entered on the page back into the cart
+		if (this.cartItems != null) {
+			for (ShoppingItem item : this.cartItems) {
+				shoppingCart.setItemQuantity(item.getID(), item.getQuantity());
+			}
+		}
 
-		this.cartItems = wrapInventoryItems(shoppingCart.getItems());
+		shoppingCart.removeZeroQuantityItems();
 
 		return performCart();
 	}
@@ -133,7 +148,6 @@ public class ShoppingBean implements Serializable {
 		int category = 0;
 		FacesContext facesContext = FacesContext.getCurrentInstance();
 		ExternalContext externalContext = facesContext.getExternalContext();
-		Vector<Inventory> inventories;
 		Map<String, String> requestParams =
 			externalContext.getRequestParameterMap();
 
@@ -150,24 +164,53 @@ public class ShoppingBean implements Serializable {
 			}
 		}
 
-		inventories = this.catalog.getItemsByCategory (category);
+		this.category = category;
+		showPage (this.catalog.getItemsByCategoryAfter (category, null, getPageSize()), 1);
 
-		this.products = new LinkedList<ProductBean>();
+		return ShoppingBean.ACTION_SHOPPING;
+	}
 
-		// Have to convert all the inventory objects into product beans.
+	public String performNextPage () {
+		logger.info("[ShoppingBean] performNextPage() - category " + this.category + " after " + this.lastID);
+		if (this.nextPage) {
+			showPage (this.catalog.getItemsByCategoryAfter (this.category, this.lastID, getPageSize()), this.pageNumber + 1);
+		}
 
-		for (Object obj : inventories) {
-			Inventory inventory = (Inventory) obj;
+		return ShoppingBean.ACTION_SHOPPING;
+	}
 
-			if (inventory.isPublic()) {
-				this.products.add (new ProductBean (inventory));
-			}
+	public String performPreviousPage () {
+		logger.info("[ShoppingBean] performPreviousPage() - category " + this.category + " before " + this.firstID);
+		if (this.previousPage) {
+			CatalogPage page = this.catalog.getItemsByCategoryBefore (this.category, this.firstID, getPageSize());
+			showPage (page, page.hasPrevious() ? Math.max (this.pageNumber - 1, 2) : 1);
 		}
 
 		return ShoppingBean.ACTION_SHOPPING;
 	}
 
+	// Only the public items of the page are fetched, and only they become product beans.
+	private void showPage (CatalogPage page, int number) {
+		this.products = new ArrayList<ProductBean>(page.getItems().size());
+		for (Inventory inventory : page.getItems()) {
+			this.products.add (new ProductBean (inventory));
+		}
+		this.pageNumber = number;
+		this.previousPage = page.hasPrevious();
+		this.nextPage = page.hasNext();
+		this.firstID = page.getFirstInventoryId();
+		this.lastID = page.getLastInventoryId();
+	}
+
+	private static int getPageSize () {
+		int size = Util.getConfig().getInt ("catalog.page.size", DEFAULT_PAGE_SIZE);
+		return size > 0 ? size : DEFAULT_PAGE_SIZE;
+	}
+
 	public Collection<ShoppingItem> getCartItems () {
+		if (this.cartItems == null) {
+			this.cartItems = resolveCartItems();
+		}
 		return this.cartItems;
 	}
 
@@ -179,6 +222,18 @@ public class ShoppingBean implements Serializable {
 		return this.products;
 	}
 
+	public int getPageNumber () {
+		return this.pageNumber;
+	}
+
+	public boolean isPreviousPage () {
+		return this.previousPage;
+	}
+
+	public boolean isNextPage () {
+		return this.nextPage;
+	}
+
 	public String getShippingCostString () {
 		return NumberFormat.getCurrencyInstance (Locale.US).format
 		(this.shippingCost);
@@ -208,11 +263,28 @@ public class ShoppingBean implements Serializable {
 		 return shoppingCart;
 	 }
 	 
-	 private ArrayList<ShoppingItem> wrapInventoryItems(Collection<Inventory> invItems) {
-		 ArrayList<ShoppingItem> shoppingList = new ArrayList<ShoppingItem>();
-		 for (Inventory i : invItems) {
+	 /**
+	  * Look up the display data for each item in the cart. Quantity and price
+	  * come from the cart; items no longer in the catalog are dropped from it.
+	  */
+	 private ArrayList<ShoppingItem> resolveCartItems() {
+		 Collection<CartLine> items = shoppingCart.getItems();
+		 ArrayList<ShoppingItem> shoppingList = new ArrayList<ShoppingItem>(items.size());
+		 ArrayList<String> missing = new ArrayList<String>();
+		 for (CartLine line : items) {
+			 Inventory i = catalog.getItemInventory(line.getInventoryID());
+			 if (i == null) {
+				 missing.add(line.getInventoryID());
+				 continue;
+			 }
+			 i.setQuantity(line.getQuantity());
+			 i.setPrice(line.getPrice());
 			 shoppingList.add(new ShoppingItem(i));
 		 }
+		 for (String id : missing) {
+			 logger.info("[ShoppingBean] removing item no longer in the catalog: " + id);
+			 shoppingCart.removeItem(id);
+		 }
 		 return shoppingList;
 	 }
 }
@@ -349,22 +349,6 @@ public class ShoppingItem implements Cloneable, Serializable {
 		item.setPrivacy(isPublic);
 	}
 
-	/**
-	 * @return	byte[]	item image as a byte array
-	 * @see com.ibm.websphere.samples.pbw.jpa.Inventory#getImgbytes()
-	 */
-	public byte[] getImgbytes() {
-		return item.getImgbytes();
-	}
-
-	/**
-	 * @param imgbytes
-	 * @see com.ibm.websphere.samples.pbw.jpa.Inventory#setImgbytes(byte[])
-	 */
-	public void setImgbytes(byte[] imgbytes) {
-		item.setImgbytes(imgbytes);
-	}
-
 	/**
 	 * @return	BackOrder	item is on back order
 	 * @see com.ibm.websphere.samples.pbw.jpa.Inventory#getBackOrder()
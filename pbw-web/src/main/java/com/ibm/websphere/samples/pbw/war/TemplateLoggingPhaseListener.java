@@ -24,16 +24,21 @@ import javax.faces.event.PhaseId;
 import javax.faces.event.PhaseListener;
 import javax.faces.context.FacesContext;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.util.logging.Logger;
 
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
+
 /**
  * JSF PhaseListener to log template rendering and JSF lifecycle events
  * for application characterization and modernization analysis.
+ * Also times the render phase for the request's RequestTiming.
  */
 public class TemplateLoggingPhaseListener implements PhaseListener {
 
     private static final long serialVersionUID = 1L;
     private static final Logger logger = Logger.getLogger(TemplateLoggingPhaseListener.class.getName());
+    private static final String RENDER_STARTED = TemplateLoggingPhaseListener.class.getName() + ".renderStarted";
 
     @Override
     public void afterPhase(PhaseEvent event) {
@@ -42,6 +47,10 @@ public class TemplateLoggingPhaseListener implements PhaseListener {
 
         // Log template rendering with full details
         if (phaseId == PhaseId.RENDER_RESPONSE) {
+            Long started = (Long) context.getAttributes().remove(RENDER_STARTED);
+            if (started != null) {
+                RequestTiming.stop(RequestTiming.Layer.RENDER, started);
+            }
             String viewId = context.getViewRoot().getViewId();
             HttpServletRequest request = (HttpServletRequest) context.getExternalContext().getRequest();
             String realPath = request.getSession().getServletContext().getRealPath(viewId);
@@ -63,7 +72,14 @@ public class TemplateLoggingPhaseListener implements PhaseListener {
 
     @Override
     public void beforePhase(PhaseEvent event) {
-        // We don't need beforePhase logging for template tracking
+        if (event.getPhaseId() == PhaseId.RENDER_RESPONSE) {
+            FacesContext context = event.getFacesContext();
+            Object response = context.getExternalContext().getResponse();
+            if (response instanceof HttpServletResponse) {
+                RequestLoggingFilter.addServerTiming((HttpServletResponse) response);
+            }
+            context.getAttributes().put(RENDER_STARTED, RequestTiming.start(RequestTiming.Layer.RENDER));
+        }
     }
 
     @Override
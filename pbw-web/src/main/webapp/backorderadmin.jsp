@@ -96,10 +96,14 @@ function verifyQty(theForm, orderID)
 <body class="adminactions" marginwidth="0" leftmargin="0">
 
 <%@page
-	import="com.ibm.websphere.samples.pbw.war.BackOrderItem,com.ibm.websphere.samples.pbw.jpa.Inventory,com.ibm.websphere.samples.pbw.utils.Util,java.text.SimpleDateFormat,java.util.*"
+	import="com.ibm.websphere.samples.pbw.ejb.BackOrderItem,com.ibm.websphere.samples.pbw.ejb.BackOrderPage,com.ibm.websphere.samples.pbw.utils.Util,java.net.URLEncoder,java.text.SimpleDateFormat,java.util.*"
 	session="true" isThreadSafe="true" isErrorPage="false"%>
 
-<%Collection backOrderItems = (Collection) session.getAttribute("backorderitems");
+<%Collection backOrderItems = (Collection) request.getAttribute("backorderitems");
+  BackOrderPage backOrderPage = (BackOrderPage) request.getAttribute("backorderpage");
+  String pageAfter = request.getParameter("after");
+  if (pageAfter == null)
+     pageAfter = "";
 %>
 
 <table border="0" cellpadding="4" cellspacing="0" width="100%">
@@ -141,6 +145,20 @@ function verifyQty(theForm, orderID)
 							name="admintype" value="backorder"> <input type="hidden"
 							name="action" value="getbackorders"></form>
 						</p>
+						<%
+               if (backOrderPage != null && backOrderPage.hasPrevious())
+               {
+               %>
+						<a href="/PlantsByWebSphere/servlet/AdminServlet?admintype=backorder&action=getbackorders">First Page</a>
+						<%
+               }
+               if (backOrderPage != null && backOrderPage.hasNext())
+               {
+               %>
+						<a href="/PlantsByWebSphere/servlet/AdminServlet?admintype=backorder&action=getbackorders&after=<%= URLEncoder.encode(backOrderPage.getLastBackOrderID(), "UTF-8")%>">Next Page</a>
+						<%
+               }
+               %>
 						<br>
 						</td>
 					</tr>
@@ -161,7 +179,8 @@ function verifyQty(theForm, orderID)
 						<table width="524" border="0" cellpadding="2" cellspacing="10">
 							<tbody>
 								<form onsubmit="return verifyFields(this);" name="order"
-									method="post" action="/PlantsByWebSphere/servlet/AdminServlet">
+									method="post" action="/PlantsByWebSphere/servlet/AdminServlet"><input
+									type="hidden" name="after" value="<%= Util.escapeHtml(pageAfter)%>">
 								<tr bgcolor="#eeeecc">
 									<th><input type="checkbox" name="allchecked" value="checkall"
 										ONCLICK="updateCheckAll(this.form)"
@@ -185,7 +204,7 @@ function verifyQty(theForm, orderID)
 	                     if (status.equals(Util.STATUS_ORDERSTOCK))
 	                     {
                                  String backOrderID = backOrderItem.getBackOrderID();
-                                 String invID = backOrderItem.getInventory().getInventoryId();
+                                 String invID = backOrderItem.getInventoryID();
                                  String name = backOrderItem.getName();
                                  int quantity = backOrderItem.getQuantity();
                                  int inventoryQuantity = backOrderItem.getInventoryQuantity();
@@ -270,7 +289,8 @@ function verifyQty(theForm, orderID)
 						<table width="600" border="0" cellpadding="2" cellspacing="10">
 							<tbody>
 								<form name="ordered" method="post"
-									action="/PlantsByWebSphere/servlet/AdminServlet">
+									action="/PlantsByWebSphere/servlet/AdminServlet"><input
+									type="hidden" name="after" value="<%= Util.escapeHtml(pageAfter)%>">
 								<tr bgcolor="#eeeecc">
 									<th><input type="checkbox" name="allchecked" value="checkall"
 										ONCLICK="updateCheckAll(this.form)"
@@ -299,7 +319,7 @@ function verifyQty(theForm, orderID)
                               {
                                  String backOrderID = backOrderItem.getBackOrderID();
                                  String supplierOrderID = backOrderItem.getSupplierOrderID();
-                                 String invID = backOrderItem.getInventory().getInventoryId();
+                                 String invID = backOrderItem.getInventoryID();
                                  String name = backOrderItem.getName();
                                  int quantity = backOrderItem.getQuantity();
                                  int inventoryQuantity = backOrderItem.getInventoryQuantity();
@@ -380,7 +400,8 @@ function verifyQty(theForm, orderID)
 						<table width="600" border="0" cellpadding="2" cellspacing="10">
 							<tbody>
 								<form name="received" method="post"
-									action="/PlantsByWebSphere/servlet/AdminServlet">
+									action="/PlantsByWebSphere/servlet/AdminServlet"><input
+									type="hidden" name="after" value="<%= Util.escapeHtml(pageAfter)%>">
 								<tr bgcolor="#eeeecc">
 									<th><input type="checkbox" name="allchecked" value="checkall"
 										ONCLICK="updateCheckAll(this.form)"
@@ -409,7 +430,7 @@ function verifyQty(theForm, orderID)
                                  {
                                     String backOrderID = backOrderItem.getBackOrderID();
                                     String supplierOrderID = backOrderItem.getSupplierOrderID();
-                                    String invID = backOrderItem.getInventory().getInventoryId();
+                                    String invID = backOrderItem.getInventoryID();
                                     String name = backOrderItem.getName();
                                     int quantity = backOrderItem.getQuantity();
                                     int inventoryQuantity = backOrderItem.getInventoryQuantity();
@@ -0,0 +1,135 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.BackOrder;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+public class BackOrderPageTest
+{
+	private static final List<String> LISTED = Arrays.asList(
+			Util.STATUS_ORDERSTOCK, Util.STATUS_ORDEREDSTOCK, Util.STATUS_RECEIVEDSTOCK);
+
+	private TestPersistence db;
+	private EntityManager em;
+	private BackOrderMgr backOrders;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		for (int i = 0; i < 12; i++)
+		{
+			Inventory inv = new Inventory(String.format("T%04d", i), "Tree " + i, "Heading", "Description",
+					"1 tree", "tree.jpg", 10.0f, 5.0f, i, 2, "", true);
+			em.persist(inv);
+			BackOrder backOrder = new BackOrder(inv, 100 + i);
+			// every third back order has already been added to the stock
+			if (i % 3 == 2)
+			{
+				backOrder.setStatus(Util.STATUS_ADDEDSTOCK);
+			}
+			else if (i % 3 == 1)
+			{
+				backOrder.setStatus(Util.STATUS_ORDEREDSTOCK);
+			}
+			em.persist(backOrder);
+		}
+		em.getTransaction().commit();
+		em.clear();
+
+		backOrders = new BackOrderMgr();
+		backOrders.em = em;
+		db.getStatements().reset();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void pagesThroughListedBackOrdersOneQueryPerPage()
+	{
+		Set<String> seen = new HashSet<String>();
+		BackOrderPage page = backOrders.findBackOrderItems(LISTED, null, 3);
+		assertFalse(page.hasPrevious());
+		int pages = 1;
+		check(page, seen);
+		while (page.hasNext())
+		{
+			page = backOrders.findBackOrderItems(LISTED, page.getLastBackOrderID(), 3);
+			assertTrue(page.hasPrevious());
+			check(page, seen);
+			pages++;
+		}
+
+		assertEquals(3, pages);
+		assertEquals(8, seen.size());
+		assertFalse(seen.contains("T0002"));
+		assertEquals(3, db.getStatements().count());
+		assertEquals(3, db.getStatements().count("SELECT"));
+	}
+
+	@Test
+	public void filtersOnStatusInTheQuery()
+	{
+		BackOrderPage page = backOrders.findBackOrderItems(Arrays.asList(Util.STATUS_ORDEREDSTOCK), null, 10);
+
+		assertEquals(4, page.getItems().size());
+		assertFalse(page.hasNext());
+		for (BackOrderItem item : page.getItems())
+		{
+			assertEquals(Util.STATUS_ORDEREDSTOCK, item.getStatus());
+		}
+		assertEquals(1, db.getStatements().count());
+		assertTrue(db.getStatements().getStatements().get(0).contains("INVENTORY"));
+	}
+
+	// each item carries its inventory item's name and stock level from the join
+	private static void check(BackOrderPage page, Set<String> seen)
+	{
+		for (BackOrderItem item : page.getItems())
+		{
+			int i = Integer.parseInt(item.getInventoryID().substring(1));
+			assertEquals("Tree " + i, item.getName());
+			assertEquals(i, item.getInventoryQuantity());
+			assertEquals(100 + i, item.getQuantity());
+			assertTrue(seen.add(item.getInventoryID()));
+		}
+	}
+}
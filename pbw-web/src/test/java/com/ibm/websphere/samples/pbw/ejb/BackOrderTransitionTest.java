@@ -0,0 +1,148 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.BackOrder;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+public class BackOrderTransitionTest
+{
+	private TestPersistence db;
+	private EntityManager em;
+	private BackOrderMgr backOrders;
+	private List<String> ids = new ArrayList<String>();
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		for (int i = 0; i < 6; i++)
+		{
+			Inventory inv = new Inventory(String.format("T%04d", i), "Tree " + i, "Heading", "Description",
+					"1 tree", "tree.jpg", 10.0f, 5.0f, 1, 2, "", true);
+			em.persist(inv);
+			BackOrder backOrder = new BackOrder(inv, 10);
+			// the last one has already been ordered
+			if (i == 5)
+			{
+				backOrder.setStatus(Util.STATUS_ORDEREDSTOCK);
+			}
+			em.persist(backOrder);
+			em.flush();
+			ids.add(backOrder.getBackOrderID());
+		}
+		em.getTransaction().commit();
+		em.clear();
+
+		backOrders = new BackOrderMgr();
+		backOrders.em = em;
+		backOrders.cache = new CatalogCache();
+		db.getStatements().reset();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void ordersStockWithOneUpdatePerQuantity()
+	{
+		Map<String, Integer> quantities = new LinkedHashMap<String, Integer>();
+		quantities.put(ids.get(0), 20);
+		quantities.put(ids.get(1), 30);
+		quantities.put(ids.get(2), 20);
+		quantities.put(ids.get(5), 40);
+		quantities.put("missing", 50);
+
+		em.getTransaction().begin();
+		Map<String, BackOrderOutcome> outcomes = backOrders.orderStock(quantities);
+		em.getTransaction().commit();
+
+		assertEquals(Arrays.asList(BackOrderOutcome.CHANGED, BackOrderOutcome.CHANGED, BackOrderOutcome.CHANGED,
+				BackOrderOutcome.WRONG_STATUS, BackOrderOutcome.NOT_FOUND), new ArrayList<BackOrderOutcome>(outcomes.values()));
+		assertEquals(1, db.getStatements().count("SELECT"));
+		assertTrue(db.getStatements().getStatements().get(0).contains("FOR UPDATE"));
+		assertEquals(2, db.getStatements().count("UPDATE"));
+
+		em.clear();
+		assertBackOrder(ids.get(0), Util.STATUS_ORDEREDSTOCK, 20);
+		assertBackOrder(ids.get(1), Util.STATUS_ORDEREDSTOCK, 30);
+		assertBackOrder(ids.get(2), Util.STATUS_ORDEREDSTOCK, 20);
+		assertBackOrder(ids.get(3), Util.STATUS_ORDERSTOCK, 10);
+		assertBackOrder(ids.get(5), Util.STATUS_ORDEREDSTOCK, 10);
+		assertTrue(em.find(BackOrder.class, ids.get(0)).getOrderDate() > 0);
+	}
+
+	@Test
+	public void receivesStockForOrderedBackOrdersOnly()
+	{
+		em.getTransaction().begin();
+		Map<String, BackOrderOutcome> outcomes = backOrders.receiveStock(Arrays.asList(ids.get(5), ids.get(4), "missing"));
+		em.getTransaction().commit();
+
+		assertEquals(BackOrderOutcome.CHANGED, outcomes.get(ids.get(5)));
+		assertEquals(BackOrderOutcome.WRONG_STATUS, outcomes.get(ids.get(4)));
+		assertEquals(BackOrderOutcome.NOT_FOUND, outcomes.get("missing"));
+		assertEquals(1, db.getStatements().count("SELECT"));
+		assertEquals(2, db.getStatements().count("UPDATE"));
+
+		em.clear();
+		assertBackOrder(ids.get(5), Util.STATUS_ADDEDSTOCK, 10);
+		assertBackOrder(ids.get(4), Util.STATUS_ORDERSTOCK, 10);
+		assertEquals(10, em.find(Inventory.class, "T0005").getQuantity());
+		assertEquals(1, em.find(Inventory.class, "T0004").getQuantity());
+	}
+
+	@Test
+	public void nothingToDoRunsNoStatements()
+	{
+		em.getTransaction().begin();
+		assertTrue(backOrders.receiveStock(new ArrayList<String>()).isEmpty());
+		assertTrue(backOrders.orderStock(new LinkedHashMap<String, Integer>()).isEmpty());
+		em.getTransaction().commit();
+
+		assertEquals(0, db.getStatements().count());
+	}
+
+	private void assertBackOrder(String backOrderID, String status, int quantity)
+	{
+		BackOrder backOrder = em.find(BackOrder.class, backOrderID);
+		assertEquals(status, backOrder.getStatus());
+		assertEquals(quantity, backOrder.getQuantity());
+	}
+}
@@ -0,0 +1,218 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.BackOrder;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+public class BackOrderUpsertTest
+{
+	private static final int ITEMS = 3;
+
+	private TestPersistence db;
+	private EntityManager em;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		for (int i = 0; i < ITEMS; i++)
+		{
+			em.persist(new Inventory(String.format("T%04d", i), "Tree " + i, "Heading", "Description",
+					"1 tree", "tree.jpg", 10.0f, 5.0f, 0, 2, "", true));
+		}
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void opensOneBackOrderAndAddsToIt()
+	{
+		BackOrderMgr backOrders = backOrders(em);
+		createBackOrder(backOrders, "T0000", 5, 100);
+		db.getStatements().reset();
+		createBackOrder(backOrders, "T0000", 7, 100);
+
+		assertEquals(1, db.getStatements().count());
+		assertEquals(1, db.getStatements().count("UPDATE"));
+		List<BackOrder> open = backOrdersOf("T0000");
+		assertEquals(1, open.size());
+		assertEquals(112, open.get(0).getQuantity());
+		assertEquals(Util.STATUS_ORDERSTOCK, open.get(0).getStatus());
+		assertEquals("T0000", open.get(0).getOpenInventoryID());
+	}
+
+	@Test
+	public void opensAnotherOnceTheFirstIsOrdered()
+	{
+		BackOrderMgr backOrders = backOrders(em);
+		createBackOrder(backOrders, "T0001", 5, 100);
+		em.getTransaction().begin();
+		backOrders.orderStock(Collections.singletonMap(backOrdersOf("T0001").get(0).getBackOrderID(), 105));
+		em.getTransaction().commit();
+		em.clear();
+		createBackOrder(backOrders, "T0001", 3, 100);
+
+		List<BackOrder> all = backOrdersOf("T0001");
+		assertEquals(2, all.size());
+		int open = 0;
+		for (BackOrder backOrder : all)
+		{
+			if (backOrder.getStatus().equals(Util.STATUS_ORDERSTOCK))
+			{
+				open++;
+				assertEquals(103, backOrder.getQuantity());
+			}
+			else
+			{
+				assertNull(backOrder.getOpenInventoryID());
+			}
+		}
+		assertEquals(1, open);
+	}
+
+	@Test
+	public void ignoresUnknownItems()
+	{
+		createBackOrder(backOrders(em), "NOSUCH", 5, 100);
+
+		assertTrue(backOrdersOf("NOSUCH").isEmpty());
+	}
+
+	@Test
+	public void upsertLeavesAnUnrelatedRowWithTheSameIdAlone()
+	{
+		em.getTransaction().begin();
+		BackOrder ordered = new BackOrder("B0001");
+		ordered.setInventory(em.find(Inventory.class, "T0002"));
+		ordered.setQuantity(40);
+		ordered.setStatus(Util.STATUS_ORDEREDSTOCK);
+		em.persist(ordered);
+		em.getTransaction().commit();
+
+		em.getTransaction().begin();
+		em.createNamedQuery("upsertOpenBackOrder").setParameter(1, "B0001").setParameter(2, 105)
+				.setParameter(3, Util.STATUS_ORDERSTOCK).setParameter(4, 0L).setParameter(5, "T0000")
+				.setParameter(6, 5).executeUpdate();
+		em.getTransaction().commit();
+
+		assertTrue(backOrdersOf("T0000").isEmpty());
+		List<BackOrder> unrelated = backOrdersOf("T0002");
+		assertEquals(1, unrelated.size());
+		assertEquals(40, unrelated.get(0).getQuantity());
+	}
+
+	@Test
+	public void concurrentCallsNeverOpenTwoBackOrders() throws Exception
+	{
+		final int threads = 8;
+		final int calls = 40;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> done = new ArrayList<Future<Void>>();
+		for (int t = 0; t < threads; t++)
+		{
+			done.add(pool.submit(new Callable<Void>() {
+				public Void call() throws Exception
+				{
+					EntityManager own = db.createEntityManager();
+					try
+					{
+						BackOrderMgr backOrders = backOrders(own);
+						start.await();
+						for (int i = 0; i < calls; i++)
+						{
+							createBackOrder(backOrders, String.format("T%04d", i % ITEMS), 1, 100);
+						}
+					}
+					finally
+					{
+						own.close();
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> f : done)
+		{
+			f.get();
+		}
+		pool.shutdown();
+
+		int total = 0;
+		for (int i = 0; i < ITEMS; i++)
+		{
+			List<BackOrder> open = backOrdersOf(String.format("T%04d", i));
+			assertEquals(1, open.size());
+			// the first call opened it with the maximum, every other call added one
+			total += open.get(0).getQuantity() - 100;
+		}
+		assertEquals(threads * calls, total);
+	}
+
+	private static BackOrderMgr backOrders(EntityManager em)
+	{
+		BackOrderMgr backOrders = new BackOrderMgr();
+		backOrders.em = em;
+		backOrders.cache = new CatalogCache();
+		return backOrders;
+	}
+
+	private static void createBackOrder(BackOrderMgr backOrders, String inventoryID, int amount, int maximum)
+	{
+		backOrders.em.getTransaction().begin();
+		backOrders.createBackOrder(inventoryID, amount, maximum);
+		backOrders.em.getTransaction().commit();
+	}
+
+	private List<BackOrder> backOrdersOf(String inventoryID)
+	{
+		em.clear();
+		return em.createQuery("select b from BackOrder b where b.inventory.inventoryId = :id", BackOrder.class)
+				.setParameter("id", inventoryID).getResultList();
+	}
+}
@@ -0,0 +1,125 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+
+import javax.transaction.Status;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+public class CatalogCacheTest
+{
+	@Test
+	public void readsThroughAndHandsOutCopies()
+	{
+		CatalogCache cache = new CatalogCache(4, 4);
+		assertNull(cache.getItem("T0001"));
+		cache.putItem(item("T0001", 1), cache.generation());
+
+		Inventory first = cache.getItem("T0001");
+		first.setName("Changed");
+		first.setMinThreshold(0);
+
+		Inventory second = cache.getItem("T0001");
+		assertEquals("Tree T0001", second.getName());
+		assertEquals(item("T0001", 1).getMinThreshold(), second.getMinThreshold());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void dropsLoadsThatRacedAnInvalidation()
+	{
+		CatalogCache cache = new CatalogCache(4, 4);
+		long since = cache.generation();
+		// a writer changes the item while the reader is at the database
+		cache.invalidate("T0001", 1);
+		cache.putItem(item("T0001", 1), since);
+		cache.putCategory(1, Arrays.asList(item("T0001", 1)), since);
+		cache.putImageInfo("T0001", "thumb", info(), since);
+
+		assertNull(cache.getItem("T0001"));
+		assertNull(cache.getCategory(1));
+		assertNull(cache.getImageInfo("T0001", "thumb"));
+
+		cache.putItem(item("T0001", 1), cache.generation());
+		assertNotNull(cache.getItem("T0001"));
+	}
+
+	@Test
+	public void clearDropsEntriesAndPendingLoads()
+	{
+		CatalogCache cache = new CatalogCache(4, 4);
+		cache.putCategory(1, Arrays.asList(item("T0001", 1), item("T0002", 1)), cache.generation());
+		long since = cache.generation();
+		cache.clear();
+		cache.putItem(item("T0003", 2), since);
+
+		assertNull(cache.getCategory(1));
+		assertNull(cache.getItem("T0003"));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void invalidatesAgainWhenTheTransactionCompletes()
+	{
+		CatalogCache cache = new CatalogCache(4, 4);
+		FakeTransactions transactions = new FakeTransactions();
+		cache.txRegistry = transactions;
+		cache.invalidate("T0001", 1);
+		// a reader that started after the first eviction still sees the row as it was before the commit
+		cache.putItem(item("T0001", 1), cache.generation());
+		assertNotNull(cache.getItem("T0001"));
+
+		transactions.complete(Status.STATUS_COMMITTED);
+
+		assertNull(cache.getItem("T0001"));
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsedEntry()
+	{
+		CatalogCache cache = new CatalogCache(4, 2);
+		cache.putItem(item("T0001", 1), cache.generation());
+		cache.putItem(item("T0002", 1), cache.generation());
+		cache.getItem("T0001");
+		cache.putItem(item("T0003", 1), cache.generation());
+
+		assertNotNull(cache.getItem("T0001"));
+		assertNull(cache.getItem("T0002"));
+		assertNotNull(cache.getItem("T0003"));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	private static Inventory item(String id, int category)
+	{
+		return new Inventory(id, "Tree " + id, "Heading", "Description", "1 tree", "tree.jpg", 10.0f, 5.0f, 10, category, "",
+				true);
+	}
+
+	private static ImageInfo info()
+	{
+		return new ImageInfo("thumb", "image/jpeg", "abc", 3, 0);
+	}
+}
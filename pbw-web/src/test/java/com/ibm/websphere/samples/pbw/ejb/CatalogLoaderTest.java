@@ -0,0 +1,211 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+public class CatalogLoaderTest
+{
+	private static final int CHUNK = 10;
+
+	@TempDir
+	Path images;
+
+	private TestPersistence db;
+	private EntityManager em;
+	private final Map<String, Integer> puts = new HashMap<String, Integer>();
+	private final ImageBlobStore store = new ImageBlobStore() {
+		public void put(String hash, byte[] bytes)
+		{
+			Integer n = puts.get(hash);
+			puts.put(hash, n == null ? 1 : n + 1);
+		}
+
+		public InputStream open(String hash)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		public boolean contains(String hash)
+		{
+			return puts.containsKey(hash);
+		}
+	};
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void insertsInBatchesAndRendersEachImageOnce() throws Exception
+	{
+		byte[] red = png(0xff0000);
+		byte[] green = png(0x00ff00);
+		Files.write(images.resolve("red.png"), red);
+		Files.write(images.resolve("green.png"), green);
+		List<List<String>> records = new ArrayList<List<String>>();
+		for (int i = 0; i < 25; i++)
+		{
+			records.add(record(String.format("L%04d", i), i % 2 == 0 ? "red.png" : "green.png"));
+		}
+		db.getStatements().reset();
+
+		CatalogLoader.Result result = load(records);
+
+		assertEquals(25, result.getRows());
+		assertEquals(0, result.getSkipped());
+		assertEquals(2, result.getImages());
+		assertEquals(0, result.getMissingImages());
+		assertEquals(3, batches("INSERT INTO INVENTORY"));
+		assertEquals(3, batches("INSERT INTO IMAGEVARIANT"));
+		assertEquals(25L, count("select count(i) from Inventory i"));
+		int redVariants = ImageVariants.generate("red", red).size();
+		int greenVariants = ImageVariants.generate("green", green).size();
+		assertEquals(13L * redVariants + 12L * greenVariants, count("select count(v) from ImageVariant v"));
+		assertEquals(redVariants, variantsOf("L0000"));
+		assertEquals(greenVariants, variantsOf("L0001"));
+		for (Integer n : puts.values())
+		{
+			assertEquals(1, n.intValue());
+		}
+		assertTrue(puts.size() <= redVariants + greenVariants);
+	}
+
+	@Test
+	public void streamsSeedFileAndSkipsBadRecords() throws Exception
+	{
+		String seed = "# seed\n"
+				+ "\n"
+				+ "inventory=S0001|Rose|Red rose|A rose|1 plant|missing.png|9.5|4.25|12|1|note|true\n"
+				+ "S0002|Short\n"
+				+ "S0004|Lily|Lily|A lily|1 plant|missing.png|cheap|1.0|5|1|note|true\n"
+				+ "S0003|Tulip|Tulip|A tulip|10 bulbs|missing.png|3.0|1.0|40|1|note|false\n";
+
+		em.getTransaction().begin();
+		CatalogLoader.Result result = loader().load(new BufferedReader(new StringReader(seed)));
+		em.getTransaction().commit();
+		em.clear();
+
+		assertEquals(2, result.getRows());
+		assertEquals(2, result.getSkipped());
+		assertEquals(1, result.getMissingImages());
+		Inventory rose = em.find(Inventory.class, "S0001");
+		assertEquals("Rose", rose.getName());
+		assertEquals(9.5f, rose.getPrice(), 0.0f);
+		assertEquals(12, rose.getQuantity());
+		assertTrue(rose.isPublic());
+		assertEquals(0, variantsOf("S0001"));
+		assertEquals(false, em.find(Inventory.class, "S0003").isPublic());
+		assertEquals(0, count("select count(i) from Inventory i where i.inventoryId in ('S0002', 'S0004')"));
+		assertTrue(puts.isEmpty());
+	}
+
+	private CatalogLoader.Result load(List<List<String>> records) throws Exception
+	{
+		em.getTransaction().begin();
+		CatalogLoader.Result result = loader().load(records);
+		em.getTransaction().commit();
+		em.clear();
+		return result;
+	}
+
+	private CatalogLoader loader()
+	{
+		return new CatalogLoader(em.unwrap(Connection.class), store, images, CHUNK, 2, Executors.defaultThreadFactory());
+	}
+
+	private static List<String> record(String id, String image)
+	{
+		return Arrays.asList(id, "Plant " + id, "Heading", "Description", "1 plant", image, "10.0", "5.0", "100", "2", "", "true");
+	}
+
+	private int batches(String sql)
+	{
+		int n = 0;
+		for (String statement : db.getStatements().getStatements())
+		{
+			if (statement.startsWith("BATCH(") && statement.contains(sql))
+			{
+				n++;
+			}
+		}
+		return n;
+	}
+
+	private long count(String jpql)
+	{
+		return ((Number) em.createQuery(jpql).getSingleResult()).longValue();
+	}
+
+	private int variantsOf(String inventoryID)
+	{
+		return (int) ((Number) em.createQuery("select count(v) from ImageVariant v where v.id.inventoryID = :id")
+				.setParameter("id", inventoryID).getSingleResult()).longValue();
+	}
+
+	private static byte[] png(int rgb) throws IOException
+	{
+		BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < 4; x++)
+		{
+			for (int y = 0; y < 4; y++)
+			{
+				image.setRGB(x, y, rgb);
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", bytes);
+		return bytes.toByteArray();
+	}
+}
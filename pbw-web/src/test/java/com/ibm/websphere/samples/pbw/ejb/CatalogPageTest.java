@@ -0,0 +1,129 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+public class CatalogPageTest
+{
+	private TestPersistence db;
+	private EntityManager em;
+	private CatalogMgr catalog;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		for (int i = 0; i < 25; i++)
+		{
+			// every seventh tree is not for sale; flowers are in the way of the keys
+			em.persist(new Inventory(String.format("T%04d", i), "Tree " + i, "Heading", "Description",
+					"1 tree", "tree.jpg", 10.0f, 5.0f, 100, 2, "", i % 7 != 3));
+			em.persist(new Inventory(String.format("F%04d", i), "Flower " + i, "Heading", "Description",
+					"1 plant", "flower.jpg", 10.0f, 5.0f, 100, 0, "", true));
+		}
+		em.getTransaction().commit();
+		em.clear();
+
+		catalog = new CatalogMgr();
+		catalog.em = em;
+		db.getStatements().reset();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void pagesForwardThroughPublicItemsOneQueryPerPage()
+	{
+		List<String> seen = new ArrayList<String>();
+		CatalogPage page = catalog.getItemsByCategoryAfter(2, null, 10);
+		assertFalse(page.hasPrevious());
+		assertEquals("T0000", page.getFirstInventoryId());
+		int pages = 1;
+		seen.addAll(ids(page));
+		while (page.hasNext())
+		{
+			page = catalog.getItemsByCategoryAfter(2, page.getLastInventoryId(), 10);
+			assertTrue(page.hasPrevious());
+			seen.addAll(ids(page));
+			pages++;
+		}
+
+		assertEquals(3, pages);
+		assertEquals(3, db.getStatements().count());
+		assertEquals(21, seen.size());
+		assertFalse(seen.contains("T0003"));
+		assertFalse(seen.contains("T0010"));
+		assertEquals("T0023", seen.get(seen.size() - 1));
+	}
+
+	@Test
+	public void pagesBackFromAnItem()
+	{
+		CatalogPage page = catalog.getItemsByCategoryBefore(2, "T0015", 10);
+
+		assertEquals("T0004", page.getFirstInventoryId());
+		assertEquals("T0014", page.getLastInventoryId());
+		assertEquals(10, page.getItems().size());
+		assertTrue(page.hasPrevious());
+		assertTrue(page.hasNext());
+
+		page = catalog.getItemsByCategoryBefore(2, page.getFirstInventoryId(), 10);
+		assertEquals(ids("T0000", "T0001", "T0002"), ids(page));
+		assertFalse(page.hasPrevious());
+	}
+
+	private static List<String> ids(String... ids)
+	{
+		List<String> list = new ArrayList<String>();
+		for (String id : ids)
+		{
+			list.add(id);
+		}
+		return list;
+	}
+
+	private static List<String> ids(CatalogPage page)
+	{
+		List<String> list = new ArrayList<String>();
+		for (Inventory item : page.getItems())
+		{
+			list.add(item.getInventoryId());
+		}
+		return list;
+	}
+}
@@ -0,0 +1,143 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+public class CatalogSearchIndexTest
+{
+	private TestPersistence db;
+	private EntityManager em;
+	private CatalogSearchIndex index;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(item("T0003", "Bonsai", "Tabletop Fun", "Miniature replicas of your favorite yard tree.", true));
+		em.persist(item("T0004", "Birch", "Bright Bark", "White bark that glows in the winter.", true));
+		em.persist(item("F0010", "Bonfire Dahlia", "Fiery Red", "A dahlia as bright as a bonfire.", true));
+		em.persist(item("F0011", "Rose", "Classic", "Grows well next to a birch tree.", true));
+		em.persist(item("X0001", "Bonsai Kit", "Hidden", "Not for sale yet.", false));
+		em.getTransaction().commit();
+		em.clear();
+
+		index = new CatalogSearchIndex();
+		index.em = em;
+		index.load();
+		db.getStatements().reset();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void loadsOnlyPublicItems()
+	{
+		assertEquals(4, index.getSize());
+		// equal prefix matches in the name, so by name
+		assertEquals(ids("F0010", "T0003"), ids(index.search("bon", 10)));
+	}
+
+	@Test
+	public void ranksExactNameMatchesFirst()
+	{
+		assertEquals(ids("T0003"), ids(index.search("Bonsai", 10)));
+		assertEquals(ids("T0004", "F0011"), ids(index.search("birch", 10)));
+		List<SearchHit> hits = index.search("birch", 10);
+		assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+	}
+
+	@Test
+	public void requiresEveryWord()
+	{
+		assertEquals(ids("F0011"), ids(index.search("tree grow", 10)));
+		assertEquals(ids(), ids(index.search("bonsai dahlia", 10)));
+		assertEquals(ids("F0010"), ids(index.search("bonfire a", 10)));
+		assertEquals(ids(), ids(index.search("bonfire w", 10)));
+		assertEquals(ids(), ids(index.search("  --  ", 10)));
+	}
+
+	@Test
+	public void limitsResultsAndAnswersFromMemory()
+	{
+		assertEquals(1, index.search("b", 1).size());
+		assertEquals(0, db.getStatements().count());
+	}
+
+	@Test
+	public void followsAddsAndDeletes()
+	{
+		Inventory fern = item("F0020", "Boston Fern", "Lush", "Feathery fronds.", true);
+		index.update(fern);
+		assertEquals(ids("F0020"), ids(index.search("bost", 10)));
+
+		fern.setIsPublic(false);
+		index.update(fern);
+		assertEquals(ids(), ids(index.search("bost", 10)));
+
+		index.delete("T0003");
+		assertEquals(ids("F0010"), ids(index.search("bon", 10)));
+		assertEquals(3, index.getSize());
+
+		index.clear();
+		assertEquals(ids(), ids(index.search("birch", 10)));
+	}
+
+	private static Inventory item(String id, String name, String heading, String description, boolean isPublic)
+	{
+		return new Inventory(id, name, heading, description, "1 plant", "item.jpg", 10.0f, 5.0f, 100, 0, "", isPublic);
+	}
+
+	private static List<String> ids(String... ids)
+	{
+		List<String> list = new ArrayList<String>();
+		for (String id : ids)
+		{
+			list.add(id);
+		}
+		return list;
+	}
+
+	private static List<String> ids(List<SearchHit> hits)
+	{
+		List<String> list = new ArrayList<String>();
+		for (SearchHit hit : hits)
+		{
+			list.add(hit.getInventoryId());
+		}
+		return list;
+	}
+}
@@ -0,0 +1,142 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DatabaseImageBlobStoreTest
+{
+	private static final String HASH = "abcdef0123456789";
+	private static final byte[] BYTES = { 1, 2, 3, 4 };
+
+	private TestPersistence db;
+	private EntityManager em;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void storesEachHashOnce() throws Exception
+	{
+		DatabaseImageBlobStore store = new DatabaseImageBlobStore(em, db.getStatements());
+		em.getTransaction().begin();
+		store.put(HASH, BYTES);
+		store.put(HASH, BYTES);
+		em.getTransaction().commit();
+		em.getTransaction().begin();
+		store.put(HASH, BYTES);
+		em.getTransaction().commit();
+
+		assertEquals(1L, blobs());
+		assertArrayEquals(BYTES, read(store.open(HASH)));
+		assertNull(store.open("0000000000000000"));
+		assertTrue(store.contains(HASH));
+		assertFalse(store.contains("0000000000000000"));
+	}
+
+	@Test
+	public void concurrentPutsOfTheSameImageDoNotCollide() throws Exception
+	{
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> done = new ArrayList<Future<Void>>();
+		for (int t = 0; t < threads; t++)
+		{
+			done.add(pool.submit(new Callable<Void>() {
+				public Void call() throws Exception
+				{
+					EntityManager own = db.createEntityManager();
+					try
+					{
+						start.await();
+						own.getTransaction().begin();
+						new DatabaseImageBlobStore(own, null).put(HASH, BYTES);
+						own.getTransaction().commit();
+					}
+					finally
+					{
+						own.close();
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> f : done)
+		{
+			f.get();
+		}
+		pool.shutdown();
+
+		assertEquals(1L, blobs());
+	}
+
+	private long blobs()
+	{
+		return ((Number) em.createQuery("select count(b) from ImageBlob b").getSingleResult()).longValue();
+	}
+
+	private static byte[] read(InputStream in) throws Exception
+	{
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[64];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+			{
+				bytes.write(buffer, 0, n);
+			}
+			return bytes.toByteArray();
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
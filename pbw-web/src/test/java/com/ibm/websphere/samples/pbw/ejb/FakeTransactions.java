@@ -0,0 +1,83 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Stands in for the container's TransactionSynchronizationRegistry: a
+ * transaction is active from {@link #begin()} until the test completes it.
+ */
+class FakeTransactions implements TransactionSynchronizationRegistry
+{
+	private final List<Synchronization> synchronizations = new ArrayList<Synchronization>();
+	private int status = Status.STATUS_ACTIVE;
+
+	void begin()
+	{
+		synchronizations.clear();
+		status = Status.STATUS_ACTIVE;
+	}
+
+	void complete(int outcome)
+	{
+		status = outcome;
+		for (Synchronization synchronization : synchronizations)
+		{
+			synchronization.afterCompletion(outcome);
+		}
+		synchronizations.clear();
+	}
+
+	public Object getTransactionKey()
+	{
+		return this;
+	}
+
+	public void putResource(Object key, Object value)
+	{
+	}
+
+	public Object getResource(Object key)
+	{
+		return null;
+	}
+
+	public void registerInterposedSynchronization(Synchronization sync)
+	{
+		synchronizations.add(sync);
+	}
+
+	public int getTransactionStatus()
+	{
+		return status;
+	}
+
+	public void setRollbackOnly()
+	{
+	}
+
+	public boolean getRollbackOnly()
+	{
+		return false;
+	}
+}
@@ -0,0 +1,120 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileSystemImageBlobStoreTest
+{
+	private static final String HASH = "abcdef0123456789";
+	private static final byte[] BYTES = { 1, 2, 3, 4 };
+
+	@TempDir
+	Path directory;
+
+	private TestPersistence db;
+	private EntityManager em;
+	private DatabaseImageBlobStore database;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		database = new DatabaseImageBlobStore(em, db.getStatements());
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void storesBlobsAsFiles() throws Exception
+	{
+		FileSystemImageBlobStore store = new FileSystemImageBlobStore(directory);
+		assertFalse(store.contains(HASH));
+		assertNull(store.open(HASH));
+
+		store.put(HASH, BYTES);
+		store.put(HASH, BYTES);
+
+		assertTrue(store.contains(HASH));
+		assertArrayEquals(BYTES, read(store.open(HASH)));
+	}
+
+	@Test
+	public void copiesBlobsMissingFromTheDirectoryFromTheFallback() throws Exception
+	{
+		em.getTransaction().begin();
+		database.put(HASH, BYTES);
+		em.getTransaction().commit();
+		FileSystemImageBlobStore store = new FileSystemImageBlobStore(directory, database);
+		db.getStatements().reset();
+
+		assertArrayEquals(BYTES, read(store.open(HASH)));
+		assertEquals(1, db.getStatements().count());
+		assertTrue(store.contains(HASH));
+		assertArrayEquals(BYTES, read(store.open(HASH)));
+		assertArrayEquals(BYTES, read(new FileSystemImageBlobStore(directory).open(HASH)));
+		assertEquals(1, db.getStatements().count());
+	}
+
+	@Test
+	public void blobsInNeitherStoreAreMissing() throws Exception
+	{
+		FileSystemImageBlobStore store = new FileSystemImageBlobStore(directory, database);
+
+		assertFalse(store.contains(HASH));
+		assertNull(store.open(HASH));
+	}
+
+	private static byte[] read(InputStream in) throws Exception
+	{
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[64];
+			for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+			{
+				bytes.write(buffer, 0, n);
+			}
+			return bytes.toByteArray();
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.IdSequencing;
+import com.ibm.websphere.samples.pbw.jpa.MailOutbox;
+import com.ibm.websphere.samples.pbw.jpa.TimeOrderedSequence;
+
+public class IdSequencingTest
+{
+	private TestPersistence db;
+
+	@AfterEach
+	public void tearDown()
+	{
+		if (db != null)
+			db.close();
+	}
+
+	@Test
+	public void tableIdsAreLeasedInBlocksAndNotReusedAfterRestart()
+	{
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("pbw." + IdSequencing.BLOCK_SIZE, "100");
+		db = new TestPersistence(settings);
+
+		db.getStatements().reset();
+		List<Long> ids = queue(3);
+		assertEquals(1, db.getStatements().count("UPDATE IDGENERATOR"), db.getStatements().getStatements().toString());
+		assertEquals(ids.get(0) + 1, (long) ids.get(1));
+		assertEquals(ids.get(0) + 2, (long) ids.get(2));
+
+		db.restart();
+		List<Long> after = queue(1);
+		// the rest of the first block is skipped, not handed out again
+		assertEquals(ids.get(0) + 100, (long) after.get(0));
+	}
+
+	@Test
+	public void timeOrderedIdsDoNotUseTheTable()
+	{
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("pbw." + IdSequencing.GENERATOR, IdSequencing.GENERATOR_TIME);
+		settings.put("pbw." + IdSequencing.NODE, "7");
+		db = new TestPersistence(settings);
+
+		long before = System.currentTimeMillis();
+		db.getStatements().reset();
+		List<Long> ids = queue(3);
+		assertEquals(0, db.getStatements().count("UPDATE IDGENERATOR"));
+		assertTrue(ids.get(0) < ids.get(1) && ids.get(1) < ids.get(2), ids.toString());
+		assertEquals(7, TimeOrderedSequence.getNode(ids.get(2)));
+		assertTrue(TimeOrderedSequence.getTime(ids.get(0)) >= before);
+
+		db.restart();
+		assertTrue(queue(1).get(0) > ids.get(2));
+	}
+
+	@Test
+	public void timeOrderedIdsAreUniqueAcrossThreads() throws Exception
+	{
+		final TimeOrderedSequence sequence = new TimeOrderedSequence("OrderSeq", 1023);
+		final Set<Long> seen = ConcurrentHashMap.newKeySet();
+		final int threads = 8;
+		final int each = 50000;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < threads; t++)
+			{
+				results.add(pool.submit(new Callable<Boolean>() {
+					public Boolean call()
+					{
+						long previous = 0;
+						for (int i = 0; i < each; i++)
+						{
+							long id = sequence.next();
+							if (id <= previous || !seen.add(id) || TimeOrderedSequence.getNode(id) != 1023)
+								return false;
+							previous = id;
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results)
+			{
+				assertTrue(result.get());
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		assertEquals(threads * each, seen.size());
+	}
+
+	private List<Long> queue(int count)
+	{
+		EntityManager em = db.createEntityManager();
+		List<Long> ids = new ArrayList<Long>();
+		try
+		{
+			em.getTransaction().begin();
+			for (int i = 0; i < count; i++)
+			{
+				MailOutbox mail = new MailOutbox("1", "someone@example.com", "Order", "Thank you");
+				em.persist(mail);
+				ids.add(Long.valueOf(mail.getMailID()));
+			}
+			em.getTransaction().commit();
+		}
+		finally
+		{
+			em.close();
+		}
+		return ids;
+	}
+}
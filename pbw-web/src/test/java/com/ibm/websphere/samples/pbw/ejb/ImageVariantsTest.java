@@ -0,0 +1,158 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.ImageVariant;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+
+public class ImageVariantsTest
+{
+	private static final boolean WEBP = ImageIO.getImageWritersByFormatName(ImageVariants.FORMAT_WEBP).hasNext();
+
+	@Test
+	public void scalesIntoEachBoxKeepingTheAspectRatio() throws IOException
+	{
+		byte[] original = png(400, 300);
+		Map<String, ImageVariants.Rendition> variants = byName(ImageVariants.generate("T0001", original));
+
+		assertEquals(WEBP ? 6 : 3, variants.size());
+		ImageVariants.Rendition full = variants.get(ImageVariants.ORIGINAL);
+		assertEquals("image/png", full.getVariant().getContentType());
+		assertEquals(original.length, full.getVariant().getImgLength());
+		assertEquals(ImageVariants.hash(ImageVariants.sha256().digest(original)), full.getVariant().getImgHash());
+		assertSize(80, 60, variants.get("thumb.jpeg"));
+		assertSize(220, 165, variants.get("medium.jpeg"));
+		assertEquals("image/jpeg", variants.get("thumb.jpeg").getVariant().getContentType());
+		if (WEBP)
+		{
+			assertEquals("image/webp", variants.get("thumb.webp").getVariant().getContentType());
+			assertEquals("image/webp", variants.get("full.webp").getVariant().getContentType());
+		}
+	}
+
+	@Test
+	public void doesNotEnlargeSmallImages() throws IOException
+	{
+		Map<String, ImageVariants.Rendition> variants = byName(ImageVariants.generate("T0001", png(40, 50)));
+
+		assertSize(40, 50, variants.get("thumb.jpeg"));
+		assertSize(40, 50, variants.get("medium.jpeg"));
+	}
+
+	@Test
+	public void keepsOnlyTheOriginalWhenItCannotBeDecoded()
+	{
+		byte[] gif = "GIF89a-truncated".getBytes();
+		List<ImageVariants.Rendition> variants = ImageVariants.generate("T0001", gif);
+
+		assertEquals(1, variants.size());
+		assertEquals(ImageVariants.ORIGINAL, variants.get(0).getVariant().getVariant());
+		assertEquals("image/gif", variants.get(0).getVariant().getContentType());
+		assertEquals("image/jpeg", ImageVariants.generate("T0001", new byte[] { 1, 2, 3 }).get(0).getVariant().getContentType());
+	}
+
+	@Test
+	public void missingFormatFallsBackToJpegAndMissingSizeToTheOriginal()
+	{
+		TestPersistence db = new TestPersistence();
+		EntityManager em = db.createEntityManager();
+		try
+		{
+			em.getTransaction().begin();
+			em.persist(new Inventory("T0001", "Tree", "Heading", "Description", "1 tree", "tree.png", 10.0f, 5.0f, 10, 1, "", true));
+			em.persist(new ImageVariant("T0001", ImageVariants.ORIGINAL, "image/png", "h0", 300));
+			em.persist(new ImageVariant("T0001", "thumb.jpeg", "image/jpeg", "h1", 100));
+			em.getTransaction().commit();
+			em.clear();
+			CatalogMgr catalog = new CatalogMgr();
+			catalog.em = em;
+			catalog.cache = new CatalogCache(4, 4);
+
+			assertEquals("h1", catalog.getItemImageInfo("T0001", ImageVariants.SIZE_THUMB, ImageVariants.FORMAT_WEBP).getHash());
+			assertEquals("h1", catalog.getItemImageInfo("T0001", ImageVariants.SIZE_THUMB, ImageVariants.FORMAT_JPEG).getHash());
+			assertEquals("h0", catalog.getItemImageInfo("T0001", ImageVariants.SIZE_MEDIUM, ImageVariants.FORMAT_WEBP).getHash());
+			assertEquals("h0", catalog.getItemImageInfo("T0001", ImageVariants.SIZE_FULL, ImageVariants.FORMAT_JPEG).getHash());
+		}
+		finally
+		{
+			em.close();
+			db.close();
+		}
+	}
+
+	@Test
+	public void namesAndParameters()
+	{
+		assertEquals("thumb.webp", ImageVariants.name(ImageVariants.SIZE_THUMB, ImageVariants.FORMAT_WEBP));
+		assertTrue(ImageVariants.isSize("full"));
+		assertFalse(ImageVariants.isSize("huge"));
+		assertTrue(ImageVariants.isFormat("webp"));
+		assertFalse(ImageVariants.isFormat("png"));
+	}
+
+	private static Map<String, ImageVariants.Rendition> byName(List<ImageVariants.Rendition> renditions)
+	{
+		Map<String, ImageVariants.Rendition> byName = new HashMap<String, ImageVariants.Rendition>();
+		for (ImageVariants.Rendition rendition : renditions)
+		{
+			byName.put(rendition.getVariant().getVariant(), rendition);
+		}
+		return byName;
+	}
+
+	private static void assertSize(int width, int height, ImageVariants.Rendition rendition) throws IOException
+	{
+		assertNotNull(rendition);
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(rendition.getBytes()));
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+		assertEquals(rendition.getBytes().length, rendition.getVariant().getImgLength());
+	}
+
+	private static byte[] png(int width, int height) throws IOException
+	{
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++)
+		{
+			for (int y = 0; y < height; y++)
+			{
+				image.setRGB(x, y, 0xff000000 | x * 0x10101 ^ y * 0x100);
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", bytes);
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,353 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.Customer;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.jpa.MailOutbox;
+import com.ibm.websphere.samples.pbw.jpa.Order;
+import com.ibm.websphere.samples.pbw.utils.Util;
+
+public class MailDispatcherTest
+{
+	private static final long NOW = 1000000L;
+	private static final long BACKOFF = 1000L;
+
+	private TestPersistence db;
+	private EntityManager em;
+	private SmtpStub smtp;
+	private FakeTransactions transactions;
+	private MailDispatcher dispatcher;
+
+	@BeforeEach
+	public void setUp() throws Exception
+	{
+		// debug mode stops mail from being sent
+		Util.setDebug(false);
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		smtp = new SmtpStub();
+		transactions = new FakeTransactions();
+		dispatcher = createDispatcher(2, 2, 10);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception
+	{
+		dispatcher.shutdown();
+		smtp.close();
+		em.close();
+		db.close();
+		Util.setDebug(true);
+	}
+
+	@Test
+	public void orderConfirmationIsQueuedInTheOrderTransaction()
+	{
+		em.getTransaction().begin();
+		em.persist(new Customer("plants@example.com", "secret", "Ima", "Gardener", "1 Main St", "",
+				"Springfield", "CA", "90210", "555-0100"));
+		em.persist(new Inventory("T0001", "Plant", "Heading", "Description", "Pot", "plant.jpg",
+				10.0f, 5.0f, 100, 1, "", true));
+		em.getTransaction().commit();
+
+		MailerBean mailer = new MailerBean();
+		mailer.em = em;
+		ShoppingCartBean cart = new ShoppingCartBean();
+		cart.em = em;
+		cart.mailer = mailer;
+
+		em.getTransaction().begin();
+		createOrder(cart);
+		em.getTransaction().rollback();
+		assertEquals(0, outbox().size());
+
+		em.getTransaction().begin();
+		Order order = createOrder(cart);
+		em.getTransaction().commit();
+
+		List<MailOutbox> queued = outbox();
+		assertEquals(1, queued.size());
+		assertEquals(order.getOrderID(), queued.get(0).getOrderID());
+		assertEquals("plants@example.com", queued.get(0).getReceiver());
+		assertEquals(MailOutbox.STATUS_PENDING, queued.get(0).getStatus());
+		assertEquals(0, smtp.getMessages().size());
+	}
+
+	@Test
+	public void dueMailIsSentAndMarkedSent() throws Exception
+	{
+		queue(3);
+
+		assertEquals(2, poll(NOW), "only as many as the workers have room for");
+		assertEquals(3, dispatcher.getBacklog());
+		assertTrue(dispatcher.awaitIdle(10000));
+		assertEquals(1, poll(NOW));
+		assertTrue(dispatcher.awaitIdle(10000));
+		assertEquals(0, poll(NOW));
+
+		assertEquals(3, smtp.getMessages().size());
+		assertTrue(smtp.getMessages().get(0).contains("Subject: Your order number"));
+		assertEquals(3, dispatcher.getSentCount());
+		assertEquals(0, dispatcher.getBacklog());
+		assertEquals(0, dispatcher.getQueueDepth());
+		for (MailOutbox mail : outbox())
+		{
+			assertEquals(MailOutbox.STATUS_SENT, mail.getStatus());
+			assertEquals(NOW, mail.getSent());
+		}
+	}
+
+	@Test
+	public void failedMailIsRetriedWithBackoff() throws Exception
+	{
+		queue(1);
+		smtp.rejectNext(2);
+
+		assertEquals(1, poll(NOW));
+		assertTrue(dispatcher.awaitIdle(10000));
+		assertEquals(0, poll(NOW));
+		MailOutbox mail = outbox().get(0);
+		assertEquals(MailOutbox.STATUS_PENDING, mail.getStatus());
+		assertEquals(1, mail.getAttempts());
+		assertEquals(NOW + BACKOFF, mail.getNextAttempt());
+		assertTrue(mail.getLastError().contains("451"), mail.getLastError());
+
+		assertEquals(0, poll(NOW + BACKOFF - 1), "not due yet");
+		assertEquals(1, poll(NOW + BACKOFF));
+		assertTrue(dispatcher.awaitIdle(10000));
+		assertEquals(0, poll(NOW + BACKOFF));
+		mail = outbox().get(0);
+		assertEquals(2, mail.getAttempts());
+		assertEquals(NOW + BACKOFF + 2 * BACKOFF, mail.getNextAttempt(), "the delay doubles");
+
+		assertEquals(1, poll(NOW + 3 * BACKOFF));
+		assertTrue(dispatcher.awaitIdle(10000));
+		poll(NOW + 3 * BACKOFF);
+		assertEquals(MailOutbox.STATUS_SENT, outbox().get(0).getStatus());
+		assertEquals(1, smtp.getMessages().size());
+		assertEquals(2, dispatcher.getRetryCount());
+	}
+
+	@Test
+	public void mailIsMarkedFailedAfterMaxAttempts() throws Exception
+	{
+		queue(1);
+		smtp.rejectNext(3);
+
+		long now = NOW;
+		for (int attempt = 1; attempt <= 3; attempt++)
+		{
+			assertEquals(1, poll(now));
+			assertTrue(dispatcher.awaitIdle(10000));
+			poll(now);
+			now += dispatcher.backoff(attempt);
+		}
+		MailOutbox mail = outbox().get(0);
+		assertEquals(MailOutbox.STATUS_FAILED, mail.getStatus());
+		assertEquals(3, mail.getAttempts());
+		assertEquals(0, poll(now + MailDispatcher.MAX_BACKOFF));
+		assertEquals(1, dispatcher.getFailedCount());
+		assertEquals(0, smtp.getMessages().size());
+	}
+
+	@Test
+	public void batchesShareOnePooledConnection() throws Exception
+	{
+		dispatcher.shutdown();
+		dispatcher = createDispatcher(1, 20, 5);
+		queue(20);
+
+		assertEquals(20, poll(NOW));
+		assertTrue(dispatcher.awaitIdle(10000));
+		poll(NOW);
+		assertEquals(20, smtp.getMessages().size());
+		assertEquals(4, dispatcher.getBatchCount());
+		assertEquals(1, smtp.getConnectionCount());
+		assertEquals(1, dispatcher.getConnectionsOpened());
+		assertEquals(3, dispatcher.getConnectionsReused());
+		assertTrue(dispatcher.getThroughput() > 0);
+
+		// the connection stays open for the next round
+		queue(5);
+		assertEquals(5, poll(NOW));
+		assertTrue(dispatcher.awaitIdle(10000));
+		poll(NOW);
+		assertEquals(25, smtp.getMessages().size());
+		assertEquals(1, smtp.getConnectionCount());
+		assertEquals(4, dispatcher.getConnectionsReused());
+		assertEquals(25, dispatcher.getSentCount());
+	}
+
+	@Test
+	public void refusedMessageDoesNotCloseTheConnection() throws Exception
+	{
+		dispatcher.shutdown();
+		dispatcher = createDispatcher(1, 20, 3);
+		queue(3);
+		smtp.rejectNext(1);
+
+		assertEquals(3, poll(NOW));
+		assertTrue(dispatcher.awaitIdle(10000));
+		poll(NOW);
+		assertEquals(2, smtp.getMessages().size());
+		assertEquals(2, dispatcher.getSentCount());
+		assertEquals(1, dispatcher.getRetryCount());
+		assertEquals(1, smtp.getConnectionCount());
+	}
+
+	@Test
+	public void claimedMailIsHandedOverOnlyAfterCommit() throws Exception
+	{
+		queue(1);
+
+		em.getTransaction().begin();
+		transactions.begin();
+		assertEquals(1, dispatcher.poll(em, NOW));
+		Thread.sleep(200);
+		assertEquals(0, smtp.getMessages().size(), "nothing is sent before the claim commits");
+		assertEquals(1, dispatcher.getInFlight());
+		em.getTransaction().commit();
+		transactions.complete(Status.STATUS_COMMITTED);
+
+		assertTrue(dispatcher.awaitIdle(10000));
+		assertEquals(1, smtp.getMessages().size());
+	}
+
+	@Test
+	public void rolledBackPollSendsNothing() throws Exception
+	{
+		queue(1);
+
+		em.getTransaction().begin();
+		transactions.begin();
+		assertEquals(1, dispatcher.poll(em, NOW));
+		em.getTransaction().rollback();
+		transactions.complete(Status.STATUS_ROLLEDBACK);
+		em.clear();
+
+		assertEquals(0, dispatcher.getInFlight());
+		assertEquals(0, smtp.getMessages().size());
+		MailOutbox mail = outbox().get(0);
+		assertEquals(MailOutbox.STATUS_PENDING, mail.getStatus());
+		assertEquals(NOW, mail.getNextAttempt());
+		assertEquals(1, poll(NOW), "still due");
+	}
+
+	@Test
+	public void twoServersNeverClaimTheSameMail() throws Exception
+	{
+		queue(2);
+		final FakeTransactions otherTransactions = new FakeTransactions();
+		final MailDispatcher other = new MailDispatcher(smtp.createSession(), 2, 2, 10, 3, BACKOFF,
+				Executors.defaultThreadFactory(), otherTransactions);
+		final EntityManager otherEm = db.createEntityManager();
+		ExecutorService server = Executors.newSingleThreadExecutor();
+		try
+		{
+			em.getTransaction().begin();
+			transactions.begin();
+			assertEquals(2, dispatcher.poll(em, NOW));
+			// the other server reads the same due rows and waits for the first claim to commit
+			Future<Integer> otherClaim = server.submit(new Callable<Integer>() {
+				public Integer call()
+				{
+					otherEm.getTransaction().begin();
+					otherTransactions.begin();
+					int claimed = other.poll(otherEm, NOW);
+					otherEm.getTransaction().commit();
+					otherTransactions.complete(Status.STATUS_COMMITTED);
+					return claimed;
+				}
+			});
+			Thread.sleep(200);
+			em.getTransaction().commit();
+			transactions.complete(Status.STATUS_COMMITTED);
+
+			assertEquals(0, otherClaim.get().intValue());
+			assertTrue(dispatcher.awaitIdle(10000));
+			assertEquals(2, smtp.getMessages().size());
+		}
+		finally
+		{
+			server.shutdown();
+			other.shutdown();
+			otherEm.close();
+		}
+	}
+
+	private MailDispatcher createDispatcher(int workers, int capacity, int batchSize)
+	{
+		return new MailDispatcher(smtp.createSession(), workers, capacity, batchSize, 3, BACKOFF,
+				Executors.defaultThreadFactory(), transactions);
+	}
+
+	private Order createOrder(ShoppingCartBean cart)
+	{
+		return cart.createOrder("plants@example.com", "Ima Gardener", "1 Main St", "", "Springfield", "CA",
+				"90210", "555-0100", "Ima Gardener", "1 Main St", "", "Springfield", "CA", "90210", "555-0100",
+				"Visa", "1234567890123456", "01", "2030", "Ima Gardener", 0,
+				Collections.singletonMap("T0001", 1));
+	}
+
+	private void queue(int count)
+	{
+		em.getTransaction().begin();
+		for (int i = 0; i < count; i++)
+		{
+			MailOutbox mail = new MailOutbox(Integer.toString(i), "plants@example.com",
+					"Your order number " + i, "Thank you for your order " + i + ".\n");
+			mail.setNextAttempt(NOW);
+			em.persist(mail);
+		}
+		em.getTransaction().commit();
+	}
+
+	private int poll(long now)
+	{
+		em.getTransaction().begin();
+		transactions.begin();
+		int claimed = dispatcher.poll(em, now);
+		em.getTransaction().commit();
+		transactions.complete(Status.STATUS_COMMITTED);
+		em.clear();
+		return claimed;
+	}
+
+	private List<MailOutbox> outbox()
+	{
+		em.clear();
+		return em.createQuery("select m from MailOutbox m ORDER BY m.mailID", MailOutbox.class).getResultList();
+	}
+}
@@ -0,0 +1,169 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.BackOrder;
+import com.ibm.websphere.samples.pbw.jpa.Customer;
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.jpa.Order;
+
+public class ShoppingCartBeanTest
+{
+	private static final int LINES = 50;
+
+	private TestPersistence db;
+	private EntityManager em;
+	private ShoppingCartBean cart;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		em = db.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(new Customer("plants@example.com", "secret", "Ima", "Gardener", "1 Main St", "",
+				"Springfield", "CA", "90210", "555-0100"));
+		for (int i = 0; i < LINES; i++)
+		{
+			em.persist(new Inventory(String.format("T%04d", i), "Plant " + i, "Heading", "Description",
+					"Pot", "plant.jpg", 10.0f + i, 5.0f, 100, 1, "", true));
+		}
+		em.getTransaction().commit();
+		em.clear();
+
+		cart = new ShoppingCartBean();
+		cart.em = em;
+		cart.catalogCache = new CatalogCache(16, 100);
+		cart.mailer = new MailerBean();
+		cart.mailer.em = em;
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		em.close();
+		db.close();
+	}
+
+	@Test
+	public void createOrderWritesAFiftyLineOrderInFiveStatements()
+	{
+		Map<String, Integer> items = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < LINES; i++)
+		{
+			items.put(String.format("T%04d", i), i + 1);
+		}
+		// The first order also reserves a block of order ids; leave that out of the count.
+		placeOrder(items);
+		em.clear();
+		db.getStatements().reset();
+
+		Order order = placeOrder(items);
+
+		List<String> statements = db.getStatements().getStatements();
+		// one SELECT for all the inventory rows and one for the customer
+		assertEquals(2, db.getStatements().count("SELECT"), statements.toString());
+		assertEquals(1, db.getStatements().count("INSERT INTO ORDER1"), statements.toString());
+		// the items go in a single batch
+		assertEquals(1, db.getStatements().count("INSERT INTO ORDERITEM"), statements.toString());
+		assertTrue(statements.contains("BATCH(" + LINES + ") " + orderItemInsert(statements)), statements.toString());
+		// and the confirmation mail is queued with them
+		assertEquals(1, db.getStatements().count("INSERT INTO MAILOUTBOX"), statements.toString());
+		assertEquals(5, statements.size(), statements.toString());
+
+		em.clear();
+		Number stored = (Number) em.createQuery("select count(o) from OrderItem o where o.order.orderID = :id")
+				.setParameter("id", order.getOrderID()).getSingleResult();
+		assertEquals(LINES, stored.intValue());
+	}
+
+	@Test
+	public void reserveInventoryWritesAllLinesAndBackOrdersInBatches()
+	{
+		// an open back order that the reservation should add to
+		em.getTransaction().begin();
+		em.persist(new BackOrder(em.find(Inventory.class, "T0000"), 5));
+		em.getTransaction().commit();
+		em.clear();
+
+		// even lines take the stock below its minimum threshold of 50, and the
+		// first asks for 20 more than there are
+		Map<String, Integer> items = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < LINES; i++)
+		{
+			items.put(String.format("T%04d", i), i % 2 == 0 ? 60 : 10);
+		}
+		items.put("T0000", 120);
+		db.getStatements().reset();
+
+		em.getTransaction().begin();
+		cart.reserveInventory(items);
+		em.getTransaction().commit();
+
+		List<String> statements = db.getStatements().getStatements();
+		// the inventory rows and the open back orders, each read and locked by one query
+		assertEquals(2, db.getStatements().count("SELECT"), statements.toString());
+		assertEquals(1, db.getStatements().count("UPDATE INVENTORY"), statements.toString());
+		assertEquals(1, db.getStatements().count("INSERT INTO BACKORDER"), statements.toString());
+		assertEquals(1, db.getStatements().count("UPDATE BACKORDER"), statements.toString());
+		assertEquals(5, statements.size(), statements.toString());
+
+		em.clear();
+		assertEquals(-20, em.find(Inventory.class, "T0000").getQuantity());
+		assertEquals(40, em.find(Inventory.class, "T0002").getQuantity());
+		assertEquals(90, em.find(Inventory.class, "T0001").getQuantity());
+		List<BackOrder> open = em.createNamedQuery("findAllBackOrders", BackOrder.class).getResultList();
+		assertEquals(LINES / 2, open.size());
+		BackOrder first = em.createNamedQuery("findByInventoryID", BackOrder.class)
+				.setParameter("id", "T0000").getSingleResult();
+		assertEquals(25, first.getQuantity());
+	}
+
+	private static String orderItemInsert(List<String> statements)
+	{
+		for (String sql : statements)
+		{
+			int start = sql.indexOf("INSERT INTO ORDERITEM");
+			if (start >= 0)
+				return sql.substring(start);
+		}
+		return null;
+	}
+
+	private Order placeOrder(Map<String, Integer> items)
+	{
+		em.getTransaction().begin();
+		Order order = cart.createOrder("plants@example.com", "Ima Gardener", "1 Main St", "", "Springfield", "CA",
+				"90210", "555-0100", "Ima Gardener", "1 Main St", "", "Springfield", "CA", "90210", "555-0100",
+				"Visa", "1234567890123456", "01", "2030", "Ima Gardener", 0, items);
+		em.getTransaction().commit();
+		return order;
+	}
+}
@@ -0,0 +1,191 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Session;
+
+/**
+ * Just enough of an SMTP server, on a loopback port, to accept mail from
+ * JavaMail and keep it for inspection. It can be told to refuse the next
+ * messages with a temporary failure.
+ */
+public class SmtpStub implements Closeable
+{
+	private final ServerSocket server;
+	private final List<String> messages = new ArrayList<String>();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicInteger rejections = new AtomicInteger();
+
+	public SmtpStub() throws IOException
+	{
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(new Runnable() {
+			public void run()
+			{
+				accept();
+			}
+		}, "smtp-stub");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * @return A mail session that sends to this server.
+	 */
+	public Session createSession()
+	{
+		Properties props = new Properties();
+		props.put("mail.transport.protocol", "smtp");
+		props.put("mail.smtp.host", server.getInetAddress().getHostAddress());
+		props.put("mail.smtp.port", Integer.toString(server.getLocalPort()));
+		props.put("mail.from", "orders@plantsbywebsphere.example");
+		return Session.getInstance(props);
+	}
+
+	/**
+	 * @return The DATA of every message accepted so far.
+	 */
+	public List<String> getMessages()
+	{
+		synchronized (messages)
+		{
+			return new ArrayList<String>(messages);
+		}
+	}
+
+	/**
+	 * @return The number of connections opened to the server so far.
+	 */
+	public int getConnectionCount()
+	{
+		return connections.get();
+	}
+
+	/**
+	 * Refuse the next messages with "451".
+	 */
+	public void rejectNext(int count)
+	{
+		rejections.set(count);
+	}
+
+	public void close() throws IOException
+	{
+		server.close();
+	}
+
+	private void accept()
+	{
+		while (!server.isClosed())
+		{
+			try
+			{
+				final Socket socket = server.accept();
+				connections.incrementAndGet();
+				Thread session = new Thread(new Runnable() {
+					public void run()
+					{
+						converse(socket);
+					}
+				}, "smtp-stub-session");
+				session.setDaemon(true);
+				session.start();
+			}
+			catch (IOException e)
+			{
+				// closed
+			}
+		}
+	}
+
+	private void converse(Socket socket)
+	{
+		try
+		{
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+			reply(out, "220 localhost SMTP stub");
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+				if (command.equals("DATA"))
+				{
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					StringBuilder data = new StringBuilder();
+					while ((line = in.readLine()) != null && !line.equals("."))
+					{
+						data.append(line).append("\r\n");
+					}
+					if (rejections.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0)
+					{
+						reply(out, "451 Try again later");
+					}
+					else
+					{
+						synchronized (messages)
+						{
+							messages.add(data.toString());
+						}
+						reply(out, "250 OK");
+					}
+				}
+				else if (command.equals("QUIT"))
+				{
+					reply(out, "221 Bye");
+					break;
+				}
+				else if (command.equals("EHLO") || command.equals("HELO") || command.equals("MAIL")
+						|| command.equals("RCPT") || command.equals("RSET") || command.equals("NOOP"))
+				{
+					reply(out, "250 OK");
+				}
+				else
+				{
+					reply(out, "500 Unknown command");
+				}
+			}
+			socket.close();
+		}
+		catch (IOException e)
+		{
+			// client went away
+		}
+	}
+
+	private static void reply(Writer out, String line) throws IOException
+	{
+		out.write(line);
+		out.write("\r\n");
+		out.flush();
+	}
+}
@@ -0,0 +1,187 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource that records every statement sent to the database. A batch counts
+ * once, however many rows were added to it.
+ */
+public class StatementCounter implements DataSource
+{
+	private final DataSource target;
+	private final List<String> statements = Collections.synchronizedList(new ArrayList<String>());
+
+	public StatementCounter(DataSource target)
+	{
+		this.target = target;
+	}
+
+	/**
+	 * @return The statements executed since the last reset, in order. Batches
+	 *         are shown as "BATCH(n) sql".
+	 */
+	public List<String> getStatements()
+	{
+		synchronized (statements)
+		{
+			return new ArrayList<String>(statements);
+		}
+	}
+
+	public int count()
+	{
+		return statements.size();
+	}
+
+	/**
+	 * @param prefix The start of the SQL, e.g. "SELECT" or "INSERT INTO ORDERITEM".
+	 * @return The number of statements and batches executed whose SQL starts with prefix.
+	 */
+	public int count(String prefix)
+	{
+		int n = 0;
+		for (String sql : getStatements())
+		{
+			String s = sql.startsWith("BATCH(") ? sql.substring(sql.indexOf(' ') + 1) : sql;
+			if (s.regionMatches(true, 0, prefix, 0, prefix.length()))
+				n++;
+		}
+		return n;
+	}
+
+	public void reset()
+	{
+		statements.clear();
+	}
+
+	public Connection getConnection() throws SQLException
+	{
+		return wrap(target.getConnection());
+	}
+
+	public Connection getConnection(String username, String password) throws SQLException
+	{
+		return wrap(target.getConnection(username, password));
+	}
+
+	private Connection wrap(final Connection connection)
+	{
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						Object result = call(connection, method, args);
+						if (result instanceof PreparedStatement)
+							return wrap((Statement) result, PreparedStatement.class, (String) args[0]);
+						if (result instanceof Statement)
+							return wrap((Statement) result, Statement.class, null);
+						return result;
+					}
+				});
+	}
+
+	private Object wrap(final Statement statement, Class<?> type, final String preparedSql)
+	{
+		return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+				new InvocationHandler() {
+					private int rows;
+
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						String name = method.getName();
+						if (name.equals("addBatch"))
+						{
+							rows++;
+						}
+						else if (name.equals("executeBatch") || name.equals("executeLargeBatch"))
+						{
+							statements.add("BATCH(" + rows + ") " + preparedSql);
+							rows = 0;
+						}
+						else if (name.startsWith("execute"))
+						{
+							statements.add(args != null && args.length > 0 ? (String) args[0] : preparedSql);
+						}
+						return call(statement, method, args);
+					}
+				});
+	}
+
+	private static Object call(Object target, Method method, Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	public PrintWriter getLogWriter() throws SQLException
+	{
+		return target.getLogWriter();
+	}
+
+	public void setLogWriter(PrintWriter out) throws SQLException
+	{
+		target.setLogWriter(out);
+	}
+
+	public void setLoginTimeout(int seconds) throws SQLException
+	{
+		target.setLoginTimeout(seconds);
+	}
+
+	public int getLoginTimeout() throws SQLException
+	{
+		return target.getLoginTimeout();
+	}
+
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	public <T> T unwrap(Class<T> iface) throws SQLException
+	{
+		return target.unwrap(iface);
+	}
+
+	public boolean isWrapperFor(Class<?> iface) throws SQLException
+	{
+		return target.isWrapperFor(iface);
+	}
+}
@@ -0,0 +1,97 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+/**
+ * The PBW persistence unit, as configured in persistence.xml, running outside
+ * the server against a private in-memory H2 database in MySQL mode.
+ * Every statement sent to the database is recorded by {@link #getStatements()}.
+ * {@link #restart()} starts the unit again on the same database, as a server restart would.
+ */
+public class TestPersistence
+{
+	private static final AtomicInteger databases = new AtomicInteger();
+
+	private final StatementCounter statements;
+	private final Map<String, Object> settings;
+	private EntityManagerFactory emf;
+
+	public TestPersistence()
+	{
+		this(new HashMap<String, Object>());
+	}
+
+	/**
+	 * @param settings Persistence unit properties to add, e.g. the pbw.id.* settings of IdSequencing.
+	 */
+	public TestPersistence(Map<String, Object> settings)
+	{
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:pbw" + databases.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		statements = new StatementCounter(h2);
+		this.settings = settings;
+		emf = createEntityManagerFactory();
+	}
+
+	private EntityManagerFactory createEntityManagerFactory()
+	{
+		Map<String, Object> properties = new HashMap<String, Object>(settings);
+		properties.put("javax.persistence.transactionType", "RESOURCE_LOCAL");
+		properties.put("javax.persistence.jtaDataSource", null);
+		properties.put("javax.persistence.nonJtaDataSource", statements);
+		// the server leases id blocks on a non-JTA data source from JNDI; here there are no JTA transactions to keep them out of
+		properties.put("eclipselink.jdbc.sequence-connection-pool", "false");
+		properties.put("eclipselink.target-server", "None");
+		properties.put("eclipselink.logging.level", "WARNING");
+		properties.put("eclipselink.logging.level.sql", "WARNING");
+		return Persistence.createEntityManagerFactory("PBW", properties);
+	}
+
+	/**
+	 * Close the persistence unit and start it again on the same database.
+	 */
+	public void restart()
+	{
+		emf.close();
+		emf = createEntityManagerFactory();
+	}
+
+	public EntityManager createEntityManager()
+	{
+		return emf.createEntityManager();
+	}
+
+	public StatementCounter getStatements()
+	{
+		return statements;
+	}
+
+	public void close()
+	{
+		emf.close();
+	}
+}
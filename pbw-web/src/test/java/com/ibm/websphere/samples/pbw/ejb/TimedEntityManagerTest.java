@@ -0,0 +1,97 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.ejb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.jpa.Inventory;
+import com.ibm.websphere.samples.pbw.utils.RequestTiming;
+
+public class TimedEntityManagerTest
+{
+	private TestPersistence db;
+	private EntityManager raw;
+	private EntityManager em;
+
+	@BeforeEach
+	public void setUp()
+	{
+		db = new TestPersistence();
+		raw = db.createEntityManager();
+		em = TimedEntityManager.wrap(raw);
+	}
+
+	@AfterEach
+	public void tearDown()
+	{
+		RequestTiming.end();
+		raw.close();
+		db.close();
+	}
+
+	@Test
+	public void wrappingIsReversibleAndIdempotent()
+	{
+		assertNotSame(raw, em);
+		assertSame(em, TimedEntityManager.wrap(em));
+		assertSame(raw, TimedEntityManager.unwrap(em));
+		assertSame(raw, TimedEntityManager.unwrap(raw));
+	}
+
+	@Test
+	public void entityOperationsAndQueriesCountAsJPATime()
+	{
+		RequestTiming timing = RequestTiming.begin("/test");
+		em.getTransaction().begin();
+		em.persist(new Inventory("T0001", "Plant", "Heading", "Description", "Pot", "plant.jpg", 10.0f, 5.0f,
+				100, 1, "", true));
+		em.getTransaction().commit();
+		em.clear();
+
+		assertEquals("Plant", em.find(Inventory.class, "T0001").getName());
+		TypedQuery<Inventory> query = em.createNamedQuery("getItemsByCategory", Inventory.class);
+		assertSame(query, query.setParameter("category", 1));
+		List<Inventory> items = query.getResultList();
+
+		assertEquals(1, items.size());
+		// persist, find and the query; getTransaction is not timed
+		assertEquals(3, timing.getCalls(RequestTiming.Layer.JPA));
+		assertTrue(timing.getNanos(RequestTiming.Layer.JPA) > 0);
+	}
+
+	@Test
+	public void persistenceExceptionsAreNotWrapped()
+	{
+		TypedQuery<Inventory> query = em.createQuery("SELECT i FROM Inventory i WHERE i.inventoryId = 'none'",
+				Inventory.class);
+		assertThrows(NoResultException.class, query::getSingleResult);
+	}
+}
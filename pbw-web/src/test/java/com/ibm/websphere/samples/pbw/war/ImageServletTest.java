@@ -0,0 +1,379 @@
+//
+// COPYRIGHT LICENSE: This information contains sample code provided in source code form. You may copy,
+// modify, and distribute these sample programs in any form without payment to IBM for the purposes of
+// developing, using, marketing or distributing application programs conforming to the application
+// programming interface for the operating platform for which the sample code is written.
+// Notwithstanding anything to the contrary, IBM PROVIDES THE SAMPLE SOURCE CODE ON AN "AS IS" BASIS
+// AND IBM DISCLAIMS ALL WARRANTIES, EXPRESS OR IMPLIED, INCLUDING, BUT NOT LIMITED TO, ANY IMPLIED
+// WARRANTIES OR CONDITIONS OF MERCHANTABILITY, SATISFACTORY QUALITY, FITNESS FOR A PARTICULAR PURPOSE,
+// TITLE, AND ANY WARRANTY OR CONDITION OF NON-INFRINGEMENT. IBM SHALL NOT BE LIABLE FOR ANY DIRECT,
+// INDIRECT, INCIDENTAL, SPECIAL OR CONSEQUENTIAL DAMAGES ARISING OUT OF THE USE OR OPERATION OF THE
+// SAMPLE SOURCE CODE. IBM HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES, ENHANCEMENTS
+// OR MODIFICATIONS TO THE SAMPLE SOURCE CODE.
+//
+// (C) COPYRIGHT International Business Machines Corp., 2025
+// All Rights Reserved * Licensed Materials - Property of IBM
+//
+package com.ibm.websphere.samples.pbw.war;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.websphere.samples.pbw.ejb.CatalogMgr;
+import com.ibm.websphere.samples.pbw.ejb.ImageInfo;
+
+public class ImageServletTest
+{
+	private static final byte[] BYTES = "0123456789".getBytes();
+	private static final String HASH = "abcdef0123456789";
+	private static final String ETAG = "\"" + HASH + "\"";
+	private static final long MODIFIED = 1700000000000L;
+
+	private ImageServlet servlet;
+	private ImageInfo info;
+	private boolean stored;
+
+	@BeforeEach
+	public void setUp() throws Exception
+	{
+		info = new ImageInfo("original", "image/jpeg", HASH, BYTES.length, MODIFIED);
+		stored = true;
+		servlet = new ImageServlet();
+		servlet.init(proxy(ServletConfig.class, new HashMap<String, Object>()));
+		servlet.catalog = new CatalogMgr() {
+			public ImageInfo getItemImageInfo(String inventoryID, String size, String format)
+			{
+				return info;
+			}
+
+			public boolean hasItemImage(String inventoryID, ImageInfo image)
+			{
+				return stored;
+			}
+
+			public long writeItemImage(String inventoryID, ImageInfo image, long offset, long length, OutputStream out)
+					throws IOException
+			{
+				out.write(BYTES, (int) offset, (int) length);
+				return length;
+			}
+		};
+	}
+
+	@Test
+	public void sendsTheWholeImageWithValidators() throws Exception
+	{
+		Response resp = get(new Request());
+
+		assertEquals(200, resp.status);
+		assertEquals(ETAG, resp.headers.get("ETag"));
+		assertEquals(MODIFIED, resp.headers.get("Last-Modified"));
+		assertEquals("bytes", resp.headers.get("Accept-Ranges"));
+		assertEquals("image/jpeg", resp.headers.get("Content-Type"));
+		assertEquals(10L, resp.headers.get("Content-Length"));
+		assertArrayEquals(BYTES, resp.body.toByteArray());
+	}
+
+	@Test
+	public void strongAndWeakETagsAreNotModified() throws Exception
+	{
+		assertNotModified(get(new Request().header("If-None-Match", ETAG)));
+		assertNotModified(get(new Request().header("If-None-Match", "W/" + ETAG)));
+		assertNotModified(get(new Request().header("If-None-Match", "\"other\", " + ETAG)));
+		assertNotModified(get(new Request().header("If-None-Match", "*")));
+		assertEquals(200, get(new Request().header("If-None-Match", "\"other\"")).status);
+	}
+
+	@Test
+	public void ifNoneMatchTakesPrecedenceOverIfModifiedSince() throws Exception
+	{
+		assertNotModified(get(new Request().header("If-Modified-Since", date(MODIFIED))));
+		assertEquals(200, get(new Request().header("If-Modified-Since", date(MODIFIED - 1000))).status);
+		assertEquals(200, get(new Request().header("If-None-Match", "\"other\"")
+				.header("If-Modified-Since", date(MODIFIED))).status);
+	}
+
+	@Test
+	public void servesASuffixRange() throws Exception
+	{
+		Response resp = get(new Request().header("Range", "bytes=-4"));
+
+		assertPartial(resp, "bytes 6-9/10", "6789");
+		assertPartial(get(new Request().header("Range", "bytes=-40")), "bytes 0-9/10", "0123456789");
+	}
+
+	@Test
+	public void servesOpenEndedAndBoundedRanges() throws Exception
+	{
+		assertPartial(get(new Request().header("Range", "bytes=3-")), "bytes 3-9/10", "3456789");
+		assertPartial(get(new Request().header("Range", "bytes=2-4")), "bytes 2-4/10", "234");
+		assertPartial(get(new Request().header("Range", "bytes=8-100")), "bytes 8-9/10", "89");
+	}
+
+	@Test
+	public void refusesUnsatisfiableRanges() throws Exception
+	{
+		for (String range : Arrays.asList("bytes=10-", "bytes=20-30", "bytes=-0"))
+		{
+			Response resp = get(new Request().header("Range", range));
+
+			assertEquals(416, resp.status, range);
+			assertEquals("bytes */10", resp.headers.get("Content-Range"), range);
+			assertEquals(0, resp.body.size(), range);
+		}
+	}
+
+	@Test
+	public void sendsTheWholeImageForMultipleOrMalformedRanges() throws Exception
+	{
+		for (String range : Arrays.asList("bytes=0-1,4-5", "items=0-1", "bytes=a-b", "bytes=5-2"))
+		{
+			Response resp = get(new Request().header("Range", range));
+
+			assertEquals(200, resp.status, range);
+			assertNull(resp.headers.get("Content-Range"), range);
+			assertArrayEquals(BYTES, resp.body.toByteArray(), range);
+		}
+	}
+
+	@Test
+	public void ifRangeNeedsTheStrongETagOrAnUnchangedDate() throws Exception
+	{
+		assertPartial(get(new Request().header("Range", "bytes=0-1").header("If-Range", ETAG)), "bytes 0-1/10", "01");
+		assertPartial(get(new Request().header("Range", "bytes=0-1").header("If-Range", date(MODIFIED))), "bytes 0-1/10",
+				"01");
+		assertEquals(200, get(new Request().header("Range", "bytes=0-1").header("If-Range", "W/" + ETAG)).status);
+		assertEquals(200, get(new Request().header("Range", "bytes=0-1").header("If-Range", "\"other\"")).status);
+		assertEquals(200, get(new Request().header("Range", "bytes=0-1").header("If-Range", date(MODIFIED - 1000))).status);
+	}
+
+	@Test
+	public void headSendsHeadersOnly() throws Exception
+	{
+		Response resp = get(new Request().method("HEAD"));
+
+		assertEquals(200, resp.status);
+		assertEquals(10L, resp.headers.get("Content-Length"));
+		assertEquals(0, resp.body.size());
+	}
+
+	@Test
+	public void legacyImagesHaveNoLastModified() throws Exception
+	{
+		info = new ImageInfo("legacy", "image/jpeg", HASH, BYTES.length, 0);
+
+		Response resp = get(new Request().header("If-Modified-Since", date(MODIFIED)));
+
+		assertEquals(200, resp.status);
+		assertFalse(resp.headers.containsKey("Last-Modified"));
+		assertNotModified(get(new Request().header("If-None-Match", ETAG)));
+		assertEquals(200, get(new Request().header("Range", "bytes=0-1").header("If-Range", date(MODIFIED))).status);
+	}
+
+	@Test
+	public void missingImagesAre404WithoutHeaders() throws Exception
+	{
+		stored = false;
+		Response resp = get(new Request());
+
+		assertEquals(404, resp.status);
+		assertTrue(resp.headers.isEmpty());
+		assertEquals(0, resp.body.size());
+
+		info = null;
+		assertEquals(404, get(new Request()).status);
+	}
+
+	private Response get(Request req) throws Exception
+	{
+		Response resp = new Response();
+		servlet.doGet(req.proxy(), resp.proxy());
+		return resp;
+	}
+
+	private static void assertNotModified(Response resp)
+	{
+		assertEquals(304, resp.status);
+		assertEquals(ETAG, resp.headers.get("ETag"));
+		assertEquals(0, resp.body.size());
+	}
+
+	private static void assertPartial(Response resp, String contentRange, String body)
+	{
+		assertEquals(206, resp.status);
+		assertEquals(contentRange, resp.headers.get("Content-Range"));
+		assertEquals((long) body.length(), resp.headers.get("Content-Length"));
+		assertEquals(body, resp.body.toString());
+	}
+
+	private static String date(long millis)
+	{
+		return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, final Map<String, Object> answers)
+	{
+		return (T) Proxy.newProxyInstance(ImageServletTest.class.getClassLoader(), new Class<?>[] { type },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args)
+					{
+						return answers.get(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * A GET of action=getimage with the given headers.
+	 */
+	private static class Request implements InvocationHandler
+	{
+		private final Map<String, String> headers = new HashMap<String, String>();
+		private String method = "GET";
+
+		Request header(String name, String value)
+		{
+			headers.put(name, value);
+			return this;
+		}
+
+		Request method(String method)
+		{
+			this.method = method;
+			return this;
+		}
+
+		HttpServletRequest proxy()
+		{
+			return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { HttpServletRequest.class }, this);
+		}
+
+		public Object invoke(Object proxy, Method m, Object[] args)
+		{
+			String name = m.getName();
+			if (name.equals("getParameter"))
+			{
+				return args[0].equals("action") ? "getimage" : args[0].equals("inventoryID") ? "T0001" : null;
+			}
+			if (name.equals("getHeader"))
+			{
+				return headers.get(args[0]);
+			}
+			if (name.equals("getDateHeader"))
+			{
+				String value = headers.get(args[0]);
+				if (value == null)
+				{
+					return -1L;
+				}
+				try
+				{
+					return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+				}
+				catch (DateTimeParseException e)
+				{
+					throw new IllegalArgumentException(value);
+				}
+			}
+			if (name.equals("getMethod"))
+			{
+				return method;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Records the status, headers and body; like a container's, it is
+	 * committed once any of the body is written.
+	 */
+	private static class Response implements InvocationHandler
+	{
+		private final Map<String, Object> headers = new HashMap<String, Object>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private int status = 200;
+
+		HttpServletResponse proxy()
+		{
+			return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] { HttpServletResponse.class }, this);
+		}
+
+		public Object invoke(Object proxy, Method m, Object[] args)
+		{
+			String name = m.getName();
+			if (name.equals("setHeader") || name.equals("setDateHeader"))
+			{
+				headers.put((String) args[0], args[1]);
+			}
+			else if (name.equals("setContentType"))
+			{
+				headers.put("Content-Type", args[0]);
+			}
+			else if (name.equals("setContentLengthLong"))
+			{
+				headers.put("Content-Length", args[0]);
+			}
+			else if (name.equals("setStatus") || name.equals("sendError"))
+			{
+				status = (Integer) args[0];
+			}
+			else if (name.equals("reset"))
+			{
+				headers.clear();
+				status = 200;
+			}
+			else if (name.equals("isCommitted"))
+			{
+				return body.size() > 0;
+			}
+			else if (name.equals("getOutputStream"))
+			{
+				return new ServletOutputStream() {
+					public void write(int b)
+					{
+						body.write(b);
+					}
+
+					public boolean isReady()
+					{
+						return true;
+					}
+
+					public void setWriteListener(WriteListener listener)
+					{
+					}
+				};
+			}
+			return null;
+		}
+	}
+}
@@ -1,38 +1,68 @@
-// ABOUTME: Controller for serving product images from the database IMGBYTES column
-// ABOUTME: Mimics legacy /servlet/ImageServlet URL pattern for compatibility
+// ABOUTME: Controller for serving product images from the content-addressed image store
+// ABOUTME: Mimics legacy /servlet/ImageServlet URL pattern, with ETag/304 and byte-range support
 package it.xpug.pbw.catalog;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
 @Controller
 public class ImageController {
 
+    private static final Set<String> SIZES = Set.of("thumb", "medium", "full");
+    private static final Set<String> FORMATS = Set.of("jpeg", "webp");
+
     private final ImageRepository imageRepository;
+    private final CacheControl cacheControl;
+    // Images are read-only in this application, so they cannot have changed since startup
+    private final Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
 
-    public ImageController(ImageRepository imageRepository) {
+    public ImageController(ImageRepository imageRepository,
+                           @Value("${pbw.image.cache.max-age:86400}") long maxAgeSeconds) {
         this.imageRepository = imageRepository;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
     }
 
     /**
      * Serve product images from database
-     * URL pattern: /servlet/ImageServlet?action=getimage&inventoryID=T0003
-     * This mimics the legacy JSF ImageServlet for compatibility
+     * URL pattern: /servlet/ImageServlet?action=getimage&inventoryID=T0003[&size=thumb|medium|full][&format=jpeg|webp]
+     * This mimics the legacy JSF ImageServlet for compatibility.
+     * Unknown sizes and formats fall back to the original JPEG.
+     * Spring MVC answers If-None-Match/If-Modified-Since with 304 and Range with 206
+     * from the ETag, Last-Modified and Resource body set here.
      */
     @GetMapping("/servlet/ImageServlet")
-    public ResponseEntity<byte[]> getImage(
+    public ResponseEntity<Resource> getImage(
             @RequestParam(required = false, defaultValue = "getimage") String action,
-            @RequestParam String inventoryID) {
+            @RequestParam String inventoryID,
+            @RequestParam(required = false, defaultValue = "full") String size,
+            @RequestParam(required = false, defaultValue = "jpeg") String format) {
+
+        if (!SIZES.contains(size)) {
+            size = "full";
+        }
+        if (!FORMATS.contains(format)) {
+            format = "jpeg";
+        }
 
-        return imageRepository.getImageBytes(inventoryID)
-                .filter(bytes -> bytes.length > 0)
-                .map(bytes -> ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_JPEG)
-                        .body(bytes))
+        return imageRepository.findImageInfo(inventoryID, size, format)
+                .filter(info -> info.length() > 0)
+                .map(info -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(info.contentType()))
+                        .eTag(info.etag())
+                        .lastModified(lastModified)
+                        .cacheControl(cacheControl)
+                        .<Resource>body(new ImageResource(imageRepository, inventoryID, info)))
                 .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -1,38 +1,132 @@
-// ABOUTME: Repository for accessing product images from the INVENTORY table IMGBYTES column
-// ABOUTME: Retrieves binary image data stored in the database
+// ABOUTME: Repository for accessing product images described by IMAGEVARIANT and stored by content hash
+// ABOUTME: Streams blobs from the IMAGEBLOB table or a shared blob directory without buffering them
 package it.xpug.pbw.catalog;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Optional;
 
 @Repository
 public class ImageRepository {
 
+    /** Variant name of the image as originally stored */
+    public static final String ORIGINAL = "original";
+
     private final JdbcTemplate jdbcTemplate;
+    private final String blobDirectory;
 
-    public ImageRepository(JdbcTemplate jdbcTemplate) {
+    public ImageRepository(JdbcTemplate jdbcTemplate,
+                           @Value("${pbw.image.store.directory:}") String blobDirectory) {
         this.jdbcTemplate = jdbcTemplate;
+        this.blobDirectory = blobDirectory;
     }
 
     /**
-     * Get image bytes for a product from the INVENTORY table
+     * Describe the best stored rendition of a product image: the requested variant,
+     * then the JPEG of the same size, then the original
      * @param inventoryId The product inventory ID (e.g., "T0003")
-     * @return Optional containing byte array of image data, or empty if not found or no image
+     * @param size thumb, medium or full
+     * @param format jpeg or webp
+     * @return Optional containing the image description, or empty if not found or no image
      */
-    public Optional<byte[]> getImageBytes(String inventoryId) {
+    public Optional<ImageInfo> findImageInfo(String inventoryId, String size, String format) {
         if (inventoryId == null) {
             return Optional.empty();
         }
 
-        String sql = "SELECT IMGBYTES FROM INVENTORY WHERE INVENTORYID = ?";
+        return findVariantInfo(inventoryId, size + "." + format)
+                .or(() -> findVariantInfo(inventoryId, size + ".jpeg"))
+                .or(() -> findVariantInfo(inventoryId, ORIGINAL));
+    }
+
+    private Optional<ImageInfo> findVariantInfo(String inventoryId, String variant) {
+        String sql = "SELECT CONTENTTYPE, IMGHASH, IMGLENGTH FROM IMAGEVARIANT " +
+                    "WHERE INVENTORYID = ? AND VARIANT = ?";
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new ImageInfo(variant, rs.getString(1), rs.getString(2), rs.getLong(3)),
+                inventoryId, variant).stream().findFirst();
+    }
+
+    /**
+     * Open a stream over a stored image blob. Closing the stream releases any connection it holds.
+     * Blobs are read from the configured blob directory when present there, else from IMAGEBLOB.
+     * @param hash The content hash named by findImageInfo
+     * @return Stream positioned at the first byte of the image
+     * @throws FileNotFoundException if no such blob is stored
+     */
+    public InputStream openImageStream(String hash) throws IOException {
+        if (!blobDirectory.isBlank()) {
+            Path file = Path.of(blobDirectory, hash.substring(0, 2), hash.substring(2, 4), hash);
+            if (Files.exists(file)) {
+                return Files.newInputStream(file);
+            }
+        }
+
+        String sql = "SELECT IMGBYTES FROM IMAGEBLOB WHERE IMGHASH = ?";
 
+        Connection connection = null;
         try {
-            byte[] imageBytes = jdbcTemplate.queryForObject(sql, byte[].class, inventoryId);
-            return Optional.ofNullable(imageBytes);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
+            connection = jdbcTemplate.getDataSource().getConnection();
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setString(1, hash);
+            ResultSet resultSet = statement.executeQuery();
+            InputStream in = resultSet.next() ? resultSet.getBinaryStream(1) : null;
+            if (in == null) {
+                throw new FileNotFoundException("No image blob " + hash);
+            }
+            final Connection owned = connection;
+            connection = null;
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        closeQuietly(owned);
+                    }
+                }
+            };
+        } catch (SQLException e) {
+            throw new IOException("Unable to read image blob " + hash, e);
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Image description used to pick a rendition and for HTTP caching
+     * @param variant Variant name, e.g. "thumb.jpeg", or ORIGINAL
+     * @param contentType MIME type of the variant
+     * @param hash Hex SHA-256 of the content, its key in the blob store
+     * @param length Image size in bytes
+     */
+    public record ImageInfo(String variant, String contentType, String hash, long length) {
+
+        public String etag() {
+            return "\"" + hash + "\"";
         }
     }
 }
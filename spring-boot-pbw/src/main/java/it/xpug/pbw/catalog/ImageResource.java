@@ -0,0 +1,41 @@
+// ABOUTME: Spring Resource that streams a product image from the database on demand
+// ABOUTME: Lets Spring MVC serve byte ranges without loading the whole image into memory
+package it.xpug.pbw.catalog;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+class ImageResource extends AbstractResource {
+
+    private final ImageRepository imageRepository;
+    private final String inventoryId;
+    private final ImageRepository.ImageInfo info;
+
+    ImageResource(ImageRepository imageRepository, String inventoryId, ImageRepository.ImageInfo info) {
+        this.imageRepository = imageRepository;
+        this.inventoryId = inventoryId;
+        this.info = info;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return imageRepository.openImageStream(info.hash());
+    }
+
+    @Override
+    public long contentLength() {
+        return info.length();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return info.variant() + " image of inventory item " + inventoryId;
+    }
+}
@@ -0,0 +1,25 @@
+// ABOUTME: One page of a category listing, in inventory ID order
+// ABOUTME: Its first and last IDs are the keys for the pages before and after it
+package it.xpug.pbw.catalog;
+
+import it.xpug.pbw.domain.Product;
+
+import java.util.List;
+
+/**
+ * @param products the products of the page, in inventory ID order
+ * @param hasPrevious whether there are products before this page
+ * @param hasNext whether there are products after this page
+ */
+public record ProductPage(List<Product> products, boolean hasPrevious, boolean hasNext) {
+
+    /** Key for the page before this one, or null when the page is empty */
+    public String firstInventoryId() {
+        return products.isEmpty() ? null : products.get(0).getInventoryId();
+    }
+
+    /** Key for the page after this one, or null when the page is empty */
+    public String lastInventoryId() {
+        return products.isEmpty() ? null : products.get(products.size() - 1).getInventoryId();
+    }
+}
@@ -9,12 +9,18 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Repository
 public class ProductRepository {
 
+    private static final String SELECT_PRODUCT = "SELECT INVENTORYID, NAME, HEADING, DESCRIPTION, PKGINFO, IMAGE, " +
+                "PRICE, COST, QUANTITY, CATEGORY, NOTES, ISPUBLIC FROM INVENTORY ";
+
     private final JdbcTemplate jdbcTemplate;
 
     public ProductRepository(JdbcTemplate jdbcTemplate) {
@@ -30,9 +36,7 @@ public class ProductRepository {
     public Optional<Product> findByInventoryId(String inventoryId) {
         Objects.requireNonNull(inventoryId, "inventoryId must not be null");
 
-        String sql = "SELECT INVENTORYID, NAME, HEADING, DESCRIPTION, PKGINFO, IMAGE, " +
-                    "PRICE, COST, QUANTITY, CATEGORY, NOTES, ISPUBLIC " +
-                    "FROM INVENTORY WHERE INVENTORYID = ?";
+        String sql = SELECT_PRODUCT + "WHERE INVENTORYID = ?";
 
         try {
             Product product = jdbcTemplate.queryForObject(sql, new ProductRowMapper(), inventoryId);
@@ -42,10 +46,55 @@ public class ProductRepository {
         }
     }
 
+    /**
+     * Find a page of the public products of a category, keyed on the inventory ID
+     * so that a page costs the same however far into the category it is
+     * @param category The category (0 Flowers, 1 Fruits & Vegetables, 2 Trees, 3 Accessories)
+     * @param after The last inventory ID of the previous page, or null for the first page
+     * @param pageSize The most products wanted
+     * @return The products with IDs after the given one, in ID order
+     */
+    public ProductPage findPublicByCategoryAfter(int category, String after, int pageSize) {
+        String sql = SELECT_PRODUCT + "WHERE CATEGORY = ? AND ISPUBLIC = 1 AND INVENTORYID > ? " +
+                    "ORDER BY INVENTORYID LIMIT ?";
+
+        // One more than wanted tells whether there is a next page
+        List<Product> products = new ArrayList<>(jdbcTemplate.query(sql, new ProductRowMapper(),
+                category, after != null ? after : "", pageSize + 1));
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products.remove(pageSize);
+        }
+        return new ProductPage(products, after != null && !after.isEmpty(), hasNext);
+    }
+
+    /**
+     * Find the page of the public products of a category that comes before the given product
+     * @param category The category
+     * @param before The first inventory ID of the next page, must not be null
+     * @param pageSize The most products wanted
+     * @return The products with IDs before the given one, in ID order
+     */
+    public ProductPage findPublicByCategoryBefore(int category, String before, int pageSize) {
+        Objects.requireNonNull(before, "before must not be null");
+
+        String sql = SELECT_PRODUCT + "WHERE CATEGORY = ? AND ISPUBLIC = 1 AND INVENTORYID < ? " +
+                    "ORDER BY INVENTORYID DESC LIMIT ?";
+
+        List<Product> products = new ArrayList<>(jdbcTemplate.query(sql, new ProductRowMapper(),
+                category, before, pageSize + 1));
+        boolean hasPrevious = products.size() > pageSize;
+        if (hasPrevious) {
+            products.remove(pageSize);
+        }
+        Collections.reverse(products);
+        return new ProductPage(products, hasPrevious, true);
+    }
+
     /**
      * RowMapper to convert database rows to Product objects
      */
-    private static class ProductRowMapper implements RowMapper<Product> {
+    static class ProductRowMapper implements RowMapper<Product> {
         @Override
         public Product mapRow(ResultSet rs, int rowNum) throws SQLException {
             Product product = new Product();
@@ -0,0 +1,81 @@
+// ABOUTME: Controller for the category page listing the products of one category
+// ABOUTME: Handles GET /shopping?category=N and pages through it with after/before inventory IDs
+package it.xpug.pbw.catalog;
+
+import it.xpug.pbw.domain.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class ShoppingController {
+
+    // Products per row of the grid, as on the legacy JSF page
+    static final int COLUMNS = 5;
+
+    private final ProductRepository productRepository;
+    private final int pageSize;
+
+    public ShoppingController(ProductRepository productRepository,
+                              @Value("${pbw.catalog.page-size:20}") int pageSize) {
+        this.productRepository = productRepository;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Show a page of a category. Without after or before it is the first page.
+     * Only the products of the page are read, so a request costs the same however big the category is.
+     */
+    @GetMapping("/shopping")
+    public String showCategory(@RequestParam int category,
+                               @RequestParam(required = false) String after,
+                               @RequestParam(required = false) String before,
+                               Model model) {
+        ProductPage page = before != null
+                ? productRepository.findPublicByCategoryBefore(category, before, pageSize)
+                : productRepository.findPublicByCategoryAfter(category, after, pageSize);
+
+        Product sample = new Product();
+        sample.setCategory(category);
+        model.addAttribute("categoryName", sample.getCategoryName());
+        model.addAttribute("rows", rows(page.products()));
+        if (page.hasPrevious()) {
+            // an empty page, e.g. after an id past the end or one since deleted, goes back to the first page
+            model.addAttribute("previousUrl", page.firstInventoryId() != null
+                    ? "/shopping?category=" + category + "&before=" + encode(page.firstInventoryId())
+                    : "/shopping?category=" + category);
+        }
+        if (page.hasNext() && page.lastInventoryId() != null) {
+            model.addAttribute("nextUrl", "/shopping?category=" + category + "&after=" + encode(page.lastInventoryId()));
+        }
+        model.addAttribute("title", "Plants By WebSphere Shopping");
+
+        // Shopping cart data - for now using static data (no cart functionality)
+        model.addAttribute("cartEmpty", true);
+        model.addAttribute("cartNotEmpty", false);
+        model.addAttribute("cartSize", 0);
+        model.addAttribute("cartTotal", "$0.00");
+
+        return "shopping";
+    }
+
+    private static String encode(String inventoryId) {
+        return URLEncoder.encode(inventoryId, StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, List<Product>>> rows(List<Product> products) {
+        List<Map<String, List<Product>>> rows = new ArrayList<>();
+        for (int i = 0; i < products.size(); i += COLUMNS) {
+            rows.add(Map.of("products", products.subList(i, Math.min(i + COLUMNS, products.size()))));
+        }
+        return rows;
+    }
+}
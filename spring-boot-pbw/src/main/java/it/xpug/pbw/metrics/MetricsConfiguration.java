@@ -0,0 +1,88 @@
+// ABOUTME: Maps Spring Boot's metrics onto the pbw_ metric names shared with the Liberty application
+// ABOUTME: Renames request timings, sets the common histogram buckets and adds connection pool gauges
+package it.xpug.pbw.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.function.ToIntFunction;
+
+@Configuration
+public class MetricsConfiguration {
+
+    static final String REQUEST_DURATION = "pbw.http.request.duration";
+
+    // Powers of two from 1 microsecond to about 67 seconds, in nanoseconds, as in the
+    // Liberty app's LatencyHistogram, so both report the same "le" buckets.
+    private static final double[] LATENCY_BUCKETS = new double[27];
+
+    static {
+        for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+            LATENCY_BUCKETS[i] = (1L << i) * 1000.0;
+        }
+    }
+
+    @Bean
+    public MeterFilter pbwMetricNames() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (id.getName().equals("http.server.requests")) {
+                    String route = id.getTag("uri");
+                    return id.withName(REQUEST_DURATION).replaceTags(Tags.of("route", route == null ? "UNKNOWN" : route));
+                }
+                return id;
+            }
+
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("pbw.") && id.getType() == Meter.Type.TIMER) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(false)
+                            .serviceLevelObjectives(LATENCY_BUCKETS)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionPoolMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof HikariDataSource hikari)) {
+                return;
+            }
+            String pool = hikari.getPoolName() == null ? "default" : hikari.getPoolName();
+            gauge(registry, "pbw.jdbc.connections.active", "Pooled connections in use.", pool, hikari,
+                    HikariPoolMXBean::getActiveConnections);
+            gauge(registry, "pbw.jdbc.connections.idle", "Pooled connections free for use.", pool, hikari,
+                    HikariPoolMXBean::getIdleConnections);
+            gauge(registry, "pbw.jdbc.connections.open", "Connections held by the pool.", pool, hikari,
+                    HikariPoolMXBean::getTotalConnections);
+        };
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String help,
+                              String pool, HikariDataSource hikari, ToIntFunction<HikariPoolMXBean> count) {
+        Gauge.builder(name, hikari, ds -> {
+                    // the pool is only created on the first connection
+                    HikariPoolMXBean bean = ds.getHikariPoolMXBean();
+                    return bean == null ? 0 : count.applyAsInt(bean);
+                })
+                .description(help)
+                .tag("pool", pool)
+                .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+// ABOUTME: Counts HTTP sessions and publishes them as pbw_sessions_active and pbw_sessions_started_total
+// ABOUTME: Registered both as a servlet session listener and as a Micrometer meter binder
+package it.xpug.pbw.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class SessionMetrics implements HttpSessionListener, MeterBinder {
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+
+    @Override
+    public void sessionCreated(HttpSessionEvent event) {
+        active.incrementAndGet();
+        created.increment();
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        active.decrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pbw.sessions.active", active, AtomicInteger::get)
+                .description("HTTP sessions currently open.")
+                .register(registry);
+        FunctionCounter.builder("pbw.sessions.started", created, LongAdder::sum)
+                .description("HTTP sessions created.")
+                .register(registry);
+    }
+}
@@ -1,5 +1,5 @@
 // ABOUTME: Unit tests for ImageController serving product images from database
-// ABOUTME: Tests image retrieval from INVENTORY.IMGBYTES column via servlet-style URL
+// ABOUTME: Tests image retrieval, conditional requests and byte ranges via servlet-style URL
 package it.xpug.pbw.catalog;
 
 import org.junit.jupiter.api.Test;
@@ -8,8 +8,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -17,17 +21,32 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(ImageController.class)
 public class ImageControllerTest {
 
+    private static final String HASH = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String ETAG = "\"" + HASH + "\"";
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private ImageRepository imageRepository;
 
+    private void givenImage(String inventoryId, byte[] bytes) throws Exception {
+        givenVariant(inventoryId, "full", "jpeg", ImageRepository.ORIGINAL, "image/jpeg", bytes);
+    }
+
+    private void givenVariant(String inventoryId, String size, String format,
+                              String variant, String contentType, byte[] bytes) throws Exception {
+        when(imageRepository.findImageInfo(inventoryId, size, format))
+                .thenReturn(Optional.of(new ImageRepository.ImageInfo(variant, contentType, HASH, bytes.length)));
+        when(imageRepository.openImageStream(HASH))
+                .thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+    }
+
     @Test
     public void shouldReturnImageBytesForValidProduct() throws Exception {
         // Arrange: Mock repository to return image bytes
         byte[] mockImageBytes = new byte[]{1, 2, 3, 4, 5}; // Fake image data
-        when(imageRepository.getImageBytes("T0003")).thenReturn(Optional.of(mockImageBytes));
+        givenImage("T0003", mockImageBytes);
 
         // Act & Assert
         mockMvc.perform(get("/servlet/ImageServlet")
@@ -35,13 +54,16 @@ public class ImageControllerTest {
                         .param("inventoryID", "T0003"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("image/jpeg"))
-                .andExpect(content().bytes(mockImageBytes));
+                .andExpect(content().bytes(mockImageBytes))
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", "max-age=86400, public"));
     }
 
     @Test
     public void shouldReturn404WhenImageNotFound() throws Exception {
         // Arrange: Mock repository to return empty Optional
-        when(imageRepository.getImageBytes("INVALID")).thenReturn(Optional.empty());
+        when(imageRepository.findImageInfo("INVALID", "full", "jpeg")).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/servlet/ImageServlet")
@@ -62,7 +84,7 @@ public class ImageControllerTest {
     public void shouldWorkWithoutActionParameter() throws Exception {
         // Arrange: action parameter is optional, defaults to "getimage"
         byte[] mockImageBytes = new byte[]{10, 20, 30};
-        when(imageRepository.getImageBytes("V0006")).thenReturn(Optional.of(mockImageBytes));
+        givenImage("V0006", mockImageBytes);
 
         // Act & Assert
         mockMvc.perform(get("/servlet/ImageServlet")
@@ -70,4 +92,55 @@ public class ImageControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().bytes(mockImageBytes));
     }
+
+    @Test
+    public void shouldAnswerMatchingIfNoneMatchWith304WithoutReadingImage() throws Exception {
+        givenImage("T0003", new byte[]{1, 2, 3, 4, 5});
+
+        mockMvc.perform(get("/servlet/ImageServlet")
+                        .param("inventoryID", "T0003")
+                        .header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG));
+
+        verify(imageRepository, never()).openImageStream(anyString());
+    }
+
+    @Test
+    public void shouldServeRequestedByteRange() throws Exception {
+        givenImage("T0003", new byte[]{1, 2, 3, 4, 5});
+
+        mockMvc.perform(get("/servlet/ImageServlet")
+                        .param("inventoryID", "T0003")
+                        .header("Range", "bytes=1-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-3/5"))
+                .andExpect(content().bytes(new byte[]{2, 3, 4}));
+    }
+
+    @Test
+    public void shouldServeRequestedSizeAndFormat() throws Exception {
+        byte[] thumbnail = new byte[]{7, 8};
+        givenVariant("T0003", "thumb", "webp", "thumb.webp", "image/webp", thumbnail);
+
+        mockMvc.perform(get("/servlet/ImageServlet")
+                        .param("inventoryID", "T0003")
+                        .param("size", "thumb")
+                        .param("format", "webp"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/webp"))
+                .andExpect(content().bytes(thumbnail));
+    }
+
+    @Test
+    public void shouldTreatUnknownSizeAsOriginal() throws Exception {
+        byte[] mockImageBytes = new byte[]{1, 2, 3};
+        givenImage("T0003", mockImageBytes);
+
+        mockMvc.perform(get("/servlet/ImageServlet")
+                        .param("inventoryID", "T0003")
+                        .param("size", "huge"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(mockImageBytes));
+    }
 }
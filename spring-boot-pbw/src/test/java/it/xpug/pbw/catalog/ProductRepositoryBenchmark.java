@@ -0,0 +1,87 @@
+// ABOUTME: JMH benchmarks for ProductRepository and its row mapper against an in-process H2 database
+// ABOUTME: Run with ./mvnw -Pbenchmark verify -DskipTests, which writes target/jmh-result.json
+package it.xpug.pbw.catalog;
+
+import it.xpug.pbw.datasource.EmbeddedDataSource;
+import it.xpug.pbw.domain.Product;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    private JdbcConnectionPool pool;
+    private ProductRepository repository;
+    private ProductRepository.ProductRowMapper mapper;
+    private SimpleResultSet row;
+
+    @Setup(Level.Trial)
+    public void open() {
+        pool = EmbeddedDataSource.create(5, 100);
+        repository = new ProductRepository(new JdbcTemplate(pool));
+        mapper = new ProductRepository.ProductRowMapper();
+
+        // one INVENTORY row held in memory, so mapRow is measured without the database
+        row = new SimpleResultSet();
+        row.setAutoClose(false);
+        row.addColumn("INVENTORYID", Types.VARCHAR, 250, 0);
+        row.addColumn("NAME", Types.VARCHAR, 250, 0);
+        row.addColumn("HEADING", Types.VARCHAR, 250, 0);
+        row.addColumn("DESCRIPTION", Types.VARCHAR, 250, 0);
+        row.addColumn("PKGINFO", Types.VARCHAR, 250, 0);
+        row.addColumn("IMAGE", Types.VARCHAR, 250, 0);
+        row.addColumn("PRICE", Types.REAL, 0, 0);
+        row.addColumn("COST", Types.REAL, 0, 0);
+        row.addColumn("QUANTITY", Types.INTEGER, 0, 0);
+        row.addColumn("CATEGORY", Types.INTEGER, 0, 0);
+        row.addColumn("NOTES", Types.VARCHAR, 250, 0);
+        row.addColumn("ISPUBLIC", Types.INTEGER, 0, 0);
+        row.addRow("T0003", "Bonsai", "Tabletop Fun", "Bonsais are great miniature replicas of your favorite yard tree.",
+                "0.5 gallon mature tree", "trees_bonsai.jpg", 30.00f, 12.00f, 100, 2, "", 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pool.dispose();
+    }
+
+    @Benchmark
+    public Product mapRow() throws SQLException {
+        row.beforeFirst();
+        row.next();
+        return mapper.mapRow(row, 0);
+    }
+
+    @Benchmark
+    public Optional<Product> findByInventoryId() {
+        return repository.findByInventoryId("B20042");
+    }
+
+    @Benchmark
+    public Optional<Product> findByInventoryIdMissing() {
+        return repository.findByInventoryId("NONE");
+    }
+}
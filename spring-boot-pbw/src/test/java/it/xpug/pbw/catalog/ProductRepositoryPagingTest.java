@@ -0,0 +1,82 @@
+// ABOUTME: Tests keyset paging of a category's public products in ProductRepository
+// ABOUTME: Runs against the embedded H2 database so it does not need MySQL
+package it.xpug.pbw.catalog;
+
+import it.xpug.pbw.datasource.EmbeddedDataSource;
+import it.xpug.pbw.domain.Product;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductRepositoryPagingTest {
+
+    private JdbcConnectionPool dataSource;
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = EmbeddedDataSource.create(2, 25);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("UPDATE INVENTORY SET ISPUBLIC = 0 WHERE INVENTORYID = 'B10003'");
+        productRepository = new ProductRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.dispose();
+    }
+
+    @Test
+    public void shouldPageForwardThroughThePublicProductsOfACategory() {
+        ProductPage first = productRepository.findPublicByCategoryAfter(1, null, 10);
+
+        assertThat(ids(first)).containsExactly("B10000", "B10001", "B10002", "B10004", "B10005",
+                "B10006", "B10007", "B10008", "B10009", "B10010");
+        assertThat(first.hasPrevious()).isFalse();
+        assertThat(first.hasNext()).isTrue();
+
+        List<String> all = new ArrayList<>(ids(first));
+        ProductPage page = first;
+        while (page.hasNext()) {
+            page = productRepository.findPublicByCategoryAfter(1, page.lastInventoryId(), 10);
+            assertThat(page.hasPrevious()).isTrue();
+            all.addAll(ids(page));
+        }
+        assertThat(all).hasSize(24).doesNotContain("B10003").allMatch(id -> id.startsWith("B1"));
+        assertThat(ids(page)).containsExactly("B10021", "B10022", "B10023", "B10024");
+    }
+
+    @Test
+    public void shouldPageBackFromAProduct() {
+        ProductPage page = productRepository.findPublicByCategoryBefore(1, "B10021", 10);
+
+        assertThat(ids(page)).containsExactly("B10011", "B10012", "B10013", "B10014", "B10015",
+                "B10016", "B10017", "B10018", "B10019", "B10020");
+        assertThat(page.hasPrevious()).isTrue();
+        assertThat(page.hasNext()).isTrue();
+
+        ProductPage first = productRepository.findPublicByCategoryBefore(1, page.firstInventoryId(), 10);
+        assertThat(first.firstInventoryId()).isEqualTo("B10000");
+        assertThat(first.hasPrevious()).isFalse();
+    }
+
+    @Test
+    public void shouldReturnAnEmptyPageForAnEmptyCategory() {
+        ProductPage page = productRepository.findPublicByCategoryAfter(3, null, 10);
+
+        assertThat(page.products()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.lastInventoryId()).isNull();
+    }
+
+    private static List<String> ids(ProductPage page) {
+        return page.products().stream().map(Product::getInventoryId).toList();
+    }
+}
@@ -0,0 +1,78 @@
+// ABOUTME: Unit tests for ShoppingController with mocked repository
+// ABOUTME: Tests the category page grid and the previous/next links between its pages
+package it.xpug.pbw.catalog;
+
+import it.xpug.pbw.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShoppingController.class)
+public class ShoppingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @Test
+    public void shouldShowTheFirstPageOfACategoryWithANextLink() throws Exception {
+        when(productRepository.findPublicByCategoryAfter(2, null, 20))
+                .thenReturn(new ProductPage(trees(7), false, true));
+
+        mockMvc.perform(get("/shopping").param("category", "2"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("shopping"))
+                .andExpect(model().attribute("categoryName", "Trees"))
+                .andExpect(model().attribute("rows", hasSize(2)))
+                .andExpect(model().attribute("nextUrl", "/shopping?category=2&after=T0006"))
+                .andExpect(model().attributeDoesNotExist("previousUrl"))
+                .andExpect(content().string(containsString("/product?itemID=T0006")))
+                .andExpect(content().string(not(containsString("Previous"))));
+    }
+
+    @Test
+    public void shouldPageBackWithBefore() throws Exception {
+        when(productRepository.findPublicByCategoryBefore(2, "T0007", 20))
+                .thenReturn(new ProductPage(trees(7), true, true));
+
+        mockMvc.perform(get("/shopping").param("category", "2").param("before", "T0007"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("previousUrl", "/shopping?category=2&before=T0000"))
+                .andExpect(model().attribute("nextUrl", "/shopping?category=2&after=T0006"));
+    }
+
+    @Test
+    public void shouldLinkAnEmptyPageBackToTheFirstPage() throws Exception {
+        when(productRepository.findPublicByCategoryAfter(0, "ZZZZ", 20))
+                .thenReturn(new ProductPage(List.of(), true, false));
+
+        mockMvc.perform(get("/shopping").param("category", "0").param("after", "ZZZZ"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("rows", hasSize(0)))
+                .andExpect(model().attribute("previousUrl", "/shopping?category=0"))
+                .andExpect(model().attributeDoesNotExist("nextUrl"));
+    }
+
+    private static List<Product> trees(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(String.format("T%04d", i), "Tree " + i, "Heading", "Description",
+                    "1 tree", "tree.jpg", 10.00f, 5.00f, 100, 2, "", true));
+        }
+        return products;
+    }
+}
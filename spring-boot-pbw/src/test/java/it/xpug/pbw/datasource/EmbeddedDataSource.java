@@ -0,0 +1,45 @@
+// ABOUTME: In-process H2 database with the INVENTORY table for tests and benchmarks that cannot rely on MySQL
+// ABOUTME: Runs in MySQL mode behind a small connection pool and is filled with generated products
+package it.xpug.pbw.datasource;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EmbeddedDataSource {
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    /**
+     * Creates a database with the INVENTORY table of docker/mariadb/schema.sql
+     * @param categories number of categories to generate
+     * @param productsPerCategory number of products in each category, with ids like "B10007"
+     * @return a pooled DataSource; dispose() it when done
+     */
+    public static JdbcConnectionPool create(int categories, int productsPerCategory) {
+        JdbcConnectionPool pool = JdbcConnectionPool.create(
+                "jdbc:h2:mem:pbw" + databases.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.execute("CREATE TABLE INVENTORY ("
+                + "INVENTORYID VARCHAR(250) NOT NULL PRIMARY KEY, NAME VARCHAR(250), HEADING VARCHAR(250), "
+                + "DESCRIPTION VARCHAR(250), PKGINFO VARCHAR(250), IMAGE VARCHAR(250), "
+                + "PRICE REAL NOT NULL, COST REAL NOT NULL, CATEGORY INTEGER NOT NULL, QUANTITY INTEGER NOT NULL, "
+                + "NOTES VARCHAR(250), ISPUBLIC INTEGER NOT NULL, "
+                + "MINTHRESHOLD INTEGER NOT NULL, MAXTHRESHOLD INTEGER NOT NULL)");
+        List<Object[]> rows = new ArrayList<>();
+        for (int category = 0; category < categories; category++) {
+            for (int i = 0; i < productsPerCategory; i++) {
+                rows.add(new Object[] {String.format("B%d%04d", category, i), "Product " + i, "Heading",
+                        "Description of product " + i, "1 gallon", "product.jpg", 9.99f + i, 4.50f,
+                        category, 100, "", 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO INVENTORY (INVENTORYID, NAME, HEADING, DESCRIPTION, PKGINFO, IMAGE, "
+                + "PRICE, COST, CATEGORY, QUANTITY, NOTES, ISPUBLIC, MINTHRESHOLD, MAXTHRESHOLD) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 5, 100)", rows);
+        return pool;
+    }
+}
@@ -0,0 +1,105 @@
+// ABOUTME: Boots the Spring Boot application on a random port against an in-memory H2 database
+// ABOUTME: Loads the docker/mariadb schema and seed data and stores each product's image as its original variant
+package it.xpug.pbw.load;
+
+import it.xpug.pbw.PbwApplication;
+import it.xpug.pbw.catalog.ImageRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class EmbeddedApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Start the application
+     * @param seed directory holding schema.sql and data.sql, normally docker/mariadb
+     */
+    public static EmbeddedApplication start(Path seed) throws IOException {
+        String schema = seed.resolve("schema.sql").toUri().toString();
+        String data = seed.resolve("data.sql").toUri().toString();
+        // command line arguments, so that they win over application.properties
+        ConfigurableApplicationContext context = new SpringApplication(PbwApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:pbwload;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.sql.init.mode=always",
+                "--spring.sql.init.schema-locations=" + schema,
+                "--spring.sql.init.data-locations=" + data);
+        EmbeddedApplication application = new EmbeddedApplication(context);
+        application.storeImages();
+        return application;
+    }
+
+    public int getPort() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /** Ids of the products in the seed data, for journeys that browse the catalog. */
+    public List<String> getCatalog() {
+        return context.getBean(JdbcTemplate.class)
+                .queryForList("SELECT INVENTORYID FROM INVENTORY WHERE ISPUBLIC = 1 ORDER BY INVENTORYID", String.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    /*
+     * The seed data only names each product's image; the bytes come from the
+     * application's static images, as the legacy "populate" action loads them.
+     */
+    private void storeImages() throws IOException {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Set<String> stored = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT INVENTORYID, IMAGE FROM INVENTORY")) {
+            ClassPathResource image = new ClassPathResource("static/images/" + row.get("IMAGE"));
+            if (!image.exists()) {
+                continue;
+            }
+            byte[] bytes;
+            try (InputStream in = image.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            String hash = sha256(bytes);
+            if (stored.add(hash)) {
+                jdbcTemplate.update("INSERT INTO IMAGEBLOB (IMGHASH, IMGBYTES) VALUES (?, ?)", hash, bytes);
+            }
+            jdbcTemplate.update("INSERT INTO IMAGEVARIANT (INVENTORYID, VARIANT, CONTENTTYPE, IMGHASH, IMGLENGTH, UPDATED) "
+                    + "VALUES (?, ?, 'image/jpeg', ?, ?, ?)", row.get("INVENTORYID"), ImageRepository.ORIGINAL,
+                    hash, bytes.length, now);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
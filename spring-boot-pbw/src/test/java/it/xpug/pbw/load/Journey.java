@@ -0,0 +1,72 @@
+// ABOUTME: A weighted customer journey for the load generator: a named sequence of page requests
+// ABOUTME: Defines the journeys of docs/customer-journey-analysis.md that the Spring Boot port can serve
+package it.xpug.pbw.load;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * @param name journey name, used to select and weight it
+ * @param featured whether the journey follows a featured product from the promo page,
+ *                 or one picked at random from the catalog
+ * @param steps the requests made, in order; "{item}" in a path stands for the product
+ *              and "{category}" for its category
+ */
+public record Journey(String name, boolean featured, List<Step> steps) {
+
+    /** Products featured on the promo page. */
+    public static final List<String> FEATURED = List.of("T0003", "V0006", "F0017");
+
+    /**
+     * @param name step name, the unit latency is reported by
+     * @param path path and query to request
+     */
+    public record Step(String name, String path) {
+
+        String pathFor(String item) {
+            return path.replace("{item}", item).replace("{category}", categoryOf(item));
+        }
+
+        // Seed data ids start with the category's letter: Flowers, Vegetables, Trees, Accessories
+        private static String categoryOf(String item) {
+            int category = "FVTA".indexOf(item.charAt(0));
+            return Integer.toString(Math.max(category, 0));
+        }
+    }
+
+    /** Landing page, then away. */
+    public static final Journey BOUNCE = new Journey("bounce", true, List.of(
+            new Step("promo", "/promo")));
+
+    /** Landing page, a featured product and its large image. */
+    public static final Journey FEATURED_PRODUCT = new Journey("featured", true, List.of(
+            new Step("promo", "/promo"),
+            new Step("product", "/product?itemID={item}"),
+            new Step("image", "/servlet/ImageServlet?action=getimage&inventoryID={item}")));
+
+    /** Home, landing page, a category page, then a product found in it, its thumbnail and its image. */
+    public static final Journey BROWSE = new Journey("browse", false, List.of(
+            new Step("home", "/"),
+            new Step("promo", "/promo"),
+            new Step("category", "/shopping?category={category}"),
+            new Step("thumbnail", "/servlet/ImageServlet?action=getimage&inventoryID={item}&size=thumb"),
+            new Step("product", "/product?itemID={item}"),
+            new Step("image", "/servlet/ImageServlet?action=getimage&inventoryID={item}")));
+
+    /** Every journey, by name. */
+    public static final List<Journey> ALL = List.of(BROWSE, FEATURED_PRODUCT, BOUNCE);
+
+    /** Pick the product this run of the journey is about. */
+    String pickItem(RandomGenerator random, List<String> catalog) {
+        List<String> items = featured || catalog.isEmpty() ? FEATURED : catalog;
+        return items.get(random.nextInt(items.size()));
+    }
+
+    public static Journey named(String name) {
+        return ALL.stream()
+                .filter(journey -> journey.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown journey " + name + ", expected one of "
+                        + ALL.stream().map(Journey::name).toList()));
+    }
+}
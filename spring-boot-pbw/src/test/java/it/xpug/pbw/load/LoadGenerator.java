@@ -0,0 +1,162 @@
+// ABOUTME: Replays weighted customer journeys against the application with concurrent virtual users
+// ABOUTME: Boots the application on an embedded database unless --url is given; run with ./mvnw -Pload verify
+package it.xpug.pbw.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Each virtual user is a virtual thread that picks a journey by weight, makes its
+ * requests one after another and starts over, until the run ends. Requests started
+ * during the warm-up are not measured. Every user records into its own stats, which
+ * are merged at the end, so the percentiles are exact rather than bucketed.
+ */
+public class LoadGenerator {
+
+    private final String baseUrl;
+    private final LoadOptions options;
+    private final List<String> catalog;
+    private final HttpClient client;
+
+    public LoadGenerator(String baseUrl, LoadOptions options, List<String> catalog) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.catalog = catalog;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        LoadReport report;
+        if (options.url() == null) {
+            try (EmbeddedApplication application = EmbeddedApplication.start(options.seed())) {
+                String baseUrl = "http://localhost:" + application.getPort();
+                report = new LoadGenerator(baseUrl, options, application.getCatalog()).run();
+            }
+        } else {
+            report = new LoadGenerator(options.url(), options, List.of()).run();
+        }
+        report.print(System.out);
+        if (options.report() != null) {
+            report.writeJson(options.report());
+            System.out.println("Report written to " + options.report());
+        }
+    }
+
+    public LoadReport run() throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        List<Future<VirtualUser>> users = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SplittableRandom seeds = new SplittableRandom();
+            for (int i = 0; i < options.users(); i++) {
+                VirtualUser user = new VirtualUser(seeds.split(), measureFrom, end);
+                users.add(executor.submit(user::run, user));
+            }
+        }
+
+        Map<String, StepStats> steps = new LinkedHashMap<>();
+        long journeys = 0;
+        for (Future<VirtualUser> future : users) {
+            VirtualUser user = future.get();
+            journeys += user.journeys;
+            user.steps.forEach((name, stats) -> steps.computeIfAbsent(name, n -> new StepStats()).merge(stats));
+        }
+        return new LoadReport(options, options.duration(), journeys, steps);
+    }
+
+    private Journey pick(SplittableRandom random) {
+        int total = options.weights().values().stream().mapToInt(Integer::intValue).sum();
+        int ticket = random.nextInt(total);
+        for (Map.Entry<String, Integer> entry : options.weights().entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return Journey.named(entry.getKey());
+            }
+        }
+        throw new IllegalStateException("No journey for ticket " + ticket);
+    }
+
+    private final class VirtualUser {
+
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long end;
+        private final Map<String, StepStats> steps = new LinkedHashMap<>();
+        private long journeys;
+
+        VirtualUser(SplittableRandom random, long measureFrom, long end) {
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        void run() {
+            while (System.nanoTime() < end) {
+                Journey journey = pick(random);
+                String item = journey.pickItem(random, catalog);
+                boolean measured = System.nanoTime() >= measureFrom;
+                boolean completed = true;
+                for (Journey.Step step : journey.steps()) {
+                    if (System.nanoTime() >= end) {
+                        completed = false;
+                        break;
+                    }
+                    request(step, item);
+                    think();
+                }
+                if (measured && completed) {
+                    journeys++;
+                }
+            }
+        }
+
+        private void request(Journey.Step step, String item) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + step.pathFor(item)))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                ok = status / 100 == 2 || status == 304;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long elapsed = System.nanoTime() - started;
+            if (started >= measureFrom) {
+                steps.computeIfAbsent(step.name(), name -> new StepStats()).record(elapsed, ok);
+            }
+        }
+
+        private void think() {
+            if (!options.think().isZero()) {
+                try {
+                    Thread.sleep(options.think());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// ABOUTME: Tests the load generator's percentiles and option parsing, and a short run
+// ABOUTME: against the application booted on the embedded seed database
+package it.xpug.pbw.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void shouldReportNearestRankPercentilesOfMergedStats() {
+        StepStats first = new StepStats();
+        StepStats second = new StepStats();
+        for (int i = 1; i <= 100; i++) {
+            (i % 2 == 0 ? first : second).record(i, i != 100);
+        }
+        first.merge(second);
+
+        assertThat(first.getCount()).isEqualTo(100);
+        assertThat(first.getErrors()).isEqualTo(1);
+        assertThat(first.percentile(50)).isEqualTo(50);
+        assertThat(first.percentile(99)).isEqualTo(99);
+        assertThat(first.max()).isEqualTo(100);
+        assertThat(new StepStats().percentile(99)).isZero();
+    }
+
+    @Test
+    public void shouldParseOptions() {
+        LoadOptions options = LoadOptions.parse("--users=4", "--duration=2m", "--think=250ms", "--journeys=bounce:2,browse");
+
+        assertThat(options.users()).isEqualTo(4);
+        assertThat(options.duration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(options.warmup()).isEqualTo(Duration.ofSeconds(5));
+        assertThat(options.think()).isEqualTo(Duration.ofMillis(250));
+        assertThat(options.weights()).containsExactly(
+                entry("bounce", 2),
+                entry("browse", 1));
+        assertThatThrownBy(() -> LoadOptions.parse("--journeys=checkout"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldReplayEveryJourneyWithoutErrors() throws Exception {
+        LoadOptions options = LoadOptions.parse("--users=2", "--duration=1s", "--warmup=0ms",
+                "--journeys=browse:1,featured:1,bounce:1");
+
+        try (EmbeddedApplication application = EmbeddedApplication.start(Path.of("../docker/mariadb"))) {
+            assertThat(application.getCatalog()).contains("T0003", "F0017");
+
+            LoadReport report = new LoadGenerator("http://localhost:" + application.getPort(), options,
+                    application.getCatalog()).run();
+
+            assertThat(report.journeys()).isPositive();
+            assertThat(report.steps()).containsOnlyKeys("home", "promo", "category", "thumbnail", "product", "image");
+            assertThat(report.steps().values()).allSatisfy(stats -> {
+                assertThat(stats.getCount()).isPositive();
+                assertThat(stats.getErrors()).isZero();
+            });
+        }
+    }
+}
@@ -0,0 +1,98 @@
+// ABOUTME: Command line options of the load generator, given as --name=value
+// ABOUTME: Concurrency, run and warm-up length, think time, journey weights and where to send the load
+package it.xpug.pbw.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @param users concurrent virtual users, each running one journey after another
+ * @param duration how long requests are measured
+ * @param warmup how long requests are made, but not measured, before that
+ * @param think pause after each request
+ * @param weights relative weight of each journey, by name
+ * @param url server to load, or null to boot the application on an embedded database
+ * @param seed directory holding schema.sql and data.sql for the embedded database
+ * @param report file the report is also written to as JSON, or null
+ */
+public record LoadOptions(int users, Duration duration, Duration warmup, Duration think,
+                          Map<String, Integer> weights, String url, Path seed, Path report) {
+
+    public static final String USAGE = """
+            Options:
+              --users=8                            concurrent virtual users
+              --duration=30s                       measured run length (ms, s or m)
+              --warmup=5s                          unmeasured run length before that
+              --think=0ms                          pause after each request
+              --journeys=browse:6,featured:3,bounce:1
+              --url=http://localhost:8080          load a running server instead of booting one
+              --seed=../docker/mariadb             schema.sql and data.sql for the embedded database
+              --report=target/load-report.json     also write the report as JSON
+            """;
+
+    public static LoadOptions parse(String... args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("users", "8");
+        values.put("duration", "30s");
+        values.put("warmup", "5s");
+        values.put("think", "0ms");
+        values.put("journeys", "browse:6,featured:3,bounce:1");
+        values.put("url", null);
+        values.put("seed", "../docker/mariadb");
+        values.put("report", "target/load-report.json");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 2 ? arg.substring(2, equals) : null;
+            if (name == null || !values.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + arg + "\n" + USAGE);
+            }
+            values.put(name, arg.substring(equals + 1));
+        }
+
+        int users = Integer.parseInt(values.get("users"));
+        if (users < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        String report = values.get("report");
+        return new LoadOptions(users,
+                parseDuration(values.get("duration")),
+                parseDuration(values.get("warmup")),
+                parseDuration(values.get("think")),
+                parseWeights(values.get("journeys")),
+                values.get("url"),
+                Path.of(values.get("seed")),
+                report == null || report.isEmpty() ? null : Path.of(report));
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Expected a duration such as 500ms, 30s or 2m, got " + value);
+    }
+
+    static Map<String, Integer> parseWeights(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String name = Journey.named(parts[0]).name();
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Journey weights cannot be negative: " + entry);
+            }
+            weights.put(name, weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one journey needs a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,69 @@
+// ABOUTME: Result of a load run: per-step request counts, errors, throughput and latency percentiles
+// ABOUTME: Printed as a table and optionally written as JSON for comparing runs
+package it.xpug.pbw.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @param options the options the run was made with
+ * @param elapsed how long requests were measured for
+ * @param journeys journeys completed while measuring
+ * @param steps stats of each step, by step name, in the order steps were first seen
+ */
+public record LoadReport(LoadOptions options, Duration elapsed, long journeys, Map<String, StepStats> steps) {
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    public double throughput(long count) {
+        return count * 1_000_000_000.0 / Math.max(elapsed.toNanos(), 1);
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%d users, %.1f s measured, %d journeys (%.1f/s)%n",
+                options.users(), elapsed.toNanos() / 1e9, journeys, throughput(journeys));
+        out.printf(Locale.ROOT, "%-10s %9s %7s %9s %9s %9s %9s %9s%n",
+                "step", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            StepStats stats = entry.getValue();
+            out.printf(Locale.ROOT, "%-10s %9d %7d %9.1f", entry.getKey(), stats.getCount(), stats.getErrors(),
+                    throughput(stats.getCount()));
+            for (double percentile : PERCENTILES) {
+                out.printf(Locale.ROOT, " %9.2f", millis(stats.percentile(percentile)));
+            }
+            out.printf(Locale.ROOT, " %9.2f%n", millis(stats.max()));
+        }
+    }
+
+    public void writeJson(Path file) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.ROOT,
+                "{\n  \"users\": %d,\n  \"seconds\": %.3f,\n  \"journeys\": %d,\n  \"journeysPerSecond\": %.3f,\n  \"steps\": {",
+                options.users(), elapsed.toNanos() / 1e9, journeys, throughput(journeys)));
+        String separator = "\n";
+        for (Map.Entry<String, StepStats> entry : steps.entrySet()) {
+            StepStats stats = entry.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "    \"%s\": {\"requests\": %d, \"errors\": %d, \"requestsPerSecond\": %.3f, "
+                            + "\"p50Ms\": %.3f, \"p95Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f}",
+                    entry.getKey(), stats.getCount(), stats.getErrors(), throughput(stats.getCount()),
+                    millis(stats.percentile(50)), millis(stats.percentile(95)), millis(stats.percentile(99)),
+                    millis(stats.max())));
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, json);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,67 @@
+// ABOUTME: Latency samples and error count of one journey step, recorded by a single virtual user
+// ABOUTME: Per-user stats are merged after the run and report exact nearest-rank percentiles
+package it.xpug.pbw.load;
+
+import java.util.Arrays;
+
+public class StepStats {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    /**
+     * Record one request
+     * @param nanos time from sending the request to reading the last byte of the response
+     * @param ok whether the response was a success (2xx or 304)
+     */
+    public void record(long nanos, boolean ok) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    public void merge(StepStats other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Latency at a percentile, by nearest rank
+     * @param percentile between 0 and 100, e.g. 99
+     * @return nanoseconds, or 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public long max() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+}
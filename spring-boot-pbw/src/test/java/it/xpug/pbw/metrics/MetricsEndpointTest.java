@@ -0,0 +1,50 @@
+// ABOUTME: Tests the /metrics Prometheus endpoint exposes request, pool and session metrics
+// ABOUTME: under the pbw_ names shared with the Liberty application
+package it.xpug.pbw.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void shouldExposeRequestTimingsUnderTheSharedNames() throws Exception {
+        mockMvc.perform(get("/promo")).andExpect(status().isOk());
+
+        String metrics = mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(metrics).contains("# TYPE pbw_http_request_duration_seconds histogram");
+        assertThat(metrics).contains("pbw_http_request_duration_seconds_bucket{route=\"/promo\",le=\"0.004096\"}");
+        assertThat(metrics).contains("pbw_http_request_duration_seconds_bucket{route=\"/promo\",le=\"+Inf\"} 1");
+        assertThat(metrics).contains("pbw_http_request_duration_seconds_count{route=\"/promo\"} 1");
+        assertThat(metrics).doesNotContain("http_server_requests_seconds_count");
+    }
+
+    @Test
+    public void shouldExposePoolAndSessionGauges() throws Exception {
+        String metrics = mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(metrics).contains("pbw_jdbc_connections_open{pool=\"plantsdb\"}");
+        assertThat(metrics).contains("pbw_jdbc_connections_active{pool=\"plantsdb\"}");
+        assertThat(metrics).contains("pbw_sessions_active");
+        assertThat(metrics).contains("pbw_sessions_started_total");
+    }
+}